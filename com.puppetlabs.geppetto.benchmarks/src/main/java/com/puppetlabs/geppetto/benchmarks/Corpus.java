@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.List;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+import com.google.common.io.Resources;
+
+/**
+ * The manifests that the benchmarks run on. The corpus is a puppet root with a site manifest and three modules, and it
+ * is checked in as resources of this bundle so that all runs measure the same content:
+ * <ul>
+ * <li>{@link #SMALL} - a short site manifest with node definitions</li>
+ * <li>{@link #HUGE} - a module with a few thousand lines of classes, defines and resources</li>
+ * <li>{@link #NESTED} - deeply nested conditionals, selectors and data structures</li>
+ * </ul>
+ */
+public class Corpus {
+	public static final String SMALL = "manifests/site.pp";
+
+	public static final String HUGE = "modules/huge/manifests/init.pp";
+
+	public static final String NESTED = "modules/nested/manifests/init.pp";
+
+	private static final String ROOT = "/corpus/";
+
+	/**
+	 * Deletes a directory created by {@link #extract()}.
+	 * 
+	 * @param dir
+	 */
+	public static void delete(File dir) {
+		File[] children = dir.listFiles();
+		if(children != null)
+			for(File child : children)
+				delete(child);
+		dir.delete();
+	}
+
+	/**
+	 * Copies the corpus to a new temporary directory.
+	 * 
+	 * @return the directory
+	 * @throws IOException
+	 */
+	public static File extract() throws IOException {
+		File root = Files.createTempDir();
+		for(String path : getPaths()) {
+			File file = new File(root, path);
+			Files.createParentDirs(file);
+			InputStream in = getURL(path).openStream();
+			try {
+				Files.asByteSink(file).writeFrom(in);
+			}
+			finally {
+				in.close();
+			}
+		}
+		return root;
+	}
+
+	/**
+	 * @return the paths of all files in the corpus, relative to its root
+	 * @throws IOException
+	 */
+	public static List<String> getPaths() throws IOException {
+		List<String> paths = Lists.newArrayList();
+		for(String line : Resources.readLines(getURL("index.txt"), Charsets.UTF_8)) {
+			line = line.trim();
+			if(line.length() > 0 && !line.startsWith("#"))
+				paths.add(line);
+		}
+		return paths;
+	}
+
+	private static URL getURL(String path) throws IOException {
+		URL url = Corpus.class.getResource(ROOT + path);
+		if(url == null)
+			throw new IOException("Not in the corpus: " + path);
+		return url;
+	}
+
+	/**
+	 * @param path
+	 *            - the path of a file, relative to the root of the corpus
+	 * @return the content of the file
+	 * @throws IOException
+	 */
+	public static String read(String path) throws IOException {
+		return Resources.toString(getURL(path), Charsets.UTF_8);
+	}
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.xtext.util.CancelIndicator;
+import org.eclipse.xtext.validation.CheckMode;
+import org.eclipse.xtext.validation.Issue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of what happens when a character is typed in a manifest that is open in an editor. The edit is applied
+ * with {@link org.eclipse.xtext.resource.XtextResource#update(int, int, String)}, i.e. with a partial reparse, to the
+ * manifest selected by the {@link LoadedCorpus#manifest} parameter. Every other invocation types a character into a
+ * resource title, and the invocations in between delete it again, so the manifest alternates between two states.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class EditingBenchmarks {
+	/**
+	 * The position of the keystroke and whether the typed character is currently present.
+	 */
+	@State(Scope.Thread)
+	public static class Keystroke {
+		int offset;
+
+		boolean typed;
+
+		void apply(LoadedCorpus corpus) {
+			if(typed)
+				corpus.resource.update(offset, 1, "");
+			else
+				corpus.resource.update(offset, 0, "x");
+			typed = !typed;
+		}
+
+		@Setup(Level.Trial)
+		public void setUp(LoadedCorpus corpus) {
+			// just after the opening quote of a resource title in the second half of the manifest
+			String title = "{ '";
+			int idx = corpus.source.indexOf(title, corpus.source.length() / 2);
+			if(idx < 0)
+				idx = corpus.source.indexOf(title);
+			if(idx < 0)
+				throw new IllegalStateException("No resource title in " + corpus.manifest);
+			offset = idx + title.length();
+		}
+	}
+
+	/**
+	 * Applies a keystroke, links the manifest (standard and PP linking), and validates it, i.e. the latency from a
+	 * keystroke until the editor can show the updated diagnostics.
+	 */
+	@Benchmark
+	public List<Issue> keystrokeToValidation(LoadedCorpus corpus, Keystroke keystroke) {
+		keystroke.apply(corpus);
+		corpus.runner.resolveCrossReferences(corpus.resource, false, new NullProgressMonitor());
+		return corpus.runner.getPPResourceValidator().validate(
+			corpus.resource, CheckMode.ALL, CancelIndicator.NullImpl);
+	}
+
+	/**
+	 * Applies a keystroke, i.e. reparses the affected part of the manifest and installs the new parse result.
+	 */
+	@Benchmark
+	public Object update(LoadedCorpus corpus, Keystroke keystroke) {
+		keystroke.apply(corpus);
+		return corpus.resource.getParseResult();
+	}
+}
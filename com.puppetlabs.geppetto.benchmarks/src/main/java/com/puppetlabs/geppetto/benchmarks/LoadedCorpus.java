@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.benchmarks;
+
+import java.io.File;
+
+import com.puppetlabs.geppetto.pp.dsl.linking.PPResourceLinker;
+import com.puppetlabs.geppetto.pp.dsl.parser.antlr.PPParser;
+import com.puppetlabs.geppetto.pp.dsl.target.PuppetTarget;
+import com.puppetlabs.geppetto.pp.dsl.validation.DefaultPotentialProblemsAdvisor;
+import com.puppetlabs.geppetto.pp.dsl.validation.IValidationAdvisor.ComplianceLevel;
+import com.puppetlabs.geppetto.validation.runner.CompactPPParser;
+import com.puppetlabs.geppetto.validation.runner.PPDiagnosticsRunner;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.xtext.resource.XtextResource;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.google.common.collect.Lists;
+
+/**
+ * The {@link Corpus corpus} loaded into a {@link PPDiagnosticsRunner} together with the target platform, with all
+ * resources linked. The benchmarks operate on the resource selected by the {@link #manifest} parameter.
+ */
+@State(Scope.Benchmark)
+public class LoadedCorpus {
+	public static final ComplianceLevel COMPLIANCE_LEVEL = ComplianceLevel.PUPPET_3_0;
+
+	@Param({ Corpus.SMALL, Corpus.HUGE, Corpus.NESTED })
+	public String manifest;
+
+	File root;
+
+	PPDiagnosticsRunner runner;
+
+	PPParser parser;
+
+	PPParser compactParser;
+
+	PPResourceLinker linker;
+
+	XtextResource resource;
+
+	String source;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		root = Corpus.extract();
+		source = Corpus.read(manifest);
+
+		runner = new PPDiagnosticsRunner();
+		runner.setUp(COMPLIANCE_LEVEL, new DefaultPotentialProblemsAdvisor());
+		runner.configureSearchPath(root, null, null);
+		runner.loadResource(PuppetTarget.forComplianceLevel(COMPLIANCE_LEVEL, false).getPlatformURI());
+		for(String path : Corpus.getPaths()) {
+			if(!path.endsWith(".pp"))
+				continue;
+			Resource r = runner.loadResource(URI.createFileURI(new File(root, path).getAbsolutePath()));
+			if(path.equals(manifest))
+				resource = (XtextResource) r;
+		}
+		for(Resource r : Lists.newArrayList(runner.getResources()))
+			runner.resolveCrossReferences(r, false, new NullProgressMonitor());
+
+		parser = runner.get(PPParser.class);
+		compactParser = runner.get(CompactPPParser.class);
+		linker = runner.get(PPResourceLinker.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		runner.tearDown();
+		Corpus.delete(root);
+	}
+}
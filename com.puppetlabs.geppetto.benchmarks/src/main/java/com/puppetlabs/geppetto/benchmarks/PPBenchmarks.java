@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.benchmarks;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.puppetlabs.geppetto.pp.dsl.linking.DiagnosticConsumerBasedMessageAcceptor;
+import org.eclipse.xtext.parser.IParseResult;
+import org.eclipse.xtext.resource.impl.ListBasedDiagnosticConsumer;
+import org.eclipse.xtext.util.CancelIndicator;
+import org.eclipse.xtext.validation.CheckMode;
+import org.eclipse.xtext.validation.Issue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the stages that each .pp file goes through when it is validated. Each benchmark runs on the manifest
+ * selected by the {@link LoadedCorpus#manifest} parameter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PPBenchmarks {
+	/**
+	 * Serializes the model of the manifest with formatting (which is what the PPFormatter is used for).
+	 */
+	@Benchmark
+	public String format(LoadedCorpus corpus) {
+		return corpus.runner.serializeFormatted(corpus.resource.getParseResult().getRootASTElement());
+	}
+
+	/**
+	 * Links the manifest with the PPResourceLinker. The standard EMF cross references were resolved when the corpus was
+	 * loaded.
+	 */
+	@Benchmark
+	public ListBasedDiagnosticConsumer link(LoadedCorpus corpus) {
+		ListBasedDiagnosticConsumer consumer = new ListBasedDiagnosticConsumer();
+		corpus.linker.link(
+			corpus.resource.getParseResult().getRootASTElement(), new DiagnosticConsumerBasedMessageAcceptor(consumer),
+			false);
+		return consumer;
+	}
+
+	/**
+	 * Parses the text of the manifest with the PPParser.
+	 */
+	@Benchmark
+	public IParseResult parse(LoadedCorpus corpus) {
+		return corpus.parser.parse(new StringReader(corpus.source));
+	}
+
+	/**
+	 * Parses the text of the manifest with the CompactPPParser. Run with <code>-prof gc</code> and compare the bytes
+	 * allocated per operation with those of {@link #parse(LoadedCorpus)} to measure what a compact node model saves.
+	 */
+	@Benchmark
+	public IParseResult parseCompact(LoadedCorpus corpus) {
+		return corpus.compactParser.parse(new StringReader(corpus.source));
+	}
+
+	/**
+	 * Validates the linked manifest (the PPJavaValidator checks and the collection of the linking diagnostics).
+	 */
+	@Benchmark
+	public List<Issue> validate(LoadedCorpus corpus) {
+		return corpus.runner.getPPResourceValidator().validate(corpus.resource, CheckMode.ALL, CancelIndicator.NullImpl);
+	}
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.benchmarks;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import com.puppetlabs.geppetto.diagnostic.Diagnostic;
+import com.puppetlabs.geppetto.forge.client.GsonModule;
+import com.puppetlabs.geppetto.forge.impl.ForgeModule;
+import com.puppetlabs.geppetto.pp.dsl.target.PuppetTarget;
+import com.puppetlabs.geppetto.pp.dsl.validation.DefaultPotentialProblemsAdvisor;
+import com.puppetlabs.geppetto.pp.dsl.validation.ValidationAdvisor;
+import com.puppetlabs.geppetto.ruby.RubyHelper;
+import com.puppetlabs.geppetto.ruby.jrubyparser.JRubyServices;
+import com.puppetlabs.geppetto.validation.FileType;
+import com.puppetlabs.geppetto.validation.ValidationOptions;
+import com.puppetlabs.geppetto.validation.ValidationService;
+import com.puppetlabs.geppetto.validation.impl.ValidationModule;
+import com.puppetlabs.geppetto.validation.runner.IEncodingProvider;
+import com.puppetlabs.geppetto.validation.runner.PPDiagnosticsSetup;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.emf.common.util.URI;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.inject.Guice;
+
+/**
+ * Benchmark of a complete validation of the {@link Corpus corpus} by the {@link ValidationService}, i.e. loading of
+ * the target platform and all manifests, linking, validation and the checks of the module metadata.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ValidationServiceBenchmark {
+	private File root;
+
+	private ValidationOptions options;
+
+	private ValidationService validationService;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		root = Corpus.extract();
+
+		options = new ValidationOptions();
+		options.setPlatformURI(PuppetTarget.forComplianceLevel(LoadedCorpus.COMPLIANCE_LEVEL, false).getPlatformURI());
+		options.setEncodingProvider(new IEncodingProvider() {
+			public String getEncoding(URI file) {
+				return "UTF-8";
+			}
+		});
+		options.setProblemsAdvisor(ValidationAdvisor.create(
+			LoadedCorpus.COMPLIANCE_LEVEL, new DefaultPotentialProblemsAdvisor()));
+		options.setFileType(FileType.PUPPET_ROOT);
+		options.setCheckReferences(true);
+		options.setSkipProposals(true);
+
+		RubyHelper.setRubyServicesFactory(JRubyServices.FACTORY);
+		new PPDiagnosticsSetup(options.getComplianceLevel(), options.getProblemsAdvisor()).createInjectorAndDoEMFRegistration();
+		validationService = Guice.createInjector(GsonModule.INSTANCE, new ForgeModule(), new ValidationModule()).getInstance(
+			ValidationService.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		Corpus.delete(root);
+	}
+
+	@Benchmark
+	public Diagnostic validate() {
+		Diagnostic diagnostic = new Diagnostic();
+		validationService.validate(diagnostic, root, options, null, new NullProgressMonitor());
+		return diagnostic;
+	}
+}
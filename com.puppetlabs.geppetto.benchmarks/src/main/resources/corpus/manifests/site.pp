@@ -0,0 +1,19 @@
+# A small site manifest that includes classes from the modules of the corpus.
+node default {
+	include ntp
+	class { 'nested':
+		ensure => present,
+	}
+	huge::service { 'web':
+		port => 8080,
+	}
+}
+
+node /^db\d+\.example\.com$/ inherits default {
+	$role = 'database'
+	file { '/etc/motd':
+		ensure  => file,
+		content => "This is ${::fqdn}, a ${role} server\n",
+		require => Class['ntp'],
+	}
+}
@@ -0,0 +1,2524 @@
+# Class: huge
+#
+# A large module with many classes, defines and resources.
+#
+class huge {
+	include huge::part_0
+	include huge::part_1
+	include huge::part_2
+	include huge::part_3
+	include huge::part_4
+	include huge::part_5
+	include huge::part_6
+	include huge::part_7
+	include huge::part_8
+	include huge::part_9
+	include huge::part_10
+	include huge::part_11
+	include huge::part_12
+	include huge::part_13
+	include huge::part_14
+	include huge::part_15
+	include huge::part_16
+	include huge::part_17
+	include huge::part_18
+	include huge::part_19
+	include huge::part_20
+	include huge::part_21
+	include huge::part_22
+	include huge::part_23
+	include huge::part_24
+	include huge::part_25
+	include huge::part_26
+	include huge::part_27
+	include huge::part_28
+	include huge::part_29
+	include huge::part_30
+	include huge::part_31
+	include huge::part_32
+	include huge::part_33
+	include huge::part_34
+	include huge::part_35
+	include huge::part_36
+	include huge::part_37
+	include huge::part_38
+	include huge::part_39
+	include huge::part_40
+	include huge::part_41
+	include huge::part_42
+	include huge::part_43
+	include huge::part_44
+	include huge::part_45
+	include huge::part_46
+	include huge::part_47
+	include huge::part_48
+	include huge::part_49
+	include huge::part_50
+	include huge::part_51
+	include huge::part_52
+	include huge::part_53
+	include huge::part_54
+	include huge::part_55
+	include huge::part_56
+	include huge::part_57
+	include huge::part_58
+	include huge::part_59
+	include huge::part_60
+	include huge::part_61
+	include huge::part_62
+	include huge::part_63
+	include huge::part_64
+	include huge::part_65
+	include huge::part_66
+	include huge::part_67
+	include huge::part_68
+	include huge::part_69
+	include huge::part_70
+	include huge::part_71
+	include huge::part_72
+	include huge::part_73
+	include huge::part_74
+	include huge::part_75
+	include huge::part_76
+	include huge::part_77
+	include huge::part_78
+	include huge::part_79
+	include huge::part_80
+	include huge::part_81
+	include huge::part_82
+	include huge::part_83
+	include huge::part_84
+	include huge::part_85
+	include huge::part_86
+	include huge::part_87
+	include huge::part_88
+	include huge::part_89
+	include huge::part_90
+	include huge::part_91
+	include huge::part_92
+	include huge::part_93
+	include huge::part_94
+	include huge::part_95
+	include huge::part_96
+	include huge::part_97
+	include huge::part_98
+	include huge::part_99
+}
+
+class huge::params {
+	$base_dir = '/opt/huge'
+	$user = 'huge'
+	$ports = [8080, 8081, 8082]
+}
+
+define huge::service($port, $ensure = running, $user = $huge::params::user) {
+	file { "${huge::params::base_dir}/${name}.conf":
+		ensure  => file,
+		owner   => $user,
+		content => "port=${port}\n",
+	}
+	service { "huge-${name}":
+		ensure    => $ensure,
+		subscribe => File["${huge::params::base_dir}/${name}.conf"],
+	}
+}
+
+class huge::part_0 inherits huge::params {
+	$dir_0 = "${base_dir}/part_0"
+	file { $dir_0:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-0':
+		ensure  => installed,
+		require => File[$dir_0],
+	}
+	huge::service { 'part_0':
+		port    => 9000,
+		require => Package['huge-part-0'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-0-init':
+			command => "/usr/bin/huge-init --dir ${dir_0}",
+			creates => "${dir_0}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_1 inherits huge::params {
+	$dir_1 = "${base_dir}/part_1"
+	file { $dir_1:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-1':
+		ensure  => installed,
+		require => File[$dir_1],
+	}
+	huge::service { 'part_1':
+		port    => 9001,
+		require => Package['huge-part-1'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-1-init':
+			command => "/usr/bin/huge-init --dir ${dir_1}",
+			creates => "${dir_1}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_2 inherits huge::params {
+	$dir_2 = "${base_dir}/part_2"
+	file { $dir_2:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-2':
+		ensure  => installed,
+		require => File[$dir_2],
+	}
+	huge::service { 'part_2':
+		port    => 9002,
+		require => Package['huge-part-2'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-2-init':
+			command => "/usr/bin/huge-init --dir ${dir_2}",
+			creates => "${dir_2}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_3 inherits huge::params {
+	$dir_3 = "${base_dir}/part_3"
+	file { $dir_3:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-3':
+		ensure  => installed,
+		require => File[$dir_3],
+	}
+	huge::service { 'part_3':
+		port    => 9003,
+		require => Package['huge-part-3'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-3-init':
+			command => "/usr/bin/huge-init --dir ${dir_3}",
+			creates => "${dir_3}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_4 inherits huge::params {
+	$dir_4 = "${base_dir}/part_4"
+	file { $dir_4:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-4':
+		ensure  => installed,
+		require => File[$dir_4],
+	}
+	huge::service { 'part_4':
+		port    => 9004,
+		require => Package['huge-part-4'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-4-init':
+			command => "/usr/bin/huge-init --dir ${dir_4}",
+			creates => "${dir_4}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_5 inherits huge::params {
+	$dir_5 = "${base_dir}/part_5"
+	file { $dir_5:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-5':
+		ensure  => installed,
+		require => File[$dir_5],
+	}
+	huge::service { 'part_5':
+		port    => 9005,
+		require => Package['huge-part-5'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-5-init':
+			command => "/usr/bin/huge-init --dir ${dir_5}",
+			creates => "${dir_5}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_6 inherits huge::params {
+	$dir_6 = "${base_dir}/part_6"
+	file { $dir_6:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-6':
+		ensure  => installed,
+		require => File[$dir_6],
+	}
+	huge::service { 'part_6':
+		port    => 9006,
+		require => Package['huge-part-6'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-6-init':
+			command => "/usr/bin/huge-init --dir ${dir_6}",
+			creates => "${dir_6}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_7 inherits huge::params {
+	$dir_7 = "${base_dir}/part_7"
+	file { $dir_7:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-7':
+		ensure  => installed,
+		require => File[$dir_7],
+	}
+	huge::service { 'part_7':
+		port    => 9007,
+		require => Package['huge-part-7'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-7-init':
+			command => "/usr/bin/huge-init --dir ${dir_7}",
+			creates => "${dir_7}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_8 inherits huge::params {
+	$dir_8 = "${base_dir}/part_8"
+	file { $dir_8:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-8':
+		ensure  => installed,
+		require => File[$dir_8],
+	}
+	huge::service { 'part_8':
+		port    => 9008,
+		require => Package['huge-part-8'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-8-init':
+			command => "/usr/bin/huge-init --dir ${dir_8}",
+			creates => "${dir_8}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_9 inherits huge::params {
+	$dir_9 = "${base_dir}/part_9"
+	file { $dir_9:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-9':
+		ensure  => installed,
+		require => File[$dir_9],
+	}
+	huge::service { 'part_9':
+		port    => 9009,
+		require => Package['huge-part-9'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-9-init':
+			command => "/usr/bin/huge-init --dir ${dir_9}",
+			creates => "${dir_9}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_10 inherits huge::params {
+	$dir_10 = "${base_dir}/part_10"
+	file { $dir_10:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-10':
+		ensure  => installed,
+		require => File[$dir_10],
+	}
+	huge::service { 'part_10':
+		port    => 9010,
+		require => Package['huge-part-10'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-10-init':
+			command => "/usr/bin/huge-init --dir ${dir_10}",
+			creates => "${dir_10}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_11 inherits huge::params {
+	$dir_11 = "${base_dir}/part_11"
+	file { $dir_11:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-11':
+		ensure  => installed,
+		require => File[$dir_11],
+	}
+	huge::service { 'part_11':
+		port    => 9011,
+		require => Package['huge-part-11'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-11-init':
+			command => "/usr/bin/huge-init --dir ${dir_11}",
+			creates => "${dir_11}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_12 inherits huge::params {
+	$dir_12 = "${base_dir}/part_12"
+	file { $dir_12:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-12':
+		ensure  => installed,
+		require => File[$dir_12],
+	}
+	huge::service { 'part_12':
+		port    => 9012,
+		require => Package['huge-part-12'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-12-init':
+			command => "/usr/bin/huge-init --dir ${dir_12}",
+			creates => "${dir_12}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_13 inherits huge::params {
+	$dir_13 = "${base_dir}/part_13"
+	file { $dir_13:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-13':
+		ensure  => installed,
+		require => File[$dir_13],
+	}
+	huge::service { 'part_13':
+		port    => 9013,
+		require => Package['huge-part-13'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-13-init':
+			command => "/usr/bin/huge-init --dir ${dir_13}",
+			creates => "${dir_13}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_14 inherits huge::params {
+	$dir_14 = "${base_dir}/part_14"
+	file { $dir_14:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-14':
+		ensure  => installed,
+		require => File[$dir_14],
+	}
+	huge::service { 'part_14':
+		port    => 9014,
+		require => Package['huge-part-14'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-14-init':
+			command => "/usr/bin/huge-init --dir ${dir_14}",
+			creates => "${dir_14}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_15 inherits huge::params {
+	$dir_15 = "${base_dir}/part_15"
+	file { $dir_15:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-15':
+		ensure  => installed,
+		require => File[$dir_15],
+	}
+	huge::service { 'part_15':
+		port    => 9015,
+		require => Package['huge-part-15'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-15-init':
+			command => "/usr/bin/huge-init --dir ${dir_15}",
+			creates => "${dir_15}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_16 inherits huge::params {
+	$dir_16 = "${base_dir}/part_16"
+	file { $dir_16:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-16':
+		ensure  => installed,
+		require => File[$dir_16],
+	}
+	huge::service { 'part_16':
+		port    => 9016,
+		require => Package['huge-part-16'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-16-init':
+			command => "/usr/bin/huge-init --dir ${dir_16}",
+			creates => "${dir_16}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_17 inherits huge::params {
+	$dir_17 = "${base_dir}/part_17"
+	file { $dir_17:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-17':
+		ensure  => installed,
+		require => File[$dir_17],
+	}
+	huge::service { 'part_17':
+		port    => 9017,
+		require => Package['huge-part-17'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-17-init':
+			command => "/usr/bin/huge-init --dir ${dir_17}",
+			creates => "${dir_17}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_18 inherits huge::params {
+	$dir_18 = "${base_dir}/part_18"
+	file { $dir_18:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-18':
+		ensure  => installed,
+		require => File[$dir_18],
+	}
+	huge::service { 'part_18':
+		port    => 9018,
+		require => Package['huge-part-18'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-18-init':
+			command => "/usr/bin/huge-init --dir ${dir_18}",
+			creates => "${dir_18}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_19 inherits huge::params {
+	$dir_19 = "${base_dir}/part_19"
+	file { $dir_19:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-19':
+		ensure  => installed,
+		require => File[$dir_19],
+	}
+	huge::service { 'part_19':
+		port    => 9019,
+		require => Package['huge-part-19'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-19-init':
+			command => "/usr/bin/huge-init --dir ${dir_19}",
+			creates => "${dir_19}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_20 inherits huge::params {
+	$dir_20 = "${base_dir}/part_20"
+	file { $dir_20:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-20':
+		ensure  => installed,
+		require => File[$dir_20],
+	}
+	huge::service { 'part_20':
+		port    => 9020,
+		require => Package['huge-part-20'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-20-init':
+			command => "/usr/bin/huge-init --dir ${dir_20}",
+			creates => "${dir_20}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_21 inherits huge::params {
+	$dir_21 = "${base_dir}/part_21"
+	file { $dir_21:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-21':
+		ensure  => installed,
+		require => File[$dir_21],
+	}
+	huge::service { 'part_21':
+		port    => 9021,
+		require => Package['huge-part-21'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-21-init':
+			command => "/usr/bin/huge-init --dir ${dir_21}",
+			creates => "${dir_21}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_22 inherits huge::params {
+	$dir_22 = "${base_dir}/part_22"
+	file { $dir_22:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-22':
+		ensure  => installed,
+		require => File[$dir_22],
+	}
+	huge::service { 'part_22':
+		port    => 9022,
+		require => Package['huge-part-22'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-22-init':
+			command => "/usr/bin/huge-init --dir ${dir_22}",
+			creates => "${dir_22}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_23 inherits huge::params {
+	$dir_23 = "${base_dir}/part_23"
+	file { $dir_23:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-23':
+		ensure  => installed,
+		require => File[$dir_23],
+	}
+	huge::service { 'part_23':
+		port    => 9023,
+		require => Package['huge-part-23'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-23-init':
+			command => "/usr/bin/huge-init --dir ${dir_23}",
+			creates => "${dir_23}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_24 inherits huge::params {
+	$dir_24 = "${base_dir}/part_24"
+	file { $dir_24:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-24':
+		ensure  => installed,
+		require => File[$dir_24],
+	}
+	huge::service { 'part_24':
+		port    => 9024,
+		require => Package['huge-part-24'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-24-init':
+			command => "/usr/bin/huge-init --dir ${dir_24}",
+			creates => "${dir_24}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_25 inherits huge::params {
+	$dir_25 = "${base_dir}/part_25"
+	file { $dir_25:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-25':
+		ensure  => installed,
+		require => File[$dir_25],
+	}
+	huge::service { 'part_25':
+		port    => 9025,
+		require => Package['huge-part-25'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-25-init':
+			command => "/usr/bin/huge-init --dir ${dir_25}",
+			creates => "${dir_25}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_26 inherits huge::params {
+	$dir_26 = "${base_dir}/part_26"
+	file { $dir_26:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-26':
+		ensure  => installed,
+		require => File[$dir_26],
+	}
+	huge::service { 'part_26':
+		port    => 9026,
+		require => Package['huge-part-26'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-26-init':
+			command => "/usr/bin/huge-init --dir ${dir_26}",
+			creates => "${dir_26}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_27 inherits huge::params {
+	$dir_27 = "${base_dir}/part_27"
+	file { $dir_27:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-27':
+		ensure  => installed,
+		require => File[$dir_27],
+	}
+	huge::service { 'part_27':
+		port    => 9027,
+		require => Package['huge-part-27'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-27-init':
+			command => "/usr/bin/huge-init --dir ${dir_27}",
+			creates => "${dir_27}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_28 inherits huge::params {
+	$dir_28 = "${base_dir}/part_28"
+	file { $dir_28:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-28':
+		ensure  => installed,
+		require => File[$dir_28],
+	}
+	huge::service { 'part_28':
+		port    => 9028,
+		require => Package['huge-part-28'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-28-init':
+			command => "/usr/bin/huge-init --dir ${dir_28}",
+			creates => "${dir_28}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_29 inherits huge::params {
+	$dir_29 = "${base_dir}/part_29"
+	file { $dir_29:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-29':
+		ensure  => installed,
+		require => File[$dir_29],
+	}
+	huge::service { 'part_29':
+		port    => 9029,
+		require => Package['huge-part-29'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-29-init':
+			command => "/usr/bin/huge-init --dir ${dir_29}",
+			creates => "${dir_29}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_30 inherits huge::params {
+	$dir_30 = "${base_dir}/part_30"
+	file { $dir_30:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-30':
+		ensure  => installed,
+		require => File[$dir_30],
+	}
+	huge::service { 'part_30':
+		port    => 9030,
+		require => Package['huge-part-30'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-30-init':
+			command => "/usr/bin/huge-init --dir ${dir_30}",
+			creates => "${dir_30}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_31 inherits huge::params {
+	$dir_31 = "${base_dir}/part_31"
+	file { $dir_31:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-31':
+		ensure  => installed,
+		require => File[$dir_31],
+	}
+	huge::service { 'part_31':
+		port    => 9031,
+		require => Package['huge-part-31'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-31-init':
+			command => "/usr/bin/huge-init --dir ${dir_31}",
+			creates => "${dir_31}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_32 inherits huge::params {
+	$dir_32 = "${base_dir}/part_32"
+	file { $dir_32:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-32':
+		ensure  => installed,
+		require => File[$dir_32],
+	}
+	huge::service { 'part_32':
+		port    => 9032,
+		require => Package['huge-part-32'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-32-init':
+			command => "/usr/bin/huge-init --dir ${dir_32}",
+			creates => "${dir_32}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_33 inherits huge::params {
+	$dir_33 = "${base_dir}/part_33"
+	file { $dir_33:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-33':
+		ensure  => installed,
+		require => File[$dir_33],
+	}
+	huge::service { 'part_33':
+		port    => 9033,
+		require => Package['huge-part-33'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-33-init':
+			command => "/usr/bin/huge-init --dir ${dir_33}",
+			creates => "${dir_33}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_34 inherits huge::params {
+	$dir_34 = "${base_dir}/part_34"
+	file { $dir_34:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-34':
+		ensure  => installed,
+		require => File[$dir_34],
+	}
+	huge::service { 'part_34':
+		port    => 9034,
+		require => Package['huge-part-34'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-34-init':
+			command => "/usr/bin/huge-init --dir ${dir_34}",
+			creates => "${dir_34}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_35 inherits huge::params {
+	$dir_35 = "${base_dir}/part_35"
+	file { $dir_35:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-35':
+		ensure  => installed,
+		require => File[$dir_35],
+	}
+	huge::service { 'part_35':
+		port    => 9035,
+		require => Package['huge-part-35'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-35-init':
+			command => "/usr/bin/huge-init --dir ${dir_35}",
+			creates => "${dir_35}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_36 inherits huge::params {
+	$dir_36 = "${base_dir}/part_36"
+	file { $dir_36:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-36':
+		ensure  => installed,
+		require => File[$dir_36],
+	}
+	huge::service { 'part_36':
+		port    => 9036,
+		require => Package['huge-part-36'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-36-init':
+			command => "/usr/bin/huge-init --dir ${dir_36}",
+			creates => "${dir_36}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_37 inherits huge::params {
+	$dir_37 = "${base_dir}/part_37"
+	file { $dir_37:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-37':
+		ensure  => installed,
+		require => File[$dir_37],
+	}
+	huge::service { 'part_37':
+		port    => 9037,
+		require => Package['huge-part-37'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-37-init':
+			command => "/usr/bin/huge-init --dir ${dir_37}",
+			creates => "${dir_37}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_38 inherits huge::params {
+	$dir_38 = "${base_dir}/part_38"
+	file { $dir_38:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-38':
+		ensure  => installed,
+		require => File[$dir_38],
+	}
+	huge::service { 'part_38':
+		port    => 9038,
+		require => Package['huge-part-38'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-38-init':
+			command => "/usr/bin/huge-init --dir ${dir_38}",
+			creates => "${dir_38}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_39 inherits huge::params {
+	$dir_39 = "${base_dir}/part_39"
+	file { $dir_39:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-39':
+		ensure  => installed,
+		require => File[$dir_39],
+	}
+	huge::service { 'part_39':
+		port    => 9039,
+		require => Package['huge-part-39'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-39-init':
+			command => "/usr/bin/huge-init --dir ${dir_39}",
+			creates => "${dir_39}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_40 inherits huge::params {
+	$dir_40 = "${base_dir}/part_40"
+	file { $dir_40:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-40':
+		ensure  => installed,
+		require => File[$dir_40],
+	}
+	huge::service { 'part_40':
+		port    => 9040,
+		require => Package['huge-part-40'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-40-init':
+			command => "/usr/bin/huge-init --dir ${dir_40}",
+			creates => "${dir_40}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_41 inherits huge::params {
+	$dir_41 = "${base_dir}/part_41"
+	file { $dir_41:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-41':
+		ensure  => installed,
+		require => File[$dir_41],
+	}
+	huge::service { 'part_41':
+		port    => 9041,
+		require => Package['huge-part-41'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-41-init':
+			command => "/usr/bin/huge-init --dir ${dir_41}",
+			creates => "${dir_41}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_42 inherits huge::params {
+	$dir_42 = "${base_dir}/part_42"
+	file { $dir_42:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-42':
+		ensure  => installed,
+		require => File[$dir_42],
+	}
+	huge::service { 'part_42':
+		port    => 9042,
+		require => Package['huge-part-42'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-42-init':
+			command => "/usr/bin/huge-init --dir ${dir_42}",
+			creates => "${dir_42}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_43 inherits huge::params {
+	$dir_43 = "${base_dir}/part_43"
+	file { $dir_43:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-43':
+		ensure  => installed,
+		require => File[$dir_43],
+	}
+	huge::service { 'part_43':
+		port    => 9043,
+		require => Package['huge-part-43'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-43-init':
+			command => "/usr/bin/huge-init --dir ${dir_43}",
+			creates => "${dir_43}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_44 inherits huge::params {
+	$dir_44 = "${base_dir}/part_44"
+	file { $dir_44:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-44':
+		ensure  => installed,
+		require => File[$dir_44],
+	}
+	huge::service { 'part_44':
+		port    => 9044,
+		require => Package['huge-part-44'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-44-init':
+			command => "/usr/bin/huge-init --dir ${dir_44}",
+			creates => "${dir_44}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_45 inherits huge::params {
+	$dir_45 = "${base_dir}/part_45"
+	file { $dir_45:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-45':
+		ensure  => installed,
+		require => File[$dir_45],
+	}
+	huge::service { 'part_45':
+		port    => 9045,
+		require => Package['huge-part-45'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-45-init':
+			command => "/usr/bin/huge-init --dir ${dir_45}",
+			creates => "${dir_45}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_46 inherits huge::params {
+	$dir_46 = "${base_dir}/part_46"
+	file { $dir_46:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-46':
+		ensure  => installed,
+		require => File[$dir_46],
+	}
+	huge::service { 'part_46':
+		port    => 9046,
+		require => Package['huge-part-46'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-46-init':
+			command => "/usr/bin/huge-init --dir ${dir_46}",
+			creates => "${dir_46}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_47 inherits huge::params {
+	$dir_47 = "${base_dir}/part_47"
+	file { $dir_47:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-47':
+		ensure  => installed,
+		require => File[$dir_47],
+	}
+	huge::service { 'part_47':
+		port    => 9047,
+		require => Package['huge-part-47'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-47-init':
+			command => "/usr/bin/huge-init --dir ${dir_47}",
+			creates => "${dir_47}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_48 inherits huge::params {
+	$dir_48 = "${base_dir}/part_48"
+	file { $dir_48:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-48':
+		ensure  => installed,
+		require => File[$dir_48],
+	}
+	huge::service { 'part_48':
+		port    => 9048,
+		require => Package['huge-part-48'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-48-init':
+			command => "/usr/bin/huge-init --dir ${dir_48}",
+			creates => "${dir_48}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_49 inherits huge::params {
+	$dir_49 = "${base_dir}/part_49"
+	file { $dir_49:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-49':
+		ensure  => installed,
+		require => File[$dir_49],
+	}
+	huge::service { 'part_49':
+		port    => 9049,
+		require => Package['huge-part-49'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-49-init':
+			command => "/usr/bin/huge-init --dir ${dir_49}",
+			creates => "${dir_49}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_50 inherits huge::params {
+	$dir_50 = "${base_dir}/part_50"
+	file { $dir_50:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-50':
+		ensure  => installed,
+		require => File[$dir_50],
+	}
+	huge::service { 'part_50':
+		port    => 9050,
+		require => Package['huge-part-50'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-50-init':
+			command => "/usr/bin/huge-init --dir ${dir_50}",
+			creates => "${dir_50}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_51 inherits huge::params {
+	$dir_51 = "${base_dir}/part_51"
+	file { $dir_51:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-51':
+		ensure  => installed,
+		require => File[$dir_51],
+	}
+	huge::service { 'part_51':
+		port    => 9051,
+		require => Package['huge-part-51'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-51-init':
+			command => "/usr/bin/huge-init --dir ${dir_51}",
+			creates => "${dir_51}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_52 inherits huge::params {
+	$dir_52 = "${base_dir}/part_52"
+	file { $dir_52:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-52':
+		ensure  => installed,
+		require => File[$dir_52],
+	}
+	huge::service { 'part_52':
+		port    => 9052,
+		require => Package['huge-part-52'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-52-init':
+			command => "/usr/bin/huge-init --dir ${dir_52}",
+			creates => "${dir_52}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_53 inherits huge::params {
+	$dir_53 = "${base_dir}/part_53"
+	file { $dir_53:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-53':
+		ensure  => installed,
+		require => File[$dir_53],
+	}
+	huge::service { 'part_53':
+		port    => 9053,
+		require => Package['huge-part-53'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-53-init':
+			command => "/usr/bin/huge-init --dir ${dir_53}",
+			creates => "${dir_53}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_54 inherits huge::params {
+	$dir_54 = "${base_dir}/part_54"
+	file { $dir_54:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-54':
+		ensure  => installed,
+		require => File[$dir_54],
+	}
+	huge::service { 'part_54':
+		port    => 9054,
+		require => Package['huge-part-54'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-54-init':
+			command => "/usr/bin/huge-init --dir ${dir_54}",
+			creates => "${dir_54}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_55 inherits huge::params {
+	$dir_55 = "${base_dir}/part_55"
+	file { $dir_55:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-55':
+		ensure  => installed,
+		require => File[$dir_55],
+	}
+	huge::service { 'part_55':
+		port    => 9055,
+		require => Package['huge-part-55'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-55-init':
+			command => "/usr/bin/huge-init --dir ${dir_55}",
+			creates => "${dir_55}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_56 inherits huge::params {
+	$dir_56 = "${base_dir}/part_56"
+	file { $dir_56:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-56':
+		ensure  => installed,
+		require => File[$dir_56],
+	}
+	huge::service { 'part_56':
+		port    => 9056,
+		require => Package['huge-part-56'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-56-init':
+			command => "/usr/bin/huge-init --dir ${dir_56}",
+			creates => "${dir_56}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_57 inherits huge::params {
+	$dir_57 = "${base_dir}/part_57"
+	file { $dir_57:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-57':
+		ensure  => installed,
+		require => File[$dir_57],
+	}
+	huge::service { 'part_57':
+		port    => 9057,
+		require => Package['huge-part-57'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-57-init':
+			command => "/usr/bin/huge-init --dir ${dir_57}",
+			creates => "${dir_57}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_58 inherits huge::params {
+	$dir_58 = "${base_dir}/part_58"
+	file { $dir_58:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-58':
+		ensure  => installed,
+		require => File[$dir_58],
+	}
+	huge::service { 'part_58':
+		port    => 9058,
+		require => Package['huge-part-58'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-58-init':
+			command => "/usr/bin/huge-init --dir ${dir_58}",
+			creates => "${dir_58}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_59 inherits huge::params {
+	$dir_59 = "${base_dir}/part_59"
+	file { $dir_59:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-59':
+		ensure  => installed,
+		require => File[$dir_59],
+	}
+	huge::service { 'part_59':
+		port    => 9059,
+		require => Package['huge-part-59'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-59-init':
+			command => "/usr/bin/huge-init --dir ${dir_59}",
+			creates => "${dir_59}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_60 inherits huge::params {
+	$dir_60 = "${base_dir}/part_60"
+	file { $dir_60:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-60':
+		ensure  => installed,
+		require => File[$dir_60],
+	}
+	huge::service { 'part_60':
+		port    => 9060,
+		require => Package['huge-part-60'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-60-init':
+			command => "/usr/bin/huge-init --dir ${dir_60}",
+			creates => "${dir_60}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_61 inherits huge::params {
+	$dir_61 = "${base_dir}/part_61"
+	file { $dir_61:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-61':
+		ensure  => installed,
+		require => File[$dir_61],
+	}
+	huge::service { 'part_61':
+		port    => 9061,
+		require => Package['huge-part-61'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-61-init':
+			command => "/usr/bin/huge-init --dir ${dir_61}",
+			creates => "${dir_61}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_62 inherits huge::params {
+	$dir_62 = "${base_dir}/part_62"
+	file { $dir_62:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-62':
+		ensure  => installed,
+		require => File[$dir_62],
+	}
+	huge::service { 'part_62':
+		port    => 9062,
+		require => Package['huge-part-62'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-62-init':
+			command => "/usr/bin/huge-init --dir ${dir_62}",
+			creates => "${dir_62}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_63 inherits huge::params {
+	$dir_63 = "${base_dir}/part_63"
+	file { $dir_63:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-63':
+		ensure  => installed,
+		require => File[$dir_63],
+	}
+	huge::service { 'part_63':
+		port    => 9063,
+		require => Package['huge-part-63'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-63-init':
+			command => "/usr/bin/huge-init --dir ${dir_63}",
+			creates => "${dir_63}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_64 inherits huge::params {
+	$dir_64 = "${base_dir}/part_64"
+	file { $dir_64:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-64':
+		ensure  => installed,
+		require => File[$dir_64],
+	}
+	huge::service { 'part_64':
+		port    => 9064,
+		require => Package['huge-part-64'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-64-init':
+			command => "/usr/bin/huge-init --dir ${dir_64}",
+			creates => "${dir_64}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_65 inherits huge::params {
+	$dir_65 = "${base_dir}/part_65"
+	file { $dir_65:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-65':
+		ensure  => installed,
+		require => File[$dir_65],
+	}
+	huge::service { 'part_65':
+		port    => 9065,
+		require => Package['huge-part-65'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-65-init':
+			command => "/usr/bin/huge-init --dir ${dir_65}",
+			creates => "${dir_65}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_66 inherits huge::params {
+	$dir_66 = "${base_dir}/part_66"
+	file { $dir_66:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-66':
+		ensure  => installed,
+		require => File[$dir_66],
+	}
+	huge::service { 'part_66':
+		port    => 9066,
+		require => Package['huge-part-66'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-66-init':
+			command => "/usr/bin/huge-init --dir ${dir_66}",
+			creates => "${dir_66}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_67 inherits huge::params {
+	$dir_67 = "${base_dir}/part_67"
+	file { $dir_67:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-67':
+		ensure  => installed,
+		require => File[$dir_67],
+	}
+	huge::service { 'part_67':
+		port    => 9067,
+		require => Package['huge-part-67'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-67-init':
+			command => "/usr/bin/huge-init --dir ${dir_67}",
+			creates => "${dir_67}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_68 inherits huge::params {
+	$dir_68 = "${base_dir}/part_68"
+	file { $dir_68:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-68':
+		ensure  => installed,
+		require => File[$dir_68],
+	}
+	huge::service { 'part_68':
+		port    => 9068,
+		require => Package['huge-part-68'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-68-init':
+			command => "/usr/bin/huge-init --dir ${dir_68}",
+			creates => "${dir_68}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_69 inherits huge::params {
+	$dir_69 = "${base_dir}/part_69"
+	file { $dir_69:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-69':
+		ensure  => installed,
+		require => File[$dir_69],
+	}
+	huge::service { 'part_69':
+		port    => 9069,
+		require => Package['huge-part-69'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-69-init':
+			command => "/usr/bin/huge-init --dir ${dir_69}",
+			creates => "${dir_69}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_70 inherits huge::params {
+	$dir_70 = "${base_dir}/part_70"
+	file { $dir_70:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-70':
+		ensure  => installed,
+		require => File[$dir_70],
+	}
+	huge::service { 'part_70':
+		port    => 9070,
+		require => Package['huge-part-70'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-70-init':
+			command => "/usr/bin/huge-init --dir ${dir_70}",
+			creates => "${dir_70}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_71 inherits huge::params {
+	$dir_71 = "${base_dir}/part_71"
+	file { $dir_71:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-71':
+		ensure  => installed,
+		require => File[$dir_71],
+	}
+	huge::service { 'part_71':
+		port    => 9071,
+		require => Package['huge-part-71'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-71-init':
+			command => "/usr/bin/huge-init --dir ${dir_71}",
+			creates => "${dir_71}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_72 inherits huge::params {
+	$dir_72 = "${base_dir}/part_72"
+	file { $dir_72:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-72':
+		ensure  => installed,
+		require => File[$dir_72],
+	}
+	huge::service { 'part_72':
+		port    => 9072,
+		require => Package['huge-part-72'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-72-init':
+			command => "/usr/bin/huge-init --dir ${dir_72}",
+			creates => "${dir_72}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_73 inherits huge::params {
+	$dir_73 = "${base_dir}/part_73"
+	file { $dir_73:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-73':
+		ensure  => installed,
+		require => File[$dir_73],
+	}
+	huge::service { 'part_73':
+		port    => 9073,
+		require => Package['huge-part-73'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-73-init':
+			command => "/usr/bin/huge-init --dir ${dir_73}",
+			creates => "${dir_73}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_74 inherits huge::params {
+	$dir_74 = "${base_dir}/part_74"
+	file { $dir_74:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-74':
+		ensure  => installed,
+		require => File[$dir_74],
+	}
+	huge::service { 'part_74':
+		port    => 9074,
+		require => Package['huge-part-74'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-74-init':
+			command => "/usr/bin/huge-init --dir ${dir_74}",
+			creates => "${dir_74}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_75 inherits huge::params {
+	$dir_75 = "${base_dir}/part_75"
+	file { $dir_75:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-75':
+		ensure  => installed,
+		require => File[$dir_75],
+	}
+	huge::service { 'part_75':
+		port    => 9075,
+		require => Package['huge-part-75'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-75-init':
+			command => "/usr/bin/huge-init --dir ${dir_75}",
+			creates => "${dir_75}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_76 inherits huge::params {
+	$dir_76 = "${base_dir}/part_76"
+	file { $dir_76:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-76':
+		ensure  => installed,
+		require => File[$dir_76],
+	}
+	huge::service { 'part_76':
+		port    => 9076,
+		require => Package['huge-part-76'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-76-init':
+			command => "/usr/bin/huge-init --dir ${dir_76}",
+			creates => "${dir_76}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_77 inherits huge::params {
+	$dir_77 = "${base_dir}/part_77"
+	file { $dir_77:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-77':
+		ensure  => installed,
+		require => File[$dir_77],
+	}
+	huge::service { 'part_77':
+		port    => 9077,
+		require => Package['huge-part-77'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-77-init':
+			command => "/usr/bin/huge-init --dir ${dir_77}",
+			creates => "${dir_77}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_78 inherits huge::params {
+	$dir_78 = "${base_dir}/part_78"
+	file { $dir_78:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-78':
+		ensure  => installed,
+		require => File[$dir_78],
+	}
+	huge::service { 'part_78':
+		port    => 9078,
+		require => Package['huge-part-78'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-78-init':
+			command => "/usr/bin/huge-init --dir ${dir_78}",
+			creates => "${dir_78}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_79 inherits huge::params {
+	$dir_79 = "${base_dir}/part_79"
+	file { $dir_79:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-79':
+		ensure  => installed,
+		require => File[$dir_79],
+	}
+	huge::service { 'part_79':
+		port    => 9079,
+		require => Package['huge-part-79'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-79-init':
+			command => "/usr/bin/huge-init --dir ${dir_79}",
+			creates => "${dir_79}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_80 inherits huge::params {
+	$dir_80 = "${base_dir}/part_80"
+	file { $dir_80:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-80':
+		ensure  => installed,
+		require => File[$dir_80],
+	}
+	huge::service { 'part_80':
+		port    => 9080,
+		require => Package['huge-part-80'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-80-init':
+			command => "/usr/bin/huge-init --dir ${dir_80}",
+			creates => "${dir_80}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_81 inherits huge::params {
+	$dir_81 = "${base_dir}/part_81"
+	file { $dir_81:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-81':
+		ensure  => installed,
+		require => File[$dir_81],
+	}
+	huge::service { 'part_81':
+		port    => 9081,
+		require => Package['huge-part-81'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-81-init':
+			command => "/usr/bin/huge-init --dir ${dir_81}",
+			creates => "${dir_81}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_82 inherits huge::params {
+	$dir_82 = "${base_dir}/part_82"
+	file { $dir_82:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-82':
+		ensure  => installed,
+		require => File[$dir_82],
+	}
+	huge::service { 'part_82':
+		port    => 9082,
+		require => Package['huge-part-82'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-82-init':
+			command => "/usr/bin/huge-init --dir ${dir_82}",
+			creates => "${dir_82}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_83 inherits huge::params {
+	$dir_83 = "${base_dir}/part_83"
+	file { $dir_83:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-83':
+		ensure  => installed,
+		require => File[$dir_83],
+	}
+	huge::service { 'part_83':
+		port    => 9083,
+		require => Package['huge-part-83'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-83-init':
+			command => "/usr/bin/huge-init --dir ${dir_83}",
+			creates => "${dir_83}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_84 inherits huge::params {
+	$dir_84 = "${base_dir}/part_84"
+	file { $dir_84:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-84':
+		ensure  => installed,
+		require => File[$dir_84],
+	}
+	huge::service { 'part_84':
+		port    => 9084,
+		require => Package['huge-part-84'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-84-init':
+			command => "/usr/bin/huge-init --dir ${dir_84}",
+			creates => "${dir_84}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_85 inherits huge::params {
+	$dir_85 = "${base_dir}/part_85"
+	file { $dir_85:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-85':
+		ensure  => installed,
+		require => File[$dir_85],
+	}
+	huge::service { 'part_85':
+		port    => 9085,
+		require => Package['huge-part-85'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-85-init':
+			command => "/usr/bin/huge-init --dir ${dir_85}",
+			creates => "${dir_85}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_86 inherits huge::params {
+	$dir_86 = "${base_dir}/part_86"
+	file { $dir_86:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-86':
+		ensure  => installed,
+		require => File[$dir_86],
+	}
+	huge::service { 'part_86':
+		port    => 9086,
+		require => Package['huge-part-86'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-86-init':
+			command => "/usr/bin/huge-init --dir ${dir_86}",
+			creates => "${dir_86}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_87 inherits huge::params {
+	$dir_87 = "${base_dir}/part_87"
+	file { $dir_87:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-87':
+		ensure  => installed,
+		require => File[$dir_87],
+	}
+	huge::service { 'part_87':
+		port    => 9087,
+		require => Package['huge-part-87'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-87-init':
+			command => "/usr/bin/huge-init --dir ${dir_87}",
+			creates => "${dir_87}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_88 inherits huge::params {
+	$dir_88 = "${base_dir}/part_88"
+	file { $dir_88:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-88':
+		ensure  => installed,
+		require => File[$dir_88],
+	}
+	huge::service { 'part_88':
+		port    => 9088,
+		require => Package['huge-part-88'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-88-init':
+			command => "/usr/bin/huge-init --dir ${dir_88}",
+			creates => "${dir_88}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_89 inherits huge::params {
+	$dir_89 = "${base_dir}/part_89"
+	file { $dir_89:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-89':
+		ensure  => installed,
+		require => File[$dir_89],
+	}
+	huge::service { 'part_89':
+		port    => 9089,
+		require => Package['huge-part-89'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-89-init':
+			command => "/usr/bin/huge-init --dir ${dir_89}",
+			creates => "${dir_89}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_90 inherits huge::params {
+	$dir_90 = "${base_dir}/part_90"
+	file { $dir_90:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-90':
+		ensure  => installed,
+		require => File[$dir_90],
+	}
+	huge::service { 'part_90':
+		port    => 9090,
+		require => Package['huge-part-90'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-90-init':
+			command => "/usr/bin/huge-init --dir ${dir_90}",
+			creates => "${dir_90}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_91 inherits huge::params {
+	$dir_91 = "${base_dir}/part_91"
+	file { $dir_91:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-91':
+		ensure  => installed,
+		require => File[$dir_91],
+	}
+	huge::service { 'part_91':
+		port    => 9091,
+		require => Package['huge-part-91'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-91-init':
+			command => "/usr/bin/huge-init --dir ${dir_91}",
+			creates => "${dir_91}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_92 inherits huge::params {
+	$dir_92 = "${base_dir}/part_92"
+	file { $dir_92:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-92':
+		ensure  => installed,
+		require => File[$dir_92],
+	}
+	huge::service { 'part_92':
+		port    => 9092,
+		require => Package['huge-part-92'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-92-init':
+			command => "/usr/bin/huge-init --dir ${dir_92}",
+			creates => "${dir_92}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_93 inherits huge::params {
+	$dir_93 = "${base_dir}/part_93"
+	file { $dir_93:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-93':
+		ensure  => installed,
+		require => File[$dir_93],
+	}
+	huge::service { 'part_93':
+		port    => 9093,
+		require => Package['huge-part-93'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-93-init':
+			command => "/usr/bin/huge-init --dir ${dir_93}",
+			creates => "${dir_93}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_94 inherits huge::params {
+	$dir_94 = "${base_dir}/part_94"
+	file { $dir_94:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-94':
+		ensure  => installed,
+		require => File[$dir_94],
+	}
+	huge::service { 'part_94':
+		port    => 9094,
+		require => Package['huge-part-94'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-94-init':
+			command => "/usr/bin/huge-init --dir ${dir_94}",
+			creates => "${dir_94}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_95 inherits huge::params {
+	$dir_95 = "${base_dir}/part_95"
+	file { $dir_95:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-95':
+		ensure  => installed,
+		require => File[$dir_95],
+	}
+	huge::service { 'part_95':
+		port    => 9095,
+		require => Package['huge-part-95'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-95-init':
+			command => "/usr/bin/huge-init --dir ${dir_95}",
+			creates => "${dir_95}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_96 inherits huge::params {
+	$dir_96 = "${base_dir}/part_96"
+	file { $dir_96:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-96':
+		ensure  => installed,
+		require => File[$dir_96],
+	}
+	huge::service { 'part_96':
+		port    => 9096,
+		require => Package['huge-part-96'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-96-init':
+			command => "/usr/bin/huge-init --dir ${dir_96}",
+			creates => "${dir_96}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_97 inherits huge::params {
+	$dir_97 = "${base_dir}/part_97"
+	file { $dir_97:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-97':
+		ensure  => installed,
+		require => File[$dir_97],
+	}
+	huge::service { 'part_97':
+		port    => 9097,
+		require => Package['huge-part-97'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-97-init':
+			command => "/usr/bin/huge-init --dir ${dir_97}",
+			creates => "${dir_97}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_98 inherits huge::params {
+	$dir_98 = "${base_dir}/part_98"
+	file { $dir_98:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-98':
+		ensure  => installed,
+		require => File[$dir_98],
+	}
+	huge::service { 'part_98':
+		port    => 9098,
+		require => Package['huge-part-98'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-98-init':
+			command => "/usr/bin/huge-init --dir ${dir_98}",
+			creates => "${dir_98}/.initialized",
+			user    => $user,
+		}
+	}
+}
+
+class huge::part_99 inherits huge::params {
+	$dir_99 = "${base_dir}/part_99"
+	file { $dir_99:
+		ensure => directory,
+		owner  => $user,
+		mode   => '0755',
+	}
+	package { 'huge-part-99':
+		ensure  => installed,
+		require => File[$dir_99],
+	}
+	huge::service { 'part_99':
+		port    => 9099,
+		require => Package['huge-part-99'],
+	}
+	if $::osfamily == 'RedHat' {
+		exec { 'huge-part-99-init':
+			command => "/usr/bin/huge-init --dir ${dir_99}",
+			creates => "${dir_99}/.initialized",
+			user    => $user,
+		}
+	}
+}
@@ -0,0 +1,231 @@
+# Class: nested
+#
+# Deeply nested conditionals, selectors and data structures.
+#
+class nested($ensure = present, $level = 0) {
+	if $level > 0 {
+		$value_0 = $level * 1 + 0
+		case $::osfamily {
+			'RedHat', 'CentOS': {
+				$package_1 = "pkg-1-${::operatingsystemrelease}"
+				$selected_2 = $ensure ? {
+					present => $::architecture ? {
+						'x86_64' => 'amd64',
+						default => $::architecture,
+					},
+					absent => undef,
+					default => 'unknown',
+				}
+				unless $selected_2 == undef {
+					if $level > 3 {
+						$value_3 = $level * 4 + 3
+						case $::osfamily {
+							'RedHat', 'CentOS': {
+								$package_4 = "pkg-4-${::operatingsystemrelease}"
+								$selected_5 = $ensure ? {
+									present => $::architecture ? {
+										'x86_64' => 'amd64',
+										default => $::architecture,
+									},
+									absent => undef,
+									default => 'unknown',
+								}
+								unless $selected_5 == undef {
+									if $level > 6 {
+										$value_6 = $level * 7 + 6
+										case $::osfamily {
+											'RedHat', 'CentOS': {
+												$package_7 = "pkg-7-${::operatingsystemrelease}"
+												$selected_8 = $ensure ? {
+													present => $::architecture ? {
+														'x86_64' => 'amd64',
+														default => $::architecture,
+													},
+													absent => undef,
+													default => 'unknown',
+												}
+												unless $selected_8 == undef {
+													if $level > 9 {
+														$value_9 = $level * 10 + 9
+														case $::osfamily {
+															'RedHat', 'CentOS': {
+																$package_10 = "pkg-10-${::operatingsystemrelease}"
+																$selected_11 = $ensure ? {
+																	present => $::architecture ? {
+																		'x86_64' => 'amd64',
+																		default => $::architecture,
+																	},
+																	absent => undef,
+																	default => 'unknown',
+																}
+																unless $selected_11 == undef {
+																	if $level > 12 {
+																		$value_12 = $level * 13 + 12
+																		case $::osfamily {
+																			'RedHat', 'CentOS': {
+																				$package_13 = "pkg-13-${::operatingsystemrelease}"
+																				$selected_14 = $ensure ? {
+																					present => $::architecture ? {
+																						'x86_64' => 'amd64',
+																						default => $::architecture,
+																					},
+																					absent => undef,
+																					default => 'unknown',
+																				}
+																				unless $selected_14 == undef {
+																					if $level > 15 {
+																						$value_15 = $level * 16 + 15
+																						case $::osfamily {
+																							'RedHat', 'CentOS': {
+																								$package_16 = "pkg-16-${::operatingsystemrelease}"
+																								$selected_17 = $ensure ? {
+																									present => $::architecture ? {
+																										'x86_64' => 'amd64',
+																										default => $::architecture,
+																									},
+																									absent => undef,
+																									default => 'unknown',
+																								}
+																								unless $selected_17 == undef {
+																									if $level > 18 {
+																										$value_18 = $level * 19 + 18
+																										case $::osfamily {
+																											'RedHat', 'CentOS': {
+																												$package_19 = "pkg-19-${::operatingsystemrelease}"
+																												$selected_20 = $ensure ? {
+																													present => $::architecture ? {
+																														'x86_64' => 'amd64',
+																														default => $::architecture,
+																													},
+																													absent => undef,
+																													default => 'unknown',
+																												}
+																												unless $selected_20 == undef {
+																													if $level > 21 {
+																														$value_21 = $level * 22 + 21
+																														case $::osfamily {
+																															'RedHat', 'CentOS': {
+																																$package_22 = "pkg-22-${::operatingsystemrelease}"
+																																$selected_23 = $ensure ? {
+																																	present => $::architecture ? {
+																																		'x86_64' => 'amd64',
+																																		default => $::architecture,
+																																	},
+																																	absent => undef,
+																																	default => 'unknown',
+																																}
+																																unless $selected_23 == undef {
+																																	notify { "leaf ${level} 24": message => "reached ${ensure} at 24" }
+																																}
+																															}
+																															/^Debian|Ubuntu$/: {
+																																$package_22 = "pkg22"
+																															}
+																															default: {
+																																$package_22 = 'pkg'
+																															}
+																														}
+																													} elsif $level == 21 {
+																														$value_21 = [21, [22, [23, { 'k21' => { 'v' => [21] } }]]]
+																													} else {
+																														$value_21 = undef
+																													}
+																												}
+																											}
+																											/^Debian|Ubuntu$/: {
+																												$package_19 = "pkg19"
+																											}
+																											default: {
+																												$package_19 = 'pkg'
+																											}
+																										}
+																									} elsif $level == 18 {
+																										$value_18 = [18, [19, [20, { 'k18' => { 'v' => [18] } }]]]
+																									} else {
+																										$value_18 = undef
+																									}
+																								}
+																							}
+																							/^Debian|Ubuntu$/: {
+																								$package_16 = "pkg16"
+																							}
+																							default: {
+																								$package_16 = 'pkg'
+																							}
+																						}
+																					} elsif $level == 15 {
+																						$value_15 = [15, [16, [17, { 'k15' => { 'v' => [15] } }]]]
+																					} else {
+																						$value_15 = undef
+																					}
+																				}
+																			}
+																			/^Debian|Ubuntu$/: {
+																				$package_13 = "pkg13"
+																			}
+																			default: {
+																				$package_13 = 'pkg'
+																			}
+																		}
+																	} elsif $level == 12 {
+																		$value_12 = [12, [13, [14, { 'k12' => { 'v' => [12] } }]]]
+																	} else {
+																		$value_12 = undef
+																	}
+																}
+															}
+															/^Debian|Ubuntu$/: {
+																$package_10 = "pkg10"
+															}
+															default: {
+																$package_10 = 'pkg'
+															}
+														}
+													} elsif $level == 9 {
+														$value_9 = [9, [10, [11, { 'k9' => { 'v' => [9] } }]]]
+													} else {
+														$value_9 = undef
+													}
+												}
+											}
+											/^Debian|Ubuntu$/: {
+												$package_7 = "pkg7"
+											}
+											default: {
+												$package_7 = 'pkg'
+											}
+										}
+									} elsif $level == 6 {
+										$value_6 = [6, [7, [8, { 'k6' => { 'v' => [6] } }]]]
+									} else {
+										$value_6 = undef
+									}
+								}
+							}
+							/^Debian|Ubuntu$/: {
+								$package_4 = "pkg4"
+							}
+							default: {
+								$package_4 = 'pkg'
+							}
+						}
+					} elsif $level == 3 {
+						$value_3 = [3, [4, [5, { 'k3' => { 'v' => [3] } }]]]
+					} else {
+						$value_3 = undef
+					}
+				}
+			}
+			/^Debian|Ubuntu$/: {
+				$package_1 = "pkg1"
+			}
+			default: {
+				$package_1 = 'pkg'
+			}
+		}
+	} elsif $level == 0 {
+		$value_0 = [0, [1, [2, { 'k0' => { 'v' => [0] } }]]]
+	} else {
+		$value_0 = undef
+	}
+}
@@ -0,0 +1,16 @@
+# Class: ntp::config
+#
+# Writes the NTP configuration from the parameters of the ntp class.
+#
+class ntp::config {
+	$servers = $ntp::servers
+
+	file { '/etc/ntp.conf':
+		ensure  => file,
+		owner   => 'root',
+		group   => 'root',
+		mode    => '0644',
+		content => template('ntp/ntp.conf.erb'),
+		notify  => Service['ntpd'],
+	}
+}
@@ -0,0 +1,22 @@
+# Class: ntp
+#
+# Installs and configures the NTP daemon.
+#
+class ntp(
+	$servers = ['0.pool.ntp.org', '1.pool.ntp.org'],
+	$package_ensure = 'present',
+	$service_enable = true
+) {
+	include ntp::config
+
+	package { 'ntp':
+		ensure => $package_ensure,
+	}
+
+	service { 'ntpd':
+		ensure    => running,
+		enable    => $service_enable,
+		subscribe => File['/etc/ntp.conf'],
+		require   => Package['ntp'],
+	}
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.diagnostic;
+
+/**
+ * A listener that counts the diagnostics per severity. Children of an added diagnostic are counted too, but a
+ * diagnostic that only groups other diagnostics (i.e. has children but no message) is not counted by itself.
+ */
+public class DiagnosticCounter implements DiagnosticListener {
+	private final int[] counts = new int[Diagnostic.FATAL + 1];
+
+	@Override
+	public synchronized void diagnosticAdded(Diagnostic diagnostic) {
+		if(diagnostic.getMessage() != null || diagnostic.getChildren().isEmpty()) {
+			int severity = diagnostic.getSeverity();
+			if(severity >= 0 && severity < counts.length)
+				++counts[severity];
+		}
+		for(Diagnostic child : diagnostic)
+			diagnosticAdded(child);
+	}
+
+	/**
+	 * @param severity
+	 *            The severity (see constants in {@link Diagnostic})
+	 * @return The number of diagnostics with the given severity
+	 */
+	public synchronized int getCount(int severity) {
+		return severity >= 0 && severity < counts.length
+				? counts[severity]
+				: 0;
+	}
+
+	/**
+	 * @return The highest severity counted so far, or {@link Diagnostic#OK} if nothing has been counted
+	 */
+	public synchronized int getMaxSeverity() {
+		for(int severity = counts.length - 1; severity > Diagnostic.OK; --severity)
+			if(counts[severity] > 0)
+				return severity;
+		return Diagnostic.OK;
+	}
+
+	/**
+	 * @return The total number of counted diagnostics
+	 */
+	public synchronized int getTotal() {
+		int total = 0;
+		for(int count : counts)
+			total += count;
+		return total;
+	}
+}
@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.diagnostic;
+
+/**
+ * A listener that adds each diagnostic to a diagnostic tree. Use it together with other listeners when the complete
+ * tree is still wanted once everything has been reported.
+ */
+public class DiagnosticTreeListener implements DiagnosticListener {
+	private final Diagnostic tree;
+
+	/**
+	 * @param tree
+	 *            The diagnostic that receives all reported diagnostics as children
+	 */
+	public DiagnosticTreeListener(Diagnostic tree) {
+		this.tree = tree;
+	}
+
+	@Override
+	public synchronized void diagnosticAdded(Diagnostic diagnostic) {
+		tree.addChild(diagnostic);
+	}
+
+	/**
+	 * @return The diagnostic that receives all reported diagnostics
+	 */
+	public Diagnostic getTree() {
+		return tree;
+	}
+}
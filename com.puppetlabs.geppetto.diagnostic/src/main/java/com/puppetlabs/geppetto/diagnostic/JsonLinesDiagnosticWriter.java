@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.diagnostic;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A listener that writes each diagnostic as a JSON object on a line of its own. Children of an added diagnostic are
+ * written as separate lines after their parent. The written properties are <code>severity</code>, <code>type</code>,
+ * <code>source</code>, <code>message</code>, <code>issue</code>, <code>file</code>, <code>line</code>,
+ * <code>offset</code>, <code>length</code> and <code>exception</code>. Properties without a value are omitted.
+ * <p>
+ * The writer is flushed after each line. The first I/O error stops all further output and can be obtained from
+ * {@link #getError()}.
+ * </p>
+ */
+public class JsonLinesDiagnosticWriter implements DiagnosticListener {
+	private static void appendString(StringBuilder bld, String value) {
+		bld.append('"');
+		int top = value.length();
+		for(int idx = 0; idx < top; ++idx) {
+			char c = value.charAt(idx);
+			switch(c) {
+				case '"':
+					bld.append("\\\"");
+					break;
+				case '\\':
+					bld.append("\\\\");
+					break;
+				case '\n':
+					bld.append("\\n");
+					break;
+				case '\r':
+					bld.append("\\r");
+					break;
+				case '\t':
+					bld.append("\\t");
+					break;
+				default:
+					if(c < 0x20)
+						bld.append(String.format("\\u%04x", Integer.valueOf(c)));
+					else
+						bld.append(c);
+			}
+		}
+		bld.append('"');
+	}
+
+	private final Writer out;
+
+	private IOException error;
+
+	/**
+	 * @param out
+	 *            The writer to write to. It is not closed by this listener.
+	 */
+	public JsonLinesDiagnosticWriter(Writer out) {
+		this.out = out;
+	}
+
+	private void appendNumber(StringBuilder bld, String name, Integer value) {
+		if(value != null && value.intValue() >= 0) {
+			bld.append(",\"").append(name).append("\":");
+			bld.append(value);
+		}
+	}
+
+	private void appendProperty(StringBuilder bld, String name, String value) {
+		if(value != null) {
+			bld.append(",\"").append(name).append("\":");
+			appendString(bld, value);
+		}
+	}
+
+	@Override
+	public synchronized void diagnosticAdded(Diagnostic diagnostic) {
+		if(error != null)
+			return;
+		try {
+			write(diagnostic);
+			out.flush();
+		}
+		catch(IOException e) {
+			error = e;
+		}
+	}
+
+	/**
+	 * @return The I/O error that stopped the output, or <code>null</code> if no error has occurred
+	 */
+	public synchronized IOException getError() {
+		return error;
+	}
+
+	private void write(Diagnostic diagnostic) throws IOException {
+		StringBuilder bld = new StringBuilder();
+		bld.append("{\"severity\":");
+		appendString(bld, diagnostic.getSeverityString());
+		appendProperty(bld, "type", diagnostic.getType().getName());
+		appendProperty(bld, "source", diagnostic.getSource());
+		appendProperty(bld, "message", diagnostic.getMessage());
+		appendProperty(bld, "issue", diagnostic.getIssue());
+		File file = diagnostic.getFile();
+		if(file != null)
+			appendProperty(bld, "file", file.getPath());
+		appendNumber(bld, "line", Integer.valueOf(diagnostic.getLineNumber()));
+		if(diagnostic instanceof DetailedFileDiagnostic) {
+			DetailedFileDiagnostic detail = (DetailedFileDiagnostic) diagnostic;
+			appendNumber(bld, "offset", detail.getOffset());
+			appendNumber(bld, "length", detail.getLength());
+		}
+		if(diagnostic instanceof ExceptionDiagnostic) {
+			Exception e = diagnostic.getException();
+			if(e != null)
+				appendProperty(bld, "exception", e.toString());
+		}
+		bld.append("}\n");
+		out.write(bld.toString());
+		for(Diagnostic child : diagnostic)
+			write(child);
+	}
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.diagnostic;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A diagnostic that passes each added child on to a list of {@link DiagnosticListener listeners}. Unless it is told to
+ * retain them, the children are not kept, so the memory used does not grow with the number of diagnostics. The
+ * severity is always maintained.
+ */
+public class StreamingDiagnostic extends Diagnostic {
+	private static final long serialVersionUID = 1L;
+
+	private final boolean retainChildren;
+
+	private final transient DiagnosticListener[] listeners;
+
+	/**
+	 * Creates a diagnostic that does not retain its children.
+	 * 
+	 * @param listeners
+	 *            The listeners to notify
+	 */
+	public StreamingDiagnostic(DiagnosticListener... listeners) {
+		this(false, listeners);
+	}
+
+	/**
+	 * @param retainChildren
+	 *            <code>true</code> if the children should be kept as in a normal diagnostic
+	 * @param listeners
+	 *            The listeners to notify
+	 */
+	public StreamingDiagnostic(boolean retainChildren, DiagnosticListener... listeners) {
+		this.retainChildren = retainChildren;
+		this.listeners = listeners;
+	}
+
+	@Override
+	public void addChild(Diagnostic child) {
+		if(retainChildren)
+			super.addChild(child);
+		else {
+			if(getSeverity() < child.getSeverity())
+				setSeverity(child.getSeverity());
+			childAdded(child);
+		}
+	}
+
+	@Override
+	protected void childAdded(Diagnostic child) {
+		for(DiagnosticListener listener : listeners)
+			listener.diagnosticAdded(child);
+	}
+
+	/**
+	 * Returns the children, or an empty list if the children are not retained.
+	 */
+	@Override
+	public List<Diagnostic> getChildren() {
+		return retainChildren
+				? super.getChildren()
+				: Collections.<Diagnostic> emptyList();
+	}
+
+	/**
+	 * @return <code>true</code> if the children are kept
+	 */
+	public boolean isRetainChildren() {
+		return retainChildren;
+	}
+}
@@ -14,7 +14,10 @@ import static com.puppetlabs.geppetto.pp.dsl.validation.ValidationPreference.IGN
 import static com.puppetlabs.geppetto.pp.dsl.validation.ValidationPreference.WARNING;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -30,7 +33,10 @@ import com.google.inject.AbstractModule;
 import com.google.inject.Module;
 import com.google.inject.name.Names;
 import com.puppetlabs.geppetto.diagnostic.Diagnostic;
+import com.puppetlabs.geppetto.diagnostic.DiagnosticTreeListener;
 import com.puppetlabs.geppetto.diagnostic.FileDiagnostic;
+import com.puppetlabs.geppetto.diagnostic.JsonLinesDiagnosticWriter;
+import com.puppetlabs.geppetto.diagnostic.StreamingDiagnostic;
 import com.puppetlabs.geppetto.forge.Forge;
 import com.puppetlabs.geppetto.forge.model.Metadata;
 import com.puppetlabs.geppetto.pp.dsl.target.PuppetTarget;
@@ -45,6 +51,7 @@ import com.puppetlabs.geppetto.ruby.jrubyparser.JRubyServices;
 import com.puppetlabs.geppetto.validation.FileType;
 import com.puppetlabs.geppetto.validation.ValidationOptions;
 import com.puppetlabs.geppetto.validation.ValidationService;
+import com.puppetlabs.geppetto.validation.runner.BuildResult;
 import com.puppetlabs.geppetto.validation.runner.IEncodingProvider;
 import com.puppetlabs.geppetto.validation.runner.PPDiagnosticsSetup;
 
@@ -54,6 +61,8 @@ import com.puppetlabs.geppetto.validation.runner.PPDiagnosticsSetup;
  */
 @Mojo(name = "validate", requiresProject = false, defaultPhase = LifecyclePhase.COMPILE)
 public class Validate extends AbstractForgeServiceMojo {
+	private static final int METRICS_SLOWEST_COUNT = 10;
+
 	private static int getSeverity(Issue issue) {
 		switch(issue.getSeverity()) {
 			case ERROR:
@@ -110,6 +119,32 @@ public class Validate extends AbstractForgeServiceMojo {
 	@Parameter(property = "forge.validation.checkReferences", defaultValue = "false")
 	private boolean checkReferences = false;
 
+	/**
+	 * Set to <tt>true</tt> to release the model of each manifest once it has been validated. This lowers the memory
+	 * needed to validate large repositories, at the cost of using one thread for linking and validation.
+	 */
+	@Parameter(property = "forge.validation.lowMemory", defaultValue = "false")
+	private boolean lowMemory = false;
+
+	/**
+	 * Set to <tt>true</tt> to log timing and size metrics for the validation, including the slowest files.
+	 */
+	@Parameter(property = "forge.validation.printMetrics", defaultValue = "false")
+	private boolean printMetrics = false;
+
+	/**
+	 * Set to <tt>false</tt> to compute "did you mean" proposals for unresolved references. They are skipped by default
+	 * since nobody applies quick fixes to the outcome of a build.
+	 */
+	@Parameter(property = "forge.validation.skipProposals", defaultValue = "true")
+	private boolean skipProposals = true;
+
+	/**
+	 * A file that receives each diagnostic as a line of JSON as soon as the diagnostic is produced.
+	 */
+	@Parameter(property = "forge.validation.jsonOutput")
+	private File jsonOutput;
+
 	/**
 	 * How should assignment to variable $string be treated. Puppet bug http://projects.puppetlabs.com/issues/14093.
 	 */
@@ -337,9 +372,13 @@ public class Validate extends AbstractForgeServiceMojo {
 		ValidationOptions options = getValidationOptions(moduleLocations, importedModuleLocations);
 		new PPDiagnosticsSetup(complianceLevel, options.getProblemsAdvisor()).createInjectorAndDoEMFRegistration();
 
-		getValidationService().validate(
+		BuildResult buildResult = getValidationService().validate(
 			result, getModulesDir(), options,
 			importedModuleLocations.toArray(new File[importedModuleLocations.size()]), new NullProgressMonitor());
+
+		if(printMetrics && buildResult.getMetrics() != null)
+			for(String line : buildResult.getMetrics().getReport(METRICS_SLOWEST_COUNT).split("\n"))
+				getLog().info(line);
 	}
 
 	@Override
@@ -366,6 +405,8 @@ public class Validate extends AbstractForgeServiceMojo {
 		options.setCheckLayout(checkLayout);
 		options.setCheckModuleSemantics(checkModuleSemantics);
 		options.setCheckReferences(checkReferences);
+		options.setLowMemory(lowMemory);
+		options.setSkipProposals(skipProposals);
 
 		if(moduleLocations.size() == 1 && getModulesDir().equals(moduleLocations.iterator().next()))
 			options.setFileType(FileType.MODULE_ROOT);
@@ -385,18 +426,24 @@ public class Validate extends AbstractForgeServiceMojo {
 
 	@Override
 	protected void invoke(Diagnostic result) throws IOException {
-		Collection<File> moduleRoots = findModuleRoots();
-		if(moduleRoots.isEmpty()) {
-			result.addChild(new Diagnostic(
-				Diagnostic.ERROR, ValidationService.GEPPETTO, "No modules found in repository"));
+		if(jsonOutput == null) {
+			validate(result);
 			return;
 		}
 
-		if(checkLayout || checkModuleSemantics || checkReferences)
-			geppettoValidation(moduleRoots, result);
-
-		if(enablePuppetLintValidation)
-			lintValidation(moduleRoots, result);
+		File parent = jsonOutput.getAbsoluteFile().getParentFile();
+		if(parent != null)
+			parent.mkdirs();
+		Writer writer = new OutputStreamWriter(new FileOutputStream(jsonOutput), UTF_8);
+		try {
+			JsonLinesDiagnosticWriter jsonWriter = new JsonLinesDiagnosticWriter(writer);
+			validate(new StreamingDiagnostic(new DiagnosticTreeListener(result), jsonWriter));
+			if(jsonWriter.getError() != null)
+				throw jsonWriter.getError();
+		}
+		finally {
+			writer.close();
+		}
 	}
 
 	private void lintValidation(Collection<File> moduleLocations, Diagnostic result) throws IOException {
@@ -412,4 +459,19 @@ public class Validate extends AbstractForgeServiceMojo {
 			}
 		}
 	}
+
+	private void validate(Diagnostic result) throws IOException {
+		Collection<File> moduleRoots = findModuleRoots();
+		if(moduleRoots.isEmpty()) {
+			result.addChild(new Diagnostic(
+				Diagnostic.ERROR, ValidationService.GEPPETTO, "No modules found in repository"));
+			return;
+		}
+
+		if(checkLayout || checkModuleSemantics || checkReferences)
+			geppettoValidation(moduleRoots, result);
+
+		if(enablePuppetLintValidation)
+			lintValidation(moduleRoots, result);
+	}
 }
@@ -35,7 +35,14 @@ import org.junit.runners.Suite.SuiteClasses;
 	TestPPFormatting.class,
 	TestPPFormattingFailing.class,
 	TestFormatterUtils.class,
-	TestPptpResourceAsFile.class
+	TestPptpResourceAsFile.class,
+	TestExportedObjectsIndex.class,
+	TestSearchPath.class,
+	TestNameInterner.class,
+	TestProposalIndex.class,
+	TestLinkerProfiler.class,
+	TestPartialParsing.class,
+	TestResolutionCache.class
 // @fmtOn
 })
 @RunWith(Suite.class)
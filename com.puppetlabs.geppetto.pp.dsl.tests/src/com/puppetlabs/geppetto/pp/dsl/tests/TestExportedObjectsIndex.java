@@ -0,0 +1,217 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.pp.dsl.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.resource.EObjectDescription;
+import org.eclipse.xtext.resource.IEObjectDescription;
+import org.eclipse.xtext.resource.IReferenceDescription;
+import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.resource.impl.AbstractResourceDescription;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.puppetlabs.geppetto.pp.PPPackage;
+import com.puppetlabs.geppetto.pp.dsl.PPDSLConstants;
+import com.puppetlabs.geppetto.pp.dsl.linking.PPExportedObjectsIndex;
+import com.puppetlabs.geppetto.pp.pptp.PPTPPackage;
+
+/**
+ * Tests that the shared export index is patched in place when resource descriptions change.
+ */
+public class TestExportedObjectsIndex {
+	private static class Description extends AbstractResourceDescription {
+		private final URI uri;
+
+		private final List<IEObjectDescription> exports = Lists.newArrayList();
+
+		Description(String path, EClass eClass, String... names) {
+			uri = URI.createFileURI(path);
+			Resource resource = new ResourceImpl(uri);
+			for(String name : names) {
+				EObject o = EcoreUtil.create(eClass);
+				resource.getContents().add(o);
+				exports.add(EObjectDescription.create(QualifiedName.create(name.split("::")), o));
+			}
+		}
+
+		Description(String path, String... names) {
+			this(path, PPPackage.Literals.HOST_CLASS_DEFINITION, names);
+		}
+
+		Description pattern(String name, String regexp) {
+			EObject o = EcoreUtil.create(PPTPPackage.Literals.TP_VARIABLE);
+			exports.get(0).getEObjectOrProxy().eResource().getContents().add(o);
+			exports.add(EObjectDescription.create(
+				QualifiedName.create(name), o, Collections.singletonMap(PPDSLConstants.VARIABLE_PATTERN, regexp)));
+			return this;
+		}
+
+		@Override
+		protected List<IEObjectDescription> computeExportedObjects() {
+			return exports;
+		}
+
+		@Override
+		public Iterable<QualifiedName> getImportedNames() {
+			return Collections.emptyList();
+		}
+
+		@Override
+		public Iterable<IReferenceDescription> getReferenceDescriptions() {
+			return Collections.emptyList();
+		}
+
+		@Override
+		public URI getURI() {
+			return uri;
+		}
+	}
+
+	private static List<String> names(Iterable<IEObjectDescription> descs) {
+		List<String> result = Lists.newArrayList();
+		for(IEObjectDescription d : descs)
+			result.add(d.getName().toString("::") + "@" + d.getEObjectURI().trimFragment().lastSegment());
+		return result;
+	}
+
+	@Test
+	public void changedDescriptionsArePatchedInOrder() {
+		PPExportedObjectsIndex.Entry entry = new PPExportedObjectsIndex.Entry();
+		IResourceDescription a = new Description("/a.pp", "a::x", "a::y");
+		IResourceDescription b = new Description("/b.pp", "b::x");
+		IResourceDescription c = new Description("/c.pp", "c::x");
+		entry.update(ImmutableList.of(a, b, c));
+		assertEquals(
+			Lists.newArrayList("a::x@a.pp", "b::x@b.pp", "c::x@c.pp"), names(entry.getByLastSegment("x")));
+
+		// a changed description keeps the position of its resource, and a removed resource is dropped
+		IResourceDescription a2 = new Description("/a.pp", "a::x");
+		IResourceDescription c2 = new Description("/c.pp", "c::x", "c::y");
+		entry.update(ImmutableList.of(a2, c2));
+		assertEquals(Lists.newArrayList("a::x@a.pp", "c::x@c.pp"), names(entry.getByLastSegment("x")));
+		assertEquals(Lists.newArrayList("c::y@c.pp"), names(entry.getByLastSegment("y")));
+		assertTrue(entry.getByLastSegment("z").isEmpty());
+	}
+
+	@Test
+	public void entriesAreDroppedWithTheirResources() {
+		ResourceSet resourceSet = new ResourceSetImpl();
+		Resource resource = new ResourceImpl(URI.createFileURI("/a.pp"));
+		resourceSet.getResources().add(resource);
+		PPExportedObjectsIndex index = PPExportedObjectsIndex.get(resourceSet);
+		PPExportedObjectsIndex.Entry withA = index.getEntry(ImmutableList.of("a", "b"));
+		withA.update(ImmutableList.<IResourceDescription> of(
+			new Description("/a.pp", "a"), new Description("/b.pp", "b")));
+		PPExportedObjectsIndex.Entry withoutA = index.getEntry(ImmutableList.of("b"));
+		withoutA.update(ImmutableList.<IResourceDescription> of(new Description("/b.pp", "b")));
+
+		resourceSet.getResources().remove(resource);
+		assertNotSame(withA, index.getEntry(ImmutableList.of("a", "b")));
+		assertSame(withoutA, index.getEntry(ImmutableList.of("b")));
+	}
+
+	@Test
+	public void insertedResourcesAreKeptInContainerOrder() {
+		PPExportedObjectsIndex.Entry entry = new PPExportedObjectsIndex.Entry();
+		IResourceDescription a = new Description("/a.pp", "a::x");
+		IResourceDescription b = new Description("/b.pp", "b::x");
+		IResourceDescription c = new Description("/c.pp", "c::x");
+		entry.update(ImmutableList.of(a, c));
+		assertEquals(Lists.newArrayList("a::x@a.pp", "c::x@c.pp"), names(entry.getByLastSegment("x")));
+
+		// a resource added between known ones
+		entry.update(ImmutableList.of(a, b, c));
+		assertEquals(
+			Lists.newArrayList("a::x@a.pp", "b::x@b.pp", "c::x@c.pp"), names(entry.getByLastSegment("x")));
+
+		// known resources in a new order
+		entry.update(ImmutableList.of(c, a, b));
+		assertEquals(
+			Lists.newArrayList("c::x@c.pp", "a::x@a.pp", "b::x@b.pp"), names(entry.getByLastSegment("x")));
+	}
+
+	@Test
+	public void metaTablesAreRebuiltWhenContributorsChange() {
+		PPExportedObjectsIndex.Entry entry = new PPExportedObjectsIndex.Entry();
+		IResourceDescription pptp = new Description("/puppet.pptp", PPTPPackage.Literals.PARAMETER, "Type::require");
+		IResourceDescription vars = new Description("/vars.pptp", PPTPPackage.Literals.META_VARIABLE, "name");
+		IResourceDescription a = new Description("/a.pp", "a::x");
+		entry.update(ImmutableList.of(pptp, vars, a));
+		SortedMap<String, IEObjectDescription> params = entry.getMetaParameters();
+		assertEquals(Lists.newArrayList("require"), Lists.newArrayList(params.keySet()));
+		assertEquals(Lists.newArrayList("name"), Lists.newArrayList(entry.getMetaVariables().keySet()));
+
+		// changes that do not involve meta descriptions keep the tables
+		entry.update(ImmutableList.of(pptp, vars, new Description("/a.pp", "a::y")));
+		assertSame(params, entry.getMetaParameters());
+
+		IResourceDescription pptp2 = new Description(
+			"/puppet.pptp", PPTPPackage.Literals.PROPERTY, "Type::require", "Type::before");
+		entry.update(ImmutableList.of(pptp2, vars, a));
+		assertEquals(Lists.newArrayList("before", "require"), Lists.newArrayList(entry.getMetaParameters().keySet()));
+	}
+
+	@Test
+	public void patternVariablesMatchOnPrefixAndPattern() {
+		PPExportedObjectsIndex.Entry entry = new PPExportedObjectsIndex.Entry();
+		entry.update(ImmutableList.<IResourceDescription> of(
+			new Description("/a.pptp", "a").pattern("ipaddress_", "[a-z0-9]+").pattern("ip", ".*"),
+			new Description("/b.pptp", "b").pattern("ipaddress", "_[a-z]+").pattern("mac", ".*").pattern("bad", "(")));
+		assertEquals(
+			Lists.newArrayList("ipaddress_@a.pptp", "ip@a.pptp", "ipaddress@b.pptp"),
+			names(entry.findPatternVariables("ipaddress_eth")));
+		assertEquals(Lists.newArrayList("ip@a.pptp"), names(entry.findPatternVariables("ipaddress_eth0!")));
+		assertEquals(Lists.newArrayList("ip@a.pptp"), names(entry.findPatternVariables("ip")));
+		assertTrue(entry.findPatternVariables("i").isEmpty());
+		assertTrue(entry.findPatternVariables("badname").isEmpty());
+	}
+
+	@Test
+	public void prefixQueriesOnlySelectMatchingNames() {
+		PPExportedObjectsIndex.Entry entry = new PPExportedObjectsIndex.Entry();
+		entry.update(ImmutableList.<IResourceDescription> of(
+			new Description("/a.pp", "apache", "apache::mod", "apache::mod::ssl", "apachex::mod"),
+			new Description("/b.pp", "ntp::config")));
+		assertEquals(
+			Lists.newArrayList("apache::mod@a.pp", "apache::mod::ssl@a.pp"),
+			names(entry.getByNamePrefix(PPExportedObjectsIndex.toNamePrefix(QualifiedName.create("apache", "m"), true))));
+		assertEquals(
+			Lists.newArrayList("apache@a.pp", "apache::mod@a.pp", "apache::mod::ssl@a.pp", "apachex::mod@a.pp"),
+			names(entry.getByNamePrefix(PPExportedObjectsIndex.toNamePrefix(QualifiedName.create("apache"), true))));
+
+		// overlapping prefixes select each export once
+		assertEquals(
+			Lists.newArrayList("apache::mod@a.pp", "apache::mod::ssl@a.pp", "ntp::config@b.pp"), //
+			names(entry.getByNamePrefix(
+				PPExportedObjectsIndex.toNamePrefix(QualifiedName.create("apache"), false),
+				PPExportedObjectsIndex.toNamePrefix(QualifiedName.create("apache", "mod"), true),
+				PPExportedObjectsIndex.toNamePrefix(QualifiedName.create("ntp"), false))));
+	}
+}
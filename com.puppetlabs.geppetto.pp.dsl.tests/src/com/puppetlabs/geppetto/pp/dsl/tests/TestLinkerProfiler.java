@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.pp.dsl.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.puppetlabs.geppetto.pp.PPPackage;
+import com.puppetlabs.geppetto.pp.dsl.linking.NameInScopeFilter.Match;
+import com.puppetlabs.geppetto.pp.dsl.linking.PPLinkerProfiler;
+
+/**
+ * Tests that the linker profiler aggregates the profiles of files.
+ */
+public class TestLinkerProfiler {
+	@Test
+	public void profilesAreAggregated() {
+		PPLinkerProfiler profiler = new PPLinkerProfiler();
+		PPLinkerProfiler.Profile a = new PPLinkerProfiler.Profile("a.pp");
+		long start = System.nanoTime();
+		a.record(PPLinkerProfiler.CONSTRUCT, PPPackage.Literals.RESOURCE_BODY, start);
+		a.record(PPLinkerProfiler.CONSTRUCT, PPPackage.Literals.RESOURCE_BODY, start);
+		a.record(PPLinkerProfiler.FINDER, "findExternal", start);
+		PPLinkerProfiler.Profile b = new PPLinkerProfiler.Profile("b.pp");
+		b.record(PPLinkerProfiler.CONSTRUCT, PPPackage.Literals.FUNCTION_CALL, start);
+		b.record(PPLinkerProfiler.CONSTRUCT, PPPackage.Literals.RESOURCE_BODY, start);
+		b.record(PPLinkerProfiler.STRATEGY, Match.EQUALS, start);
+		profiler.add(a);
+		profiler.add(b);
+
+		PPLinkerProfiler.Profile total = profiler.getTotal();
+		assertEquals(3, total.getCount(PPLinkerProfiler.CONSTRUCT, PPPackage.Literals.RESOURCE_BODY));
+		assertEquals(1, total.getCount(PPLinkerProfiler.CONSTRUCT, PPPackage.Literals.FUNCTION_CALL));
+		assertEquals(1, total.getCount(PPLinkerProfiler.STRATEGY, Match.EQUALS));
+		assertEquals(0, total.getCount(PPLinkerProfiler.FINDER, "findVariables"));
+		assertEquals(
+			Lists.<Object> newArrayList(PPPackage.Literals.RESOURCE_BODY, PPPackage.Literals.FUNCTION_CALL),
+			total.getKeys(PPLinkerProfiler.CONSTRUCT));
+		assertTrue(
+			total.getNanos(PPLinkerProfiler.CONSTRUCT, PPPackage.Literals.RESOURCE_BODY) >= a.getNanos(
+				PPLinkerProfiler.CONSTRUCT, PPPackage.Literals.RESOURCE_BODY));
+		assertEquals(Lists.newArrayList(a, b), profiler.getProfiles());
+
+		String report = profiler.getReport(true);
+		assertTrue(report, report.contains("ResourceBody: 3 calls"));
+		assertTrue(report, report.contains("b.pp:"));
+	}
+}
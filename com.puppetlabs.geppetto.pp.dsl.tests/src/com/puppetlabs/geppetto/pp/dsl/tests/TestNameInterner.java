@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.pp.dsl.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.eclipse.xtext.naming.QualifiedName;
+import org.junit.Test;
+
+import com.puppetlabs.geppetto.pp.dsl.linking.PPNameInterner;
+import com.puppetlabs.geppetto.pp.dsl.linking.PPQualifiedNameConverter;
+
+/**
+ * Tests that equal names share one instance once interned.
+ */
+public class TestNameInterner {
+	@Test
+	public void convertedStringsAreLookedUpFirst() {
+		PPQualifiedNameConverter converter = new PPQualifiedNameConverter();
+		QualifiedName name = converter.toQualifiedName(new String("apache::vhost"));
+		assertSame(name, PPNameInterner.get("apache::vhost"));
+		assertSame(name, converter.toQualifiedName(new String("apache::vhost")));
+		assertNull(PPNameInterner.get(null));
+	}
+
+	@Test
+	public void equalNamesAreShared() {
+		QualifiedName a = PPNameInterner.intern(QualifiedName.create(new String("apache"), new String("mod")));
+		QualifiedName b = PPNameInterner.intern(QualifiedName.create(new String("apache"), new String("mod")));
+		assertSame(a, b);
+		assertEquals(QualifiedName.create("apache", "mod"), a);
+
+		// segments are shared between different names
+		QualifiedName c = PPNameInterner.intern(QualifiedName.create(new String("apache")));
+		assertSame(a.getFirstSegment(), c.getFirstSegment());
+
+		assertSame(QualifiedName.EMPTY, PPNameInterner.intern(QualifiedName.EMPTY));
+		assertNull(PPNameInterner.intern((QualifiedName) null));
+	}
+
+	@Test
+	public void convertedNamesAreInterned() {
+		PPQualifiedNameConverter converter = new PPQualifiedNameConverter();
+		assertSame(converter.toQualifiedName("$::osfamily"), converter.toQualifiedName("::osfamily"));
+	}
+}
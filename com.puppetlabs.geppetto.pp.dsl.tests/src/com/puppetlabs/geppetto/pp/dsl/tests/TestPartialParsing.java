@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.pp.dsl.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.IGrammarAccess;
+import org.eclipse.xtext.nodemodel.ICompositeNode;
+import org.eclipse.xtext.nodemodel.INode;
+import org.eclipse.xtext.nodemodel.util.NodeModelUtils;
+import org.eclipse.xtext.parser.IParseResult;
+import org.eclipse.xtext.parser.IParser;
+import org.eclipse.xtext.parser.impl.PartialParsingPointers;
+import org.eclipse.xtext.resource.XtextResource;
+import org.eclipse.xtext.util.ReplaceRegion;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.puppetlabs.geppetto.pp.dsl.PPDSLConstants;
+import com.puppetlabs.geppetto.pp.dsl.adapters.ResourceDocumentationAdapterFactory;
+import com.puppetlabs.geppetto.pp.dsl.adapters.ResourcePropertiesAdapterFactory;
+import com.puppetlabs.geppetto.pp.dsl.linking.PPTask;
+import com.puppetlabs.geppetto.pp.dsl.parser.PPPartialParsingHelper;
+import com.puppetlabs.geppetto.pp.dsl.ppdoc.DocumentationAssociator;
+
+/**
+ * Tests that a partial reparse, followed by the association of documentation for the reparsed part only, gives the
+ * same model, documentation and tasks as parsing the edited text from scratch. Edits that can not be reparsed partially
+ * must give the same model as parsing the edited text from scratch.
+ */
+public class TestPartialParsing extends AbstractPuppetTests {
+	private static final String SOURCE = "# The web server\n" + //
+			"class web {\n" + //
+			"  file { '/etc/web.conf':\n" + //
+			"    ensure => file,\n" + //
+			"  }\n" + //
+			"  # todo: restart the service\n" + //
+			"}\n" + //
+			"\n" + //
+			"# A virtual host\n" + //
+			"define web::vhost($port = 80) {\n" + //
+			"  file { \"/etc/web/${name}.conf\":\n" + //
+			"    content => 'port',\n" + //
+			"  }\n" + //
+			"}\n" + //
+			"\n" + //
+			"# fixme: move to hiera\n" + //
+			"node default {\n" + //
+			"  include web\n" + //
+			"}\n";
+
+	private static Map<Integer, String> documentation(Resource r) {
+		Map<Integer, String> result = Maps.newHashMap();
+		Map<EObject, List<INode>> associations = ResourceDocumentationAdapterFactory.eINSTANCE.adapt(
+			r).getAssociations();
+		for(Map.Entry<EObject, List<INode>> entry : associations.entrySet()) {
+			StringBuilder builder = new StringBuilder();
+			for(INode comment : entry.getValue())
+				builder.append(comment.getText());
+			result.put(NodeModelUtils.findActualNodeFor(entry.getKey()).getOffset(), builder.toString());
+		}
+		return result;
+	}
+
+	private static String edit(String source, String before, String after) {
+		int offset = source.indexOf(before);
+		return source.substring(0, offset) + after + source.substring(offset + before.length());
+	}
+
+	private static List<String> tasks(Resource r) {
+		List<String> result = Lists.newArrayList();
+		@SuppressWarnings("unchecked")
+		List<PPTask> tasks = (List<PPTask>) ResourcePropertiesAdapterFactory.eINSTANCE.adapt(r).get(
+			PPDSLConstants.RESOURCE_PROPERTY__TASK_LIST);
+		for(PPTask task : tasks)
+			result.add(task.getLine() + ":" + task.getOffset() + ":" + task.getMsg());
+		return result;
+	}
+
+	private void assertPartialEdit(String before, String after) throws Exception {
+		XtextResource resource = (XtextResource) loadResource(SOURCE, makeManifestURI(1));
+		EObject model = resource.getContents().get(0);
+		int offset = SOURCE.indexOf(before);
+		DocumentationAssociator associator = get(DocumentationAssociator.class);
+		DocumentationAssociator.Change change = associator.prepareChange(
+			resource.getParseResult(), offset, before.length(), after);
+		IParseResult result = assertReparse(resource, SOURCE, before, after);
+		assertSame("Should be partially reparsed", model, result.getRootASTElement());
+		associator.linkDocumentation(model, change);
+
+		Resource expected = loadResource(edit(SOURCE, before, after), makeManifestURI(2));
+		assertEquals(documentation(expected), documentation(resource));
+		assertEquals(tasks(expected), tasks(resource));
+	}
+
+	/**
+	 * Reparses the given resource after replacing the first occurrence of before with after in its source, and asserts
+	 * that the result is the same as when the edited text is parsed from scratch.
+	 */
+	private IParseResult assertReparse(XtextResource resource, String source, String before, String after)
+			throws Exception {
+		int offset = source.indexOf(before);
+		IParseResult result = get(IParser.class).reparse(
+			resource.getParseResult(), new ReplaceRegion(offset, before.length(), after));
+		assertSameAsFresh(edit(source, before, after), result);
+		return result;
+	}
+
+	private void assertSameAsFresh(String text, IParseResult result) throws Exception {
+		assertEquals(text, result.getRootNode().getText());
+		IParseResult expected = get(IParser.class).parse(new StringReader(text));
+		assertEquals("Syntax errors", expected.hasSyntaxErrors(), result.hasSyntaxErrors());
+		assertTrue(
+			"Models should be equal", EcoreUtil.equals(expected.getRootASTElement(), result.getRootASTElement()));
+	}
+
+	@Test
+	public void addAttribute() throws Exception {
+		assertPartialEdit("    ensure => file,\n", "    ensure => file,\n    mode => '0644',\n");
+	}
+
+	@Test
+	public void addTask() throws Exception {
+		assertPartialEdit("  # todo: restart the service\n", "  # todo: restart the service\n  # fixme: add a vhost\n");
+	}
+
+	@Test
+	public void appendAtEnd() throws Exception {
+		XtextResource resource = (XtextResource) loadResource(SOURCE, makeManifestURI(1));
+		String appended = "notice('done')\n";
+		IParseResult result = get(IParser.class).reparse(
+			resource.getParseResult(), new ReplaceRegion(SOURCE.length(), 0, appended));
+		assertSameAsFresh(SOURCE + appended, result);
+	}
+
+	@Test
+	public void editInsideSyntaxError() throws Exception {
+		String broken = SOURCE.replace("ensure => file,", "ensure => ,");
+		XtextResource resource = (XtextResource) loadResource(broken, makeManifestURI(1));
+		assertTrue("Should have a syntax error", resource.getParseResult().hasSyntaxErrors());
+		assertReparse(resource, broken, "'/etc/web.conf'", "'/etc/httpd.conf'");
+		resource = (XtextResource) loadResource(broken, makeManifestURI(2));
+		assertReparse(resource, broken, "ensure => ,", "ensure => file,");
+	}
+
+	@Test
+	public void editTitle() throws Exception {
+		assertPartialEdit("'/etc/web.conf'", "'/etc/httpd.conf'");
+	}
+
+	@Test
+	public void noBoundaryFallsBackToRoot() throws Exception {
+		PPPartialParsingHelper helper = new PPPartialParsingHelper(get(IGrammarAccess.class)) {
+			@Override
+			protected boolean isReparseBoundary(ICompositeNode node) {
+				return false;
+			}
+		};
+		getInjector().injectMembers(helper);
+		XtextResource resource = (XtextResource) loadResource(SOURCE, makeManifestURI(1));
+		IParseResult parseResult = resource.getParseResult();
+		String before = "web.conf";
+		int offset = SOURCE.indexOf(before);
+		PartialParsingPointers pointers = helper.calculatePartialParsingPointers(parseResult, offset, before.length());
+		assertEquals(
+			Collections.singletonList(parseResult.getRootNode()), pointers.getValidReplaceRootNodes());
+		IParseResult result = helper.reparse(
+			get(IParser.class), parseResult, new ReplaceRegion(offset, before.length(), "httpd.conf"));
+		assertSameAsFresh(edit(SOURCE, before, "httpd.conf"), result);
+	}
+
+	@Test
+	public void renameDocumentedDefinition() throws Exception {
+		assertPartialEdit("web::vhost", "web::site");
+	}
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.pp.dsl.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.codec.language.DoubleMetaphone;
+import org.apache.commons.lang.StringUtils;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.xtext.resource.EObjectDescription;
+import org.eclipse.xtext.resource.IEObjectDescription;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.puppetlabs.geppetto.pp.HostClassDefinition;
+import com.puppetlabs.geppetto.pp.PPFactory;
+import com.puppetlabs.geppetto.pp.dsl.contentassist.PPProposalIndex;
+import com.puppetlabs.geppetto.pp.dsl.linking.PPQualifiedNameConverter;
+
+/**
+ * Tests that the proposal index selects the same candidates as a scan of all descriptions.
+ */
+public class TestProposalIndex {
+	private static final String[] WORDS = { "apache", "mod", "ssl", "ntp", "config", "service", "package", "file",
+			"user", "group", "mysql", "server", "params", "vhost", "concat", "fragment" };
+
+	@Test
+	public void candidatesMatchScan() {
+		PPQualifiedNameConverter converter = new PPQualifiedNameConverter();
+		Random random = new Random(4711);
+		Resource resource = new ResourceImpl(URI.createFileURI("/a.pp"));
+		List<IEObjectDescription> descs = Lists.newArrayList();
+		for(int i = 0; i < 500; ++i) {
+			StringBuilder name = new StringBuilder(WORDS[random.nextInt(WORDS.length)]);
+			for(int segments = random.nextInt(3); segments > 0; --segments)
+				name.append("::").append(WORDS[random.nextInt(WORDS.length)]);
+			HostClassDefinition o = PPFactory.eINSTANCE.createHostClassDefinition();
+			resource.getContents().add(o);
+			descs.add(EObjectDescription.create(converter.toQualifiedName(name.toString()), o));
+		}
+		PPProposalIndex index = new PPProposalIndex(descs, converter);
+		DoubleMetaphone encoder = new DoubleMetaphone();
+		String[] queries = { "apache::mdo", "ntp::conifg", "servise", "pakage", "concat::fragmnet", "x", "mysql" };
+		for(String query : queries) {
+			String metaphoneName = encoder.encode(query);
+			List<IEObjectDescription> expected = Lists.newArrayList();
+			for(IEObjectDescription d : descs) {
+				String name = converter.toString(d.getName());
+				String metaphone = encoder.encode(name);
+				if(StringUtils.getLevenshteinDistance(query, name) <= 5 || metaphone.startsWith(metaphoneName) ||
+						metaphone.endsWith(metaphoneName))
+					expected.add(d);
+			}
+			assertEquals(query, expected, index.getCandidates(query, metaphoneName, 5));
+		}
+	}
+}
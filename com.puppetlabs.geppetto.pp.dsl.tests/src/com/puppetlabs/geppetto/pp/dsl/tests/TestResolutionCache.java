@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.pp.dsl.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.Resource.Diagnostic;
+import org.eclipse.xtext.diagnostics.AbstractDiagnostic;
+import org.eclipse.xtext.diagnostics.Severity;
+import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.resource.IEObjectDescription;
+import org.eclipse.xtext.resource.impl.ListBasedDiagnosticConsumer;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.puppetlabs.geppetto.pp.dsl.adapters.PPImportedNamesAdapter;
+import com.puppetlabs.geppetto.pp.dsl.adapters.PPImportedNamesAdapterFactory;
+import com.puppetlabs.geppetto.pp.dsl.linking.DiagnosticConsumerBasedMessageAcceptor;
+import com.puppetlabs.geppetto.pp.dsl.linking.PPFinder;
+import com.puppetlabs.geppetto.pp.dsl.linking.PPFinder.SearchResult;
+import com.puppetlabs.geppetto.pp.dsl.linking.PPResourceLinker;
+import com.puppetlabs.geppetto.pp.dsl.linking.PPSearchPathProvider;
+import com.puppetlabs.geppetto.pp.dsl.validation.IPPDiagnostics;
+
+/**
+ * Tests that the finder answers repeated lookups of a linking pass from its resolution cache, that the cache does not
+ * outlive the pass, and that the linker records the same imported names whether a lookup was cached or not.
+ */
+public class TestResolutionCache extends AbstractPuppetTests {
+	private static final String[] SOURCES = {
+			"class a { }\nclass x { }\n", //
+			"class x { }\n", //
+			"include a\ninclude a\ninclude x\ninclude x\ninclude missing\ninclude missing\n" };
+
+	private static List<String> names(Iterable<IEObjectDescription> descs) {
+		List<String> result = Lists.newArrayList();
+		for(IEObjectDescription d : descs)
+			result.add(d.getName() + "@" + d.getEObjectURI().trimFragment().lastSegment());
+		Collections.sort(result);
+		return result;
+	}
+
+	private static int notOnPathCount(List<Diagnostic> diagnostics) {
+		int count = 0;
+		for(Diagnostic d : diagnostics)
+			if(d instanceof AbstractDiagnostic &&
+					IPPDiagnostics.ISSUE__NOT_ON_PATH.equals(((AbstractDiagnostic) d).getCode()))
+				count++;
+		return count;
+	}
+
+	private List<Diagnostic> link(PPResourceLinker linker, Resource r) {
+		ListBasedDiagnosticConsumer consumer = new ListBasedDiagnosticConsumer();
+		linker.link(r.getContents().get(0), new DiagnosticConsumerBasedMessageAcceptor(consumer), false);
+		return consumer.getResult(Severity.WARNING);
+	}
+
+	@Test
+	public void cacheIsClearedWhenConfigured() throws Exception {
+		Resource r = loadAndLinkResources(SOURCES).get(2);
+		EObject model = r.getContents().get(0);
+		PPFinder finder = get(PPFinder.class);
+		finder.configure(r);
+		finder.findHostClasses(model, "a", null);
+		finder.findHostClasses(model, "a", null);
+		assertEquals(1, finder.getResolutionHits());
+
+		// a new linking pass starts with an empty cache
+		finder.configure(r);
+		assertEquals(0, finder.getResolutionHits());
+		assertEquals(0, finder.getResolutionMisses());
+		finder.findHostClasses(model, "a", null);
+		assertEquals(0, finder.getResolutionHits());
+		assertEquals(1, finder.getResolutionMisses());
+	}
+
+	@Test
+	public void changedSearchPathIsSeenByNextPass() throws Exception {
+		Resource r = loadAndLinkResources(SOURCES).get(2);
+		PPResourceLinker linker = get(PPResourceLinker.class);
+		assertEquals(0, notOnPathCount(link(linker, r)));
+
+		// both includes of a and x are outside the new path, none may be answered from the old resolutions
+		URI root = URI.createFileURI("/test/" + getClass().getName());
+		get(PPSearchPathProvider.class).configure(root, "modules/*", null);
+		assertEquals(4, notOnPathCount(link(linker, r)));
+	}
+
+	@Test
+	public void identicalLookupIsCacheHit() throws Exception {
+		Resource r = loadAndLinkResources(SOURCES).get(2);
+		EObject model = r.getContents().get(0);
+		PPFinder finder = get(PPFinder.class);
+		finder.configure(r);
+		PPImportedNamesAdapter importedNames = new PPImportedNamesAdapter();
+
+		SearchResult first = finder.findHostClasses(model, "x", importedNames);
+		assertEquals(0, finder.getResolutionHits());
+		assertEquals(1, finder.getResolutionMisses());
+		assertEquals(Lists.newArrayList("x@file1.pp", "x@file2.pp"), names(first.getAdjusted()));
+
+		// callers may modify the lists they get without affecting the cached result
+		first.getAdjusted().clear();
+		SearchResult second = finder.findHostClasses(model, "x", importedNames);
+		assertEquals(1, finder.getResolutionHits());
+		assertEquals(1, finder.getResolutionMisses());
+		assertEquals(Lists.newArrayList("x@file1.pp", "x@file2.pp"), names(second.getAdjusted()));
+		assertEquals(names(second.getRaw()), names(second.getAdjusted()));
+
+		// the name is recorded for cached lookups too
+		QualifiedName x = QualifiedName.create("x");
+		assertEquals(Lists.newArrayList(x, x), importedNames.getNames());
+
+		// a lookup of the same name for other kinds of definitions is not answered by the class lookup
+		finder.findDefinitions(model, "x", importedNames);
+		assertEquals(1, finder.getResolutionHits());
+		assertEquals(2, finder.getResolutionMisses());
+	}
+
+	@Test
+	public void importedNamesAreRecordedForCachedLookups() throws Exception {
+		Resource r = loadAndLinkResources(SOURCES).get(2);
+		PPImportedNamesAdapter importedNames = PPImportedNamesAdapterFactory.eINSTANCE.adapt(r);
+		PPResourceLinker linker = get(PPResourceLinker.class);
+
+		// every class is included twice, the second lookup of each name in a pass is answered from the cache
+		for(int pass = 0; pass < 2; pass++) {
+			link(linker, r);
+			assertTrue(names(importedNames.getResolvedDescriptions()).containsAll(
+				Lists.newArrayList("a@file1.pp", "x@file1.pp", "x@file2.pp")));
+			assertEquals(
+				Lists.newArrayList("x@file1.pp", "x@file2.pp"), names(importedNames.getAmbiguousDescriptions()));
+			assertTrue(importedNames.getUnresolvedNames().contains(QualifiedName.create("missing")));
+			assertEquals(2, Collections.frequency(importedNames.getNames(), QualifiedName.create("a")));
+			assertEquals(2, Collections.frequency(importedNames.getNames(), QualifiedName.create("missing")));
+		}
+	}
+}
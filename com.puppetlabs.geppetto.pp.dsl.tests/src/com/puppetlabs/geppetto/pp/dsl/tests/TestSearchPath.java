@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.pp.dsl.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.emf.common.util.URI;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.puppetlabs.geppetto.pp.dsl.linking.PPSearchPath;
+
+/**
+ * Tests that the compiled search path gives the same index as matching each entry in turn.
+ */
+public class TestSearchPath {
+	private static int expectedIndex(PPSearchPath searchPath, List<IPath> entries, String candidate) {
+		for(int idx = 0; idx < entries.size(); idx++)
+			if(searchPath.isMatch(new Path(candidate), entries.get(idx)))
+				return idx + 1;
+		return -1;
+	}
+
+	@Test
+	public void compiledPathMatchesEntriesInOrder() {
+		String path = "modules/apache:modules/*:lib/x/*/y:manifests:*/site:modules/apache/*";
+		PPSearchPath searchPath = PPSearchPath.fromString(path, null);
+		List<IPath> entries = Lists.newArrayList();
+		for(String s : path.split(":"))
+			entries.add(new Path(s));
+
+		String[] candidates = {
+				"modules/apache/init.pp", "modules/apache", "modules/ntp/manifests/init.pp", "modules", "lib/x/z.pp",
+				"lib/x/a/b/c.pp", "manifests/site.pp", "manifests/nodes/a.pp", "roles/site/x.pp", "site.pp", "other.pp",
+				"roles/site", "roles/site/a/b.pp" };
+		for(String candidate : candidates)
+			assertEquals(
+				candidate, expectedIndex(searchPath, entries, candidate),
+				searchPath.searchIndexOf(URI.createURI(candidate)));
+	}
+
+	@Test
+	public void pptpIsAlwaysFirst() {
+		PPSearchPath searchPath = PPSearchPath.fromString("modules/*", null);
+		assertEquals(0, searchPath.searchIndexOf(URI.createURI("puppet-2.7.pptp")));
+		assertEquals(-1, searchPath.searchIndexOf(URI.createURI("manifests/site.pp")));
+	}
+}
@@ -49,6 +49,11 @@ public class PPResource extends LazyLinkingResource {
 	 */
 	protected volatile boolean isLinking = false;
 
+	/**
+	 * The change being applied by {@link #update(int, int, String)}, or null
+	 */
+	private DocumentationAssociator.Change pendingChange;
+
 	/**
 	 * By calling this method, the next call to {@link #resolveLazyCrossReferences(CancelIndicator)} will
 	 * perform PP linking.
@@ -116,6 +121,24 @@ public class PPResource extends LazyLinkingResource {
 		ensureLinkedState(mon);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Overridden to remember the change so that documentation only has to be associated anew for the reparsed part of
+	 * the model.
+	 * </p>
+	 */
+	@Override
+	public void update(int offset, int replacedTextLength, String newText) {
+		pendingChange = documentationAssociator.prepareChange(getParseResult(), offset, replacedTextLength, newText);
+		try {
+			super.update(offset, replacedTextLength, newText);
+		}
+		finally {
+			pendingChange = null;
+		}
+	}
+
 	/**
 	 * Overridden to make sure that the cache is initialized during {@link #isLoading() loading}.
 	 */
@@ -137,7 +160,11 @@ public class PPResource extends LazyLinkingResource {
 		super.updateInternalState(oldParseResult, newParseResult);
 		EObject model = newParseResult.getRootASTElement();
 
-		documentationAssociator.linkDocumentation(model);
+		// a partial reparse keeps the root of the model
+		if(pendingChange != null && oldParseResult != null && oldParseResult.getRootASTElement() == model)
+			documentationAssociator.linkDocumentation(model, pendingChange);
+		else
+			documentationAssociator.linkDocumentation(model);
 	}
 
 }
@@ -7,6 +7,7 @@ options {
 	tokenVocab=InternalPPLexer;
 	superClass=AbstractInternalAntlrParser;
 	backtrack=true;
+	memoize=true;
 	
 }
 
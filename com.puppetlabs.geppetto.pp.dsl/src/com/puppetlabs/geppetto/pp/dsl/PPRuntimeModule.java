@@ -25,6 +25,7 @@ import com.puppetlabs.geppetto.pp.dsl.linking.PPResourceDescriptionManager;
 import com.puppetlabs.geppetto.pp.dsl.linking.PPResourceDescriptionStrategy;
 import com.puppetlabs.geppetto.pp.dsl.linking.PPSearchPath.ISearchPathProvider;
 import com.puppetlabs.geppetto.pp.dsl.linking.PPSearchPathProvider;
+import com.puppetlabs.geppetto.pp.dsl.parser.PPPartialParsingHelper;
 import com.puppetlabs.geppetto.pp.dsl.ppformatting.PPIndentationInformation;
 import com.puppetlabs.geppetto.pp.dsl.serialization.PPValueSerializer;
 import com.puppetlabs.geppetto.pp.dsl.validation.IValidationAdvisor;
@@ -50,6 +51,7 @@ import org.eclipse.xtext.conversion.IValueConverterService;
 import org.eclipse.xtext.formatting.IIndentationInformation;
 import org.eclipse.xtext.naming.IQualifiedNameConverter;
 import org.eclipse.xtext.naming.IQualifiedNameProvider;
+import org.eclipse.xtext.parser.antlr.IPartialParsingHelper;
 import org.eclipse.xtext.parser.antlr.Lexer;
 import org.eclipse.xtext.resource.IDefaultResourceDescriptionStrategy;
 import org.eclipse.xtext.resource.IResourceDescription;
@@ -87,6 +89,13 @@ public class PPRuntimeModule extends com.puppetlabs.geppetto.pp.dsl.AbstractPPRu
 		return PPLinker.class;
 	}
 
+	/**
+	 * Restricts partial reparsing to whole statements and resource bodies.
+	 */
+	public Class<? extends IPartialParsingHelper> bindIPartialParsingHelper() {
+		return PPPartialParsingHelper.class;
+	}
+
 	/**
 	 * Handles FQN <-> String conversion and defines "::" as the separator.
 	 */
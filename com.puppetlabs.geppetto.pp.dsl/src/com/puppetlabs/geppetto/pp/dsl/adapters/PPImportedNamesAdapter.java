@@ -23,6 +23,7 @@ import org.eclipse.xtext.resource.IEObjectDescription;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.puppetlabs.geppetto.pp.dsl.linking.PPNameInterner;
 
 /**
  * The PPImportedNamesAdapter is used to record information about:
@@ -88,7 +89,8 @@ public class PPImportedNamesAdapter extends AdapterImpl {
 	Set<IEObjectDescription> ambigousDescriptions;
 
 	/**
-	 * Adds the given name to the set of searched names (names that influence the resolution).
+	 * Adds the given name to the set of searched names (names that influence the resolution). The name is interned
+	 * since the same names are searched by many resources.
 	 * 
 	 * @param name
 	 */
@@ -97,7 +99,7 @@ public class PPImportedNamesAdapter extends AdapterImpl {
 			if(importedNames == null)
 				importedNames = Lists.newArrayList();
 		}
-		importedNames.add(name);
+		importedNames.add(PPNameInterner.intern(name));
 	}
 
 	/**
@@ -47,4 +47,8 @@ public class ResourceDocumentationAdapter extends AdapterImpl {
 	public void put(EObject key, List<INode> value) {
 		semanticToCommentNodes.put(key, value);
 	}
+
+	public void remove(EObject key) {
+		semanticToCommentNodes.remove(key);
+	}
 }
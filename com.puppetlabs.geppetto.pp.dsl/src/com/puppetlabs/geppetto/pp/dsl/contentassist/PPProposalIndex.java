@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.pp.dsl.contentassist;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+
+import org.apache.commons.codec.language.DoubleMetaphone;
+import org.apache.commons.lang.StringUtils;
+import org.eclipse.xtext.naming.IQualifiedNameConverter;
+import org.eclipse.xtext.resource.IEObjectDescription;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * An index of descriptions on name that finds the candidates for a "did you mean" proposal without looking at every
+ * description. A candidate is a description whose name is within a given Levenshtein distance of the wanted name
+ * (found with a BK-tree), or whose Double Metaphone encoding is equal to, starts with, or ends with the encoding of the
+ * wanted name (found in sorted maps of encodings and reversed encodings). The encodings are computed once, when the
+ * index is built.
+ * <p>
+ * An index is immutable once built and may be used from several threads.
+ * </p>
+ */
+public class PPProposalIndex {
+	/**
+	 * Implemented by collections of descriptions that can select proposal candidates from an index rather than by
+	 * iterating all of their elements.
+	 */
+	public interface Indexed {
+		/**
+		 * @param name
+		 *            - the name for which proposals are wanted
+		 * @param metaphoneName
+		 *            - the Double Metaphone encoding of the name
+		 * @param maxDistance
+		 *            - the largest Levenshtein distance between name and candidate name that can be accepted
+		 * @return the candidates, a subset of the collection in the same relative order
+		 */
+		public Iterable<IEObjectDescription> getProposalCandidates(String name, String metaphoneName, int maxDistance);
+	}
+
+	/**
+	 * A node in the BK-tree. The children are keyed on their distance to this node.
+	 */
+	private static class Node {
+		final String name;
+
+		Map<Integer, Node> children;
+
+		Node(String name) {
+			this.name = name;
+		}
+
+		void add(String candidate) {
+			Node node = this;
+			for(;;) {
+				Integer distance = StringUtils.getLevenshteinDistance(node.name, candidate);
+				if(node.children == null)
+					node.children = Maps.newHashMap();
+				Node child = node.children.get(distance);
+				if(child == null) {
+					node.children.put(distance, new Node(candidate));
+					return;
+				}
+				node = child;
+			}
+		}
+
+		void collect(String wanted, int maxDistance, Collection<String> result) {
+			int distance = StringUtils.getLevenshteinDistance(name, wanted);
+			if(distance <= maxDistance)
+				result.add(name);
+			if(children == null)
+				return;
+			for(int d = Math.max(1, distance - maxDistance); d <= distance + maxDistance; ++d) {
+				Node child = children.get(d);
+				if(child != null)
+					child.collect(wanted, maxDistance, result);
+			}
+		}
+	}
+
+	private static void put(NavigableMap<String, List<String>> map, String key, String name) {
+		List<String> names = map.get(key);
+		if(names == null) {
+			names = Lists.newArrayList();
+			map.put(key, names);
+		}
+		names.add(name);
+	}
+
+	private static void collectStartingWith(NavigableMap<String, List<String>> map, String prefix,
+			Collection<String> result) {
+		for(List<String> names : map.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values())
+			result.addAll(names);
+	}
+
+	private static String reverse(String s) {
+		return new StringBuilder(s).reverse().toString();
+	}
+
+	private final List<IEObjectDescription> descriptions = Lists.newArrayList();
+
+	/**
+	 * Positions in {@link #descriptions} per name
+	 */
+	private final Map<String, List<Integer>> perName = Maps.newHashMap();
+
+	private final NavigableMap<String, List<String>> namesPerMetaphone = Maps.newTreeMap();
+
+	private final NavigableMap<String, List<String>> namesPerReversedMetaphone = Maps.newTreeMap();
+
+	private Node root;
+
+	/**
+	 * @param descs
+	 *            - the descriptions to index
+	 * @param converter
+	 *            - the converter used to produce the names that are compared
+	 */
+	public PPProposalIndex(Iterable<IEObjectDescription> descs, IQualifiedNameConverter converter) {
+		DoubleMetaphone encoder = new DoubleMetaphone();
+		for(IEObjectDescription d : descs) {
+			Integer position = descriptions.size();
+			descriptions.add(d);
+			String name = converter.toString(d.getName());
+			List<Integer> named = perName.get(name);
+			if(named != null) {
+				named.add(position);
+				continue;
+			}
+			perName.put(name, Lists.newArrayList(position));
+			if(root == null)
+				root = new Node(name);
+			else
+				root.add(name);
+			String metaphone = encoder.encode(name);
+			if(metaphone != null) {
+				put(namesPerMetaphone, metaphone, name);
+				put(namesPerReversedMetaphone, reverse(metaphone), name);
+			}
+		}
+	}
+
+	/**
+	 * Returns the descriptions that are candidates for a proposal for the given name.
+	 * 
+	 * @param name
+	 *            - the name for which proposals are wanted
+	 * @param metaphoneName
+	 *            - the Double Metaphone encoding of the name, or null if metaphone matches are not wanted
+	 * @param maxDistance
+	 *            - the largest Levenshtein distance between name and candidate name that can be accepted
+	 * @return the candidates, in the order they were given to the index
+	 */
+	public List<IEObjectDescription> getCandidates(String name, String metaphoneName, int maxDistance) {
+		if(root == null)
+			return Collections.emptyList();
+		Set<String> names = Sets.newHashSet();
+		root.collect(name, maxDistance, names);
+		if(metaphoneName != null) {
+			collectStartingWith(namesPerMetaphone, metaphoneName, names);
+			collectStartingWith(namesPerReversedMetaphone, reverse(metaphoneName), names);
+		}
+		List<Integer> selected = Lists.newArrayList();
+		for(String n : names)
+			selected.addAll(perName.get(n));
+		Collections.sort(selected);
+		List<IEObjectDescription> result = Lists.newArrayListWithCapacity(selected.size());
+		for(Integer position : selected)
+			result.add(descriptions.get(position));
+		return result;
+	}
+}
@@ -75,6 +75,11 @@ public class PPProposalsGenerator {
 	@Inject
 	IQualifiedNameConverter converter;
 
+	/**
+	 * The worst score that is accepted for a proposal
+	 */
+	private static final int MAX_SCORE = 5;
+
 	protected final static EClass[] DEF_AND_TYPE_ARGUMENTS = {
 			PPPackage.Literals.DEFINITION_ARGUMENT, PPTPPackage.Literals.TYPE_ARGUMENT };
 
@@ -151,6 +156,8 @@ public class PPProposalsGenerator {
 	 * obtained by taking the Levenshtein distance between the Double Monophone encodings of
 	 * candidate and given name. Candidates are selected as the names with shortest Levenshtein distance
 	 * and names that are Monophonically equal, or starts or ends monophonically.
+	 * If the given descriptions are {@link PPProposalIndex.Indexed indexed} only the candidates selected by the index
+	 * are scored.
 	 * 
 	 * @param currentName
 	 *            the name for which proposals are to be generated
@@ -169,12 +176,16 @@ public class PPProposalsGenerator {
 			return new String[0];
 
 		// compute the 5 best matches and only accept if score <= 5
-		ScoreKeeper<IEObjectDescription> tracker = new ScoreKeeper<IEObjectDescription>(5, false, 5);
+		ScoreKeeper<IEObjectDescription> tracker = new ScoreKeeper<IEObjectDescription>(5, false, MAX_SCORE);
 		// List<IEObjectDescription> metaphoneAlike = Lists.newArrayList();
 		final DoubleMetaphone encoder = new DoubleMetaphone();
 		final String metaphoneName = encoder.encode(currentName);
 
-		for(IEObjectDescription d : descs) {
+		// Nothing with a score over the cap is kept, the index selects everything that may score under it
+		Iterable<IEObjectDescription> candidates = descs instanceof PPProposalIndex.Indexed
+				? ((PPProposalIndex.Indexed) descs).getProposalCandidates(currentName, metaphoneName, MAX_SCORE)
+				: descs;
+		for(IEObjectDescription d : candidates) {
 			EClass c = d.getEClass();
 			typeok: if(types != null && types.length > 0) {
 				for(EClass wanted : types)
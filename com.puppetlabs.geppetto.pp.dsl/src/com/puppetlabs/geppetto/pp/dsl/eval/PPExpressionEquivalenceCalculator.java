@@ -32,6 +32,7 @@ import com.puppetlabs.geppetto.pp.VariableTE;
 import com.puppetlabs.geppetto.pp.VerbatimTE;
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.xtext.nodemodel.ILeafNode;
 import org.eclipse.xtext.nodemodel.INode;
 import org.eclipse.xtext.nodemodel.util.NodeModelUtils;
 import org.eclipse.xtext.util.PolymorphicDispatcher;
@@ -375,8 +376,34 @@ public class PPExpressionEquivalenceCalculator {
 				return Boolean.FALSE;
 
 			// compare source text, but skip hidden nodes
-			isEq = NodeModelUtils.getTokenText(n1).equals(NodeModelUtils.getTokenText(n2));
+			isEq = sameTokens(n1, n2);
 		}
 		return isEq;
 	}
+
+	private ILeafNode nextToken(Iterator<ILeafNode> leafNodes) {
+		while(leafNodes.hasNext()) {
+			ILeafNode leaf = leafNodes.next();
+			if(!leaf.isHidden())
+				return leaf;
+		}
+		return null;
+	}
+
+	/**
+	 * Compares the texts of the non hidden leaf nodes one by one. Unlike a comparison of the token text, the outcome
+	 * does not depend on where there are hidden nodes, or on whether all of them are present in the node model.
+	 */
+	private boolean sameTokens(INode n1, INode n2) {
+		Iterator<ILeafNode> leafNodes1 = n1.getLeafNodes().iterator();
+		Iterator<ILeafNode> leafNodes2 = n2.getLeafNodes().iterator();
+		for(;;) {
+			ILeafNode t1 = nextToken(leafNodes1);
+			ILeafNode t2 = nextToken(leafNodes2);
+			if(t1 == null || t2 == null)
+				return t1 == t2;
+			if(!t1.getText().equals(t2.getText()))
+				return false;
+		}
+	}
 }
@@ -190,6 +190,11 @@ public class NameInScopeFilter implements Iterable<IEObjectDescription> {
 		public boolean searchOuterScopes() {
 			return flags.contains(SearchType.OUTER_SCOPES);
 		}
+
+		@Override
+		public String toString() {
+			return flags.toString();
+		}
 	}
 
 	public static enum SearchType {
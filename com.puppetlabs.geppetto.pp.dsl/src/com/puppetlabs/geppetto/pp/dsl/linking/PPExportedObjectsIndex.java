@@ -0,0 +1,671 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.pp.dsl.linking;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.naming.IQualifiedNameConverter;
+import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.resource.IEObjectDescription;
+import org.eclipse.xtext.resource.IResourceDescription;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+import com.puppetlabs.geppetto.pp.dsl.PPDSLConstants;
+import com.puppetlabs.geppetto.pp.dsl.contentassist.PPProposalIndex;
+import com.puppetlabs.geppetto.pp.pptp.PPTPPackage;
+
+/**
+ * An index of exported objects per last name segment that is shared by the {@link PPFinder finders} of all resources
+ * in a resource set that see the same containers. The index of a set of visible containers is built once, and is then
+ * patched for the resources that have been added, removed, or have got a new description since the last update. This
+ * means that configuring a finder costs a pass over the visible resource descriptions rather than over all visible
+ * exports.
+ * <p>
+ * The exports for a name are kept in the order of their resources in the visible containers. A resource is numbered
+ * when it is first seen, and all resources are numbered anew when a new resource turns up before a known one, or
+ * when the known ones are seen in a different order. Exports are also kept sorted on their qualified names so that
+ * prefix queries only visit matching names. Exports with a variable pattern are kept separately, with their patterns
+ * compiled and grouped on literal prefix. The meta parameters and meta variables, which normally come from the target
+ * platform, are kept in tables that are only rebuilt when a resource that contributes to them changes. An index of
+ * names for proposals is built on demand and dropped when the named exports change. The index is safe to use from
+ * several threads.
+ * </p>
+ * <p>
+ * The entries that include a resource are dropped when the resource is removed from the resource set. They are
+ * created again, if still needed, the next time a finder asks for them.
+ * </p>
+ */
+public class PPExportedObjectsIndex extends AdapterImpl {
+	/**
+	 * The exports visible from one set of containers.
+	 */
+	public static class Entry {
+		private final Map<URI, Contribution> contributions = Maps.newHashMap();
+
+		private volatile ConcurrentMap<String, List<Export>> perLastSegment =
+				new ConcurrentHashMap<String, List<Export>>();
+
+		private volatile ConcurrentNavigableMap<String, List<Export>> perName =
+				new ConcurrentSkipListMap<String, List<Export>>();
+
+		private volatile List<Export> patternVariables = Collections.emptyList();
+
+		private volatile PatternTrie patternTrie = new PatternTrie(patternVariables);
+
+		private volatile MetaTables metaTables;
+
+		private volatile PPProposalIndex proposalIndex;
+
+		private int nextOrdinal;
+
+		/**
+		 * @param uri
+		 * @return <code>true</code> if the resource with the given URI contributed to the last update
+		 */
+		synchronized boolean contains(URI uri) {
+			return contributions.containsKey(uri);
+		}
+
+		/**
+		 * @return all indexed exports except those with a variable pattern
+		 */
+		public Iterable<IEObjectDescription> getAll() {
+			return Iterables.concat(Iterables.transform(perLastSegment.values(), toDescriptions));
+		}
+
+		/**
+		 * Returns the exports whose {@link PPExportedObjectsIndex#toNamePrefix(QualifiedName, boolean) name key} starts
+		 * with one of the given prefixes, in name order per prefix. An export is returned once even if more than one
+		 * prefix matches it.
+		 * 
+		 * @param prefixes
+		 * @return the matching exports, except those with a variable pattern
+		 */
+		public Iterable<IEObjectDescription> getByNamePrefix(String... prefixes) {
+			List<List<Export>> matching = Lists.newArrayList();
+			outer: for(int i = 0; i < prefixes.length; ++i) {
+				// skip prefixes that select a subset of what another prefix selects
+				for(int j = 0; j < prefixes.length; ++j)
+					if(i != j && prefixes[i].startsWith(prefixes[j]) &&
+							(prefixes[i].length() > prefixes[j].length() || i > j))
+						continue outer;
+				matching.addAll(perName.subMap(prefixes[i], true, prefixes[i] + Character.MAX_VALUE, false).values());
+			}
+			return Iterables.concat(Iterables.transform(matching, toDescriptions));
+		}
+
+		/**
+		 * @param lastSegment
+		 * @return the exports with the given last name segment, except those with a variable pattern
+		 */
+		public List<IEObjectDescription> getByLastSegment(String lastSegment) {
+			List<Export> exports = perLastSegment.get(lastSegment);
+			return exports == null
+					? Collections.<IEObjectDescription> emptyList()
+					: Lists.transform(exports, getDescription);
+		}
+
+		/**
+		 * Returns the exports with a variable pattern that match the given name. Such an export matches when its last
+		 * name segment is a prefix of the name and its pattern matches the rest of the name.
+		 * 
+		 * @param name
+		 *            - a last name segment
+		 * @return the matching exports, in container order
+		 */
+		public List<IEObjectDescription> findPatternVariables(String name) {
+			return Lists.transform(patternTrie.match(name), getDescription);
+		}
+
+		/**
+		 * @return meta parameters (the type arguments of 'Type') per name, sorted on name
+		 */
+		public SortedMap<String, IEObjectDescription> getMetaParameters() {
+			return getMetaTables().parameters;
+		}
+
+		private MetaTables getMetaTables() {
+			MetaTables tables = metaTables;
+			if(tables == null)
+				synchronized(this) {
+					tables = metaTables;
+					if(tables == null) {
+						List<Contribution> contributing = Lists.newArrayList();
+						for(Contribution c : contributions.values())
+							if(!c.meta.isEmpty())
+								contributing.add(c);
+						Collections.sort(contributing, contributionsByOrdinal);
+						tables = new MetaTables(contributing);
+						metaTables = tables;
+					}
+				}
+			return tables;
+		}
+
+		/**
+		 * @return meta variables per name
+		 */
+		public Map<String, IEObjectDescription> getMetaVariables() {
+			return getMetaTables().variables;
+		}
+
+		/**
+		 * @param converter
+		 *            - the converter used to produce the names in the index
+		 * @return an index of all exports except those with a variable pattern, in the order of {@link #getAll()}
+		 */
+		public PPProposalIndex getProposalIndex(IQualifiedNameConverter converter) {
+			PPProposalIndex index = proposalIndex;
+			if(index == null)
+				synchronized(this) {
+					index = proposalIndex;
+					if(index == null) {
+						index = new PPProposalIndex(getAll(), converter);
+						proposalIndex = index;
+					}
+				}
+			return index;
+		}
+
+		/**
+		 * @return the exports with a variable pattern
+		 */
+		public List<IEObjectDescription> getPatternVariables() {
+			return Lists.transform(patternVariables, getDescription);
+		}
+
+		/**
+		 * @param descriptions
+		 *            - the descriptions in container order
+		 * @return <code>true</code> if the known resources among the given descriptions are numbered in the given
+		 *         order, and all new resources come after them
+		 */
+		private boolean isNumberedInOrder(List<IResourceDescription> descriptions) {
+			Set<URI> seen = Sets.newHashSet();
+			int last = -1;
+			boolean added = false;
+			for(IResourceDescription rd : descriptions) {
+				URI uri = rd.getURI();
+				if(!seen.add(uri))
+					continue;
+				Contribution c = contributions.get(uri);
+				if(c == null)
+					added = true;
+				else if(added || c.ordinal < last)
+					return false;
+				else
+					last = c.ordinal;
+			}
+			return true;
+		}
+
+		private List<Export> patch(List<Export> current, Set<Integer> replaced, Iterable<Export> added) {
+			List<Export> exports = Lists.newArrayList();
+			if(current != null)
+				for(Export e : current)
+					if(!replaced.contains(e.ordinal))
+						exports.add(e);
+			Iterables.addAll(exports, added);
+			Collections.sort(exports, byOrdinal);
+			return ImmutableList.copyOf(exports);
+		}
+
+		/**
+		 * Brings the index up to date with the given descriptions. Descriptions that are identical to those used in the
+		 * last update are not looked at again.
+		 * 
+		 * @param descriptions
+		 *            - the descriptions of all resources in the visible containers, in container order
+		 */
+		public synchronized void update(Iterable<IResourceDescription> descriptions) {
+			List<IResourceDescription> visible = Lists.newArrayList(descriptions);
+			ConcurrentMap<String, List<Export>> segmentTable = perLastSegment;
+			ConcurrentNavigableMap<String, List<Export>> nameTable = perName;
+			List<Export> patterns = patternVariables;
+			boolean renumber = !isNumberedInOrder(visible);
+			if(renumber) {
+				// start over, the tables in use are replaced when they are complete
+				contributions.clear();
+				nextOrdinal = 0;
+				segmentTable = new ConcurrentHashMap<String, List<Export>>();
+				nameTable = new ConcurrentSkipListMap<String, List<Export>>();
+				patterns = Collections.emptyList();
+			}
+			Set<URI> seen = Sets.newHashSet();
+			Set<Integer> replaced = Sets.newHashSet();
+			Multimap<String, Export> added = ArrayListMultimap.create();
+			Multimap<String, Export> addedNames = ArrayListMultimap.create();
+			Set<String> affectedKeys = Sets.newHashSet();
+			Set<String> affectedNames = Sets.newHashSet();
+			List<Export> addedPatterns = Lists.newArrayList();
+			boolean patternsAffected = renumber;
+			boolean metaAffected = renumber;
+
+			for(IResourceDescription rd : visible) {
+				URI uri = rd.getURI();
+				if(!seen.add(uri))
+					continue;
+				Contribution old = contributions.get(uri);
+				if(old != null && old.source == rd)
+					continue;
+
+				int ordinal;
+				if(old == null)
+					ordinal = nextOrdinal++;
+				else {
+					ordinal = old.ordinal;
+					patternsAffected |= old.retract(replaced, affectedKeys, affectedNames);
+					metaAffected |= !old.meta.isEmpty();
+				}
+				Contribution c = new Contribution(ordinal, rd);
+				contributions.put(uri, c);
+				metaAffected |= !c.meta.isEmpty();
+				for(Export e : c.named) {
+					String key = e.desc.getQualifiedName().getLastSegment();
+					added.put(key, e);
+					affectedKeys.add(key);
+					addedNames.put(e.nameKey, e);
+					affectedNames.add(e.nameKey);
+				}
+				if(!c.patterned.isEmpty()) {
+					addedPatterns.addAll(c.patterned);
+					patternsAffected = true;
+				}
+			}
+
+			// Drop resources that are no longer visible
+			if(seen.size() < contributions.size()) {
+				Iterator<Map.Entry<URI, Contribution>> itor = contributions.entrySet().iterator();
+				while(itor.hasNext()) {
+					Map.Entry<URI, Contribution> entry = itor.next();
+					if(!seen.contains(entry.getKey())) {
+						patternsAffected |= entry.getValue().retract(replaced, affectedKeys, affectedNames);
+						metaAffected |= !entry.getValue().meta.isEmpty();
+						itor.remove();
+					}
+				}
+			}
+
+			if(renumber || !affectedKeys.isEmpty())
+				proposalIndex = null;
+			for(String key : affectedKeys) {
+				List<Export> exports = patch(segmentTable.get(key), replaced, added.get(key));
+				if(exports.isEmpty())
+					segmentTable.remove(key);
+				else
+					segmentTable.put(key, exports);
+			}
+			for(String name : affectedNames) {
+				List<Export> exports = patch(nameTable.get(name), replaced, addedNames.get(name));
+				if(exports.isEmpty())
+					nameTable.remove(name);
+				else
+					nameTable.put(name, exports);
+			}
+			if(patternsAffected) {
+				patterns = patch(patterns, replaced, addedPatterns);
+				patternVariables = patterns;
+				patternTrie = new PatternTrie(patterns);
+			}
+			perLastSegment = segmentTable;
+			perName = nameTable;
+			if(metaAffected)
+				metaTables = null;
+		}
+	}
+
+	/**
+	 * The exports of one resource.
+	 */
+	private static class Contribution {
+		final int ordinal;
+
+		final IResourceDescription source;
+
+		final List<Export> named = Lists.newArrayList();
+
+		final List<Export> patterned = Lists.newArrayList();
+
+		final List<IEObjectDescription> meta = Lists.newArrayList();
+
+		Contribution(int ordinal, IResourceDescription source) {
+			this.ordinal = ordinal;
+			this.source = source;
+			// empty names may be present in case of syntax errors, they can not be found anyway
+			for(IEObjectDescription d : source.getExportedObjects())
+				if(d.getQualifiedName().getSegmentCount() >= 1) {
+					if(d.getUserData(PPDSLConstants.VARIABLE_PATTERN) != null)
+						patterned.add(new Export(ordinal, d));
+					else
+						named.add(new Export(ordinal, d));
+					if(MetaTables.isMetaParameter(d) || MetaTables.isMetaVariable(d))
+						meta.add(d);
+				}
+		}
+
+		/**
+		 * Records what is affected when this contribution is removed.
+		 * 
+		 * @return <code>true</code> if pattern variables are affected
+		 */
+		boolean retract(Set<Integer> replaced, Set<String> affectedKeys, Set<String> affectedNames) {
+			replaced.add(ordinal);
+			for(Export e : named) {
+				affectedKeys.add(e.desc.getQualifiedName().getLastSegment());
+				affectedNames.add(e.nameKey);
+			}
+			return !patterned.isEmpty();
+		}
+	}
+
+	/**
+	 * Meta parameters and meta variables per name. When a name occurs more than once, the last one in container order
+	 * is used.
+	 */
+	private static class MetaTables {
+		static boolean isMetaParameter(IEObjectDescription d) {
+			EClass wantedType = PPTPPackage.Literals.TYPE_ARGUMENT;
+			return "Type".equals(d.getQualifiedName().getFirstSegment()) &&
+					(wantedType == d.getEClass() || wantedType.isSuperTypeOf(d.getEClass()));
+		}
+
+		static boolean isMetaVariable(IEObjectDescription d) {
+			return d.getEClass() == PPTPPackage.Literals.META_VARIABLE;
+		}
+
+		final SortedMap<String, IEObjectDescription> parameters;
+
+		final Map<String, IEObjectDescription> variables;
+
+		MetaTables(List<Contribution> contributing) {
+			SortedMap<String, IEObjectDescription> params = Maps.newTreeMap();
+			Map<String, IEObjectDescription> vars = Maps.newHashMap();
+			for(Contribution c : contributing)
+				for(IEObjectDescription d : c.meta) {
+					if(isMetaParameter(d))
+						params.put(d.getQualifiedName().getLastSegment(), d);
+					else
+						vars.put(d.getQualifiedName().getLastSegment(), d);
+				}
+			parameters = Collections.unmodifiableSortedMap(params);
+			variables = Collections.unmodifiableMap(vars);
+		}
+	}
+
+	private static class Export {
+		final int ordinal;
+
+		final IEObjectDescription desc;
+
+		final String nameKey;
+
+		/**
+		 * The compiled variable pattern, or null if there is none (or if it is not a valid regular expression)
+		 */
+		final Pattern pattern;
+
+		Export(int ordinal, IEObjectDescription desc) {
+			this.ordinal = ordinal;
+			this.desc = desc;
+			this.nameKey = toNamePrefix(desc.getQualifiedName(), true);
+			String regexp = desc.getUserData(PPDSLConstants.VARIABLE_PATTERN);
+			Pattern compiled = null;
+			if(regexp != null)
+				try {
+					compiled = Pattern.compile(regexp);
+				}
+				catch(PatternSyntaxException e) {
+					// can not match anything
+				}
+			this.pattern = compiled;
+		}
+	}
+
+	/**
+	 * Exports with a variable pattern in a tree keyed on the characters of their last name segment, so that the
+	 * candidates for a name are found by walking the characters of the name.
+	 */
+	private static class PatternTrie {
+		private static class Node {
+			final Map<Character, Node> children = Maps.newHashMap();
+
+			/**
+			 * Positions in {@link PatternTrie#patterned} of the exports with this prefix
+			 */
+			final List<Integer> positions = Lists.newArrayList();
+		}
+
+		private final List<Export> patterned;
+
+		private final Node root = new Node();
+
+		PatternTrie(List<Export> patterned) {
+			this.patterned = patterned;
+			for(int position = 0; position < patterned.size(); ++position) {
+				Export e = patterned.get(position);
+				if(e.pattern == null)
+					continue;
+				String prefix = e.desc.getName().getLastSegment();
+				Node node = root;
+				for(int i = 0; i < prefix.length(); ++i) {
+					Character c = Character.valueOf(prefix.charAt(i));
+					Node child = node.children.get(c);
+					if(child == null) {
+						child = new Node();
+						node.children.put(c, child);
+					}
+					node = child;
+				}
+				node.positions.add(position);
+			}
+		}
+
+		/**
+		 * @param name
+		 * @return the matching exports in the order they have in the list the trie was built from
+		 */
+		List<Export> match(String name) {
+			List<Integer> matching = null;
+			Node node = root;
+			for(int i = 0; node != null; ++i) {
+				for(Integer position : node.positions)
+					if(patterned.get(position).pattern.matcher(name.substring(i)).matches()) {
+						if(matching == null)
+							matching = Lists.newArrayList();
+						matching.add(position);
+					}
+				node = i < name.length()
+						? node.children.get(Character.valueOf(name.charAt(i)))
+						: null;
+			}
+			if(matching == null)
+				return Collections.emptyList();
+			Collections.sort(matching);
+			List<Export> result = Lists.newArrayListWithCapacity(matching.size());
+			for(Integer position : matching)
+				result.add(patterned.get(position));
+			return result;
+		}
+	}
+
+	private static final Comparator<Export> byOrdinal = new Comparator<Export>() {
+		@Override
+		public int compare(Export a, Export b) {
+			return a.ordinal < b.ordinal
+					? -1
+					: a.ordinal > b.ordinal
+							? 1
+							: 0;
+		}
+	};
+
+	private static final Comparator<Contribution> contributionsByOrdinal = new Comparator<Contribution>() {
+		@Override
+		public int compare(Contribution a, Contribution b) {
+			return a.ordinal < b.ordinal
+					? -1
+					: a.ordinal > b.ordinal
+							? 1
+							: 0;
+		}
+	};
+
+	private static final Function<Export, IEObjectDescription> getDescription = new Function<Export, IEObjectDescription>() {
+		@Override
+		public IEObjectDescription apply(Export from) {
+			return from.desc;
+		}
+	};
+
+	private static final Function<List<Export>, List<IEObjectDescription>> toDescriptions = new Function<List<Export>, List<IEObjectDescription>>() {
+		@Override
+		public List<IEObjectDescription> apply(List<Export> from) {
+			return Lists.transform(from, getDescription);
+		}
+	};
+
+	/**
+	 * Separates the segments of a name key. It can not occur in a name segment and sorts before all other characters,
+	 * which keeps names with a common first segment together.
+	 */
+	private static final char SEGMENT_SEPARATOR = '\u0000';
+
+	/**
+	 * Returns the index of the given resource set, creating it if needed.
+	 * 
+	 * @param resourceSet
+	 * @return the index
+	 */
+	public static PPExportedObjectsIndex get(ResourceSet resourceSet) {
+		synchronized(PPExportedObjectsIndex.class) {
+			PPExportedObjectsIndex index = (PPExportedObjectsIndex) EcoreUtil.getExistingAdapter(
+				resourceSet, PPExportedObjectsIndex.class);
+			if(index == null) {
+				index = new PPExportedObjectsIndex();
+				resourceSet.eAdapters().add(index);
+			}
+			return index;
+		}
+	}
+
+	/**
+	 * Returns the key prefix that selects names that start with the given name for use with
+	 * {@link Entry#getByNamePrefix(String...)}.
+	 * 
+	 * @param name
+	 * @param partialLastSegment
+	 *            - <code>true</code> if the last segment of name only has to be the start of the corresponding segment
+	 *            in a selected name, <code>false</code> if all segments must be equal
+	 * @return the key prefix
+	 */
+	public static String toNamePrefix(QualifiedName name, boolean partialLastSegment) {
+		StringBuilder bld = new StringBuilder();
+		int count = name.getSegmentCount();
+		for(int idx = 0; idx < count; ++idx) {
+			if(idx > 0)
+				bld.append(SEGMENT_SEPARATOR);
+			bld.append(name.getSegment(idx));
+		}
+		if(!partialLastSegment && count > 0)
+			bld.append(SEGMENT_SEPARATOR);
+		return bld.toString();
+	}
+
+	private final Map<List<String>, Entry> entries = Maps.newHashMap();
+
+	/**
+	 * Drops the entries that include any of the given resources.
+	 * 
+	 * @param uris
+	 *            - the URIs of the removed resources
+	 */
+	private synchronized void dropEntries(Set<URI> uris) {
+		Iterator<Entry> itor = entries.values().iterator();
+		while(itor.hasNext()) {
+			Entry entry = itor.next();
+			for(URI uri : uris)
+				if(entry.contains(uri)) {
+					itor.remove();
+					break;
+				}
+		}
+	}
+
+	/**
+	 * Returns the entry for the given visible containers, creating an empty entry if needed. The entry must be
+	 * {@link Entry#update(Iterable) updated} before it is used.
+	 * 
+	 * @param visibleContainerHandles
+	 * @return the entry
+	 */
+	public synchronized Entry getEntry(List<String> visibleContainerHandles) {
+		List<String> key = ImmutableList.copyOf(visibleContainerHandles);
+		Entry entry = entries.get(key);
+		if(entry == null) {
+			entry = new Entry();
+			entries.put(key, entry);
+		}
+		return entry;
+	}
+
+	@Override
+	public boolean isAdapterForType(Object type) {
+		return type == PPExportedObjectsIndex.class;
+	}
+
+	/**
+	 * Drops the entries that include a resource that is removed from the resource set.
+	 */
+	@Override
+	public void notifyChanged(Notification msg) {
+		if(msg.getFeatureID(ResourceSet.class) != ResourceSet.RESOURCE_SET__RESOURCES)
+			return;
+		Set<URI> removed = Sets.newHashSet();
+		switch(msg.getEventType()) {
+			case Notification.REMOVE:
+				removed.add(((Resource) msg.getOldValue()).getURI());
+				break;
+			case Notification.REMOVE_MANY:
+				for(Object o : (List<?>) msg.getOldValue())
+					removed.add(((Resource) o).getURI());
+				break;
+			default:
+				return;
+		}
+		dropEntries(removed);
+	}
+}
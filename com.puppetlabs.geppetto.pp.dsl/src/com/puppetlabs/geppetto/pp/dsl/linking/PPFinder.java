@@ -10,16 +10,20 @@
  */
 package com.puppetlabs.geppetto.pp.dsl.linking;
 
+import java.util.AbstractCollection;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
+import java.util.SortedMap;
 
 import org.eclipse.emf.common.util.TreeIterator;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.xtext.naming.IQualifiedNameConverter;
 import org.eclipse.xtext.naming.IQualifiedNameProvider;
 import org.eclipse.xtext.naming.QualifiedName;
@@ -29,8 +33,12 @@ import org.eclipse.xtext.resource.IEObjectDescription;
 import org.eclipse.xtext.resource.IResourceDescription;
 import org.eclipse.xtext.resource.IResourceDescriptions;
 import org.eclipse.xtext.resource.IResourceServiceProvider;
+import org.eclipse.xtext.resource.containers.IAllContainersState;
+import org.eclipse.xtext.resource.containers.StateBasedContainerManager;
 
 import com.google.common.base.Function;
+import com.google.common.base.Objects;
+import com.google.common.base.Predicate;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
@@ -54,6 +62,7 @@ import com.puppetlabs.geppetto.pp.ResourceBody;
 import com.puppetlabs.geppetto.pp.VariableExpression;
 import com.puppetlabs.geppetto.pp.dsl.PPDSLConstants;
 import com.puppetlabs.geppetto.pp.dsl.adapters.PPImportedNamesAdapter;
+import com.puppetlabs.geppetto.pp.dsl.contentassist.PPProposalIndex;
 import com.puppetlabs.geppetto.pp.dsl.linking.NameInScopeFilter.Match;
 import com.puppetlabs.geppetto.pp.dsl.linking.NameInScopeFilter.SearchStrategy;
 import com.puppetlabs.geppetto.pp.dsl.linking.PPSearchPath.ISearchPathProvider;
@@ -98,6 +107,69 @@ public class PPFinder {
 		}
 	}
 
+	/**
+	 * A view of all visible exports. Proposal candidates are selected from the shared proposal index, and from the
+	 * (few) dirty exports of the resource being linked.
+	 */
+	private class ExportedDescriptions extends AbstractCollection<IEObjectDescription> implements
+			PPProposalIndex.Indexed {
+		private final Iterable<IEObjectDescription> all = Iterables.concat(
+			dirtyExportsPerLastSegment.values(), Iterables.filter(sharedExports.getAll(), notInCurrent));
+
+		@Override
+		public Iterable<IEObjectDescription> getProposalCandidates(String name, String metaphoneName, int maxDistance) {
+			return Iterables.concat(dirtyExportsPerLastSegment.values(), Iterables.filter(
+				sharedExports.getProposalIndex(converter).getCandidates(name, metaphoneName, maxDistance), notInCurrent));
+		}
+
+		@Override
+		public Iterator<IEObjectDescription> iterator() {
+			return Iterables.unmodifiableIterable(all).iterator();
+		}
+
+		@Override
+		public int size() {
+			return Iterables.size(all);
+		}
+	}
+
+	/**
+	 * Identifies a lookup from the resource being linked. The search strategies are shared constants and are compared
+	 * by identity.
+	 */
+	private static final class ResolutionKey {
+		private final QualifiedName nameOfScope;
+
+		private final QualifiedName fqn;
+
+		private final List<EClass> eClasses;
+
+		private final SearchStrategy matchingStrategy;
+
+		ResolutionKey(QualifiedName nameOfScope, QualifiedName fqn, EClass[] eClasses, SearchStrategy matchingStrategy) {
+			this.nameOfScope = nameOfScope;
+			this.fqn = fqn;
+			this.eClasses = Arrays.asList(eClasses.clone());
+			this.matchingStrategy = matchingStrategy;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(o == this)
+				return true;
+			if(!(o instanceof ResolutionKey))
+				return false;
+			ResolutionKey k = (ResolutionKey) o;
+			return matchingStrategy == k.matchingStrategy && fqn.equals(k.fqn) &&
+					Objects.equal(nameOfScope, k.nameOfScope) && eClasses.equals(k.eClasses);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hashCode(nameOfScope, fqn, eClasses, System.identityHashCode(matchingStrategy));
+		}
+	}
+
 	private final static EClass[] CLASSES_FOR_VARIABLES = { //
 	PPPackage.Literals.DEFINITION_ARGUMENT, //
 			PPTPPackage.Literals.TP_VARIABLE, //
@@ -129,7 +201,31 @@ public class PPFinder {
 
 	private PPSearchPath searchPath;
 
-	private Multimap<String, IEObjectDescription> exportedPerLastSegment;
+	/**
+	 * The current (possibly dirty) exports of the resource being linked
+	 */
+	private Multimap<String, IEObjectDescription> dirtyExportsPerLastSegment;
+
+	/**
+	 * The exports of all visible resources, shared with other resources that see the same containers. The entries for
+	 * the resource being linked are replaced by {@link #dirtyExportsPerLastSegment}.
+	 */
+	private PPExportedObjectsIndex.Entry sharedExports;
+
+	private String pathToCurrent;
+
+	private final Predicate<IEObjectDescription> notInCurrent = new Predicate<IEObjectDescription>() {
+		@Override
+		public boolean apply(IEObjectDescription d) {
+			return !d.getEObjectURI().path().equals(pathToCurrent);
+		}
+	};
+
+	/**
+	 * Access to the container state, used to find the visible containers that identify a shared index.
+	 */
+	@Inject
+	private IAllContainersState.Provider containersStateProvider;
 
 	/**
 	 * Access to the 'pp' services (container management and more).
@@ -164,20 +260,33 @@ public class PPFinder {
 	@Named(PPDSLConstants.PP_DEBUG_LINKER)
 	private ITracer tracer;
 
-	private Map<String, IEObjectDescription> metaCache;
+	private SortedMap<String, IEObjectDescription> metaCache;
 
 	private Map<String, IEObjectDescription> metaVarCache;
 
 	private List<IEObjectDescription> exportedPatternVariables;
 
+	/**
+	 * Results of lookups from the resource being linked, valid until the next call to {@link #configure(Resource)}.
+	 */
+	private final Map<ResolutionKey, SearchResult> resolutionCache = Maps.newHashMap();
+
+	private int resolutionHits;
+
+	private int resolutionMisses;
+
+	/**
+	 * Receives the statistics of the lookups, or null if lookups are not profiled
+	 */
+	private PPLinkerProfiler.Profile profile;
+
 	private void buildExportedObjectsIndex(IResourceDescription descr, IResourceDescriptions descriptionIndex) {
 		// The current (possibly dirty) exported resources
 		IResourceDescription dirty = resourceServiceProvider.getResourceDescriptionManager().getResourceDescription(
 			resource);
-		String pathToCurrent = resource.getURI().path();
+		pathToCurrent = resource.getURI().path();
 
 		Multimap<String, IEObjectDescription> map = ArrayListMultimap.create();
-		List<IEObjectDescription> patternedVariables = Lists.newArrayList();
 		// add all (possibly dirty in global index)
 		// check for empty qualified names which may be present in case of syntax errors / while editing etc.
 		// empty names are simply skipped (they can not be found anyway).
@@ -185,26 +294,34 @@ public class PPFinder {
 		for(IEObjectDescription d : dirty.getExportedObjects())
 			if(d.getQualifiedName().getSegmentCount() >= 1)
 				map.put(d.getQualifiedName().getLastSegment(), d);
-		// add all from global index, except those for current resource
-		for(IEObjectDescription d : getExportedObjects(descr, descriptionIndex))
-			if(!d.getEObjectURI().path().equals(pathToCurrent) && d.getQualifiedName().getSegmentCount() >= 1) {
-				// patterned based names are exceptional
-				if(d.getUserData(PPDSLConstants.VARIABLE_PATTERN) != null) {
-					patternedVariables.add(d);
-				}
-				else {
-					map.put(d.getQualifiedName().getLastSegment(), d);
+		dirtyExportsPerLastSegment = map;
+
+		// all from global index, except those for current resource (which are filtered out on lookup)
+		sharedExports = getSharedExports(descr, descriptionIndex);
+		sharedExports.update(Iterables.concat(Iterables.transform(
+			manager.getVisibleContainers(descr, descriptionIndex),
+			new Function<IContainer, Iterable<IResourceDescription>>() {
+				@Override
+				public Iterable<IResourceDescription> apply(IContainer from) {
+					return from.getResourceDescriptions();
 				}
-			}
-		exportedPerLastSegment = map;
-		exportedPatternVariables = patternedVariables;
+			})));
+
+		// patterned based names are exceptional
+		exportedPatternVariables = Lists.newArrayList(Iterables.filter(
+			sharedExports.getPatternVariables(), notInCurrent));
 	}
 
 	private void cacheMetaParameters(EObject scopeDetermeningObject) {
-		metaCache = Maps.newHashMap();
-		metaVarCache = Maps.newHashMap();
-
 		Resource scopeDetermeningResource = scopeDetermeningObject.eResource();
+		if(scopeDetermeningResource == resource && sharedExports != null) {
+			// the tables are shared by all finders that see the same containers (i.e. the same target platform)
+			metaCache = sharedExports.getMetaParameters();
+			metaVarCache = sharedExports.getMetaVariables();
+			return;
+		}
+		metaCache = Maps.newTreeMap();
+		metaVarCache = Maps.newHashMap();
 
 		IResourceDescriptions descriptionIndex = indexProvider.getResourceDescriptions(scopeDetermeningResource);
 		IResourceDescription descr = descriptionIndex.getResourceDescription(scopeDetermeningResource.getURI());
@@ -231,6 +348,11 @@ public class PPFinder {
 
 	public void configure(Resource r) {
 		resource = r;
+		metaCache = null;
+		metaVarCache = null;
+		resolutionCache.clear();
+		resolutionHits = 0;
+		resolutionMisses = 0;
 		IResourceDescriptions descriptionIndex = indexProvider.getResourceDescriptions(resource);
 		IResourceDescription descr = descriptionIndex.getResourceDescription(resource.getURI());
 
@@ -252,6 +374,7 @@ public class PPFinder {
 	 */
 	public SearchResult findAttributes(EObject scopeDetermeningObject, QualifiedName fqn,
 			PPImportedNamesAdapter importedNames) {
+		long start = startProfiling();
 		SearchResult result = null;
 
 		// do meta lookup first as this is made fast via a cache and these are used more frequent
@@ -265,7 +388,7 @@ public class PPFinder {
 				DEF_AND_TYPE_ARGUMENTS);
 		else
 			result = new SearchResult(Lists.newArrayList(d));
-		return result;
+		return profiled("findAttributes", start, result);
 	}
 
 	/**
@@ -284,9 +407,11 @@ public class PPFinder {
 		if(metaCache == null)
 			cacheMetaParameters(resourceBody);
 		String fqnLast = fqn.getLastSegment();
-		for(String name : metaCache.keySet())
-			if(name.startsWith(fqnLast))
-				result.add(metaCache.get(name));
+		for(Map.Entry<String, IEObjectDescription> entry : metaCache.tailMap(fqnLast).entrySet()) {
+			if(!entry.getKey().startsWith(fqnLast))
+				break;
+			result.add(entry.getValue());
+		}
 
 		result.addAll(findInherited(
 			resourceBody, fqn, null, Lists.<QualifiedName> newArrayList(), Match.STARTS_WITH, DEF_AND_TYPE_ARGUMENTS).getAdjusted());
@@ -307,6 +432,7 @@ public class PPFinder {
 
 	public SearchResult findDefinitions(EObject scopeDetermeningResource, String name,
 			PPImportedNamesAdapter importedNames) {
+		long start = startProfiling();
 		if(name == null)
 			throw new IllegalArgumentException("name is null");
 		QualifiedName fqn = converter.toQualifiedName(name);
@@ -320,11 +446,22 @@ public class PPFinder {
 		// TODO: Note that order is important, TYPE has higher precedence and should be used for linking
 		// This used to work when list was iterated per type, not it is iterated once with type check
 		// first - thus if a definition is found before a type, it is earlier in the list.
-		return findExternal(scopeDetermeningResource, fqn2, importedNames, Match.EQUALS, DEF_AND_TYPE);
+		return profiled("findDefinitions", start, findExternal(
+			scopeDetermeningResource, fqn2, importedNames, Match.EQUALS, DEF_AND_TYPE));
 	}
 
 	private SearchResult findExternal(EObject scopeDetermeningObject, QualifiedName fqn,
 			PPImportedNamesAdapter importedNames, SearchStrategy matchingStrategy, EClass... eClasses) {
+		long start = startProfiling();
+		SearchResult result = internalFindExternal(
+			scopeDetermeningObject, fqn, importedNames, matchingStrategy, eClasses);
+		if(profile != null)
+			profile.record(PPLinkerProfiler.STRATEGY, matchingStrategy, start);
+		return profiled("findExternal", start, result);
+	}
+
+	private SearchResult internalFindExternal(EObject scopeDetermeningObject, QualifiedName fqn,
+			PPImportedNamesAdapter importedNames, SearchStrategy matchingStrategy, EClass... eClasses) {
 		if(scopeDetermeningObject == null)
 			throw new IllegalArgumentException("scope determening object is null");
 		if(fqn == null)
@@ -375,36 +512,39 @@ public class PPFinder {
 		else {
 			// This is lookup from the main resource perspective
 			QualifiedName nameOfScope = getNameOfScope(scopeDetermeningObject);
+			ResolutionKey key = new ResolutionKey(nameOfScope, fqn, eClasses, matchingStrategy);
+			SearchResult cached = resolutionCache.get(key);
+			if(cached != null) {
+				resolutionHits++;
+				// callers may modify the lists of the result they get
+				return new SearchResult(Lists.newArrayList(cached.adjusted), Lists.newArrayList(cached.raw));
+			}
+			resolutionMisses++;
 			for(IEObjectDescription objDesc : new NameInScopeFilter(matchingStrategy, //
 				matchingStrategy.matchStartsWith()
-						? exportedPerLastSegment.values()
-						: exportedPerLastSegment.get(fqn.getLastSegment()), //
+						? getExportedDescriptionsStartingWith(fqn, nameOfScope, matchingStrategy)
+						: getExportedDescriptions(fqn.getLastSegment()), //
 				fqn, nameOfScope, eClasses))
 				targets.add(objDesc);
 
 			if(targets.size() == 0) {
 				// check the pattern variables
-				for(IEObjectDescription objDesc : exportedPatternVariables) {
-					String n = fqn.getLastSegment();
-					String on = objDesc.getName().getLastSegment();
-					if(n.startsWith(on) &&
-							Pattern.matches(
-								objDesc.getUserData(PPDSLConstants.VARIABLE_PATTERN), n.substring(on.length())))
-						targets.add(objDesc);
-
-				}
+				Iterables.addAll(
+					targets, Iterables.filter(sharedExports.findPatternVariables(fqn.getLastSegment()), notInCurrent));
 			}
+			SearchResult result = traceAndAdjust(targets);
+			resolutionCache.put(
+				key, new SearchResult(Lists.newArrayList(result.adjusted), Lists.newArrayList(result.raw)));
+			return result;
 		}
-		if(tracer.isTracing()) {
-			for(IEObjectDescription d : targets)
-				tracer.trace("    : ", converter.toString(d.getName()), " in: ", d.getEObjectURI().path());
-		}
-		return new SearchResult(searchPathAdjusted(targets), targets);
+		return traceAndAdjust(targets);
 	}
 
 	public SearchResult findFunction(EObject scopeDetermeningObject, QualifiedName fqn,
 			PPImportedNamesAdapter importedNames) {
-		return findExternal(scopeDetermeningObject, fqn, importedNames, Match.EQUALS, FUNC);
+		long start = startProfiling();
+		return profiled("findFunction", start, findExternal(
+			scopeDetermeningObject, fqn, importedNames, Match.EQUALS, FUNC));
 	}
 
 	public SearchResult findFunction(EObject scopeDetermeningObject, String name, PPImportedNamesAdapter importedNames) {
@@ -413,24 +553,27 @@ public class PPFinder {
 
 	public SearchResult findHostClasses(EObject scopeDetermeningResource, String name,
 			PPImportedNamesAdapter importedNames) {
+		long start = startProfiling();
 		if(name == null)
 			throw new IllegalArgumentException("name is null");
 		QualifiedName fqn = converter.toQualifiedName(name);
 		// make last segments initial char lower case (for references to the type itself - eg. 'File' instead of
 		// 'file'.
 		if(fqn.getSegmentCount() == 0)
-			return new SearchResult(); // can happen while editing
+			return profiled("findHostClasses", start, new SearchResult()); // can happen while editing
 		fqn = fqn.skipLast(1).append(toInitialLowerCase(fqn.getLastSegment()));
-		return findExternal(scopeDetermeningResource, fqn, importedNames, Match.EQUALS, CLASS_AND_TYPE);
+		return profiled("findHostClasses", start, findExternal(
+			scopeDetermeningResource, fqn, importedNames, Match.EQUALS, CLASS_AND_TYPE));
 	}
 
 	private SearchResult findInherited(EObject scopeDetermeningObject, QualifiedName fqn,
 			PPImportedNamesAdapter importedNames, List<QualifiedName> stack, SearchStrategy matchingStrategy,
 			EClass[] classes) {
+		long start = startProfiling();
 		// Protect against circular inheritance
 		QualifiedName containerName = fqn.skipLast(1);
 		if(stack.contains(containerName))
-			return new SearchResult();
+			return profiled("findInherited", start, new SearchResult());
 		stack.add(containerName);
 
 		// find using the given name
@@ -463,7 +606,7 @@ public class PPFinder {
 				}
 			}
 		}
-		return new SearchResult(result, rawResult);
+		return profiled("findInherited", start, new SearchResult(result, rawResult));
 	}
 
 	public IEObjectDescription findLocalVariableInLambda(Lambda lambda, String name,
@@ -580,6 +723,13 @@ public class PPFinder {
 	 */
 	public SearchResult findVariables(EObject scopeDetermeningObject, QualifiedName fqn,
 			PPImportedNamesAdapter importedNames, SearchStrategy matchingStrategy) {
+		long start = startProfiling();
+		return profiled(
+			"findVariables", start, internalFindVariables(scopeDetermeningObject, fqn, importedNames, matchingStrategy));
+	}
+
+	private SearchResult internalFindVariables(EObject scopeDetermeningObject, QualifiedName fqn,
+			PPImportedNamesAdapter importedNames, SearchStrategy matchingStrategy) {
 		if(metaCache == null)
 			cacheMetaParameters(scopeDetermeningObject);
 
@@ -643,7 +793,19 @@ public class PPFinder {
 	 * @return
 	 */
 	public Collection<IEObjectDescription> getExportedDescriptions() {
-		return Collections.unmodifiableCollection(exportedPerLastSegment.values());
+		return new ExportedDescriptions();
+	}
+
+	/**
+	 * Produces everything visible to the resource with the given last name segment.
+	 * 
+	 * @param lastSegment
+	 * @return
+	 */
+	private Iterable<IEObjectDescription> getExportedDescriptions(String lastSegment) {
+		return Iterables.concat(
+			dirtyExportsPerLastSegment.get(lastSegment),
+			Iterables.filter(sharedExports.getByLastSegment(lastSegment), notInCurrent));
 	}
 
 	/**
@@ -667,6 +829,34 @@ public class PPFinder {
 			}));
 	}
 
+	/**
+	 * Produces the visible exports that may match the given name when matching with starts with, i.e. those whose
+	 * name starts with the name, or (when outer scopes are searched) whose first segment is the same as the first
+	 * segment of the scope.
+	 * 
+	 * @param fqn
+	 * @param nameOfScope
+	 * @param matchingStrategy
+	 * @return
+	 */
+	private Iterable<IEObjectDescription> getExportedDescriptionsStartingWith(QualifiedName fqn,
+			QualifiedName nameOfScope, SearchStrategy matchingStrategy) {
+		String[] prefixes;
+		if(fqn.getSegmentCount() > 0 && "".equals(fqn.getFirstSegment()))
+			prefixes = new String[] { PPExportedObjectsIndex.toNamePrefix(fqn.skipFirst(1), true) };
+		else if(matchingStrategy.searchOuterScopes() && nameOfScope.getSegmentCount() > 0) {
+			QualifiedName outermostScope = nameOfScope.skipLast(nameOfScope.getSegmentCount() - 1);
+			prefixes = new String[] {
+					PPExportedObjectsIndex.toNamePrefix(fqn, true),
+					PPExportedObjectsIndex.toNamePrefix(outermostScope, false) };
+		}
+		else
+			prefixes = new String[] { PPExportedObjectsIndex.toNamePrefix(fqn, true) };
+		return Iterables.concat(
+			dirtyExportsPerLastSegment.values(),
+			Iterables.filter(sharedExports.getByNamePrefix(prefixes), notInCurrent));
+	}
+
 	public Collection<IEObjectDescription> getExportedPatternVariableDescriptions() {
 		return Collections.unmodifiableCollection(exportedPatternVariables);
 	}
@@ -678,7 +868,10 @@ public class PPFinder {
 	 * @return
 	 */
 	public Multimap<String, IEObjectDescription> getExportedPerLastSegement() {
-		return Multimaps.unmodifiableMultimap(exportedPerLastSegment);
+		Multimap<String, IEObjectDescription> map = ArrayListMultimap.create(dirtyExportsPerLastSegment);
+		for(IEObjectDescription d : Iterables.filter(sharedExports.getAll(), notInCurrent))
+			map.put(d.getQualifiedName().getLastSegment(), d);
+		return Multimaps.unmodifiableMultimap(map);
 	}
 
 	/**
@@ -697,6 +890,42 @@ public class PPFinder {
 		return QualifiedName.EMPTY;
 	}
 
+	/**
+	 * @return the number of lookups answered from the resolution cache since the last call to
+	 *         {@link #configure(Resource)}
+	 */
+	public int getResolutionHits() {
+		return resolutionHits;
+	}
+
+	/**
+	 * @return the number of lookups that were resolved and added to the resolution cache since the last call to
+	 *         {@link #configure(Resource)}
+	 */
+	public int getResolutionMisses() {
+		return resolutionMisses;
+	}
+
+	/**
+	 * Returns the index entry shared by all resources in the resource set that see the same containers as the
+	 * resource being linked, or an entry of its own if visibility can not be determined.
+	 * 
+	 * @param descr
+	 * @param descriptionIndex
+	 * @return
+	 */
+	private PPExportedObjectsIndex.Entry getSharedExports(IResourceDescription descr,
+			IResourceDescriptions descriptionIndex) {
+		ResourceSet resourceSet = resource.getResourceSet();
+		if(resourceSet != null && manager instanceof StateBasedContainerManager) {
+			IAllContainersState state = containersStateProvider.get(descriptionIndex);
+			String handle = state.getContainerHandle(descr.getURI());
+			if(handle != null)
+				return PPExportedObjectsIndex.get(resourceSet).getEntry(state.getVisibleContainerHandles(handle));
+		}
+		return new PPExportedObjectsIndex.Entry();
+	}
+
 	private boolean isContainedInDefinition(EObject scoped) {
 		for(EObject o = scoped; o != null; o = o.eContainer())
 			if(o.eClass() == PPPackage.Literals.DEFINITION)
@@ -704,6 +933,23 @@ public class PPFinder {
 		return false;
 	}
 
+	/**
+	 * Records a call to a finder method in the profile, if there is one.
+	 * 
+	 * @param method
+	 *            - the name of the method
+	 * @param start
+	 *            - the value returned by {@link #startProfiling()} when the method was entered
+	 * @param result
+	 *            - the result of the method
+	 * @return the result
+	 */
+	private <T> T profiled(String method, long start, T result) {
+		if(profile != null)
+			profile.record(PPLinkerProfiler.FINDER, method, start);
+		return result;
+	}
+
 	/**
 	 * Adjusts the list of found targets in accordance with the search path for the resource being
 	 * linked. This potentially resolves ambiguities (if found result is further away on the path).
@@ -730,6 +976,30 @@ public class PPFinder {
 		return result;
 	}
 
+	/**
+	 * Sets the profile that receives the statistics of the lookups made from now on.
+	 * 
+	 * @param profile
+	 *            - the profile, or null to stop profiling
+	 */
+	public void setProfile(PPLinkerProfiler.Profile profile) {
+		this.profile = profile;
+	}
+
+	private long startProfiling() {
+		return profile == null
+				? 0
+				: System.nanoTime();
+	}
+
+	private SearchResult traceAndAdjust(List<IEObjectDescription> targets) {
+		if(tracer.isTracing()) {
+			for(IEObjectDescription d : targets)
+				tracer.trace("    : ", converter.toString(d.getName()), " in: ", d.getEObjectURI().path());
+		}
+		return new SearchResult(searchPathAdjusted(targets), targets);
+	}
+
 	private String toInitialLowerCase(String s) {
 		if(s.length() < 1 || Character.isLowerCase(s.charAt(0)))
 			return s;
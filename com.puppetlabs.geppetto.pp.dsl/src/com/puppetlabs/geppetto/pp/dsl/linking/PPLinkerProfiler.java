@@ -0,0 +1,215 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.pp.dsl.linking;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.ecore.ENamedElement;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Collects call counts and times of the {@link PPResourceLinker linker} hot paths. Statistics are recorded in three
+ * categories:
+ * <ul>
+ * <li>{@link #CONSTRUCT} - per model class handled by the link switch. The statement containers (PuppetManifest,
+ * IfExpression, Definition, etc.) account for the linking of the unparenthesised function calls among their
+ * statements.</li>
+ * <li>{@link #FINDER} - per {@link PPFinder} lookup method.</li>
+ * <li>{@link #STRATEGY} - per search strategy used in lookups of exported names.</li>
+ * </ul>
+ * Times are in nanoseconds and include the time of nested calls, which means that a finder method that calls another
+ * is also charged for the time of that call.
+ * <p>
+ * A {@link Profile} is recorded for one file by one thread. The profiler aggregates the profiles that are
+ * {@link #add(Profile) added} to it and is safe to use from several threads. Nothing is recorded unless a profile is
+ * given to the linker, which makes the cost of profiling a null check per probe when it is disabled.
+ * </p>
+ */
+public class PPLinkerProfiler {
+	/**
+	 * Counts and times for one file, or the aggregate of several files.
+	 */
+	public static class Profile {
+		private final String name;
+
+		private final Map<String, Map<Object, long[]>> categories = Maps.newLinkedHashMap();
+
+		/**
+		 * @param name
+		 *            - the name of the profile, typically the path of the linked file
+		 */
+		public Profile(String name) {
+			this.name = name;
+		}
+
+		private void add(Profile other) {
+			for(Map.Entry<String, Map<Object, long[]>> category : other.categories.entrySet())
+				for(Map.Entry<Object, long[]> entry : category.getValue().entrySet())
+					add(category.getKey(), entry.getKey(), entry.getValue()[0], entry.getValue()[1]);
+		}
+
+		private void add(String category, Object key, long count, long nanos) {
+			Map<Object, long[]> statistics = categories.get(category);
+			if(statistics == null) {
+				statistics = Maps.newLinkedHashMap();
+				categories.put(category, statistics);
+			}
+			long[] counters = statistics.get(key);
+			if(counters == null) {
+				counters = new long[2];
+				statistics.put(key, counters);
+			}
+			counters[0] += count;
+			counters[1] += nanos;
+		}
+
+		private long[] get(String category, Object key) {
+			Map<Object, long[]> statistics = categories.get(category);
+			long[] counters = statistics == null
+					? null
+					: statistics.get(key);
+			return counters == null
+					? new long[2]
+					: counters;
+		}
+
+		/**
+		 * @return the number of recorded calls
+		 */
+		public long getCount(String category, Object key) {
+			return get(category, key)[0];
+		}
+
+		/**
+		 * @return the keys that have been recorded in the given category, in the order they were first recorded
+		 */
+		public List<Object> getKeys(String category) {
+			Map<Object, long[]> statistics = categories.get(category);
+			return statistics == null
+					? Collections.<Object> emptyList()
+					: Lists.newArrayList(statistics.keySet());
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the sum of the recorded times
+		 */
+		public long getNanos(String category, Object key) {
+			return get(category, key)[1];
+		}
+
+		/**
+		 * Records one call that started at the given time and ends now.
+		 * 
+		 * @param category
+		 *            - one of {@link PPLinkerProfiler#CONSTRUCT}, {@link PPLinkerProfiler#FINDER}, or
+		 *            {@link PPLinkerProfiler#STRATEGY}
+		 * @param key
+		 *            - what was called
+		 * @param start
+		 *            - the {@link System#nanoTime()} when the call started
+		 */
+		public void record(String category, Object key, long start) {
+			add(category, key, 1, System.nanoTime() - start);
+		}
+
+		/**
+		 * Returns a human readable, multi line, report with one line per key.
+		 */
+		@Override
+		public String toString() {
+			StringBuilder bld = new StringBuilder();
+			bld.append(name).append(":\n");
+			for(Map.Entry<String, Map<Object, long[]>> category : categories.entrySet()) {
+				bld.append("  ").append(category.getKey()).append(":\n");
+				for(Map.Entry<Object, long[]> entry : category.getValue().entrySet()) {
+					Object key = entry.getKey();
+					bld.append("    ").append(key instanceof ENamedElement
+							? ((ENamedElement) key).getName()
+							: String.valueOf(key));
+					bld.append(": ").append(entry.getValue()[0]).append(" calls, ");
+					bld.append(String.format("%.3f ms", Double.valueOf(entry.getValue()[1] / 1000000.0)));
+					bld.append('\n');
+				}
+			}
+			return bld.toString();
+		}
+	}
+
+	/**
+	 * Category of the statistics per model class handled by the link switch
+	 */
+	public static final String CONSTRUCT = "construct";
+
+	/**
+	 * Category of the statistics per finder method
+	 */
+	public static final String FINDER = "finder";
+
+	/**
+	 * Category of the statistics per search strategy
+	 */
+	public static final String STRATEGY = "strategy";
+
+	private final Profile total = new Profile("Total");
+
+	private final List<Profile> profiles = Lists.newArrayList();
+
+	/**
+	 * Adds the profile of a file to the profiler.
+	 * 
+	 * @param profile
+	 */
+	public synchronized void add(Profile profile) {
+		profiles.add(profile);
+		total.add(profile);
+	}
+
+	/**
+	 * @return the added profiles, in the order they were added
+	 */
+	public synchronized List<Profile> getProfiles() {
+		return Lists.newArrayList(profiles);
+	}
+
+	/**
+	 * Returns a human readable, multi line, report of the aggregated statistics, optionally followed by the statistics
+	 * of each file.
+	 * 
+	 * @param perFile
+	 *            - true if the profile of each file should be included
+	 * @return the report
+	 */
+	public synchronized String getReport(boolean perFile) {
+		StringBuilder bld = new StringBuilder();
+		bld.append(total);
+		if(perFile)
+			for(Profile profile : profiles)
+				bld.append(profile);
+		return bld.toString();
+	}
+
+	/**
+	 * @return a copy of the aggregate of all added profiles
+	 */
+	public synchronized Profile getTotal() {
+		Profile copy = new Profile(total.getName());
+		copy.add(total);
+		return copy;
+	}
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.pp.dsl.linking;
+
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.xtext.naming.QualifiedName;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.collect.MapMaker;
+
+/**
+ * Interns qualified names and their segments so that the many equal names held by exported descriptions, imported
+ * name lists and the validation bookkeeping share one instance. Weak references are used, an interned value is
+ * released when nothing else refers to it.
+ * <p>
+ * Most names are converted from the same few strings over and over. The interned name is therefore also kept by the
+ * string it was converted from (see {@link #get(String)}), and a conversion of a string that has been seen before
+ * neither splits the string nor creates a QualifiedName.
+ * </p>
+ */
+public class PPNameInterner {
+	private static final Interner<String> strings = Interners.newWeakInterner();
+
+	private static final Interner<QualifiedName> names = Interners.newWeakInterner();
+
+	/**
+	 * The interned names by the string they were converted from. The values are weak, an entry is removed when its
+	 * name is released.
+	 */
+	private static final ConcurrentMap<String, QualifiedName> namesByString = new MapMaker().weakValues().makeMap();
+
+	/**
+	 * Returns the interned name that was converted from the given string.
+	 * 
+	 * @param qualifiedNameAsString
+	 *            - the string that a name was converted from, may be null
+	 * @return the interned name, or null if no name converted from the string is interned
+	 * @see #intern(String, QualifiedName)
+	 */
+	public static QualifiedName get(String qualifiedNameAsString) {
+		return qualifiedNameAsString == null
+				? null
+				: namesByString.get(qualifiedNameAsString);
+	}
+
+	/**
+	 * Returns the shared instance of a qualified name. The segments of the returned name are interned.
+	 * 
+	 * @param name
+	 *            - the name to intern, may be null
+	 * @return the interned name, or null if name is null
+	 */
+	public static QualifiedName intern(QualifiedName name) {
+		int count = name == null
+				? 0
+				: name.getSegmentCount();
+		if(count == 0)
+			return name;
+		String[] segments = new String[count];
+		for(int i = 0; i < count; i++)
+			segments[i] = strings.intern(name.getSegment(i));
+		return names.intern(QualifiedName.create(segments));
+	}
+
+	/**
+	 * Returns the shared instance of a qualified name and remembers it as the name converted from the given string, so
+	 * that {@link #get(String)} finds it.
+	 * 
+	 * @param qualifiedNameAsString
+	 *            - the string that the name was converted from
+	 * @param name
+	 *            - the name to intern
+	 * @return the interned name
+	 */
+	public static QualifiedName intern(String qualifiedNameAsString, QualifiedName name) {
+		QualifiedName interned = intern(name);
+		if(interned != null)
+			namesByString.put(strings.intern(qualifiedNameAsString), interned);
+		return interned;
+	}
+
+	/**
+	 * Returns the shared instance of a string.
+	 * 
+	 * @param s
+	 *            - the string to intern, may be null
+	 * @return the interned string, or null if s is null
+	 */
+	public static String intern(String s) {
+		return s == null
+				? null
+				: strings.intern(s);
+	}
+
+	private PPNameInterner() {
+	}
+}
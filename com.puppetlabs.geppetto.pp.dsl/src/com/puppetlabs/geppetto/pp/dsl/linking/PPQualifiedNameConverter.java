@@ -14,7 +14,8 @@ import org.eclipse.xtext.naming.IQualifiedNameConverter;
 import org.eclipse.xtext.naming.QualifiedName;
 
 /**
- * Puppet Qualified Name Converter defines the separator '::'
+ * Puppet Qualified Name Converter defines the separator '::'. The produced names are interned, and a string that has
+ * been converted before is not split again.
  * 
  */
 public class PPQualifiedNameConverter extends IQualifiedNameConverter.DefaultImpl {
@@ -39,8 +40,11 @@ public class PPQualifiedNameConverter extends IQualifiedNameConverter.DefaultImp
 	public QualifiedName toQualifiedName(String qualifiedNameAsString) {
 		if(qualifiedNameAsString == null || qualifiedNameAsString.length() < 1 || qualifiedNameAsString.equals("$"))
 			return QualifiedName.EMPTY;
-		return super.toQualifiedName(qualifiedNameAsString.startsWith("$")
+		QualifiedName name = PPNameInterner.get(qualifiedNameAsString);
+		if(name != null)
+			return name;
+		return PPNameInterner.intern(qualifiedNameAsString, super.toQualifiedName(qualifiedNameAsString.startsWith("$")
 				? qualifiedNameAsString.substring(1)
-				: qualifiedNameAsString);
+				: qualifiedNameAsString));
 	}
 }
@@ -33,7 +33,7 @@ public class PPQualifiedNameProvider extends DefaultDeclarativeQualifiedNameProv
 	public static QualifiedName splice(QualifiedName a, QualifiedName b) {
 		return a == null
 				? b
-				: a.append(b);
+				: PPNameInterner.intern(a.append(b));
 	}
 
 	@Inject
@@ -132,6 +132,13 @@ public class PPResourceLinker implements IPPDiagnostics {
 	@Inject
 	private PPProposalsGenerator proposer;
 
+	private boolean proposalsEnabled = true;
+
+	/**
+	 * Receives the statistics of the next link, or null if linking is not profiled
+	 */
+	private PPLinkerProfiler.Profile profile;
+
 	@Inject
 	private PPFinder ppFinder;
 
@@ -146,6 +153,8 @@ public class PPResourceLinker implements IPPDiagnostics {
 	private final static EClass[] CLASS_AND_TYPE = {
 			PPPackage.Literals.HOST_CLASS_DEFINITION, PPTPPackage.Literals.TYPE };
 
+	private static final String[] NO_PROPOSALS = new String[0];
+
 	private static String proposalIssue(String issue, String[] proposals) {
 		if(proposals == null || proposals.length == 0)
 			return issue;
@@ -280,8 +289,7 @@ public class PPResourceLinker implements IPPDiagnostics {
 			CrossReferenceAdapter.clear(parent);
 
 			// ... and finally, if there was neither a type nor a definition reference
-			String[] proposals = proposer.computeProposals(
-				parentString, ppFinder.getExportedDescriptions(), searchPath, CLASS_AND_TYPE);
+			String[] proposals = computeProposals(parentString, false, CLASS_AND_TYPE);
 			acceptor.acceptError(
 				"Unknown class: '" + parentString + "'", o, //
 				PPPackage.Literals.HOST_CLASS_DEFINITION__PARENT,
@@ -367,8 +375,7 @@ public class PPResourceLinker implements IPPDiagnostics {
 				// importedNames.addUnresolved(converter.toQualifiedName(className));
 				CrossReferenceAdapter.clear(o.getNameExpr());
 
-				String[] proposals = proposer.computeProposals(
-					className, ppFinder.getExportedDescriptions(), searchPath, CLASS_AND_TYPE);
+				String[] proposals = computeProposals(className, false, CLASS_AND_TYPE);
 				acceptor.acceptError(
 					"Unknown class: '" + className + "'", o, //
 					PPPackage.Literals.RESOURCE_BODY__NAME_EXPR,
@@ -515,12 +522,26 @@ public class PPResourceLinker implements IPPDiagnostics {
 			String parentName = d.getUserData(PPDSLConstants.PARENT_NAME_DATA);
 			if(parentName == null || parentName.length() == 0)
 				continue;
-			SearchResult searchResult = ppFinder.findHostClasses(d.getEObjectOrProxy(), parentName, importedNames);
+			// The description may be a copy that refers to its object by a proxy (the resource may have been unloaded)
+			SearchResult searchResult = ppFinder.findHostClasses(
+				EcoreUtil.resolve(d.getEObjectOrProxy(), o), parentName, importedNames);
 			List<IEObjectDescription> parents = searchResult.getAdjusted(); // findHostClasses(d.getEObjectOrProxy(), parentName, importedNames);
 			checkCircularInheritence(o, parents, stack, acceptor, importedNames);
 		}
 	}
 
+	private String[] computeAttributeProposals(QualifiedName fqn) {
+		return proposalsEnabled
+				? proposer.computeAttributeProposals(fqn, ppFinder.getExportedDescriptions(), searchPath)
+				: NO_PROPOSALS;
+	}
+
+	private String[] computeProposals(String name, boolean upperCaseProposals, EClass... types) {
+		return proposalsEnabled
+				? proposer.computeProposals(name, ppFinder.getExportedDescriptions(), upperCaseProposals, searchPath, types)
+				: NO_PROPOSALS;
+	}
+
 	private boolean containsNameVar(List<IEObjectDescription> descriptions) {
 		for(IEObjectDescription d : descriptions)
 			if("true".equals(d.getUserData(PPDSLConstants.PARAMETER_NAMEVAR)))
@@ -585,8 +606,7 @@ public class PPResourceLinker implements IPPDiagnostics {
 						IPPDiagnostics.ISSUE__RESOURCE_DEPRECATED_NAME_ALIAS);
 					continue;
 				}
-				String[] proposals = proposer.computeAttributeProposals(
-					fqn, ppFinder.getExportedDescriptions(), searchPath);
+				String[] proposals = computeAttributeProposals(fqn);
 				acceptor.acceptError(
 					"Unknown attribute: '" + ao.getKey() + "' in definition: '" + desc.getName() + "'", ao,
 					PPPackage.Literals.ATTRIBUTE_OPERATION__KEY,
@@ -676,8 +696,7 @@ public class PPResourceLinker implements IPPDiagnostics {
 							// importedNames.addUnresolved(converter.toQualifiedName(className));
 							CrossReferenceAdapter.clear(pe);
 
-							String[] proposals = proposer.computeProposals(
-								className, ppFinder.getExportedDescriptions(), searchPath, CLASS_AND_TYPE);
+							String[] proposals = computeProposals(className, false, CLASS_AND_TYPE);
 							String issueCode = proposalIssue(IPPDiagnostics.ISSUE__RESOURCE_UNKNOWN_TYPE, proposals);
 							if(param instanceof ExprList) {
 								acceptor.acceptError("Unknown class: '" + className + "'", //
@@ -777,8 +796,7 @@ public class PPResourceLinker implements IPPDiagnostics {
 							// importedNames.addUnresolved(converter.toQualifiedName(className));
 							CrossReferenceAdapter.clear(pe);
 
-							String[] p = proposer.computeProposals(
-								className, ppFinder.getExportedDescriptions(), searchPath, CLASS_AND_TYPE);
+							String[] p = computeProposals(className, false, CLASS_AND_TYPE);
 							acceptor.acceptError(
 								"Unknown class: '" + className + "'", o, //
 								PPPackage.Literals.PARAMETERIZED_EXPRESSION__PARAMETERS, parameterIndex,
@@ -845,7 +863,7 @@ public class PPResourceLinker implements IPPDiagnostics {
 			);
 			return; // sort of ok
 		}
-		String[] proposals = proposer.computeProposals(name, ppFinder.getExportedDescriptions(), searchPath, FUNC);
+		String[] proposals = computeProposals(name, false, FUNC);
 		acceptor.acceptError("Unknown function: '" + name + "'", nameExpr, //
 			proposalIssue(IPPDiagnostics.ISSUE__UNKNOWN_FUNCTION_REFERENCE, proposals), //
 			proposals);
@@ -978,8 +996,7 @@ public class PPResourceLinker implements IPPDiagnostics {
 			if(adapter.getResourceType() == null && adapter.getTargetObjectDescription() == null) {
 				// Add unresolved info at resource level
 				addUnresolved(importedNames, resourceTypeName, NodeModelUtils.findActualNodeFor(reference));
-				String[] proposals = proposer.computeProposals(
-					resourceTypeName, ppFinder.getExportedDescriptions(), upperCaseProposals, searchPath, DEF_AND_TYPE);
+				String[] proposals = computeProposals(resourceTypeName, upperCaseProposals, DEF_AND_TYPE);
 				acceptor.acceptError("Unknown resource type: '" + resourceTypeName + "'", reference,
 				// PPPackage.Literals.RESOURCE_EXPRESSION__RESOURCE_EXPR, //
 				proposalIssue(IPPDiagnostics.ISSUE__RESOURCE_UNKNOWN_TYPE, proposals), //
@@ -1033,8 +1050,7 @@ public class PPResourceLinker implements IPPDiagnostics {
 							IPPDiagnostics.ISSUE__NOT_ON_PATH);
 					continue each_top; // ok, found
 				}
-				String[] proposals = proposer.computeProposals(
-					name, ppFinder.getExportedDescriptions(), searchPath, FUNC);
+				String[] proposals = computeProposals(name, false, FUNC);
 				acceptor.acceptError(
 					"Unknown function: '" + name + "'", s, PPPackage.Literals.LITERAL_NAME_OR_REFERENCE__VALUE,
 					proposalIssue(IPPDiagnostics.ISSUE__UNKNOWN_FUNCTION_REFERENCE, proposals), //
@@ -1184,109 +1200,131 @@ public class PPResourceLinker implements IPPDiagnostics {
 		// it is important that ResourceExpresion are linked before ResourceBodyExpression (but that should
 		// be ok with the tree iterator as the bodies are contained).
 
-		while(everything.hasNext()) {
-			EObject o = everything.next();
-			EClass clazz = o.eClass();
-			switch(clazz.getClassifierID()) {
-				case PPPackage.EXPRESSION_TE:
-					_link((ExpressionTE) o, importedNames, acceptor);
-					break;
-
-				case PPPackage.VARIABLE_TE:
-					_link((VariableTE) o, importedNames, acceptor);
-					break;
-
-				case PPPackage.VARIABLE_EXPRESSION:
-					_link((VariableExpression) o, importedNames, acceptor);
-					break;
-
-				case PPPackage.RESOURCE_EXPRESSION:
-					_link((ResourceExpression) o, importedNames, acceptor);
-					break;
-
-				case PPPackage.RESOURCE_BODY:
-					_link((ResourceBody) o, importedNames, acceptor, profileThis);
-					break;
-
-				case PPPackage.FUNCTION_CALL:
-					_link((FunctionCall) o, importedNames, acceptor);
-					break;
-
-				// these are needed to link un-parenthesised function calls
-				case PPPackage.PUPPET_MANIFEST:
-					internalLinkUnparenthesisedCall(((PuppetManifest) o).getStatements(), importedNames, acceptor);
-					break;
-
-				case PPPackage.IF_EXPRESSION:
-					internalLinkUnparenthesisedCall(((IfExpression) o).getThenStatements(), importedNames, acceptor);
-					break;
-
-				case PPPackage.UNLESS_EXPRESSION:
-					internalLinkUnparenthesisedCall(((UnlessExpression) o).getThenStatements(), importedNames, acceptor);
-					break;
-
-				case PPPackage.ELSE_EXPRESSION:
-					internalLinkUnparenthesisedCall(((ElseExpression) o).getStatements(), importedNames, acceptor);
-					break;
-
-				case PPPackage.ELSE_IF_EXPRESSION:
-					internalLinkUnparenthesisedCall(((ElseIfExpression) o).getThenStatements(), importedNames, acceptor);
-					break;
-
-				case PPPackage.NODE_DEFINITION:
-					internalLinkUnparenthesisedCall(((NodeDefinition) o).getStatements(), importedNames, acceptor);
-					break;
-
-				case PPPackage.DEFINITION:
-					internalLinkUnparenthesisedCall(((Definition) o).getStatements(), importedNames, acceptor);
-					break;
-
-				case PPPackage.CASE:
-					internalLinkUnparenthesisedCall(((Case) o).getStatements(), importedNames, acceptor);
-					break;
-
-				case PPPackage.HOST_CLASS_DEFINITION:
-					_link((HostClassDefinition) o, importedNames, acceptor);
-					internalLinkUnparenthesisedCall(((HostClassDefinition) o).getStatements(), importedNames, acceptor);
-					break;
-
-				case PPPackage.COLLECT_EXPRESSION:
-					_link((CollectExpression) o, importedNames, acceptor);
-					break;
-
-				case PPPackage.METHOD_CALL:
-					_link((MethodCall) o, importedNames, acceptor);
-					break;
-
-				case PPPackage.JAVA_LAMBDA:
-				case PPPackage.RUBY_LAMBDA:
-					internalLinkUnparenthesisedCall(((Lambda) o).getStatements(), importedNames, acceptor);
-					break;
+		ppFinder.setProfile(profile);
+		try {
+			while(everything.hasNext()) {
+				EObject o = everything.next();
+				EClass clazz = o.eClass();
+				long start = profile == null
+						? 0
+						: System.nanoTime();
+				switch(clazz.getClassifierID()) {
+					case PPPackage.EXPRESSION_TE:
+						_link((ExpressionTE) o, importedNames, acceptor);
+						break;
+
+					case PPPackage.VARIABLE_TE:
+						_link((VariableTE) o, importedNames, acceptor);
+						break;
+
+					case PPPackage.VARIABLE_EXPRESSION:
+						_link((VariableExpression) o, importedNames, acceptor);
+						break;
+
+					case PPPackage.RESOURCE_EXPRESSION:
+						_link((ResourceExpression) o, importedNames, acceptor);
+						break;
+
+					case PPPackage.RESOURCE_BODY:
+						_link((ResourceBody) o, importedNames, acceptor, profileThis);
+						break;
+
+					case PPPackage.FUNCTION_CALL:
+						_link((FunctionCall) o, importedNames, acceptor);
+						break;
+
+					// these are needed to link un-parenthesised function calls
+					case PPPackage.PUPPET_MANIFEST:
+						internalLinkUnparenthesisedCall(((PuppetManifest) o).getStatements(), importedNames, acceptor);
+						break;
+
+					case PPPackage.IF_EXPRESSION:
+						internalLinkUnparenthesisedCall(
+							((IfExpression) o).getThenStatements(), importedNames, acceptor);
+						break;
+
+					case PPPackage.UNLESS_EXPRESSION:
+						internalLinkUnparenthesisedCall(
+							((UnlessExpression) o).getThenStatements(), importedNames, acceptor);
+						break;
+
+					case PPPackage.ELSE_EXPRESSION:
+						internalLinkUnparenthesisedCall(((ElseExpression) o).getStatements(), importedNames, acceptor);
+						break;
+
+					case PPPackage.ELSE_IF_EXPRESSION:
+						internalLinkUnparenthesisedCall(
+							((ElseIfExpression) o).getThenStatements(), importedNames, acceptor);
+						break;
+
+					case PPPackage.NODE_DEFINITION:
+						internalLinkUnparenthesisedCall(((NodeDefinition) o).getStatements(), importedNames, acceptor);
+						break;
+
+					case PPPackage.DEFINITION:
+						internalLinkUnparenthesisedCall(((Definition) o).getStatements(), importedNames, acceptor);
+						break;
+
+					case PPPackage.CASE:
+						internalLinkUnparenthesisedCall(((Case) o).getStatements(), importedNames, acceptor);
+						break;
+
+					case PPPackage.HOST_CLASS_DEFINITION:
+						_link((HostClassDefinition) o, importedNames, acceptor);
+						internalLinkUnparenthesisedCall(
+							((HostClassDefinition) o).getStatements(), importedNames, acceptor);
+						break;
+
+					case PPPackage.COLLECT_EXPRESSION:
+						_link((CollectExpression) o, importedNames, acceptor);
+						break;
+
+					case PPPackage.METHOD_CALL:
+						_link((MethodCall) o, importedNames, acceptor);
+						break;
+
+					case PPPackage.JAVA_LAMBDA:
+					case PPPackage.RUBY_LAMBDA:
+						internalLinkUnparenthesisedCall(((Lambda) o).getStatements(), importedNames, acceptor);
+						break;
+
+					case PPPackage.UNQUOTED_STRING:
+						Expression expr = ((UnquotedString) o).getExpression();
+						if(expr != null && expr instanceof LiteralNameOrReference) {
+							//
+							String varName = ((LiteralNameOrReference) expr).getValue();
+							StringBuilder varName2 = new StringBuilder();
+							if(!varName.startsWith("$"))
+								varName2.append("$");
+							varName2.append(varName);
+							if(patternHelper.isVARIABLE(varName2.toString()))
+								internalLinkVariable(
+									expr, PPPackage.Literals.LITERAL_NAME_OR_REFERENCE__VALUE, varName, importedNames,
+									acceptor);
+							else
+								acceptor.acceptError(
+									"Not a valid variable name", expr,
+									PPPackage.Literals.LITERAL_NAME_OR_REFERENCE__VALUE,
+									IPPDiagnostics.ISSUE__NOT_VARNAME);
 
-				case PPPackage.UNQUOTED_STRING:
-					Expression expr = ((UnquotedString) o).getExpression();
-					if(expr != null && expr instanceof LiteralNameOrReference) {
-						//
-						String varName = ((LiteralNameOrReference) expr).getValue();
-						StringBuilder varName2 = new StringBuilder();
-						if(!varName.startsWith("$"))
-							varName2.append("$");
-						varName2.append(varName);
-						if(patternHelper.isVARIABLE(varName2.toString()))
-							internalLinkVariable(
-								expr, PPPackage.Literals.LITERAL_NAME_OR_REFERENCE__VALUE, varName, importedNames,
-								acceptor);
-						else
-							acceptor.acceptError(
-								"Not a valid variable name", expr, PPPackage.Literals.LITERAL_NAME_OR_REFERENCE__VALUE,
-								IPPDiagnostics.ISSUE__NOT_VARNAME);
+						}
+						break;
 
-					}
-					break;
+					default:
+						continue;
+				}
+				if(profile != null)
+					profile.record(PPLinkerProfiler.CONSTRUCT, clazz, start);
 			}
 		}
-		if(tracer.isTracing())
+		finally {
+			ppFinder.setProfile(null);
+		}
+		if(tracer.isTracing()) {
+			tracer.trace(
+				"  resolution cache hits: ", ppFinder.getResolutionHits(), ", misses: ", ppFinder.getResolutionMisses());
 			tracer.trace("}");
+		}
 
 	}
 
@@ -1331,6 +1369,29 @@ public class PPResourceLinker implements IPPDiagnostics {
 
 	}
 
+	/**
+	 * Sets the profile that receives the call counts and times of the linking of each construct, and of the lookups
+	 * made, when a resource is linked. No statistics are collected when the profile is null (the default).
+	 * 
+	 * @param profile
+	 *            - the profile, or null
+	 * @see PPLinkerProfiler
+	 */
+	public void setProfile(PPLinkerProfiler.Profile profile) {
+		this.profile = profile;
+	}
+
+	/**
+	 * Controls if "did you mean" proposals are computed for unresolved references. They are computed by default. When
+	 * they are not, the issues for unresolved references are reported without proposals (and without the
+	 * {@link IPPDiagnostics#ISSUE_PROPOSAL_SUFFIX proposal suffix} on their issue codes).
+	 * 
+	 * @param proposalsEnabled
+	 */
+	public void setProposalsEnabled(boolean proposalsEnabled) {
+		this.proposalsEnabled = proposalsEnabled;
+	}
+
 	/**
 	 * Surgically remove all disqualified descriptions (those that are HostClass and a container
 	 * of the given object 'o'.
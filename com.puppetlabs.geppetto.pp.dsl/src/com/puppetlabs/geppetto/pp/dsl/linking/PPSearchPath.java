@@ -12,23 +12,40 @@ package com.puppetlabs.geppetto.pp.dsl.linking;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.resource.Resource;
-import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.xtext.resource.IEObjectDescription;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
 /**
  * notes:
  * rootURI - URI to file:: root, used to make paths relative if URI is an absolute file uri
  * 
+ * The search path is compiled into a trie of path segments when created, and the search index of each resource URI
+ * is remembered, since the same URIs are looked up over and over again while linking. A search path is immutable, a
+ * changed path or root results in a new instance.
  * 
  */
 public class PPSearchPath {
+	/**
+	 * A node in the trie of search path entries. The indexes are the smallest search path index of an entry that
+	 * ends at the node, or that has a '*' segment directly below the node.
+	 */
+	private static class Node {
+		final Map<String, Node> children = Maps.newHashMap();
+
+		int endIndex = Integer.MAX_VALUE;
+
+		int starIndex = Integer.MAX_VALUE;
+	}
+
 	public interface IConfigurableProvider {
 		/**
 		 * Configure the search path provider so it knows the container of (distro) pptp, and
@@ -63,18 +80,54 @@ public class PPSearchPath {
 		return new PPSearchPath(p, root);
 	}
 
+	private static Node compile(List<IPath> searchPath) {
+		Node root = new Node();
+		for(int idx = 0; idx < searchPath.size(); idx++) {
+			IPath p = searchPath.get(idx);
+			Node node = root;
+			boolean star = false;
+			for(int i = 0; i < p.segmentCount(); i++) {
+				String s = p.segment(i);
+				// * matches any remaining segments, the rest of the entry is never looked at
+				if("*".equals(s)) {
+					node.starIndex = Math.min(node.starIndex, idx);
+					star = true;
+					break;
+				}
+				Node child = node.children.get(s);
+				if(child == null) {
+					child = new Node();
+					node.children.put(s, child);
+				}
+				node = child;
+			}
+			if(!star)
+				node.endIndex = Math.min(node.endIndex, idx);
+		}
+		return root;
+	}
+
 	private final URI rootURI;
 
+	private final URI rootDirectoryURI;
+
 	private List<IPath> searchPath;
 
+	private final Node trie;
+
+	private final Map<URI, Integer> indexCache = new ConcurrentHashMap<URI, Integer>();
+
 	private PPSearchPath(List<IPath> p, URI root) {
 		this.searchPath = p;
 		this.rootURI = root;
+		this.rootDirectoryURI = root == null
+				? null
+				: root.appendSegment("");
+		this.trie = compile(p);
 	}
 
 	public PPSearchPath(URI root) {
-		searchPath = Lists.newArrayList();
-		this.rootURI = root;
+		this(Lists.<IPath> newArrayList(), root);
 	}
 
 	/**
@@ -125,12 +178,25 @@ public class PPSearchPath {
 		return true;
 	}
 
+	/**
+	 * Computes the path position of the resource of the given description, or -1 if not found.
+	 * 
+	 * @param d
+	 * @return search path index or -1 if not found
+	 */
 	public int searchIndexOf(IEObjectDescription d) {
-		URI uri = EcoreUtil.getURI(d.getEObjectOrProxy());
+		URI resourceURI = d.getEObjectURI().trimFragment();
+		Integer cached = indexCache.get(resourceURI);
+		if(cached != null)
+			return cached.intValue();
+
+		URI uri = resourceURI;
 		if(uri.isFile() && rootURI != null) {
-			uri = uri.deresolve(rootURI.appendSegment(""));
+			uri = uri.deresolve(rootDirectoryURI);
 		}
-		return searchIndexOf(uri);
+		int idx = searchIndexOf(uri);
+		indexCache.put(resourceURI, Integer.valueOf(idx));
+		return idx;
 	}
 
 	/**
@@ -149,12 +215,21 @@ public class PPSearchPath {
 			return 0; // All pptp are searched first - ALWAYS
 		if(uri.isPlatformResource())
 			p = p.removeFirstSegments(2);
-		for(int idx = 0; idx < searchPath.size(); idx++) {
-			IPath q = searchPath.get(idx);
-			if(isMatch(p, q))
-				return idx + 1;
 
+		// Same as the lowest index of an entry q in the search path for which isMatch(p, q) is true
+		final int candidateLimit = p.segmentCount();
+		int best = Integer.MAX_VALUE;
+		Node node = trie;
+		for(int i = 0; node != null; i++) {
+			best = Math.min(best, node.starIndex);
+			if(candidateLimit - i <= 1)
+				best = Math.min(best, node.endIndex);
+			if(i >= candidateLimit)
+				break;
+			node = node.children.get(p.segment(i));
 		}
-		return -1;
+		return best == Integer.MAX_VALUE
+				? -1
+				: best + 1;
 	}
 }
@@ -18,7 +18,9 @@ import org.eclipse.emf.ecore.resource.Resource;
 import com.google.inject.Singleton;
 
 /**
- * Implementation of an {@link ISearchPathProvider} that returns a path based on a default path.
+ * Implementation of an {@link ISearchPathProvider} that returns a path based on a default path. The same path is
+ * returned for all resources until the provider is configured again, which allows the path to remember what it has
+ * computed.
  * 
  */
 @Singleton
@@ -30,6 +32,8 @@ public class PPSearchPathProvider implements ISearchPathProvider, IConfigurableP
 
 	private String environment;
 
+	private volatile PPSearchPath searchPath;
+
 	public PPSearchPathProvider() {
 		defaultPath = "*";
 	}
@@ -52,6 +56,7 @@ public class PPSearchPathProvider implements ISearchPathProvider, IConfigurableP
 		if(environment == null)
 			environment = "production";
 		this.environment = environment;
+		searchPath = null;
 	}
 
 	/*
@@ -61,6 +66,11 @@ public class PPSearchPathProvider implements ISearchPathProvider, IConfigurableP
 	 */
 	@Override
 	public PPSearchPath get(Resource r) {
-		return PPSearchPath.fromString(defaultPath, rootDirectory).evaluate(environment);
+		PPSearchPath result = searchPath;
+		if(result == null) {
+			result = PPSearchPath.fromString(defaultPath, rootDirectory).evaluate(environment);
+			searchPath = result;
+		}
+		return result;
 	}
 }
@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.pp.dsl.parser;
+
+import java.util.Iterator;
+import java.util.List;
+
+import com.puppetlabs.geppetto.pp.dsl.services.PPGrammarAccess;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.xtext.AbstractRule;
+import org.eclipse.xtext.IGrammarAccess;
+import org.eclipse.xtext.RuleCall;
+import org.eclipse.xtext.nodemodel.ICompositeNode;
+import org.eclipse.xtext.parser.IParseResult;
+import org.eclipse.xtext.parser.impl.PartialParsingHelper;
+import org.eclipse.xtext.parser.impl.PartialParsingPointers;
+
+import com.google.inject.Inject;
+
+/**
+ * A partial parsing helper that reparses a changed region of a manifest as a whole statement or a whole resource body.
+ * <p>
+ * The default helper reparses the innermost node around a change that is the call of a parser rule. In PP that is
+ * often a node in the middle of an expression (an operand, a resource title, an attribute value) where the result
+ * depends on the surrounding text (precedence, non-parenthesized function calls), and where the lookahead of the
+ * backtracking parser frequently makes the helper give up and parse the entire manifest. Here, only the calls of
+ * ExpressionList (a statement in a manifest, or in the body of a class, define, node, case, if, unless or lambda) and
+ * of ResourceBody are considered. A change that is not contained in such a node results in a full reparse.
+ * </p>
+ * <p>
+ * Only the parsing is partial. The PP linking of the resource, and thereby the rebuilding of its imported names and
+ * cross reference adapters, still covers the entire model.
+ * </p>
+ */
+public class PPPartialParsingHelper extends PartialParsingHelper {
+
+	private final AbstractRule expressionListRule;
+
+	private final AbstractRule resourceBodyRule;
+
+	@Inject
+	public PPPartialParsingHelper(IGrammarAccess ga) {
+		PPGrammarAccess pga = (PPGrammarAccess) ga;
+		this.expressionListRule = pga.getExpressionListRule();
+		this.resourceBodyRule = pga.getResourceBodyRule();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Overridden to drop the replace root candidates that are not {@link #isReparseBoundary(ICompositeNode) reparse
+	 * boundaries}. The root node is used when no candidate is left. The candidates are filtered in place, the region
+	 * is kept as computed by the default helper (i.e. widened to include appended text and syntax errors).
+	 * </p>
+	 */
+	@Override
+	public PartialParsingPointers calculatePartialParsingPointers(IParseResult previousParseResult, int offset,
+			int replacedTextLength) {
+		PartialParsingPointers pointers = super.calculatePartialParsingPointers(
+			previousParseResult, offset, replacedTextLength);
+		ICompositeNode rootNode = previousParseResult.getRootNode();
+		List<ICompositeNode> candidates = pointers.getValidReplaceRootNodes();
+		for(Iterator<ICompositeNode> itor = candidates.iterator(); itor.hasNext();) {
+			ICompositeNode candidate = itor.next();
+			if(candidate != rootNode && !isReparseBoundary(candidate))
+				itor.remove();
+		}
+		if(candidates.isEmpty())
+			candidates.add(rootNode);
+		return pointers;
+	}
+
+	/**
+	 * @param node
+	 * @return true if the given node is a statement or a resource body
+	 */
+	protected boolean isReparseBoundary(ICompositeNode node) {
+		EObject grammarElement = node.getGrammarElement();
+		if(!(grammarElement instanceof RuleCall))
+			return false;
+		AbstractRule rule = ((RuleCall) grammarElement).getRule();
+		return rule == expressionListRule || rule == resourceBodyRule;
+	}
+}
@@ -11,6 +11,7 @@
 package com.puppetlabs.geppetto.pp.dsl.ppdoc;
 
 import java.util.List;
+import java.util.Set;
 
 import com.puppetlabs.geppetto.pp.Definition;
 import com.puppetlabs.geppetto.pp.HostClassDefinition;
@@ -29,10 +30,13 @@ import org.eclipse.xtext.IGrammarAccess;
 import org.eclipse.xtext.TerminalRule;
 import org.eclipse.xtext.nodemodel.BidiTreeIterator;
 import org.eclipse.xtext.nodemodel.ICompositeNode;
+import org.eclipse.xtext.nodemodel.ILeafNode;
 import org.eclipse.xtext.nodemodel.INode;
 import org.eclipse.xtext.nodemodel.util.NodeModelUtils;
+import org.eclipse.xtext.parser.IParseResult;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.google.inject.Inject;
 
 /**
@@ -40,6 +44,31 @@ import com.google.inject.Inject;
  * 
  */
 public class DocumentationAssociator {
+	/**
+	 * Describes a change of the text of a resource that is about to be (partially) reparsed. Obtained with
+	 * {@link DocumentationAssociator#prepareChange(IParseResult, int, int, String)} before the reparse, and
+	 * passed to {@link DocumentationAssociator#linkDocumentation(EObject, Change)} after it.
+	 */
+	public static class Change {
+		private final int offset;
+
+		private final int length;
+
+		private final int delta;
+
+		private final int lineDelta;
+
+		private final Set<EObject> containers;
+
+		Change(int offset, int length, int delta, int lineDelta, Set<EObject> containers) {
+			this.offset = offset;
+			this.length = length;
+			this.delta = delta;
+			this.lineDelta = lineDelta;
+			this.containers = containers;
+		}
+	}
+
 	private final PPGrammarAccess ga;
 
 	/**
@@ -83,6 +112,29 @@ public class DocumentationAssociator {
 
 	}
 
+	/**
+	 * Adds the semantic objects that contain the text at the given offsets to the given set.
+	 */
+	private static void collectContainers(ICompositeNode root, Set<EObject> result, int... offsets) {
+		for(int offset : offsets) {
+			if(offset < 0)
+				continue;
+			ILeafNode leaf = NodeModelUtils.findLeafNodeAtOffset(root, offset);
+			if(leaf == null)
+				continue;
+			for(EObject o = NodeModelUtils.findActualSemanticObjectFor(leaf); o != null; o = o.eContainer())
+				if(!result.add(o))
+					break;
+		}
+	}
+
+	private static int countLines(String text) {
+		int count = 0;
+		for(int idx = text.indexOf('\n'); idx >= 0; idx = text.indexOf('\n', idx + 1))
+			++count;
+		return count;
+	}
+
 	public List<INode> getDocumentation(EObject semantic) {
 		Resource r = semantic.eResource();
 		if(r == null)
@@ -126,7 +178,96 @@ public class DocumentationAssociator {
 		associateTasks(model, null);
 		clearDocumentation(model);
 		List<PPTask> tasks = Lists.newArrayList();
+		ICompositeNode root = NodeModelUtils.getNode(model).getRootNode();
+		linkDocumentation(root, 0, root.getTotalEndOffset(), tasks);
+		associateTasks(model, tasks);
+	}
 
+	/**
+	 * Links comment nodes to classes listed in {@link #documentable} after a partial reparse of the given model. Only
+	 * the definitions in the reparsed part of the model (and a definition immediately following it) are associated
+	 * anew, and only the comments in that part are searched for tasks. The documentation and tasks elsewhere are kept
+	 * (with adjusted positions). If the reparsed part can not be determined, everything is linked as by
+	 * {@link #linkDocumentation(EObject)}.
+	 * 
+	 * @param model
+	 *            - the root of the model after the reparse
+	 * @param change
+	 *            - the change obtained from {@link #prepareChange(IParseResult, int, int, String)} before the reparse
+	 */
+	public void linkDocumentation(EObject model, Change change) {
+		Resource r = model.eResource();
+		if(r == null || change.containers.isEmpty()) {
+			linkDocumentation(model);
+			return;
+		}
+		ICompositeNode root = NodeModelUtils.getNode(model).getRootNode();
+		int from = change.offset;
+		int to = change.offset + change.length;
+
+		// The objects created by the reparse are those that did not contain the change before it.
+		Set<EObject> created = Sets.newHashSet();
+		collectContainers(root, created, from - 1, from, to);
+		created.removeAll(change.containers);
+		if(created.contains(model)) {
+			linkDocumentation(model);
+			return;
+		}
+		for(EObject o : created) {
+			ICompositeNode node = NodeModelUtils.getNode(o);
+			if(node != null) {
+				from = Math.min(from, node.getTotalOffset());
+				to = Math.max(to, node.getTotalEndOffset());
+			}
+		}
+
+		// extend to the comments before, and after, the reparsed part
+		ILeafNode leaf;
+		while(from > 0 && (leaf = NodeModelUtils.findLeafNodeAtOffset(root, from - 1)) != null &&
+				(leaf.isHidden() || leaf.getTotalEndOffset() > from))
+			from = leaf.getTotalOffset();
+		while((leaf = NodeModelUtils.findLeafNodeAtOffset(root, to)) != null &&
+				(leaf.isHidden() || leaf.getTotalOffset() < to))
+			to = leaf.getTotalEndOffset();
+
+		// drop documentation of objects that are gone or that are associated anew
+		ResourceDocumentationAdapter adapter = ResourceDocumentationAdapterFactory.eINSTANCE.adapt(r);
+		for(EObject semantic : Lists.newArrayList(adapter.getAssociations().keySet())) {
+			if(semantic.eResource() != r) {
+				adapter.remove(semantic);
+				continue;
+			}
+			ICompositeNode node = NodeModelUtils.findActualNodeFor(semantic);
+			if(node == null || node.getOffset() >= from && node.getOffset() <= to)
+				adapter.remove(semantic);
+		}
+
+		// keep the tasks outside of the reparsed part
+		ResourcePropertiesAdapter properties = ResourcePropertiesAdapterFactory.eINSTANCE.adapt(r);
+		@SuppressWarnings("unchecked")
+		List<PPTask> oldTasks = (List<PPTask>) properties.get(PPDSLConstants.RESOURCE_PROPERTY__TASK_LIST);
+		List<PPTask> tasks = Lists.newArrayList();
+		List<PPTask> following = Lists.newArrayList();
+		if(oldTasks != null) {
+			int oldTo = to - change.delta;
+			for(PPTask task : oldTasks) {
+				if(task.getOffset() < from)
+					tasks.add(task);
+				else if(task.getOffset() >= oldTo)
+					following.add(new PPTask(
+						task.getMsg(), task.getLine() + change.lineDelta, task.getOffset() + change.delta,
+						task.getLength(), task.isImportant()));
+			}
+		}
+		linkDocumentation(root, from, to, tasks);
+		tasks.addAll(following);
+		associateTasks(model, tasks);
+	}
+
+	/**
+	 * Links the comment nodes that start in the given range of the given root node, and collects their tasks.
+	 */
+	private void linkDocumentation(ICompositeNode root, int from, int to, List<PPTask> tasks) {
 		final TerminalRule mlRule = ga.getML_COMMENTRule();
 		final TerminalRule slRule = ga.getSL_COMMENTRule();
 		final TerminalRule wsRule = ga.getWSRule();
@@ -135,13 +276,19 @@ public class DocumentationAssociator {
 		// a definition, class, or node is taken to be a documentation comment, as is associated with
 		// the following semantic object using an adapter.
 		//
-		ICompositeNode node = NodeModelUtils.getNode(model);
-		ICompositeNode root = node.getRootNode();
 		List<INode> commentSequence = Lists.newArrayList();
 		BidiTreeIterator<INode> itor = root.getAsTreeIterable().iterator();
 		COLLECT_LOOP: while(itor.hasNext()) {
 			// for(INode x : root.getAsTreeIterable()) {
 			INode x = itor.next();
+			// skip what is outside of the range
+			if(x.getTotalEndOffset() <= from) {
+				if(x instanceof ICompositeNode)
+					itor.prune();
+				continue;
+			}
+			if(x.getTotalOffset() >= to)
+				break;
 			EObject grammarElement = x.getGrammarElement();
 			// process comments
 			if(grammarElement == slRule || grammarElement == mlRule) {
@@ -204,8 +351,33 @@ public class DocumentationAssociator {
 				}
 			}
 		}
-		associateTasks(model, tasks);
+	}
 
+	/**
+	 * Records what {@link #linkDocumentation(EObject, Change)} needs to know about a model before the text in the given
+	 * region is replaced and the model is reparsed.
+	 * 
+	 * @param parseResult
+	 *            - the parse result before the change
+	 * @param offset
+	 *            - the offset of the replaced text
+	 * @param replacedLength
+	 *            - the length of the replaced text
+	 * @param newText
+	 *            - the text that replaces it
+	 * @return a description of the change
+	 */
+	public Change prepareChange(IParseResult parseResult, int offset, int replacedLength, String newText) {
+		Set<EObject> containers = Sets.newHashSet();
+		int lineDelta = countLines(newText);
+		ICompositeNode root = parseResult == null
+				? null
+				: parseResult.getRootNode();
+		if(root != null) {
+			collectContainers(root, containers, offset - 1, offset, offset + replacedLength);
+			lineDelta -= countLines(root.getText().substring(offset, offset + replacedLength));
+		}
+		return new Change(offset, newText.length(), newText.length() - replacedLength, lineDelta, containers);
 	}
 
 	private void processCommentNode(INode node, List<PPTask> taskList) {
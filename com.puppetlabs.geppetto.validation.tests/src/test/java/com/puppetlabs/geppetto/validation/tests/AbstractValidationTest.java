@@ -13,8 +13,10 @@ package com.puppetlabs.geppetto.validation.tests;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.List;
 
+import com.puppetlabs.geppetto.common.os.FileUtils;
 import com.puppetlabs.geppetto.diagnostic.Diagnostic;
 import com.puppetlabs.geppetto.forge.client.GsonModule;
 import com.puppetlabs.geppetto.forge.impl.ForgeModule;
@@ -24,18 +26,24 @@ import com.puppetlabs.geppetto.pp.dsl.validation.IValidationAdvisor.ComplianceLe
 import com.puppetlabs.geppetto.pp.dsl.validation.ValidationAdvisor;
 import com.puppetlabs.geppetto.ruby.RubyHelper;
 import com.puppetlabs.geppetto.ruby.jrubyparser.JRubyServices;
+import com.puppetlabs.geppetto.validation.FileType;
 import com.puppetlabs.geppetto.validation.ValidationOptions;
 import com.puppetlabs.geppetto.validation.ValidationService;
 import com.puppetlabs.geppetto.validation.impl.ValidationModule;
 import com.puppetlabs.geppetto.validation.runner.AllModuleReferences;
 import com.puppetlabs.geppetto.validation.runner.AllModuleReferences.Export;
+import com.puppetlabs.geppetto.validation.runner.BuildResult;
 import com.puppetlabs.geppetto.validation.runner.IEncodingProvider;
 import com.puppetlabs.geppetto.validation.runner.PPDiagnosticsSetup;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.emf.common.util.URI;
 import org.junit.Before;
 
+import com.google.common.base.Charsets;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
+import com.google.common.io.Files;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 
@@ -48,6 +56,36 @@ public class AbstractValidationTest {
 		return count;
 	}
 
+	/**
+	 * Creates a directory with the given files, after removing anything that was there.
+	 * 
+	 * @param dir
+	 *            - the directory to create
+	 * @param pathsAndContents
+	 *            - pairs of a path relative to the directory and the content of the file
+	 * @return the directory
+	 * @throws IOException
+	 */
+	protected static File createTree(File dir, String... pathsAndContents) throws IOException {
+		FileUtils.rmR(dir);
+		dir.mkdirs();
+		for(int idx = 0; idx + 1 < pathsAndContents.length; idx += 2)
+			writeFile(new File(dir, pathsAndContents[idx]), pathsAndContents[idx + 1]);
+		return dir;
+	}
+
+	/**
+	 * Writes the given content to the given file, creating its directory if needed.
+	 * 
+	 * @param file
+	 * @param content
+	 * @throws IOException
+	 */
+	protected static void writeFile(File file, String content) throws IOException {
+		file.getParentFile().mkdirs();
+		Files.write(content, file, Charsets.UTF_8);
+	}
+
 	private Injector injector;
 
 	protected final void assertContainsErrorCode(Diagnostic chain, String errorCode) {
@@ -96,6 +134,25 @@ public class AbstractValidationTest {
 		return builder.toString();
 	}
 
+	/**
+	 * @return options for a validation of a puppet root with all checks enabled
+	 */
+	protected ValidationOptions getRootOptions() {
+		ValidationOptions options = getValidationOptions();
+		options.setCheckLayout(true);
+		options.setCheckModuleSemantics(true);
+		options.setCheckReferences(true);
+		options.setFileType(FileType.PUPPET_ROOT);
+		return options;
+	}
+
+	/**
+	 * @return the modules used by most of the tests of directory validation
+	 */
+	protected final File getTestModules() {
+		return TestDataProvider.getTestFile(new Path("testData/test-modules/"));
+	}
+
 	protected ValidationOptions getValidationOptions() {
 		return getValidationOptions(ComplianceLevel.PUPPET_3_0);
 	}
@@ -116,6 +173,32 @@ public class AbstractValidationTest {
 		return injector.getInstance(ValidationService.class);
 	}
 
+	/**
+	 * Validates the given root with the given options.
+	 * 
+	 * @param root
+	 * @param options
+	 * @param chain
+	 *            - receives the diagnostics
+	 * @return the build result
+	 */
+	protected final BuildResult validate(File root, ValidationOptions options, Diagnostic chain) {
+		return getValidationService().validate(chain, root, options, null, SubMonitor.convert(null));
+	}
+
+	/**
+	 * Validates the given root with the given options.
+	 * 
+	 * @param root
+	 * @param options
+	 * @return the diagnostics as produced by {@link #errorsToString(Diagnostic)}
+	 */
+	protected final String validateToString(File root, ValidationOptions options) {
+		Diagnostic chain = new Diagnostic();
+		validate(root, options, chain);
+		return errorsToString(chain);
+	}
+
 	@Before
 	public void setUp() {
 		RubyHelper.setRubyServicesFactory(JRubyServices.FACTORY);
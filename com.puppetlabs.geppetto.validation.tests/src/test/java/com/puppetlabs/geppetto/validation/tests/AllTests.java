@@ -21,7 +21,18 @@ import org.junit.runners.Suite.SuiteClasses;
 	// TestStackhammerDemo.class, requires stackhammer-demo repo to be present
 	TestParsing.class,
 	TestRakefileScanning.class,
-	TestForgeModules.class
+	TestForgeModules.class,
+	TestParallelValidation.class,
+	TestValidationCache.class,
+	TestValidationDaemon.class,
+	TestDiagnosticListener.class,
+	TestValidationMetrics.class,
+	TestRepositoryLayout.class,
+	TestLowMemoryValidation.class,
+	TestTargetedValidation.class,
+	TestParserMemoization.class,
+	TestCompactNodeModel.class,
+	TestSkipProposals.class
 	// @fmtOn
 })
 public class AllTests {
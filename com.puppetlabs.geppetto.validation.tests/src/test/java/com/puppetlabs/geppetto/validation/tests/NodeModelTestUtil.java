@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.validation.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.core.runtime.Path;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.nodemodel.ILeafNode;
+import org.eclipse.xtext.nodemodel.INode;
+import org.eclipse.xtext.parser.IParseResult;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Helpers for tests that parse every manifest in the test data in two different ways and compare the outcome, and for
+ * tests that need the manifests of a directory.
+ */
+final class NodeModelTestUtil {
+	/**
+	 * Asserts that the given parse results have equal models.
+	 */
+	static void assertSameModel(String file, IParseResult expected, IParseResult actual) {
+		assertEquals(file, expected.hasSyntaxErrors(), actual.hasSyntaxErrors());
+		EObject expectedRoot = expected.getRootASTElement();
+		EObject actualRoot = actual.getRootASTElement();
+		assertTrue(file + ": models differ", expectedRoot == null
+				? actualRoot == null
+				: EcoreUtil.equals(expectedRoot, actualRoot));
+	}
+
+	/**
+	 * Asserts that the given sequences of nodes are pairwise equal in kind, grammar element, position, text, syntax
+	 * errors and semantic element.
+	 */
+	static void assertSameNodes(String file, Iterable<INode> expected, Iterable<INode> actual) {
+		Iterator<INode> expectedNodes = expected.iterator();
+		Iterator<INode> actualNodes = actual.iterator();
+		while(expectedNodes.hasNext()) {
+			assertTrue(file + ": node model is too small", actualNodes.hasNext());
+			INode e = expectedNodes.next();
+			INode a = actualNodes.next();
+			String where = file + " at offset " + e.getOffset();
+			assertEquals(where, e.getClass(), a.getClass());
+			assertEquals(where, e.getGrammarElement(), a.getGrammarElement());
+			assertEquals(where, e.getOffset(), a.getOffset());
+			assertEquals(where, e.getLength(), a.getLength());
+			assertEquals(where, e.getTotalOffset(), a.getTotalOffset());
+			assertEquals(where, e.getTotalLength(), a.getTotalLength());
+			assertEquals(where, e.getStartLine(), a.getStartLine());
+			assertEquals(where, e.getEndLine(), a.getEndLine());
+			assertEquals(where, e.getText(), a.getText());
+			assertEquals(where, e.getSyntaxErrorMessage() == null, a.getSyntaxErrorMessage() == null);
+			if(e instanceof ILeafNode)
+				assertEquals(where, ((ILeafNode) e).isHidden(), ((ILeafNode) a).isHidden());
+			assertEquals(where, e.hasDirectSemanticElement(), a.hasDirectSemanticElement());
+			if(e.hasDirectSemanticElement())
+				assertEquals(where, e.getSemanticElement().eClass(), a.getSemanticElement().eClass());
+		}
+		assertFalse(file + ": node model is too large", actualNodes.hasNext());
+	}
+
+	private static void collectManifests(File dir, List<File> result) {
+		File[] children = dir.listFiles();
+		if(children == null)
+			return;
+		for(File child : children) {
+			if(child.isDirectory())
+				collectManifests(child, result);
+			else if(child.getName().endsWith(".pp"))
+				result.add(child);
+		}
+	}
+
+	/**
+	 * @param dir
+	 * @return all .pp files in the given directory and its subdirectories
+	 */
+	static List<File> getManifests(File dir) {
+		List<File> manifests = Lists.newArrayList();
+		collectManifests(dir, manifests);
+		return manifests;
+	}
+
+	/**
+	 * @return all .pp files in the test data
+	 */
+	static List<File> getTestManifests() {
+		List<File> manifests = getManifests(TestDataProvider.getTestFile(new Path("testData")));
+		assertFalse("There should be manifests in the test data", manifests.isEmpty());
+		return manifests;
+	}
+
+	private NodeModelTestUtil() {
+	}
+}
@@ -0,0 +1,210 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.validation.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.StringReader;
+import java.util.List;
+
+import com.puppetlabs.geppetto.pp.PuppetManifest;
+import com.puppetlabs.geppetto.pp.dsl.parser.antlr.PPParser;
+import com.puppetlabs.geppetto.pp.dsl.ppdoc.DocumentationAssociator;
+import com.puppetlabs.geppetto.pp.dsl.services.PPGrammarAccess;
+import com.puppetlabs.geppetto.pp.dsl.validation.DefaultPotentialProblemsAdvisor;
+import com.puppetlabs.geppetto.pp.dsl.validation.IValidationAdvisor.ComplianceLevel;
+import com.puppetlabs.geppetto.validation.ValidationOptions;
+import com.puppetlabs.geppetto.validation.runner.CompactPPParser;
+import com.puppetlabs.geppetto.validation.runner.PPDiagnosticsRunner;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.xtext.nodemodel.ICompositeNode;
+import org.eclipse.xtext.nodemodel.ILeafNode;
+import org.eclipse.xtext.nodemodel.INode;
+import org.eclipse.xtext.parser.IParseResult;
+import org.eclipse.xtext.resource.XtextResource;
+import org.eclipse.xtext.util.CancelIndicator;
+import org.eclipse.xtext.validation.CheckMode;
+import org.eclipse.xtext.validation.Issue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Predicate;
+import com.google.common.collect.Iterables;
+import com.google.common.io.Files;
+
+/**
+ * Tests that a compact node model has the same offsets, lengths and lines as a full node model, and that it results in
+ * the same issues. Every .pp file in the test data is parsed both ways, and directories are validated and linked both
+ * ways.
+ */
+public class TestCompactNodeModel extends AbstractValidationTest {
+	private static void assertSameIssues(String file, List<Issue> expected, List<Issue> actual) {
+		assertEquals(file + ": issue count", expected.size(), actual.size());
+		for(int idx = 0; idx < expected.size(); ++idx) {
+			Issue e = expected.get(idx);
+			Issue a = actual.get(idx);
+			String where = file + " issue " + e.getMessage();
+			assertEquals(where, e.getSeverity(), a.getSeverity());
+			assertEquals(where, e.getCode(), a.getCode());
+			assertEquals(where, e.getMessage(), a.getMessage());
+			assertEquals(where, e.getLineNumber(), a.getLineNumber());
+			assertEquals(where, e.getOffset(), a.getOffset());
+			assertEquals(where, e.getLength(), a.getLength());
+		}
+	}
+
+	private static String caseManifest() {
+		return "class b($x) inherits a {\n" + //
+				"  case $x {\n" + //
+				"    $y + 1: { }\n" + //
+				"    $y+1: { }\n" + //
+				"    default: { }\n" + //
+				"  }\n" + //
+				"}\n";
+	}
+
+	private PPDiagnosticsRunner runner;
+
+	private List<File> manifests;
+
+	@Test
+	public void compactNodeModelHasSameLinkedDiagnostics() throws Exception {
+		File root = createTree(new File(TestDataProvider.getTestOutputDir(), "compact-linked"), //
+			"manifests/a.pp", "class a { $y = 1 }\n", //
+			"manifests/b.pp", caseManifest(), //
+			"manifests/broken.pp", "class broken {\n  $z = \n}\n", //
+			"manifests/c.pp", "class c inherits missing { }\n");
+		for(File r : new File[] { root, getTestModules() }) {
+			ValidationOptions options = getRootOptions();
+			String expected = validateToString(r, options);
+			options = getRootOptions();
+			options.setCompactNodeModel(true);
+			assertEquals("Same diagnostics for " + r, expected, validateToString(r, options));
+			if(r == root) {
+				assertTrue("Whitespace should not matter", expected.contains("Duplicate case"));
+				assertTrue("Linking should report problems", expected.contains("Unknown class: 'missing'"));
+			}
+		}
+	}
+
+	@Test
+	public void compactNodeModelHasSameIssues() throws Exception {
+		for(File manifest : manifests) {
+			String file = manifest.getPath();
+			String text = Files.toString(manifest, Charsets.UTF_8);
+			runner.configureCompactNodeModel(false);
+			Resource full = runner.loadResource(text, URI.createFileURI("/full/" + manifest.getName()));
+			runner.configureCompactNodeModel(true);
+			Resource compact = runner.loadResource(text, URI.createFileURI("/compact/" + manifest.getName()));
+			assertTrue(file, ((XtextResource) compact).getParser() instanceof CompactPPParser);
+			assertFalse(file, ((XtextResource) full).getParser() instanceof CompactPPParser);
+			assertSameIssues(file, validate(full), validate(compact));
+			full.getResourceSet().getResources().remove(full);
+			compact.getResourceSet().getResources().remove(compact);
+		}
+	}
+
+	@Test
+	public void compactNodeModelHasSameNodes() throws Exception {
+		PPParser fullParser = runner.get(PPParser.class);
+		PPParser compactParser = runner.get(CompactPPParser.class);
+		final PPGrammarAccess grammarAccess = runner.get(PPGrammarAccess.class);
+		Predicate<INode> isNotWhitespace = new Predicate<INode>() {
+			public boolean apply(INode node) {
+				return !(node instanceof ILeafNode && node.getGrammarElement() == grammarAccess.getWSRule());
+			}
+		};
+		int fullCount = 0;
+		int compactCount = 0;
+		for(File manifest : manifests) {
+			String file = manifest.getPath();
+			String text = Files.toString(manifest, Charsets.UTF_8);
+			IParseResult expected = fullParser.parse(new StringReader(text));
+			IParseResult actual = compactParser.parse(new StringReader(text));
+			if(expected.hasSyntaxErrors())
+				continue;
+			NodeModelTestUtil.assertSameModel(file, expected, actual);
+			ICompositeNode expectedNode = expected.getRootNode();
+			ICompositeNode actualNode = actual.getRootNode();
+			NodeModelTestUtil.assertSameNodes(
+				file, Iterables.filter(expectedNode.getAsTreeIterable(), isNotWhitespace),
+				Iterables.filter(actualNode.getAsTreeIterable(), isNotWhitespace));
+			fullCount += Iterables.size(expectedNode.getAsTreeIterable());
+			compactCount += Iterables.size(actualNode.getAsTreeIterable());
+		}
+		assertTrue("The compact node models should have fewer nodes", compactCount < fullCount);
+	}
+
+	@Test
+	public void documentationCommentsAreKept() throws Exception {
+		String text = "# The documentation of a\nclass a {\n  # Not documentation\n  $x = 1\n}\n";
+		runner.configureCompactNodeModel(false);
+		Resource full = runner.loadResource(text, URI.createFileURI("/full/doc.pp"));
+		runner.configureCompactNodeModel(true);
+		Resource compact = runner.loadResource(text, URI.createFileURI("/compact/doc.pp"));
+		// The linker of the runner does not associate documentation
+		DocumentationAssociator associator = runner.get(DocumentationAssociator.class);
+		associator.linkDocumentation(full.getContents().get(0));
+		associator.linkDocumentation(compact.getContents().get(0));
+		List<INode> expected = associator.getDocumentation(getFirstStatement(full));
+		List<INode> actual = associator.getDocumentation(getFirstStatement(compact));
+		assertNotNull("The class should be documented", expected);
+		assertNotNull("The compact node model should keep the documentation", actual);
+		assertEquals("Same number of comments", expected.size(), actual.size());
+		for(int idx = 0; idx < expected.size(); ++idx) {
+			assertEquals("Same comment", expected.get(idx).getText(), actual.get(idx).getText());
+			assertEquals("Same offset", expected.get(idx).getOffset(), actual.get(idx).getOffset());
+		}
+		assertTrue("The documentation should be the comment", actual.get(0).getText().contains("documentation of a"));
+	}
+
+	@Test
+	public void equivalenceIgnoresWhitespace() throws Exception {
+		runner.configureCompactNodeModel(false);
+		Resource full = runner.loadResource(caseManifest(), URI.createFileURI("/full/b.pp"));
+		runner.configureCompactNodeModel(true);
+		Resource compact = runner.loadResource(caseManifest(), URI.createFileURI("/compact/b.pp"));
+		List<Issue> issues = validate(full);
+		assertSameIssues("b.pp", issues, validate(compact));
+		boolean duplicate = false;
+		for(Issue issue : issues)
+			duplicate |= "Duplicate case".equals(issue.getMessage());
+		assertTrue("Cases that only differ in whitespace should be duplicates", duplicate);
+	}
+
+	private EObject getFirstStatement(Resource resource) {
+		return ((PuppetManifest) resource.getContents().get(0)).getStatements().get(0);
+	}
+
+	@Before
+	public void setUpRunner() throws Exception {
+		manifests = NodeModelTestUtil.getTestManifests();
+		runner = new PPDiagnosticsRunner();
+		runner.setUp(ComplianceLevel.PUPPET_3_0, new DefaultPotentialProblemsAdvisor());
+	}
+
+	@After
+	public void tearDownRunner() {
+		runner.tearDown();
+	}
+
+	private List<Issue> validate(Resource resource) {
+		return runner.getPPResourceValidator().validate(resource, CheckMode.ALL, CancelIndicator.NullImpl);
+	}
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.validation.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.List;
+
+import com.puppetlabs.geppetto.diagnostic.Diagnostic;
+import com.puppetlabs.geppetto.diagnostic.DiagnosticCounter;
+import com.puppetlabs.geppetto.diagnostic.DiagnosticListener;
+import com.puppetlabs.geppetto.diagnostic.DiagnosticTreeListener;
+import com.puppetlabs.geppetto.diagnostic.JsonLinesDiagnosticWriter;
+import com.puppetlabs.geppetto.diagnostic.StreamingDiagnostic;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Tests that diagnostics streamed to listeners are the same as the ones collected in a diagnostic tree, and that they
+ * are passed on while the validation runs.
+ */
+public class TestDiagnosticListener extends AbstractValidationTest {
+	/**
+	 * A progress monitor that sums up the reported work.
+	 */
+	static class WorkCounter extends NullProgressMonitor {
+		int worked;
+
+		@Override
+		public void worked(int work) {
+			worked += work;
+		}
+	}
+
+	@Test
+	public void diagnosticsArePassedOnDuringValidation() throws Exception {
+		final WorkCounter monitor = new WorkCounter();
+		final List<Integer> workedWhenAdded = Lists.newArrayList();
+		StreamingDiagnostic streaming = new StreamingDiagnostic(new DiagnosticListener() {
+			@Override
+			public void diagnosticAdded(Diagnostic diagnostic) {
+				workedWhenAdded.add(monitor.worked);
+			}
+		});
+		getValidationService().validate(
+			streaming, getTestModules(), getRootOptions(), null, SubMonitor.convert(monitor));
+
+		assertFalse("The test modules should produce diagnostics", workedWhenAdded.isEmpty());
+		assertTrue(
+			"The first diagnostic should be passed on before the validation is done",
+			workedWhenAdded.get(0).intValue() < monitor.worked);
+	}
+
+	@Test
+	public void streamedDiagnosticsMatchTree() throws Exception {
+		File root = getTestModules();
+
+		Diagnostic tree = new Diagnostic();
+		getValidationService().validate(tree, root, getRootOptions(), null, SubMonitor.convert(null));
+		DiagnosticCounter treeCounter = new DiagnosticCounter();
+		for(Diagnostic d : tree)
+			treeCounter.diagnosticAdded(d);
+
+		DiagnosticCounter counter = new DiagnosticCounter();
+		StringWriter json = new StringWriter();
+		JsonLinesDiagnosticWriter jsonWriter = new JsonLinesDiagnosticWriter(json);
+		Diagnostic copy = new Diagnostic();
+		StreamingDiagnostic streaming = new StreamingDiagnostic(counter, jsonWriter, new DiagnosticTreeListener(copy));
+		getValidationService().validate(streaming, root, getRootOptions(), null, SubMonitor.convert(null));
+
+		assertTrue("Streaming diagnostic should not retain children", streaming.getChildren().isEmpty());
+		assertEquals("Severity should be maintained", tree.getSeverity(), streaming.getSeverity());
+		assertEquals("Tree listener should get the same diagnostics", tree.toString(), copy.toString());
+		for(int severity = Diagnostic.OK; severity <= Diagnostic.FATAL; ++severity)
+			assertEquals(
+				"Count for " + Diagnostic.getSeverityString(severity), treeCounter.getCount(severity),
+				counter.getCount(severity));
+
+		assertNull(jsonWriter.getError());
+		for(String line : json.toString().split("\n"))
+			if(line.length() > 0)
+				assertTrue("Not a JSON object: " + line, line.startsWith("{\"severity\":") && line.endsWith("}"));
+	}
+}
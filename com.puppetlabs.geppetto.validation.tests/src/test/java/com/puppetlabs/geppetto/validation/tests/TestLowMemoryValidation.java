@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.validation.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.puppetlabs.geppetto.diagnostic.Diagnostic;
+import com.puppetlabs.geppetto.pp.dsl.validation.DefaultPotentialProblemsAdvisor;
+import com.puppetlabs.geppetto.pp.dsl.validation.IValidationAdvisor.ComplianceLevel;
+import com.puppetlabs.geppetto.validation.ValidationOptions;
+import com.puppetlabs.geppetto.validation.runner.AllModuleReferences.Export;
+import com.puppetlabs.geppetto.validation.runner.BuildResult;
+import com.puppetlabs.geppetto.validation.runner.PPDiagnosticsRunner;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Multimap;
+
+/**
+ * Tests that validation in low memory mode produces the same result as a normal validation, and that a manifest
+ * that is unloaded keeps its exports.
+ */
+public class TestLowMemoryValidation extends AbstractValidationTest {
+
+	private static List<String> describe(Iterable<Export> exports) {
+		List<String> result = Lists.newArrayList();
+		for(Export e : exports)
+			result.add(e.getName() + '@' + e.getFile() + ':' + e.getLine() + ':' + e.getStart() + ':' + e.getLength());
+		return result;
+	}
+
+	private static List<String> describeImports(Map<File, Multimap<File, Export>> importMap) {
+		List<String> result = Lists.newArrayList();
+		for(Map.Entry<File, Multimap<File, Export>> entry : importMap.entrySet())
+			for(String export : describe(entry.getValue().values()))
+				result.add(entry.getKey() + " imports " + export);
+		Collections.sort(result);
+		return result;
+	}
+
+	private BuildResult validate(File root, boolean lowMemory, Diagnostic chain) {
+		ValidationOptions options = getRootOptions();
+		options.setLowMemory(lowMemory);
+		return validate(root, options, chain);
+	}
+
+	@Test
+	public void lowMemoryGivesSameResult() throws Exception {
+		File root = getTestModules();
+		Diagnostic expectedChain = new Diagnostic();
+		BuildResult expected = validate(root, false, expectedChain);
+		Diagnostic chain = new Diagnostic();
+		BuildResult result = validate(root, true, chain);
+
+		assertEquals("Same diagnostics", errorsToString(expectedChain), errorsToString(chain));
+		assertEquals(
+			"Same exports", describe(expected.getAllModuleReferences().getAllExported()),
+			describe(result.getAllModuleReferences().getAllExported()));
+		assertEquals(
+			"Same imports", describeImports(expected.getAllModuleReferences().getImportMap()),
+			describeImports(result.getAllModuleReferences().getImportMap()));
+	}
+
+	@Test
+	public void unloadedResourceKeepsItsExports() throws Exception {
+		PPDiagnosticsRunner runner = new PPDiagnosticsRunner();
+		runner.setUp(ComplianceLevel.PUPPET_3_0, new DefaultPotentialProblemsAdvisor());
+		try {
+			Resource resource = runner.loadResource("class a { }", URI.createFileURI("/lowmemory/a.pp"));
+			int exported = runner.getExportedObjectCount();
+			assertTrue("Resource should export something", exported > 0);
+			runner.snapshotDescriptions();
+			runner.unloadResource(resource);
+			assertFalse("Resource should be unloaded", resource.isLoaded());
+			assertEquals("Unloaded resource should keep its exports", exported, runner.getExportedObjectCount());
+		}
+		finally {
+			runner.tearDown();
+		}
+	}
+}
@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.validation.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.puppetlabs.geppetto.pp.dsl.target.PuppetTarget;
+import com.puppetlabs.geppetto.pp.dsl.validation.DefaultPotentialProblemsAdvisor;
+import com.puppetlabs.geppetto.pp.dsl.validation.IValidationAdvisor.ComplianceLevel;
+import com.puppetlabs.geppetto.validation.ValidationOptions;
+import com.puppetlabs.geppetto.validation.runner.IEncodingProvider;
+import com.puppetlabs.geppetto.validation.runner.PPDiagnosticsRunner;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.xtext.util.CancelIndicator;
+import org.eclipse.xtext.validation.CheckMode;
+import org.eclipse.xtext.validation.Issue;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Tests that manifests are parsed by the worker threads when there are several, and that this produces the same result
+ * as parsing on the calling thread. Also tests that linking and validating the manifests of a workspace from several
+ * threads at once gives the same issues as doing it on one thread.
+ */
+public class TestParallelValidation extends AbstractValidationTest {
+	private static final int MODULE_COUNT = 20;
+
+	private static final int ROUNDS = 5;
+
+	private static final int THREAD_COUNT = 8;
+
+	/**
+	 * Creates modules that refer to each other's classes, defines and variables, and to a type that does not exist.
+	 */
+	private static File createWorkspace() throws Exception {
+		File root = new File(TestDataProvider.getTestOutputDir(), "concurrent-linking");
+		List<String> pathsAndContents = Lists.newArrayList();
+		for(int i = 0; i < MODULE_COUNT; ++i) {
+			String m = "m" + i;
+			String next = "m" + (i + 1) % MODULE_COUNT;
+			pathsAndContents.add("modules/" + m + "/manifests/init.pp");
+			pathsAndContents.add("class " + m + "($x = 1) inherits " + m + "::params {\n" + //
+					"  include " + next + "\n" + //
+					"  " + m + "::thing { 'a': value => $" + m + "::params::v }\n" + //
+					"  " + next + "::thing { \"b${x}\": value => $" + next + "::params::v }\n" + //
+					"  missing_" + i + " { 'x': }\n" + //
+					"}\n");
+			pathsAndContents.add("modules/" + m + "/manifests/params.pp");
+			pathsAndContents.add("class " + m + "::params {\n  $v = '" + i + "'\n}\n");
+			pathsAndContents.add("modules/" + m + "/manifests/thing.pp");
+			pathsAndContents.add("define " + m + "::thing($value) {\n" + //
+					"  file { \"/tmp/${name}\": content => $value }\n" + //
+					"}\n");
+		}
+		return createTree(root, pathsAndContents.toArray(new String[pathsAndContents.size()]));
+	}
+
+	private static String linkAndValidate(PPDiagnosticsRunner runner, Resource resource) {
+		runner.resolveCrossReferences(resource, false, new NullProgressMonitor());
+		StringBuilder builder = new StringBuilder();
+		for(Issue issue : runner.getPPResourceValidator().validate(resource, CheckMode.ALL, CancelIndicator.NullImpl))
+			builder.append(issue.getLineNumber()).append(": ").append(issue.getMessage()).append('\n');
+		return builder.toString();
+	}
+
+	/**
+	 * Records the threads that parse .pp files (the encoding of a file is looked up when it is parsed).
+	 */
+	private final Set<Thread> parsingThreads = Collections.synchronizedSet(Sets.<Thread> newHashSet());
+
+	@Test
+	public void concurrentLinkingMatchesSequential() throws Exception {
+		File root = createWorkspace();
+		Map<String, String> expected = linkAll(root, 1);
+		assertEquals(MODULE_COUNT * 3, expected.size());
+		assertTrue(
+			"Unknown types should be reported", expected.get("modules/m0/manifests/init.pp").contains("missing_0"));
+		for(int round = 0; round < ROUNDS; ++round)
+			assertEquals("Round " + round, expected, linkAll(root, THREAD_COUNT));
+	}
+
+	private ValidationOptions getOptions(int threadCount, boolean checkReferences) {
+		ValidationOptions options = getRootOptions();
+		options.setCheckReferences(checkReferences);
+		options.setThreadCount(threadCount);
+		options.setEncodingProvider(new IEncodingProvider() {
+			public String getEncoding(URI file) {
+				if("pp".equals(file.fileExtension()))
+					parsingThreads.add(Thread.currentThread());
+				return "UTF-8";
+			}
+		});
+		return options;
+	}
+
+	/**
+	 * Loads the manifests of the given workspace into a new runner, and links and validates all of them.
+	 * 
+	 * @param root
+	 * @param threadCount
+	 *            - the number of threads that link and validate at the same time
+	 * @return the issues per manifest, keyed on the path relative to root
+	 */
+	private Map<String, String> linkAll(File root, int threadCount) throws Exception {
+		final PPDiagnosticsRunner runner = new PPDiagnosticsRunner();
+		runner.setUp(ComplianceLevel.PUPPET_3_0, new DefaultPotentialProblemsAdvisor());
+		try {
+			runner.configureSearchPath(root, null, null);
+			runner.loadResource(PuppetTarget.forComplianceLevel(ComplianceLevel.PUPPET_3_0, false).getPlatformURI());
+			final Map<String, Resource> resources = Maps.newTreeMap();
+			String rootPath = root.getAbsolutePath() + File.separator;
+			for(File manifest : NodeModelTestUtil.getManifests(root))
+				resources.put(
+					manifest.getAbsolutePath().substring(rootPath.length()).replace(File.separatorChar, '/'),
+					runner.loadResource(URI.createFileURI(manifest.getAbsolutePath())));
+			runner.prepareConcurrentLinking();
+
+			final Map<String, String> result = Collections.synchronizedMap(Maps.<String, String> newTreeMap());
+			final List<String> paths = Lists.newArrayList(resources.keySet());
+			final AtomicInteger next = new AtomicInteger();
+			final CountDownLatch start = new CountDownLatch(1);
+			final List<Throwable> failures = Collections.synchronizedList(Lists.<Throwable> newArrayList());
+			List<Thread> threads = Lists.newArrayList();
+			for(int i = 0; i < threadCount; ++i) {
+				Thread thread = new Thread("linker-" + i) {
+					@Override
+					public void run() {
+						try {
+							start.await();
+							for(int idx = next.getAndIncrement(); idx < paths.size(); idx = next.getAndIncrement()) {
+								String path = paths.get(idx);
+								result.put(path, linkAndValidate(runner, resources.get(path)));
+							}
+						}
+						catch(Throwable t) {
+							failures.add(t);
+						}
+					}
+				};
+				thread.start();
+				threads.add(thread);
+			}
+			start.countDown();
+			for(Thread thread : threads)
+				thread.join();
+			if(!failures.isEmpty())
+				throw new AssertionError(failures.get(0));
+			return result;
+		}
+		finally {
+			runner.tearDown();
+		}
+	}
+
+	@Test
+	public void parallelLoadIsDeterministic() throws Exception {
+		String expected = validateToString(getTestModules(), getOptions(1, false));
+		assertEquals("Sequential load should parse on the calling thread", //
+			Collections.singleton(Thread.currentThread()), parsingThreads);
+		for(int i = 0; i < 3; ++i)
+			assertEquals(
+				"Parallel load should produce the same diagnostics", expected,
+				validateToString(getTestModules(), getOptions(4, false)));
+		assertTrue("Parallel load should parse on worker threads", parsingThreads.size() > 1);
+	}
+
+	@Test
+	public void parallelLoadWithReferencesIsDeterministic() throws Exception {
+		String expected = validateToString(getTestModules(), getOptions(1, true));
+		for(int i = 0; i < 3; ++i)
+			assertEquals(
+				"Parallel load should produce the same diagnostics", expected,
+				validateToString(getTestModules(), getOptions(4, true)));
+	}
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.validation.tests;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.StringReader;
+
+import com.puppetlabs.geppetto.pp.dsl.parser.antlr.PPParser;
+import com.puppetlabs.geppetto.pp.dsl.parser.antlr.internal.InternalPPParser;
+import com.puppetlabs.geppetto.pp.dsl.validation.DefaultPotentialProblemsAdvisor;
+import com.puppetlabs.geppetto.pp.dsl.validation.IValidationAdvisor.ComplianceLevel;
+import com.puppetlabs.geppetto.validation.runner.PPDiagnosticsRunner;
+import org.antlr.runtime.IntStream;
+import org.eclipse.xtext.parser.IParseResult;
+import org.eclipse.xtext.parser.antlr.XtextTokenStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+/**
+ * Differential test of the memoization of rule outcomes in the PP parser. Every .pp file in the test data is parsed
+ * with memoization and without, and the resulting models and node models must be identical. The memoized outcomes
+ * must also actually be used.
+ */
+public class TestParserMemoization {
+	/**
+	 * A PP parser that counts the rule invocations that are answered from the memo.
+	 */
+	static class CountingPPParser extends PPParser {
+		int memoHits;
+
+		@Override
+		protected InternalPPParser createParser(XtextTokenStream stream) {
+			return new InternalPPParser(stream, getGrammarAccess()) {
+				@Override
+				public boolean alreadyParsedRule(IntStream input, int ruleIndex) {
+					boolean parsed = super.alreadyParsedRule(input, ruleIndex);
+					if(parsed)
+						++memoHits;
+					return parsed;
+				}
+			};
+		}
+	}
+
+	/**
+	 * A PP parser that never remembers the outcome of a rule, i.e. that parses like a parser generated without
+	 * memoization.
+	 */
+	static class NonMemoizingPPParser extends PPParser {
+		@Override
+		protected InternalPPParser createParser(XtextTokenStream stream) {
+			return new InternalPPParser(stream, getGrammarAccess()) {
+				@Override
+				public boolean alreadyParsedRule(IntStream input, int ruleIndex) {
+					return false;
+				}
+
+				@Override
+				public void memoize(IntStream input, int ruleIndex, int ruleStartIndex) {
+				}
+			};
+		}
+	}
+
+	private PPDiagnosticsRunner runner;
+
+	@Test
+	public void memoizedParsingIsIdentical() throws Exception {
+		CountingPPParser memoizing = runner.get(CountingPPParser.class);
+		PPParser nonMemoizing = runner.get(NonMemoizingPPParser.class);
+		for(File manifest : NodeModelTestUtil.getTestManifests()) {
+			String file = manifest.getPath();
+			String text = Files.toString(manifest, Charsets.UTF_8);
+			IParseResult expected = nonMemoizing.parse(new StringReader(text));
+			IParseResult actual = memoizing.parse(new StringReader(text));
+			NodeModelTestUtil.assertSameModel(file, expected, actual);
+			NodeModelTestUtil.assertSameNodes(
+				file, expected.getRootNode().getAsTreeIterable(), actual.getRootNode().getAsTreeIterable());
+		}
+		assertTrue("Memoized rule outcomes should be reused", memoizing.memoHits > 0);
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		runner = new PPDiagnosticsRunner();
+		runner.setUp(ComplianceLevel.PUPPET_3_0, new DefaultPotentialProblemsAdvisor());
+	}
+
+	@After
+	public void tearDown() {
+		runner.tearDown();
+	}
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.validation.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+
+import com.puppetlabs.geppetto.forge.Forge;
+import com.puppetlabs.geppetto.forge.client.GsonModule;
+import com.puppetlabs.geppetto.forge.impl.ForgeModule;
+import com.puppetlabs.geppetto.forge.util.ModuleUtils;
+import com.puppetlabs.geppetto.validation.runner.RepositoryLayout;
+import org.eclipse.core.runtime.Path;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.inject.Guice;
+
+/**
+ * Tests that the single pass scan finds the same files and module roots as the separate scans.
+ */
+public class TestRepositoryLayout {
+	private final Forge forge = Guice.createInjector(GsonModule.INSTANCE, new ForgeModule()).getInstance(Forge.class);
+
+	@Test
+	public void moduleRootsAreFoundInForgeOrder() throws Exception {
+		File root = TestDataProvider.getTestFile(new Path("testData/test-modules/"));
+		RepositoryLayout layout = RepositoryLayout.scan(root, ModuleUtils.DEFAULT_FILE_FILTER, forge);
+		List<File> expected = Lists.newArrayList(forge.findModuleRoots(root, ModuleUtils.DEFAULT_FILE_FILTER));
+		assertTrue("There should be module roots", !expected.isEmpty());
+		assertEquals("Module roots should match", expected, layout.getModuleRoots());
+		assertTrue("There should be .pp files", !layout.getPPFiles().isEmpty());
+		for(File f : layout.getPPFiles())
+			assertTrue(f.getName().endsWith(".pp") && f.isFile());
+	}
+
+	@Test
+	public void rakefilesAreClassified() throws Exception {
+		File root = TestDataProvider.getTestFile(new Path("testData/rakefiledata/twice/"));
+		RepositoryLayout layout = RepositoryLayout.scan(root, ModuleUtils.DEFAULT_FILE_FILTER, forge);
+		assertEquals("Both Rakefile and .rake file should be found", 2, layout.getRakefiles().size());
+		assertTrue(layout.getRubyFiles().isEmpty());
+		assertTrue(layout.getModuleRoots().isEmpty());
+	}
+}
@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.validation.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import com.puppetlabs.geppetto.diagnostic.Diagnostic;
+import com.puppetlabs.geppetto.pp.dsl.validation.IPPDiagnostics;
+import com.puppetlabs.geppetto.validation.ValidationOptions;
+import org.junit.Test;
+
+/**
+ * Tests that a validation that skips proposals computes none, and that it otherwise reports the same problems.
+ */
+public class TestSkipProposals extends AbstractValidationTest {
+	private static boolean hasProposals(Diagnostic chain) {
+		for(Diagnostic d : chain) {
+			String issue = d.getIssue();
+			String[] data = d.getIssueData();
+			if(issue != null && issue.endsWith(IPPDiagnostics.ISSUE_PROPOSAL_SUFFIX) || data != null && data.length > 0)
+				return true;
+		}
+		return false;
+	}
+
+	private Diagnostic validate(File root, boolean skipProposals) {
+		ValidationOptions options = getRootOptions();
+		options.setSkipProposals(skipProposals);
+		Diagnostic chain = new Diagnostic();
+		validate(root, options, chain);
+		return chain;
+	}
+
+	@Test
+	public void skippedProposalsLeaveDiagnosticsUnchanged() throws Exception {
+		File root = createTree(new File(TestDataProvider.getTestOutputDir(), "skip-proposals"), //
+			"manifests/common.pp", "class common { }\n", //
+			"manifests/x.pp", "class x inherits commn { }\n");
+		Diagnostic withProposals = validate(root, false);
+		assertTrue("Proposals should be computed by default", hasProposals(withProposals));
+		Diagnostic withoutProposals = validate(root, true);
+		assertFalse("No proposals should be computed", hasProposals(withoutProposals));
+		String diagnostics = errorsToString(withoutProposals);
+		assertTrue("The unknown class should be reported", diagnostics.contains("'commn'"));
+		assertEquals("Same diagnostics", errorsToString(withProposals), diagnostics);
+	}
+}
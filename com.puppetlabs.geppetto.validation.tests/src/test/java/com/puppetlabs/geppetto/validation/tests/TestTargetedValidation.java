@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.validation.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Set;
+
+import com.puppetlabs.geppetto.diagnostic.Diagnostic;
+import com.puppetlabs.geppetto.forge.Forge;
+import com.puppetlabs.geppetto.forge.client.GsonModule;
+import com.puppetlabs.geppetto.forge.impl.ForgeModule;
+import com.puppetlabs.geppetto.forge.util.ModuleUtils;
+import com.puppetlabs.geppetto.validation.ValidationOptions;
+import com.puppetlabs.geppetto.validation.runner.AllModuleReferences.Export;
+import com.puppetlabs.geppetto.validation.runner.BuildResult;
+import com.puppetlabs.geppetto.validation.runner.MetadataInfo;
+import com.puppetlabs.geppetto.validation.runner.RepositoryLayout;
+import com.puppetlabs.geppetto.validation.runner.VisibleFileSelector;
+import org.eclipse.core.runtime.SubMonitor;
+import org.junit.Test;
+
+import com.google.inject.Guice;
+
+/**
+ * Tests that a targeted validation only loads what the examined files may see, and that it reports the same problems
+ * as a validation that loads everything.
+ */
+public class TestTargetedValidation extends AbstractValidationTest {
+
+	@Test
+	public void functionOfUnrelatedModuleIsVisible() throws Exception {
+		File root = createTree(new File(TestDataProvider.getTestOutputDir(), "targeted-function"), //
+			"modules/a/manifests/init.pp", "class a {\n  $x = shout('x')\n  notice($x)\n}\n", //
+			"modules/b/manifests/init.pp", "class b { }\n", //
+			"modules/b/lib/puppet/parser/functions/shout.rb", //
+			"module Puppet::Parser::Functions\n" + //
+					"  newfunction(:shout, :type => :rvalue) do |args|\n" + //
+					"    args[0].upcase\n" + //
+					"  end\n" + //
+					"end\n");
+		File examined = new File(root, "modules/a/manifests/init.pp");
+		Set<File> selected = VisibleFileSelector.select(
+			scan(root), Collections.singleton(examined), Collections.<MetadataInfo> emptyList());
+		assertTrue(
+			"Functions of unrelated modules should be selected",
+			selected.contains(new File(root, "modules/b/lib/puppet/parser/functions/shout.rb")));
+		assertFalse(
+			"Manifests of unrelated modules should not be selected",
+			selected.contains(new File(root, "modules/b/manifests/init.pp")));
+
+		Diagnostic expectedChain = new Diagnostic();
+		validate(root, false, examined, expectedChain);
+		Diagnostic chain = new Diagnostic();
+		validate(root, true, examined, chain);
+		String diagnostics = errorsToString(chain);
+		assertFalse("The function should be found", diagnostics.contains("Unknown function"));
+		assertEquals("Same diagnostics", errorsToString(expectedChain), diagnostics);
+	}
+
+	@Test
+	public void nonConventionalNameIsOnlyFoundInSelectedModule() throws Exception {
+		File root = createTree(new File(TestDataProvider.getTestOutputDir(), "targeted-helper"), //
+			"modules/a/manifests/init.pp", "class a {\n  helper { 'x': }\n}\n", //
+			"modules/b/manifests/init.pp", "class b { }\n", //
+			"modules/b/manifests/helper.pp", "define helper { }\n");
+		File examined = new File(root, "modules/a/manifests/init.pp");
+		Set<File> selected = VisibleFileSelector.select(
+			scan(root), Collections.singleton(examined), Collections.<MetadataInfo> emptyList());
+		assertFalse(
+			"Module of a non conventional name should not be selected",
+			selected.contains(new File(root, "modules/b/manifests/helper.pp")));
+
+		Diagnostic chain = new Diagnostic();
+		validate(root, false, examined, chain);
+		assertFalse("The define should be found", errorsToString(chain).contains("Unknown resource type: 'helper'"));
+		chain = new Diagnostic();
+		validate(root, true, examined, chain);
+		assertTrue(
+			"The define should not be found in targeted mode",
+			errorsToString(chain).contains("Unknown resource type: 'helper'"));
+
+		// Once module b is selected for another reason, the define is found
+		writeFile(examined, "class a {\n  include b\n  helper { 'x': }\n}\n");
+		Diagnostic expectedChain = new Diagnostic();
+		validate(root, false, examined, expectedChain);
+		chain = new Diagnostic();
+		validate(root, true, examined, chain);
+		assertFalse("The define should be found", errorsToString(chain).contains("Unknown resource type: 'helper'"));
+		assertEquals("Same diagnostics", errorsToString(expectedChain), errorsToString(chain));
+	}
+
+	private RepositoryLayout scan(File root) {
+		Forge forge = Guice.createInjector(GsonModule.INSTANCE, new ForgeModule()).getInstance(Forge.class);
+		return RepositoryLayout.scan(root, ModuleUtils.DEFAULT_FILE_FILTER, forge);
+	}
+
+	@Test
+	public void selectionExcludesUnrelatedModules() throws Exception {
+		File root = getTestModules();
+		RepositoryLayout layout = scan(root);
+		File examined = new File(root, "test-module/manifests/init.pp");
+		Set<File> selected = VisibleFileSelector.select(
+			layout, Collections.singleton(examined), Collections.<MetadataInfo> emptyList());
+		assertTrue("Examined file should be selected", selected.contains(examined));
+		assertFalse(
+			"Unrelated module should not be selected", selected.contains(new File(root, "common/manifests/init.pp")));
+	}
+
+	private BuildResult validate(File root, boolean targeted, File examined, Diagnostic chain) {
+		ValidationOptions options = getRootOptions();
+		options.setCheckLayout(false);
+		options.setTargeted(targeted);
+		return getValidationService().validate(
+			chain, root, options, new File[] { examined }, SubMonitor.convert(null));
+	}
+
+	@Test
+	public void targetedGivesSameDiagnostics() throws Exception {
+		File root = getTestModules();
+		File examined = new File(root, "test-module/manifests/init.pp");
+		Diagnostic expectedChain = new Diagnostic();
+		BuildResult expected = validate(root, false, examined, expectedChain);
+		Diagnostic chain = new Diagnostic();
+		BuildResult result = validate(root, true, examined, chain);
+
+		assertEquals("Same diagnostics", errorsToString(expectedChain), errorsToString(chain));
+		assertTrue(
+			"Fewer resources should be loaded",
+			result.getMetrics().getResourceCount() < expected.getMetrics().getResourceCount());
+		File common = new File(root, "common");
+		for(Export e : result.getAllModuleReferences().getAllExported())
+			assertFalse("Unrelated module should not be loaded", e.getFile().getPath().startsWith(common.getPath()));
+	}
+}
@@ -0,0 +1,267 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.validation.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Set;
+
+import com.puppetlabs.geppetto.common.os.StreamUtil;
+import com.puppetlabs.geppetto.diagnostic.Diagnostic;
+import com.puppetlabs.geppetto.pp.dsl.target.PuppetTarget;
+import com.puppetlabs.geppetto.validation.ValidationOptions;
+import com.puppetlabs.geppetto.validation.runner.BuildResult;
+import com.puppetlabs.geppetto.validation.runner.ResourceDescriptionCache;
+import com.puppetlabs.geppetto.validation.runner.ValidationCache;
+import com.puppetlabs.geppetto.validation.runner.ValidationMetrics.FileTimes;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Sets;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+
+/**
+ * Tests that validation restored from the on-disk cache produces the same result as a full validation, that only the
+ * manifests affected by a change (including a change of the target platform) are validated again, and that a cache
+ * file that can not be read is ignored.
+ */
+public class TestValidationCache extends AbstractValidationTest {
+	/**
+	 * Records if an instance was ever deserialized.
+	 */
+	static class Payload implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		static boolean deserialized;
+
+		private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+			deserialized = true;
+			in.defaultReadObject();
+		}
+	}
+
+	private static Set<String> getValidatedFiles(BuildResult result) {
+		Set<String> validated = Sets.newHashSet();
+		for(FileTimes times : result.getMetrics().getFileTimes())
+			if(times.getValidateTime() > 0)
+				validated.add(times.getFile().getName());
+		return validated;
+	}
+
+	private File cacheDirectory;
+
+	private void assertCacheIsReplaced(File root, String name) throws Exception {
+		String expected = validateToString(root, getRootOptions());
+		Diagnostic chain = new Diagnostic();
+		BuildResult result = validate(root, cacheDirectory, chain);
+		assertEquals(name + " cache should produce the same diagnostics", expected, errorsToString(chain));
+		assertEquals(
+			name + " cache should be ignored", Sets.newHashSet("a.pp", "b.pp", "c.pp"), getValidatedFiles(result));
+		chain = new Diagnostic();
+		result = validate(root, cacheDirectory, chain);
+		assertEquals(expected, errorsToString(chain));
+		assertTrue(name + " cache should have been replaced", getValidatedFiles(result).isEmpty());
+	}
+
+	private File createRoot(String name) throws IOException {
+		File root = createTree(new File(TestDataProvider.getTestOutputDir(), name), //
+			"manifests/a.pp", "class a { }\n", //
+			"manifests/b.pp", "class b inherits a { }\n", //
+			"manifests/c.pp", "class c { }\n");
+		cacheDirectory = new File(TestDataProvider.getTestOutputDir(), name + "-cache");
+		createTree(cacheDirectory);
+		return root;
+	}
+
+	@Test
+	public void cachedValidationIsIdentical() throws Exception {
+		File root = getTestModules();
+		File cacheDirectory = new File(TestDataProvider.getTestOutputDir(), "validation-cache");
+		new File(cacheDirectory, ValidationCache.CACHE_FILE_NAME).delete();
+		new File(cacheDirectory, ResourceDescriptionCache.CACHE_FILE_NAME).delete();
+		String expected = validate(root, null);
+		assertEquals("Cold cache should produce the same diagnostics", expected, validate(root, cacheDirectory));
+		assertTrue(
+			"Cache should have been written", new File(cacheDirectory, ValidationCache.CACHE_FILE_NAME).isFile());
+		assertTrue(
+			"Description cache should have been written",
+			new File(cacheDirectory, ResourceDescriptionCache.CACHE_FILE_NAME).isFile());
+		Diagnostic chain = new Diagnostic();
+		BuildResult result = validate(root, cacheDirectory, chain);
+		assertEquals("Warm cache should produce the same diagnostics", expected, errorsToString(chain));
+		assertTrue("Nothing should be validated with a warm cache", getValidatedFiles(result).isEmpty());
+	}
+
+	@Test
+	public void corruptCacheIsIgnored() throws Exception {
+		File root = createRoot("corrupt-cache");
+		validate(root, cacheDirectory, new Diagnostic());
+		File cacheFile = new File(cacheDirectory, ValidationCache.CACHE_FILE_NAME);
+		byte[] content = Files.toByteArray(cacheFile);
+
+		Files.write(Arrays.copyOf(content, content.length / 2), cacheFile);
+		assertCacheIsReplaced(root, "Truncated");
+
+		byte[] garbage = content.clone();
+		for(int idx = garbage.length / 2; idx < garbage.length; ++idx)
+			garbage[idx] = (byte) 0xff;
+		Files.write(garbage, cacheFile);
+		assertCacheIsReplaced(root, "Garbled");
+	}
+
+	@Test
+	public void corruptDescriptionCacheIsIgnored() throws Exception {
+		File root = createRoot("corrupt-descriptions");
+		File cacheFile = new File(cacheDirectory, ResourceDescriptionCache.CACHE_FILE_NAME);
+		ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(cacheFile));
+		try {
+			out.writeObject(new Payload());
+		}
+		finally {
+			out.close();
+		}
+		byte[] serialized = Files.toByteArray(cacheFile);
+		Payload.deserialized = false;
+		String expected = validateToString(root, getRootOptions());
+		assertEquals("Same diagnostics", expected, validate(root, cacheDirectory));
+		assertFalse("The cache file should never be deserialized", Payload.deserialized);
+		assertFalse("The cache file should be replaced", Arrays.equals(serialized, Files.toByteArray(cacheFile)));
+
+		byte[] content = Files.toByteArray(cacheFile);
+		Files.write(Arrays.copyOf(content, content.length - 1), cacheFile);
+		assertTrue(new File(cacheDirectory, ValidationCache.CACHE_FILE_NAME).delete());
+		assertEquals("Same diagnostics with a truncated cache", expected, validate(root, cacheDirectory));
+		assertTrue("The cache file should be rewritten", Arrays.equals(content, Files.toByteArray(cacheFile)));
+	}
+
+	@Test
+	public void editedManifestIsRevalidated() throws Exception {
+		File root = createRoot("edited-manifest");
+		validate(root, cacheDirectory, new Diagnostic());
+
+		writeFile(new File(root, "manifests/c.pp"), "class c { notice('edited') }\n");
+		String expected = validateToString(root, getRootOptions());
+		Diagnostic chain = new Diagnostic();
+		BuildResult result = validate(root, cacheDirectory, chain);
+		assertEquals("Edited manifest should give the same diagnostics", expected, errorsToString(chain));
+		assertEquals(
+			"Only the edited manifest should be validated", Sets.newHashSet("c.pp"), getValidatedFiles(result));
+	}
+
+	@Test
+	public void exportChangeRevalidatesDependents() throws Exception {
+		File root = createRoot("export-change");
+		validate(root, cacheDirectory, new Diagnostic());
+
+		writeFile(new File(root, "manifests/a.pp"), "class a2 { }\n");
+		String expected = validateToString(root, getRootOptions());
+		assertTrue("The missing parent class should be reported", expected.contains("Unknown class: 'a'"));
+		Diagnostic chain = new Diagnostic();
+		BuildResult result = validate(root, cacheDirectory, chain);
+		assertEquals("Changed export should give the same diagnostics", expected, errorsToString(chain));
+		assertTrue(
+			"Manifest using the changed export should be validated", getValidatedFiles(result).contains("b.pp"));
+	}
+
+	@Test
+	public void platformChangeRevalidatesEverything() throws Exception {
+		File root = createRoot("platform-change");
+		File platform = new File(TestDataProvider.getTestOutputDir(), "platform-change.pptp");
+		InputStream in = URIConverter.INSTANCE.createInputStream(PuppetTarget.getDefault().getPlatformURI());
+		try {
+			Files.write(ByteStreams.toByteArray(in), platform);
+		}
+		finally {
+			StreamUtil.close(in);
+		}
+		ValidationOptions options = getRootOptions();
+		options.setCacheDirectory(cacheDirectory);
+		options.setPlatformURI(URI.createFileURI(platform.getAbsolutePath()));
+		validate(root, options, new Diagnostic());
+		assertTrue("Nothing should be validated with a warm cache", getValidatedFiles(
+			validate(root, options, new Diagnostic())).isEmpty());
+
+		// Same URI, different content
+		Files.append("\n", platform, Charsets.UTF_8);
+		assertEquals(
+			"A changed platform should invalidate the cache", Sets.newHashSet("a.pp", "b.pp", "c.pp"),
+			getValidatedFiles(validate(root, options, new Diagnostic())));
+	}
+
+	@Test
+	public void restoredDescriptionsGiveIdenticalValidation() throws Exception {
+		File root = getTestModules();
+		File cacheDirectory = new File(TestDataProvider.getTestOutputDir(), "description-cache");
+		new File(cacheDirectory, ResourceDescriptionCache.CACHE_FILE_NAME).delete();
+		String expected = validate(root, null);
+		validate(root, cacheDirectory);
+
+		// Everything is linked and validated again, with all manifests restored from the description cache
+		assertTrue(new File(cacheDirectory, ValidationCache.CACHE_FILE_NAME).delete());
+		assertEquals(
+			"Restored descriptions should produce the same diagnostics", expected, validate(root, cacheDirectory));
+	}
+
+	@Test
+	public void serializedObjectsAreNeverRead() throws Exception {
+		File root = createRoot("serialized-cache");
+		ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(new File(
+			cacheDirectory, ValidationCache.CACHE_FILE_NAME)));
+		try {
+			out.writeObject(new Payload());
+		}
+		finally {
+			out.close();
+		}
+		Payload.deserialized = false;
+		assertCacheIsReplaced(root, "Serialized");
+		assertFalse("The cache file should never be deserialized", Payload.deserialized);
+	}
+
+	private String validate(File root, File cacheDirectory) {
+		ValidationOptions options = getRootOptions();
+		options.setCacheDirectory(cacheDirectory);
+		return validateToString(root, options);
+	}
+
+	private BuildResult validate(File root, File cacheDirectory, Diagnostic chain) {
+		ValidationOptions options = getRootOptions();
+		options.setCacheDirectory(cacheDirectory);
+		return validate(root, options, chain);
+	}
+
+	@Test
+	public void warmCacheSkipsValidation() throws Exception {
+		File root = createRoot("warm-cache");
+		String expected = validateToString(root, getRootOptions());
+		Diagnostic chain = new Diagnostic();
+		BuildResult result = validate(root, cacheDirectory, chain);
+		assertEquals(expected, errorsToString(chain));
+		assertEquals(Sets.newHashSet("a.pp", "b.pp", "c.pp"), getValidatedFiles(result));
+		chain = new Diagnostic();
+		result = validate(root, cacheDirectory, chain);
+		assertEquals("Warm cache should produce the same diagnostics", expected, errorsToString(chain));
+		assertTrue("Nothing should be validated with a warm cache", getValidatedFiles(result).isEmpty());
+	}
+}
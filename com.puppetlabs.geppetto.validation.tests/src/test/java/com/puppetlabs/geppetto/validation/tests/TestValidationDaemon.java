@@ -0,0 +1,214 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.validation.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+
+import com.puppetlabs.geppetto.forge.client.GsonModule;
+import com.puppetlabs.geppetto.forge.impl.ForgeModule;
+import com.puppetlabs.geppetto.validation.daemon.ValidationDaemon;
+import com.puppetlabs.geppetto.validation.daemon.ValidationDaemonClient;
+import com.puppetlabs.geppetto.validation.daemon.ValidationDaemonModule;
+import com.puppetlabs.geppetto.validation.daemon.WarmValidationEnvironment;
+import com.puppetlabs.geppetto.validation.impl.ValidationModule;
+import com.puppetlabs.geppetto.validation.runner.ValidationCache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+/**
+ * Tests the validation daemon protocol, that only the owner of the token may use it, that a warm daemon produces the
+ * same result as a cold one, that kept state is released when the daemon is idle, and that a client that stops sending
+ * is dropped.
+ */
+public class TestValidationDaemon extends AbstractValidationTest {
+	private static String[] validateLines(File root, String... more) {
+		String[] lines = new String[4 + more.length];
+		lines[0] = "root=" + root.getAbsolutePath();
+		lines[1] = "fileType=PUPPET_ROOT";
+		lines[2] = "checkModuleSemantics=true";
+		lines[3] = "checkReferences=true";
+		System.arraycopy(more, 0, lines, 4, more.length);
+		return lines;
+	}
+
+	private ValidationDaemon daemon;
+
+	private WarmValidationEnvironment environment;
+
+	private ValidationDaemonClient client;
+
+	private Thread daemonThread;
+
+	private volatile Throwable daemonFailure;
+
+	private int port;
+
+	private File tokenFile;
+
+	private File cacheRoot;
+
+	@Test
+	public void cacheIsKeptBelowCacheRoot() throws Exception {
+		File root = createTree(new File(TestDataProvider.getTestOutputDir(), "daemon-cache"), //
+			"manifests/a.pp", "class a { }\n");
+		File elsewhere = new File(TestDataProvider.getTestOutputDir(), "daemon-elsewhere");
+		createTree(elsewhere);
+		String response = client.request(
+			ValidationDaemon.VALIDATE, validateLines(root, "cache=true", "cacheDirectory=" + elsewhere));
+		assertFalse(response, response.contains("Invalid parameter"));
+		File[] cacheDirectories = cacheRoot.listFiles();
+		assertNotNull(cacheDirectories);
+		assertEquals("The root should get a cache directory of its own", 1, cacheDirectories.length);
+		assertTrue(new File(cacheDirectories[0], ValidationCache.CACHE_FILE_NAME).isFile());
+		assertEquals("A request can not choose where a cache is written", 0, elsewhere.list().length);
+	}
+
+	@Test
+	public void differentRootsAreSeparated() throws Exception {
+		File rootA = createTree(new File(TestDataProvider.getTestOutputDir(), "daemon-root-a"), //
+			"manifests/a.pp", "class a { }\n");
+		File rootB = createTree(new File(TestDataProvider.getTestOutputDir(), "daemon-root-b"), //
+			"manifests/b.pp", "class b inherits a { }\n");
+		String responseA = client.request(ValidationDaemon.VALIDATE, validateLines(rootA));
+		assertFalse(responseA, responseA.contains("Unknown class"));
+		String responseB = client.request(ValidationDaemon.VALIDATE, validateLines(rootB));
+		assertTrue("The class of the other root should not be visible", responseB.contains("Unknown class: 'a'"));
+		assertEquals(
+			"The other root should not affect the result", responseA,
+			client.request(ValidationDaemon.VALIDATE, validateLines(rootA)));
+	}
+
+	@Test
+	public void idleStateIsReleased() throws Exception {
+		String[] lines = validateLines(getTestModules(), "checkLayout=true");
+		String cold = client.request(ValidationDaemon.VALIDATE, lines);
+		assertTrue("State should be kept after a request", environment.isLoaded());
+
+		daemon.setIdleTimeout(1);
+		for(int wait = 0; environment.isLoaded() && wait < 100; ++wait)
+			Thread.sleep(100);
+		assertFalse("State should be released when the daemon is idle", environment.isLoaded());
+		assertEquals("Released state should be recreated", cold, client.request(ValidationDaemon.VALIDATE, lines));
+		assertTrue(environment.isLoaded());
+	}
+
+	@Test
+	public void missingRootIsReported() throws Exception {
+		String response = client.request(ValidationDaemon.VALIDATE);
+		assertTrue("Missing root should be an error", response.contains("Missing parameter: root"));
+		assertTrue("Response should end with the severity", response.endsWith(ValidationDaemon.END + " ERROR\n"));
+	}
+
+	@Test
+	public void ping() throws Exception {
+		assertEquals(ValidationDaemon.END + " OK\n", client.request(ValidationDaemon.PING));
+	}
+
+	@Test
+	public void requestWithoutTokenIsRejected() throws Exception {
+		String response = new ValidationDaemonClient(port, "wrong").request(ValidationDaemon.PING);
+		assertTrue("Wrong token should be rejected", response.contains("Not authorized"));
+		assertTrue(response.endsWith(ValidationDaemon.END + " ERROR\n"));
+
+		Socket socket = new Socket(InetAddress.getByName(null), port);
+		try {
+			Writer out = new OutputStreamWriter(socket.getOutputStream(), "UTF-8");
+			out.write(ValidationDaemon.STOP + "\n\n");
+			out.flush();
+			BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
+			StringBuilder bld = new StringBuilder();
+			String line;
+			while((line = in.readLine()) != null)
+				bld.append(line).append('\n');
+			assertTrue("Missing token should be rejected", bld.toString().contains("Not authorized"));
+		}
+		finally {
+			socket.close();
+		}
+		assertEquals("Rejected STOP should be ignored", ValidationDaemon.END + " OK\n", client.request(
+			ValidationDaemon.PING));
+	}
+
+	@Test
+	public void silentClientIsDropped() throws Exception {
+		daemon.setReadTimeout(200);
+		Socket socket = new Socket(InetAddress.getByName(null), port);
+		try {
+			socket.setSoTimeout(10000);
+			assertEquals("Silent client should be disconnected", -1, socket.getInputStream().read());
+		}
+		finally {
+			socket.close();
+		}
+		assertEquals("The next client should be served", ValidationDaemon.END + " OK\n", client.request(
+			ValidationDaemon.PING));
+	}
+
+	@Before
+	public void startDaemon() throws Exception {
+		Injector injector = Guice.createInjector(
+			GsonModule.INSTANCE, new ForgeModule(), new ValidationModule(), new ValidationDaemonModule());
+		daemon = injector.getInstance(ValidationDaemon.class);
+		environment = injector.getInstance(WarmValidationEnvironment.class);
+		cacheRoot = new File(TestDataProvider.getTestOutputDir(), "daemon-caches");
+		createTree(cacheRoot);
+		daemon.setCacheRoot(cacheRoot);
+		tokenFile = new File(TestDataProvider.getTestOutputDir(), "daemon.token");
+		port = daemon.bind(0, tokenFile);
+		client = new ValidationDaemonClient(port, ValidationDaemonClient.readToken(tokenFile));
+		daemonFailure = null;
+		daemonThread = new Thread() {
+			@Override
+			public void run() {
+				try {
+					daemon.run();
+				}
+				catch(Throwable e) {
+					daemonFailure = e;
+				}
+			}
+		};
+		daemonThread.start();
+	}
+
+	@After
+	public void stopDaemon() throws Throwable {
+		daemon.stop();
+		daemonThread.join();
+		if(daemonFailure != null)
+			throw daemonFailure;
+		assertFalse("Token file should be removed", tokenFile.exists());
+	}
+
+	@Test
+	public void warmValidationIsIdentical() throws Exception {
+		String[] lines = validateLines(getTestModules(), "checkLayout=true");
+		String cold = client.request(ValidationDaemon.VALIDATE, lines);
+		assertTrue("Response should be terminated", cold.contains(ValidationDaemon.END + ' '));
+		assertEquals("Warm daemon should produce the same diagnostics", cold, client.request(
+			ValidationDaemon.VALIDATE, lines));
+	}
+}
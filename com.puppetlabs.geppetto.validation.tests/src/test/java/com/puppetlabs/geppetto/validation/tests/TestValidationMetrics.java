@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.validation.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import com.puppetlabs.geppetto.diagnostic.Diagnostic;
+import com.puppetlabs.geppetto.pp.dsl.validation.DefaultPotentialProblemsAdvisor;
+import com.puppetlabs.geppetto.pp.dsl.validation.IValidationAdvisor.ComplianceLevel;
+import com.puppetlabs.geppetto.validation.runner.BuildResult;
+import com.puppetlabs.geppetto.validation.runner.PPDiagnosticsRunner;
+import com.puppetlabs.geppetto.validation.runner.ValidationMetrics;
+import com.puppetlabs.geppetto.validation.runner.ValidationMetrics.FileTimes;
+import com.puppetlabs.geppetto.validation.runner.ValidationMetrics.Phase;
+import org.junit.Test;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Tests that validation of a directory produces metrics, with times for each manifest that add up to the link and
+ * validate phases.
+ */
+public class TestValidationMetrics extends AbstractValidationTest {
+
+	@Test
+	public void emptyResourceSetHasNoExports() throws Exception {
+		PPDiagnosticsRunner runner = new PPDiagnosticsRunner();
+		runner.setUp(ComplianceLevel.PUPPET_3_0, new DefaultPotentialProblemsAdvisor());
+		try {
+			assertEquals(0, runner.getExportedObjectCount());
+		}
+		finally {
+			runner.tearDown();
+		}
+	}
+
+	@Test
+	public void everyManifestIsTimed() throws Exception {
+		File root = createTree(new File(TestDataProvider.getTestOutputDir(), "metrics"), //
+			"manifests/a.pp", "class a { }\n", //
+			"manifests/b.pp", "class b inherits a { }\n");
+		ValidationMetrics metrics = validate(root, getRootOptions(), new Diagnostic()).getMetrics();
+
+		Map<String, FileTimes> fileTimes = Maps.newHashMap();
+		long linkTime = 0;
+		long validateTime = 0;
+		for(FileTimes times : metrics.getFileTimes()) {
+			String name = times.getFile().getName();
+			fileTimes.put(name, times);
+			assertTrue(name + " should have a parse time", times.getParseTime() > 0);
+			assertTrue(name + " should have a link time", times.getLinkTime() > 0);
+			assertTrue(name + " should have a validate time", times.getValidateTime() > 0);
+			linkTime += times.getLinkTime();
+			validateTime += times.getValidateTime();
+		}
+		assertEquals("Every manifest should be timed", Sets.newHashSet("a.pp", "b.pp"), fileTimes.keySet());
+		assertEquals("Link phase should be the sum of the file times", linkTime, metrics.getPhaseTime(Phase.LINK));
+		assertEquals(
+			"Validate phase should be the sum of the file times", validateTime, metrics.getPhaseTime(Phase.VALIDATE));
+
+		List<FileTimes> slowest = metrics.getSlowestFiles(1);
+		assertEquals("Only the requested number of files", 1, slowest.size());
+		for(FileTimes times : fileTimes.values())
+			assertTrue("Slowest file should be first", slowest.get(0).getTotalTime() >= times.getTotalTime());
+	}
+
+	@Test
+	public void metricsAreCollected() throws Exception {
+		BuildResult result = validate(getTestModules(), getRootOptions(), new Diagnostic());
+
+		ValidationMetrics metrics = result.getMetrics();
+		assertNotNull("Directory validation should produce metrics", metrics);
+		assertTrue("Resources should be counted", metrics.getResourceCount() > 0);
+		assertTrue("Exported objects should be counted", metrics.getExportedObjectCount() > 0);
+		assertTrue("Parsing should take time", metrics.getPhaseTime(Phase.PP_PARSE) > 0);
+		assertTrue("Total should cover parsing", metrics.getTotalTime() >= metrics.getPhaseTime(Phase.PP_PARSE));
+
+		List<FileTimes> slowest = metrics.getSlowestFiles(3);
+		assertFalse("There should be per file times", slowest.isEmpty());
+		assertTrue("No more than the requested number of files", slowest.size() <= 3);
+		for(int idx = 1; idx < slowest.size(); ++idx)
+			assertTrue(
+				"Slowest file should be first", slowest.get(idx - 1).getTotalTime() >= slowest.get(idx).getTotalTime());
+		assertTrue(metrics.getReport(3).contains("Slowest files:"));
+	}
+}
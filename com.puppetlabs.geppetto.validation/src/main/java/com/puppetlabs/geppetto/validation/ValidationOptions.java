@@ -10,12 +10,16 @@
  */
 package com.puppetlabs.geppetto.validation;
 
+import java.io.File;
+
 import com.puppetlabs.geppetto.pp.dsl.validation.IPotentialProblemsAdvisor;
 import com.puppetlabs.geppetto.pp.dsl.validation.IValidationAdvisor.ComplianceLevel;
 import com.puppetlabs.geppetto.validation.runner.IEncodingProvider;
 import org.eclipse.emf.common.util.URI;
 
 public class ValidationOptions {
+	private File cacheDirectory;
+
 	private ComplianceLevel complianceLevel;
 
 	private IEncodingProvider encodingProvider;
@@ -26,16 +30,45 @@ public class ValidationOptions {
 
 	private URI platformURI;
 
+	private int maxCacheEntries;
+
 	private IPotentialProblemsAdvisor problemsAdvisor;
 
 	private String searchPath;
 
+	private int threadCount = 1;
+
 	private boolean checkLayout;
 
 	private boolean checkModuleSemantics;
 
 	private boolean checkReferences;
 
+	private boolean compactNodeModel;
+
+	private boolean lowMemory;
+
+	private boolean profileLinking;
+
+	private boolean skipProposals;
+
+	private boolean targeted;
+
+	/**
+	 * A directory where the outcome of linking and validating each manifest
+	 * is cached between runs. Manifests that have not changed, and that do
+	 * not see any changed exports, are not linked and validated again. When
+	 * the thread count is 1, the exports of each manifest are cached as well,
+	 * and a manifest that has not changed is only parsed if it has to be
+	 * linked and validated or if something refers into it. If null (the
+	 * default), nothing is cached.
+	 * 
+	 * @return the value of the '<em>cacheDirectory</em>' attribute.
+	 */
+	public File getCacheDirectory() {
+		return cacheDirectory;
+	}
+
 	/**
 	 * Defaults to 2.7 if not specified.
 	 * 
@@ -66,6 +99,17 @@ public class ValidationOptions {
 		return fileType;
 	}
 
+	/**
+	 * The maximum number of manifests kept in the cache. The least recently
+	 * used manifests are evicted first. A value of 0 (the default) means a
+	 * reasonable default size.
+	 * 
+	 * @return the value of the '<em>maxCacheEntries</em>' attribute.
+	 */
+	public int getMaxCacheEntries() {
+		return maxCacheEntries;
+	}
+
 	/**
 	 * A URI to a pptp resource in string form. If null, a default pptp will be
 	 * used when validating. An unloadable pptp reference will result in an
@@ -91,6 +135,17 @@ public class ValidationOptions {
 		return searchPath;
 	}
 
+	/**
+	 * The number of worker threads used when loading, linking and validating
+	 * the manifests of a directory. A value of 1 (the default) processes all
+	 * manifests on the calling thread.
+	 * 
+	 * @return the value of the '<em>threadCount</em>' attribute.
+	 */
+	public int getThreadCount() {
+		return threadCount;
+	}
+
 	/**
 	 * @return the value of the '<em>checkLayout</em>' attribute.
 	 */
@@ -116,6 +171,81 @@ public class ValidationOptions {
 		return checkReferences;
 	}
 
+	/**
+	 * With a compact node model, most of the whitespace nodes of the node
+	 * model of each manifest are left out when the manifest is parsed. This
+	 * reduces the memory held by each manifest without changing the reported
+	 * diagnostics.
+	 * 
+	 * @return the value of the '<em>compactNodeModel</em>' attribute.
+	 */
+	public boolean isCompactNodeModel() {
+		return compactNodeModel;
+	}
+
+	/**
+	 * In low memory mode, the model and node model of each manifest are
+	 * released as soon as the manifest has been validated. Only a copy of
+	 * what the manifest exports, and the names it imports, are kept. Linking
+	 * and validation is then performed on the calling thread irrespective of
+	 * the thread count.
+	 * 
+	 * @return the value of the '<em>lowMemory</em>' attribute.
+	 */
+	public boolean isLowMemory() {
+		return lowMemory;
+	}
+
+	/**
+	 * When linking is profiled, the call counts and times of the linking of
+	 * each construct, and of the lookups made by the linker, are collected
+	 * per file and made available in the {@link
+	 * com.puppetlabs.geppetto.validation.runner.ValidationMetrics metrics}
+	 * of the build result.
+	 * 
+	 * @return the value of the '<em>profileLinking</em>' attribute.
+	 */
+	public boolean isProfileLinking() {
+		return profileLinking;
+	}
+
+	/**
+	 * When proposals are skipped, no "did you mean" proposals are computed
+	 * for unresolved references. The diagnostics for such references are
+	 * then reported without proposals, and without the proposal suffix on
+	 * their issue codes. This saves time in headless runs where nobody
+	 * applies quick fixes.
+	 * 
+	 * @return the value of the '<em>skipProposals</em>' attribute.
+	 */
+	public boolean isSkipProposals() {
+		return skipProposals;
+	}
+
+	/**
+	 * In targeted mode, a validation of a directory that is given examined
+	 * files only loads the files that the examined files may refer to. This
+	 * is the modules of the examined files, the modules that they depend on
+	 * according to the module metadata, the modules whose names are used in
+	 * the loaded manifests, and files that are not part of any module. The
+	 * module references that are reported only cover the loaded files.
+	 * 
+	 * @return the value of the '<em>targeted</em>' attribute.
+	 */
+	public boolean isTargeted() {
+		return targeted;
+	}
+
+	/**
+	 * Sets the value of the '<em>cacheDirectory</em>' attribute.
+	 * 
+	 * @param value
+	 *            the new value of the '<em>cacheDirectory</em>' attribute.
+	 */
+	public void setCacheDirectory(File value) {
+		cacheDirectory = value;
+	}
+
 	/**
 	 * Sets the value of the '<em>checkLayout</em>' attribute.
 	 * 
@@ -147,6 +277,16 @@ public class ValidationOptions {
 		checkReferences = value;
 	}
 
+	/**
+	 * Sets the value of the '<em>compactNodeModel</em>' attribute.
+	 * 
+	 * @param value
+	 *            the new value of the '<em>compactNodeModel</em>' attribute.
+	 */
+	public void setCompactNodeModel(boolean value) {
+		compactNodeModel = value;
+	}
+
 	/**
 	 * Sets the value of the '<em>complianceLevel</em>' attribute.
 	 * 
@@ -187,6 +327,26 @@ public class ValidationOptions {
 		fileType = value;
 	}
 
+	/**
+	 * Sets the value of the '<em>lowMemory</em>' attribute.
+	 * 
+	 * @param value
+	 *            the new value of the '<em>lowMemory</em>' attribute.
+	 */
+	public void setLowMemory(boolean value) {
+		lowMemory = value;
+	}
+
+	/**
+	 * Sets the value of the '<em>maxCacheEntries</em>' attribute.
+	 * 
+	 * @param value
+	 *            the new value of the '<em>maxCacheEntries</em>' attribute.
+	 */
+	public void setMaxCacheEntries(int value) {
+		maxCacheEntries = value;
+	}
+
 	/**
 	 * Sets the value of the '<em>platformURI</em>' attribute.
 	 * 
@@ -216,4 +376,52 @@ public class ValidationOptions {
 	public void setSearchPath(String value) {
 		searchPath = value;
 	}
+
+	/**
+	 * Sets the value of the '<em>profileLinking</em>' attribute.
+	 * 
+	 * @param value
+	 *            the new value of the '<em>profileLinking</em>' attribute.
+	 */
+	public void setProfileLinking(boolean value) {
+		profileLinking = value;
+	}
+
+	/**
+	 * Sets the value of the '<em>skipProposals</em>' attribute.
+	 * 
+	 * @param value
+	 *            the new value of the '<em>skipProposals</em>' attribute.
+	 */
+	public void setSkipProposals(boolean value) {
+		skipProposals = value;
+	}
+
+	/**
+	 * Sets the value of the '<em>targeted</em>' attribute.
+	 * <p>
+	 * The selection of the files to load (see {@link #isTargeted()}) does
+	 * not take the search path into account. A definition whose name does
+	 * not start with the name of its module, such as a define
+	 * <code>helper</code> in module <code>b</code>, is only found when its
+	 * module is selected for another reason. A reference to it is otherwise
+	 * reported as unresolved in targeted mode.
+	 * </p>
+	 * 
+	 * @param value
+	 *            the new value of the '<em>targeted</em>' attribute.
+	 */
+	public void setTargeted(boolean value) {
+		targeted = value;
+	}
+
+	/**
+	 * Sets the value of the '<em>threadCount</em>' attribute.
+	 * 
+	 * @param value
+	 *            the new value of the '<em>threadCount</em>' attribute.
+	 */
+	public void setThreadCount(int value) {
+		threadCount = value;
+	}
 }
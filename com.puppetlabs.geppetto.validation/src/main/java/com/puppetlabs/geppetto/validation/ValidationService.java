@@ -13,6 +13,7 @@ package com.puppetlabs.geppetto.validation;
 import java.io.File;
 
 import com.puppetlabs.geppetto.diagnostic.Diagnostic;
+import com.puppetlabs.geppetto.diagnostic.DiagnosticListener;
 import com.puppetlabs.geppetto.diagnostic.DiagnosticType;
 import com.puppetlabs.geppetto.validation.runner.BuildResult;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -58,6 +59,17 @@ public interface ValidationService {
 	BuildResult validate(Diagnostic diagnostics, File source, ValidationOptions options, File[] examinedFiles,
 			IProgressMonitor monitor);
 
+	/**
+	 * Performs validation in the same way as
+	 * {@link #validate(Diagnostic, File, ValidationOptions, File[], IProgressMonitor)} but passes each diagnostic to the
+	 * given listener as soon as it is produced instead of collecting the diagnostics in a tree.
+	 * 
+	 * @param listener
+	 *            Receives the discovered problems/information.
+	 */
+	BuildResult validate(DiagnosticListener listener, File source, ValidationOptions options, File[] examinedFiles,
+			IProgressMonitor monitor);
+
 	/**
 	 * Validates PP syntax for code given in code parameter.
 	 * 
@@ -0,0 +1,452 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.validation.daemon;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Map;
+
+import com.puppetlabs.geppetto.common.os.StreamUtil;
+import com.puppetlabs.geppetto.diagnostic.Diagnostic;
+import com.puppetlabs.geppetto.diagnostic.ExceptionDiagnostic;
+import com.puppetlabs.geppetto.pp.dsl.target.PuppetTarget;
+import com.puppetlabs.geppetto.pp.dsl.validation.IValidationAdvisor.ComplianceLevel;
+import com.puppetlabs.geppetto.validation.FileType;
+import com.puppetlabs.geppetto.validation.ValidationOptions;
+import com.puppetlabs.geppetto.validation.ValidationService;
+import com.puppetlabs.geppetto.validation.runner.ValidationCache;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.emf.common.util.URI;
+
+import com.google.common.collect.Maps;
+import com.google.inject.Inject;
+
+/**
+ * A long lived validation server that accepts requests on a loopback socket. The {@link ValidationService} used by the
+ * daemon should be obtained from an injector that includes the {@link ValidationDaemonModule} so that the injectors,
+ * the target platforms and the ruby services are kept warm between requests. Kept state is released when no request
+ * has been served during the idle timeout, and recreated by the next request.
+ * <p>
+ * Requests are served one at a time. Each request is validated in a resource set of its own and with its own options,
+ * so requests for different repositories do not see each other's content. A client that does not send the next line
+ * of its request within the read timeout is dropped, so that it can not hold up the requests of others.
+ * </p>
+ * <p>
+ * Only the user that started the daemon may use it. When the daemon is bound, a random token is written to a token
+ * file that only the owner can read, and every request must start with a line <code>AUTH token</code>. A request with
+ * a missing or wrong token is rejected without looking at the rest of it. The token file is removed when the daemon
+ * stops. The {@link ValidationDaemonLauncher} starts a daemon and the {@link ValidationDaemonClient} sends requests.
+ * </p>
+ * <p>
+ * The protocol is line based and UTF-8 encoded. After the <code>AUTH</code> line, a request is one of:
+ * <ul>
+ * <li><code>PING</code></li>
+ * <li><code>STOP</code> - stops the daemon once the response has been written</li>
+ * <li><code>VALIDATE</code> followed by <code>name=value</code> lines and an empty line. The <code>root</code>
+ * parameter is required. The optional parameters are <code>fileType</code>, <code>complianceLevel</code>,
+ * <code>platformURI</code>, <code>checkLayout</code>, <code>checkModuleSemantics</code>, <code>checkReferences</code>,
+ * <code>searchPath</code>, <code>environment</code>, <code>threadCount</code>, <code>maxCacheEntries</code>,
+ * <code>compactNodeModel</code>, <code>lowMemory</code>, <code>targeted</code> and <code>skipProposals</code> (see
+ * {@link ValidationOptions}, <code>skipProposals</code> defaults to <code>true</code>). The optional
+ * <code>examinedFiles</code> parameter is a list of files separated by the platform path separator that limits the
+ * validation to those files. When the optional <code>cache</code> parameter is <code>true</code>, the validation uses
+ * a cache directory of its own below the cache root of the daemon (see {@link #setCacheRoot(File)}); a request can
+ * not choose where a cache is written.</li>
+ * </ul>
+ * The response consists of the diagnostics produced by the request (one line each, unless a diagnostic has a multi
+ * line message) followed by a line <code>END SEVERITY</code> where <code>SEVERITY</code> is the max severity of the
+ * diagnostics.
+ * </p>
+ */
+public class ValidationDaemon {
+	/**
+	 * Idle time in milliseconds before kept state is released, unless something else is set.
+	 */
+	public static final long DEFAULT_IDLE_TIMEOUT = 10 * 60 * 1000L;
+
+	/**
+	 * Time in milliseconds to wait for the next line of a request, unless something else is set.
+	 */
+	public static final int DEFAULT_READ_TIMEOUT = 30 * 1000;
+
+	public static final String AUTH = "AUTH";
+
+	public static final String END = "END";
+
+	public static final String PING = "PING";
+
+	public static final String STOP = "STOP";
+
+	public static final String VALIDATE = "VALIDATE";
+
+	private static final int POLL_INTERVAL = 1000;
+
+	private static final String UTF_8 = "UTF-8";
+
+	private static boolean getBoolean(Map<String, String> parameters, String name) {
+		return Boolean.parseBoolean(parameters.get(name));
+	}
+
+	private static boolean getBoolean(Map<String, String> parameters, String name, boolean defaultValue) {
+		String value = parameters.get(name);
+		return value == null
+				? defaultValue
+				: Boolean.parseBoolean(value);
+	}
+
+	private static File[] getFiles(Map<String, String> parameters, String name) {
+		String value = parameters.get(name);
+		if(value == null)
+			return null;
+		String[] paths = value.split(File.pathSeparator);
+		File[] files = new File[paths.length];
+		for(int idx = 0; idx < paths.length; ++idx)
+			files[idx] = new File(paths[idx]);
+		return files;
+	}
+
+	private static int getInt(Map<String, String> parameters, String name, int defaultValue) {
+		String value = parameters.get(name);
+		return value == null
+				? defaultValue
+				: Integer.parseInt(value);
+	}
+
+	/**
+	 * Creates the given file with permissions that only allows the owner to read and write it, and writes the given
+	 * token to it.
+	 */
+	private static void writeToken(File tokenFile, String token) throws IOException {
+		if(tokenFile.exists() && !tokenFile.delete())
+			throw new IOException("Unable to replace " + tokenFile);
+		if(!tokenFile.createNewFile())
+			throw new IOException("Unable to create " + tokenFile);
+		// Restrict before the token is written. Taking the permissions away from others fails on Windows, where the
+		// files of a user are private to begin with.
+		boolean othersRemoved = tokenFile.setReadable(false, false) && tokenFile.setWritable(false, false);
+		if(!(tokenFile.setReadable(true, true) && tokenFile.setWritable(true, true) &&
+				(othersRemoved || File.separatorChar == '\\'))) {
+			tokenFile.delete();
+			throw new IOException("Unable to restrict access to " + tokenFile);
+		}
+		Writer out = new OutputStreamWriter(new FileOutputStream(tokenFile), UTF_8);
+		try {
+			out.write(token);
+		}
+		finally {
+			StreamUtil.close(out);
+		}
+	}
+
+	private final ValidationService validationService;
+
+	private final WarmValidationEnvironment environment;
+
+	private volatile long idleTimeout = DEFAULT_IDLE_TIMEOUT;
+
+	private volatile int readTimeout = DEFAULT_READ_TIMEOUT;
+
+	private volatile File cacheRoot;
+
+	private ServerSocket serverSocket;
+
+	private String token;
+
+	private File tokenFile;
+
+	private volatile boolean running;
+
+	@Inject
+	public ValidationDaemon(ValidationService validationService, WarmValidationEnvironment environment) {
+		this.validationService = validationService;
+		this.environment = environment;
+	}
+
+	/**
+	 * Binds the daemon to the given port on the loopback interface, and writes a new token to the given token file.
+	 * 
+	 * @param port
+	 *            - the port to use, or 0 to use any free port
+	 * @param tokenFile
+	 *            - the file that receives the token that clients must send. Replaced if it exists.
+	 * @return the bound port
+	 * @throws IOException
+	 */
+	public int bind(int port, File tokenFile) throws IOException {
+		token = new BigInteger(130, new SecureRandom()).toString(32);
+		writeToken(tokenFile, token);
+		this.tokenFile = tokenFile;
+		serverSocket = new ServerSocket(port, 0, InetAddress.getByName(null));
+		serverSocket.setSoTimeout(POLL_INTERVAL);
+		running = true;
+		return serverSocket.getLocalPort();
+	}
+
+	private ValidationOptions createOptions(File root, Map<String, String> parameters) {
+		ValidationOptions options = new ValidationOptions();
+		String value = parameters.get("fileType");
+		options.setFileType(value == null
+				? FileType.DETECT
+				: FileType.valueOf(value));
+
+		value = parameters.get("complianceLevel");
+		ComplianceLevel complianceLevel = value == null
+				? ComplianceLevel.PUPPET_2_7
+				: ComplianceLevel.valueOf(value);
+		options.setComplianceLevel(complianceLevel);
+
+		value = parameters.get("platformURI");
+		if(value != null)
+			options.setPlatformURI(URI.createURI(value));
+		else {
+			PuppetTarget target = PuppetTarget.forComplianceLevel(complianceLevel, false);
+			if(target != null)
+				options.setPlatformURI(target.getPlatformURI());
+		}
+
+		options.setCheckLayout(getBoolean(parameters, "checkLayout"));
+		options.setCheckModuleSemantics(getBoolean(parameters, "checkModuleSemantics"));
+		options.setCheckReferences(getBoolean(parameters, "checkReferences"));
+		options.setSearchPath(parameters.get("searchPath"));
+		options.setEnvironment(parameters.get("environment"));
+		options.setThreadCount(getInt(parameters, "threadCount", 1));
+		if(getBoolean(parameters, "cache")) {
+			File cacheRoot = this.cacheRoot;
+			if(cacheRoot == null)
+				throw new IllegalArgumentException("cache: the daemon has no cache root");
+			options.setCacheDirectory(new File(cacheRoot, ValidationCache.digest(root.getPath())));
+		}
+		options.setMaxCacheEntries(getInt(parameters, "maxCacheEntries", 0));
+		options.setCompactNodeModel(getBoolean(parameters, "compactNodeModel"));
+		options.setLowMemory(getBoolean(parameters, "lowMemory"));
+		options.setTargeted(getBoolean(parameters, "targeted"));
+		// nobody applies quick fixes to the output of the daemon
+		options.setSkipProposals(getBoolean(parameters, "skipProposals", true));
+		return options;
+	}
+
+	/**
+	 * @return the directory below which the caches of the validations are kept, or null if nothing is cached
+	 */
+	public File getCacheRoot() {
+		return cacheRoot;
+	}
+
+	public long getIdleTimeout() {
+		return idleTimeout;
+	}
+
+	public int getReadTimeout() {
+		return readTimeout;
+	}
+
+	private boolean isAuthorized(String line) throws UnsupportedEncodingException {
+		String prefix = AUTH + ' ';
+		if(line == null || !line.startsWith(prefix))
+			return false;
+		// compare in constant time
+		return MessageDigest.isEqual(token.getBytes(UTF_8), line.substring(prefix.length()).trim().getBytes(UTF_8));
+	}
+
+	private Map<String, String> readParameters(BufferedReader in) throws IOException {
+		Map<String, String> parameters = Maps.newHashMap();
+		String line;
+		while((line = in.readLine()) != null && line.length() > 0) {
+			int eq = line.indexOf('=');
+			if(eq > 0)
+				parameters.put(line.substring(0, eq).trim(), line.substring(eq + 1).trim());
+		}
+		return parameters;
+	}
+
+	/**
+	 * Serves requests until {@link #stop()} is called or a <code>STOP</code> request is received. The kept state is
+	 * released when this method returns.
+	 * 
+	 * @throws IOException
+	 * @throws IllegalStateException
+	 *             if the daemon has not been bound
+	 */
+	public void run() throws IOException {
+		if(serverSocket == null)
+			throw new IllegalStateException("The daemon must be bound before it is run");
+		try {
+			while(running) {
+				Socket socket;
+				try {
+					socket = serverSocket.accept();
+				}
+				catch(SocketTimeoutException e) {
+					unloadIfIdle();
+					continue;
+				}
+				catch(SocketException e) {
+					if(!running)
+						break; // closed by stop()
+					throw e;
+				}
+				try {
+					socket.setSoTimeout(readTimeout);
+					serve(socket);
+				}
+				catch(SocketTimeoutException e) {
+					// The client stopped sending. Drop it so that the next client is served.
+				}
+				catch(IOException e) {
+					// The client went away. Nothing to report it to.
+				}
+				finally {
+					socket.close();
+				}
+			}
+		}
+		finally {
+			running = false;
+			serverSocket.close();
+			tokenFile.delete();
+			environment.unload();
+		}
+	}
+
+	private void serve(Socket socket) throws IOException {
+		BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), UTF_8));
+		Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), UTF_8));
+		Diagnostic result = new Diagnostic();
+		if(isAuthorized(in.readLine())) {
+			String command = in.readLine();
+			if(command == null)
+				return;
+
+			command = command.trim();
+			if(VALIDATE.equals(command))
+				validate(result, readParameters(in));
+			else if(STOP.equals(command))
+				running = false;
+			else if(!PING.equals(command))
+				result.addChild(new Diagnostic(
+					Diagnostic.ERROR, ValidationService.GEPPETTO, "Unknown command: " + command));
+		}
+		else
+			result.addChild(new Diagnostic(Diagnostic.ERROR, ValidationService.GEPPETTO, "Not authorized"));
+
+		if(!result.getChildren().isEmpty()) {
+			out.write(result.toString());
+			out.write('\n');
+		}
+		out.write(END);
+		out.write(' ');
+		out.write(result.getSeverityString());
+		out.write('\n');
+		out.flush();
+	}
+
+	/**
+	 * Sets the directory below which the caches of the validations that ask for caching are kept. Each root gets a
+	 * cache directory of its own. Caching is not available when no cache root is set. This method may be called from
+	 * any thread.
+	 * 
+	 * @param cacheRoot
+	 */
+	public void setCacheRoot(File cacheRoot) {
+		this.cacheRoot = cacheRoot;
+	}
+
+	/**
+	 * Sets the time in milliseconds that the daemon must be idle before the kept state is released. This method may be
+	 * called from any thread.
+	 * 
+	 * @param idleTimeout
+	 */
+	public void setIdleTimeout(long idleTimeout) {
+		this.idleTimeout = idleTimeout;
+	}
+
+	/**
+	 * Sets the time in milliseconds to wait for the next line of a request before the client is dropped. Applies to
+	 * the clients that connect from now on. This method may be called from any thread.
+	 * 
+	 * @param readTimeout
+	 */
+	public void setReadTimeout(int readTimeout) {
+		this.readTimeout = readTimeout;
+	}
+
+	/**
+	 * Makes {@link #run()} return. This method may be called from any thread.
+	 */
+	public void stop() {
+		running = false;
+		if(serverSocket != null) {
+			try {
+				serverSocket.close();
+			}
+			catch(IOException e) {
+				// ignore
+			}
+		}
+	}
+
+	private void unloadIfIdle() {
+		if(environment.isLoaded() && System.currentTimeMillis() - environment.getLastUsed() > idleTimeout)
+			environment.unload();
+	}
+
+	private void validate(Diagnostic result, Map<String, String> parameters) {
+		String rootName = parameters.get("root");
+		if(rootName == null) {
+			result.addChild(new Diagnostic(Diagnostic.ERROR, ValidationService.GEPPETTO, "Missing parameter: root"));
+			return;
+		}
+		File root;
+		try {
+			root = new File(rootName).getCanonicalFile();
+		}
+		catch(IOException e) {
+			root = null;
+		}
+		if(root == null || !root.exists()) {
+			result.addChild(new Diagnostic(Diagnostic.ERROR, ValidationService.GEPPETTO, "No such root: " + rootName));
+			return;
+		}
+		ValidationOptions options;
+		try {
+			options = createOptions(root, parameters);
+		}
+		catch(IllegalArgumentException e) {
+			result.addChild(new Diagnostic(Diagnostic.ERROR, ValidationService.GEPPETTO, "Invalid parameter: " +
+					e.getMessage()));
+			return;
+		}
+		try {
+			validationService.validate(
+				result, root, options, getFiles(parameters, "examinedFiles"), new NullProgressMonitor());
+		}
+		catch(RuntimeException e) {
+			result.addChild(new ExceptionDiagnostic(
+				Diagnostic.ERROR, ValidationService.INTERNAL_ERROR, "Internal Error: Exception while validating", e));
+		}
+	}
+}
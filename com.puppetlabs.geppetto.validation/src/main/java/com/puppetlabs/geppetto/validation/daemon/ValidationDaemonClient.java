@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.validation.daemon;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Arrays;
+
+import com.puppetlabs.geppetto.common.os.StreamUtil;
+
+/**
+ * Sends requests to a {@link ValidationDaemon} running on this host. From the command line:
+ * 
+ * <pre>
+ * ValidationDaemonClient &lt;port&gt; &lt;token file&gt; &lt;command&gt; [name=value ...]
+ * </pre>
+ * 
+ * The response is written to standard out, and the exit status is 1 if the response has errors.
+ */
+public class ValidationDaemonClient {
+	private static final String UTF_8 = "UTF-8";
+
+	public static void main(String[] args) throws IOException {
+		if(args.length < 3) {
+			System.err.println("Usage: ValidationDaemonClient <port> <token file> <command> [name=value ...]");
+			System.exit(2);
+		}
+		ValidationDaemonClient client = new ValidationDaemonClient(
+			Integer.parseInt(args[0]), readToken(new File(args[1])));
+		String response = client.request(args[2], Arrays.copyOfRange(args, 3, args.length));
+		System.out.print(response);
+		System.exit(response.endsWith(ValidationDaemon.END + " ERROR\n") ||
+				response.endsWith(ValidationDaemon.END + " FATAL\n")
+				? 1
+				: 0);
+	}
+
+	/**
+	 * Reads the token that a daemon has written to the given token file.
+	 * 
+	 * @param tokenFile
+	 * @return the token
+	 * @throws IOException
+	 */
+	public static String readToken(File tokenFile) throws IOException {
+		BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(tokenFile), UTF_8));
+		try {
+			String token = in.readLine();
+			if(token == null)
+				throw new IOException("No token in " + tokenFile);
+			return token.trim();
+		}
+		finally {
+			StreamUtil.close(in);
+		}
+	}
+
+	private final int port;
+
+	private final String token;
+
+	/**
+	 * @param port
+	 *            - the port of the daemon
+	 * @param token
+	 *            - the token of the daemon, see {@link #readToken(File)}
+	 */
+	public ValidationDaemonClient(int port, String token) {
+		this.port = port;
+		this.token = token;
+	}
+
+	/**
+	 * Sends a request and waits for the response.
+	 * 
+	 * @param command
+	 *            - one of {@link ValidationDaemon#PING}, {@link ValidationDaemon#STOP} or
+	 *            {@link ValidationDaemon#VALIDATE}
+	 * @param parameters
+	 *            - the <code>name=value</code> parameters of the request
+	 * @return the response, including the final <code>END</code> line
+	 * @throws IOException
+	 */
+	public String request(String command, String... parameters) throws IOException {
+		Socket socket = new Socket(InetAddress.getByName(null), port);
+		try {
+			Writer out = new OutputStreamWriter(socket.getOutputStream(), UTF_8);
+			out.write(ValidationDaemon.AUTH + ' ' + token + '\n');
+			out.write(command);
+			out.write('\n');
+			for(String parameter : parameters) {
+				out.write(parameter);
+				out.write('\n');
+			}
+			out.write('\n');
+			out.flush();
+
+			BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), UTF_8));
+			StringBuilder bld = new StringBuilder();
+			String line;
+			while((line = in.readLine()) != null) {
+				bld.append(line);
+				bld.append('\n');
+				if(line.startsWith(ValidationDaemon.END + ' '))
+					break;
+			}
+			return bld.toString();
+		}
+		finally {
+			socket.close();
+		}
+	}
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.validation.daemon;
+
+import java.io.File;
+import java.io.IOException;
+
+import com.puppetlabs.geppetto.forge.client.GsonModule;
+import com.puppetlabs.geppetto.forge.impl.ForgeModule;
+import com.puppetlabs.geppetto.ruby.RubyHelper;
+import com.puppetlabs.geppetto.ruby.spi.IRubyServicesFactory;
+import com.puppetlabs.geppetto.validation.impl.ValidationModule;
+
+import com.google.inject.Guice;
+
+/**
+ * Starts a {@link ValidationDaemon} from the command line:
+ * 
+ * <pre>
+ * ValidationDaemonLauncher -tokenFile &lt;file&gt; [-port &lt;port&gt;] [-cacheRoot &lt;dir&gt;]
+ *     [-idleTimeout &lt;millis&gt;]
+ * </pre>
+ * 
+ * The bound port is written to standard out once the daemon accepts requests. The ruby services are used when the
+ * JRuby parser is on the class path.
+ */
+public class ValidationDaemonLauncher {
+	private static final String RUBY_SERVICES = "com.puppetlabs.geppetto.ruby.jrubyparser.JRubyServices";
+
+	/**
+	 * Creates a daemon with everything it needs bound.
+	 * 
+	 * @return the created daemon
+	 */
+	public static ValidationDaemon createDaemon() {
+		setUpRubyServices();
+		return Guice.createInjector(
+			GsonModule.INSTANCE, new ForgeModule(), new ValidationModule(), new ValidationDaemonModule()).getInstance(
+			ValidationDaemon.class);
+	}
+
+	public static void main(String[] args) throws IOException {
+		int port = 0;
+		File tokenFile = null;
+		File cacheRoot = null;
+		long idleTimeout = ValidationDaemon.DEFAULT_IDLE_TIMEOUT;
+		for(int idx = 0; idx < args.length; ++idx) {
+			String arg = args[idx];
+			if(idx + 1 == args.length)
+				usage("Missing value for " + arg);
+			String value = args[++idx];
+			if("-port".equals(arg))
+				port = Integer.parseInt(value);
+			else if("-tokenFile".equals(arg))
+				tokenFile = new File(value);
+			else if("-cacheRoot".equals(arg))
+				cacheRoot = new File(value);
+			else if("-idleTimeout".equals(arg))
+				idleTimeout = Long.parseLong(value);
+			else
+				usage("Unknown option " + arg);
+		}
+		if(tokenFile == null)
+			usage("Missing option -tokenFile");
+
+		ValidationDaemon daemon = createDaemon();
+		daemon.setCacheRoot(cacheRoot);
+		daemon.setIdleTimeout(idleTimeout);
+		System.out.println(daemon.bind(port, tokenFile));
+		System.out.flush();
+		daemon.run();
+	}
+
+	private static void setUpRubyServices() {
+		try {
+			Class<?> services = Class.forName(RUBY_SERVICES);
+			RubyHelper.setRubyServicesFactory((IRubyServicesFactory) services.getField("FACTORY").get(null));
+		}
+		catch(Exception e) {
+			// No ruby parser, .rb files are not validated
+		}
+	}
+
+	private static void usage(String message) {
+		System.err.println(message);
+		System.err.println("Usage: ValidationDaemonLauncher -tokenFile <file> [-port <port>] [-cacheRoot <dir>] " +
+				"[-idleTimeout <millis>]");
+		System.exit(2);
+	}
+}
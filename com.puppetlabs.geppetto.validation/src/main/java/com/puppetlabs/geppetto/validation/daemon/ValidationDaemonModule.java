@@ -0,0 +1,27 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.validation.daemon;
+
+import com.puppetlabs.geppetto.validation.runner.ValidationEnvironment;
+
+import com.google.inject.AbstractModule;
+
+/**
+ * Module to use together with the ValidationModule when the {@link ValidationDaemon} is used. It makes the validation
+ * service keep its expensive state between validations.
+ */
+public class ValidationDaemonModule extends AbstractModule {
+
+	@Override
+	protected void configure() {
+		bind(ValidationEnvironment.class).to(WarmValidationEnvironment.class);
+	}
+}
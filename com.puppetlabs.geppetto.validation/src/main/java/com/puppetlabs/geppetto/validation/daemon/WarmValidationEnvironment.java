@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.validation.daemon;
+
+import java.io.IOException;
+import java.util.Map;
+
+import com.puppetlabs.geppetto.pp.dsl.validation.IPotentialProblemsAdvisor;
+import com.puppetlabs.geppetto.pp.dsl.validation.IValidationAdvisor;
+import com.puppetlabs.geppetto.ruby.RubyHelper;
+import com.puppetlabs.geppetto.validation.runner.PPDiagnosticsRunner;
+import com.puppetlabs.geppetto.validation.runner.PPDiagnosticsSetup;
+import com.puppetlabs.geppetto.validation.runner.ValidationCache;
+import com.puppetlabs.geppetto.validation.runner.ValidationEnvironment;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+
+import com.google.common.collect.Maps;
+import com.google.inject.Injector;
+import com.google.inject.Singleton;
+
+/**
+ * A {@link ValidationEnvironment} that keeps the injectors (one per compliance level and set of preferences), the
+ * loaded target platforms and the ruby services between validations. Each validation still gets a resource set of its
+ * own. The kept state is released by {@link #unload()}.
+ * <p>
+ * Validations that use this environment must not run concurrently.
+ * </p>
+ */
+@Singleton
+public class WarmValidationEnvironment extends ValidationEnvironment {
+	private static class WarmSetup {
+		final PPDiagnosticsSetup setup;
+
+		final Injector injector;
+
+		WarmSetup(PPDiagnosticsSetup setup) {
+			this.setup = setup;
+			this.injector = setup.createInjectorAndDoEMFRegistration();
+		}
+	}
+
+	private final Map<String, WarmSetup> setups = Maps.newHashMap();
+
+	private final Map<URI, Resource> targets = Maps.newHashMap();
+
+	private RubyHelper rubyHelper;
+
+	private boolean rubyHelperSetUp;
+
+	private long lastUsed = System.currentTimeMillis();
+
+	@Override
+	public synchronized RubyHelper createRubyHelper() {
+		if(rubyHelper == null)
+			rubyHelper = new RubyHelper();
+		return rubyHelper;
+	}
+
+	/**
+	 * @return the time in milliseconds when the environment was last torn down after a validation
+	 */
+	public synchronized long getLastUsed() {
+		return lastUsed;
+	}
+
+	/**
+	 * @return <code>true</code> if there is kept state that {@link #unload()} would release
+	 */
+	public synchronized boolean isLoaded() {
+		return !(setups.isEmpty() && targets.isEmpty()) || rubyHelperSetUp;
+	}
+
+	/**
+	 * Loads the target platform the first time it is requested, and moves the already loaded resource into the
+	 * resource set of the given runner on subsequent requests.
+	 */
+	@Override
+	public synchronized Resource loadTarget(PPDiagnosticsRunner ppRunner, URI platformURI) throws IOException {
+		Resource target = targets.get(platformURI);
+		if(target == null) {
+			target = ppRunner.loadResource(platformURI);
+			targets.put(platformURI, target);
+		}
+		else
+			ppRunner.addResource(target);
+		return target;
+	}
+
+	@Override
+	public synchronized void setUp(PPDiagnosticsRunner ppRunner, RubyHelper helper,
+			IValidationAdvisor.ComplianceLevel complianceLevel, IPotentialProblemsAdvisor problemsAdvisor)
+			throws Exception {
+		String key = complianceLevel.name() + ':' + ValidationCache.getPreferencesSignature(problemsAdvisor);
+		WarmSetup warm = setups.get(key);
+		if(warm == null) {
+			warm = new WarmSetup(new PPDiagnosticsSetup(complianceLevel, problemsAdvisor));
+			setups.put(key, warm);
+		}
+		ppRunner.setUp(warm.setup, warm.injector);
+		if(!rubyHelperSetUp) {
+			helper.setUp();
+			rubyHelperSetUp = true;
+		}
+	}
+
+	/**
+	 * Tears down the given runner but keeps the ruby services.
+	 */
+	@Override
+	public synchronized void tearDown(PPDiagnosticsRunner ppRunner, RubyHelper helper) {
+		ppRunner.tearDown();
+		lastUsed = System.currentTimeMillis();
+	}
+
+	/**
+	 * Releases the injectors, the target platforms and the ruby services. They are created again on demand.
+	 */
+	public synchronized void unload() {
+		setups.clear();
+		targets.clear();
+		if(rubyHelperSetUp) {
+			rubyHelper.tearDown();
+			rubyHelperSetUp = false;
+		}
+	}
+}
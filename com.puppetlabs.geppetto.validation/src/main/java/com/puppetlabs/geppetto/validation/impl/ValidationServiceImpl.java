@@ -12,23 +12,31 @@ package com.puppetlabs.geppetto.validation.impl;
 
 import static com.puppetlabs.geppetto.forge.Forge.MODULEFILE_NAME;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.FileInputStream;
-import java.io.FilenameFilter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
-import com.puppetlabs.geppetto.common.os.FileUtils;
+import com.puppetlabs.geppetto.common.os.StreamUtil;
 import com.puppetlabs.geppetto.diagnostic.DetailedFileDiagnostic;
 import com.puppetlabs.geppetto.diagnostic.Diagnostic;
+import com.puppetlabs.geppetto.diagnostic.DiagnosticListener;
 import com.puppetlabs.geppetto.diagnostic.DiagnosticType;
 import com.puppetlabs.geppetto.diagnostic.ExceptionDiagnostic;
+import com.puppetlabs.geppetto.diagnostic.StreamingDiagnostic;
 import com.puppetlabs.geppetto.forge.Forge;
 import com.puppetlabs.geppetto.forge.model.Dependency;
 import com.puppetlabs.geppetto.forge.model.Metadata;
@@ -36,6 +44,7 @@ import com.puppetlabs.geppetto.forge.model.ModuleName;
 import com.puppetlabs.geppetto.pp.dsl.PPDSLConstants;
 import com.puppetlabs.geppetto.pp.dsl.adapters.ResourcePropertiesAdapter;
 import com.puppetlabs.geppetto.pp.dsl.adapters.ResourcePropertiesAdapterFactory;
+import com.puppetlabs.geppetto.pp.dsl.linking.PPLinkerProfiler;
 import com.puppetlabs.geppetto.pp.dsl.linking.PPSearchPath;
 import com.puppetlabs.geppetto.pp.dsl.target.PuppetTarget;
 import com.puppetlabs.geppetto.pp.dsl.validation.DefaultPotentialProblemsAdvisor;
@@ -62,6 +71,14 @@ import com.puppetlabs.geppetto.validation.runner.PuppetCatalogCompilerRunner;
 import com.puppetlabs.geppetto.validation.runner.RakefileInfo;
 import com.puppetlabs.geppetto.validation.runner.RakefileInfo.Rakefile;
 import com.puppetlabs.geppetto.validation.runner.RakefileInfo.Raketask;
+import com.puppetlabs.geppetto.validation.runner.RepositoryLayout;
+import com.puppetlabs.geppetto.validation.runner.ResourceDescriptionCache;
+import com.puppetlabs.geppetto.validation.runner.ResourceDescriptionSnapshot;
+import com.puppetlabs.geppetto.validation.runner.ValidationCache;
+import com.puppetlabs.geppetto.validation.runner.ValidationEnvironment;
+import com.puppetlabs.geppetto.validation.runner.ValidationMetrics;
+import com.puppetlabs.geppetto.validation.runner.ValidationMetrics.Phase;
+import com.puppetlabs.geppetto.validation.runner.VisibleFileSelector;
 
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -77,12 +94,15 @@ import org.eclipse.xtext.validation.IResourceValidator;
 import org.eclipse.xtext.validation.Issue;
 
 import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import com.google.common.io.Files;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
 
@@ -96,74 +116,6 @@ public class ValidationServiceImpl implements ValidationService {
 	 */
 	private static final String NAME_OF_DIR_WITH_RESTRICTED_SCOPE = "roles";
 
-	private static final FileFilter directoryFilter = new FileFilter() {
-
-		@Override
-		public boolean accept(File f) {
-			return f.isDirectory() && !f.getName().equals(".svn");
-		}
-
-	};
-
-	private static final FilenameFilter ppFileFilter = new FilenameFilter() {
-
-		@Override
-		public boolean accept(File dir, String name) {
-			return name.endsWith(".pp") && new File(dir, name).isFile();
-		}
-
-	};
-
-	private static final FilenameFilter rbFileFilter = new FilenameFilter() {
-
-		@Override
-		public boolean accept(File dir, String name) {
-			return name.endsWith(".rb") && new File(dir, name).isFile();
-		}
-
-	};
-
-	private static final FilenameFilter RakefileFileFilter = new FilenameFilter() {
-
-		@Override
-		public boolean accept(final File dir, final String name) {
-			String lcname = name.toLowerCase();
-			if(lcname.startsWith("rakefile")) {
-				int length = lcname.length();
-				if(!(length == 8 //
-						||
-						(length == 11 && lcname.endsWith(".rb")) //
-				|| (length == 13 && lcname.endsWith(".rake"))))
-					return false;
-			}
-			else if(!lcname.endsWith(".rake")) {
-				return false;
-			}
-			// If the file is a directory, or something else, do not include it
-			return new File(dir, name).isFile();
-
-			// // quickly disqualify those that are not [Rr]akefile[.rb]
-			// // (Do case independent comparison since some file systems do not discriminate on case)
-			// int namelength = name.length();
-			// if(!(namelength == 8 || namelength == 11))
-			// return false;
-			// switch(name.charAt(0)) {
-			// case 'r':
-			// case 'R':
-			// break;
-			// default:
-			// return false;
-			// }
-			// String lcname = name.toLowerCase();
-			// if(!"rakefile".equals(lcname.substring(0, 8)))
-			// return false;
-			// if(namelength == 11 && !lcname.endsWith(".rb"))
-			// return false;
-
-		}
-
-	};
-
 	/**
 	 * Add an exception diagnostic (not associated with any particular file).
 	 * 
@@ -235,6 +187,17 @@ public class ValidationServiceImpl implements ValidationService {
 		diagnostics.addChild(dft);
 	}
 
+	/**
+	 * Adds the time elapsed since the given start to a phase.
+	 * 
+	 * @return the current time, to be used as the start of the next phase
+	 */
+	private static long addPhaseTime(ValidationMetrics metrics, Phase phase, long phaseStart) {
+		long now = System.nanoTime();
+		metrics.addPhaseTime(phase, now - phaseStart);
+		return now;
+	}
+
 	/**
 	 * Translate and add ruby issue diagnostics to the chain.
 	 * 
@@ -320,6 +283,9 @@ public class ValidationServiceImpl implements ValidationService {
 	@Inject
 	private Forge forge;
 
+	@Inject
+	private ValidationEnvironment environment;
+
 	@Inject
 	@Named(Forge.MODULE_FILE_FILTER)
 	private FileFilter moduleFileFilter;
@@ -403,43 +369,6 @@ public class ValidationServiceImpl implements ValidationService {
 		// TODO: additional checks (files that are required etc.)
 	}
 
-	/**
-	 * Collects file matching filter while skipping all symbolically linked files.
-	 * 
-	 * @param root
-	 * @param filter
-	 * @param result
-	 */
-	private void collectFiles(File root, FilenameFilter filter, List<File> result) {
-		for(File f : root.listFiles(moduleFileFilter)) {
-			if(FileUtils.isSymlink(f))
-				continue;
-			if(filter.accept(f.getParentFile(), f.getName()))
-				result.add(f);
-			if(directoryFilter.accept(f))
-				collectFiles(f, filter, result);
-		}
-	}
-
-	private List<File> findFiles(File root, FilenameFilter filter) {
-		List<File> result = Lists.newArrayList();
-		collectFiles(root, filter, result);
-		return result;
-
-	}
-
-	private List<File> findPPFiles(File root) {
-		return findFiles(root, ppFileFilter);
-	}
-
-	private List<File> findRakefiles(File root) {
-		return findFiles(root, RakefileFileFilter);
-	}
-
-	private List<File> findRubyFiles(File root) {
-		return findFiles(root, rbFileFilter);
-	}
-
 	/**
 	 * @param rubyHelper
 	 * @param f
@@ -516,6 +445,179 @@ public class ValidationServiceImpl implements ValidationService {
 		return false;
 	}
 
+	/**
+	 * Links (if references should be checked) and validates all wanted resources, and reports all issues. When an
+	 * executor is given, each resource is linked and validated by one of its worker threads (each with a linker of its
+	 * own), while the resource set is only read. The issues are reported by the calling thread in the same order as
+	 * when everything is done by the calling thread. When a cache is given, the outcome for resources with an
+	 * unchanged key is restored from the cache, and the outcome for all other resources is stored in the cache. In low
+	 * memory mode, everything is done by the calling thread and each resource is unloaded once its issues have been
+	 * reported.
+	 * 
+	 * @param ppRunner
+	 * @param diagnostics
+	 * @param ppResources
+	 * @param root
+	 * @param examinedFiles
+	 * @param checkReferences
+	 * @param cache
+	 *            - the cache to use, or null if nothing should be cached
+	 * @param cacheSettings
+	 *            - signature of the settings that affect linking and validation (used when a cache is given)
+	 * @param lowMemory
+	 *            - true if resources should be unloaded after validation
+	 * @param metrics
+	 *            - receives the link and validate time of each file
+	 * @param executor
+	 *            - the executor to link and validate with, or null if everything should be done by the calling thread
+	 * @param ticker
+	 */
+	private void linkAndValidate(final PPDiagnosticsRunner ppRunner, Diagnostic diagnostics,
+			Map<File, Resource> ppResources, File root, File[] examinedFiles, final boolean checkReferences,
+			ValidationCache cache, String cacheSettings, boolean lowMemory, final ValidationMetrics metrics,
+			ExecutorService executor, final SubMonitor ticker) {
+		final IResourceValidator validator = ppRunner.getPPResourceValidator();
+		final CancelIndicator cancelMonitor = new CancelIndicator() {
+			public boolean isCanceled() {
+				return ticker.isCanceled();
+			}
+		};
+
+		if(lowMemory) {
+			// Resources are unloaded one by one, the index must not depend on them
+			ppRunner.snapshotDescriptions();
+			executor = null;
+		}
+
+		// Keys must be computed before anything is linked
+		Map<File, List<Issue>> cachedIssues = Collections.emptyMap();
+		Map<File, String> cacheKeys = Collections.emptyMap();
+		if(cache != null) {
+			cachedIssues = Maps.newHashMap();
+			cacheKeys = Maps.newHashMap();
+			for(Entry<File, Resource> r : ppResources.entrySet()) {
+				File f = r.getKey();
+				if(!isValidationWanted(examinedFiles, f))
+					continue;
+				String key = cache.getKey(ppRunner, r.getValue(), cacheSettings);
+				List<Issue> issues = cache.restore(ppRunner, r.getValue(), key);
+				if(issues != null)
+					cachedIssues.put(f, issues);
+				else if(key != null)
+					cacheKeys.put(f, key);
+			}
+		}
+
+		if(executor == null) {
+			for(Entry<File, Resource> r : ppResources.entrySet()) {
+				File f = r.getKey();
+				if(!isValidationWanted(examinedFiles, f)) {
+					if(lowMemory)
+						ppRunner.unloadResource(r.getValue());
+					continue;
+				}
+				List<Issue> issues = cachedIssues.get(f);
+				if(issues == null) {
+					try {
+						ppRunner.ensureLoaded(r.getValue());
+					}
+					catch(IOException e) {
+						addExceptionDiagnostic(
+							diagnostics, "I/O Error: Exception while processing file: " + f.toString(), e);
+						continue;
+					}
+					issues = linkAndValidate(
+						ppRunner, f, r.getValue(), checkReferences, validator, cancelMonitor, metrics, ticker);
+					String key = cacheKeys.get(f);
+					if(key != null)
+						cache.put(r.getValue(), key, issues);
+				}
+				for(Issue issue : issues) {
+					addIssueDiagnostic(diagnostics, issue, f, root);
+				}
+				if(lowMemory)
+					ppRunner.unloadResource(r.getValue());
+			}
+			return;
+		}
+
+		// Make sure nothing is lazily computed in the shared resource set from here on
+		ppRunner.prepareConcurrentLinking();
+
+		List<Entry<File, Resource>> wanted = Lists.newArrayList();
+		Map<File, Future<List<Issue>>> validated = Maps.newHashMap();
+		for(Entry<File, Resource> r : ppResources.entrySet()) {
+			final File f = r.getKey();
+			if(!isValidationWanted(examinedFiles, f))
+				continue;
+			wanted.add(r);
+			if(cachedIssues.containsKey(f))
+				continue;
+			final Resource resource = r.getValue();
+			validated.put(f, executor.submit(new Callable<List<Issue>>() {
+				@Override
+				public List<Issue> call() throws Exception {
+					return linkAndValidate(
+						ppRunner, f, resource, checkReferences, validator, cancelMonitor, metrics, ticker);
+				}
+			}));
+		}
+
+		// report in resource order
+		for(Entry<File, Resource> r : wanted) {
+			File f = r.getKey();
+			try {
+				List<Issue> issues = cachedIssues.get(f);
+				if(issues == null) {
+					issues = waitFor(validated.get(f));
+					String key = cacheKeys.get(f);
+					if(key != null)
+						cache.put(r.getValue(), key, issues);
+				}
+				for(Issue issue : issues)
+					addIssueDiagnostic(diagnostics, issue, f, root);
+			}
+			catch(OperationCanceledException e) {
+				throw e;
+			}
+			catch(Exception e) {
+				addExceptionDiagnostic(
+					diagnostics, "Internal Error: Exception while processing file: " + f.toString(), e);
+			}
+			if(ticker.isCanceled())
+				throw new OperationCanceledException();
+		}
+	}
+
+	/**
+	 * Links and validates the given resource, and records the link and validate time of the given file.
+	 * 
+	 * @param ppRunner
+	 * @param f
+	 *            - the file of the resource
+	 * @param resource
+	 *            - the loaded resource
+	 * @param checkReferences
+	 *            - true if cross references should be resolved
+	 * @param validator
+	 * @param cancelMonitor
+	 * @param metrics
+	 * @param ticker
+	 * @return the issues found by the validator
+	 */
+	private List<Issue> linkAndValidate(PPDiagnosticsRunner ppRunner, File f, Resource resource,
+			boolean checkReferences, IResourceValidator validator, CancelIndicator cancelMonitor,
+			ValidationMetrics metrics, SubMonitor ticker) {
+		long before = System.nanoTime();
+		if(checkReferences)
+			ppRunner.resolveCrossReferences(resource, false, ticker);
+		long afterLink = System.nanoTime();
+		metrics.addFileTime(f, Phase.LINK, afterLink - before);
+		List<Issue> issues = validator.validate(resource, CheckMode.ALL, cancelMonitor);
+		metrics.addFileTime(f, Phase.VALIDATE, System.nanoTime() - afterLink);
+		return issues;
+	}
+
 	/**
 	 * Loads Modulefile and returns the parsed Metadata. If parsing fails an error is reported on the diagnostics chain
 	 * and null is returned
@@ -541,6 +643,105 @@ public class ValidationServiceImpl implements ValidationService {
 		return null;
 	}
 
+	/**
+	 * Loads all given pp files into the resource set of the given runner. Consumes one tick per file. When an executor
+	 * is given, the files are parsed by its worker threads while the resulting resources are added to the resource set
+	 * (and all problems are reported) by the calling thread in the order of the given files. The resulting map and the
+	 * diagnostics are therefore the same irrespective of the number of threads. When a description cache is given and
+	 * no executor, files with a cached description are added without being parsed (see
+	 * {@link PPDiagnosticsRunner#addUnloadedResource(URI, ResourceDescriptionSnapshot)}), and the descriptions of the
+	 * parsed files are stored in the cache.
+	 * 
+	 * @param ppRunner
+	 * @param diagnostics
+	 * @param ppFiles
+	 * @param descriptionCache
+	 *            - the cache of resource descriptions to use, or null if every file should be parsed
+	 * @param metrics
+	 *            - receives the parse time of each file
+	 * @param executor
+	 *            - the executor to parse with, or null if all parsing should be done by the calling thread
+	 * @param ticker
+	 * @return a map from file to loaded (or restored) resource
+	 */
+	private Map<File, Resource> loadPPResources(final PPDiagnosticsRunner ppRunner, Diagnostic diagnostics,
+			List<File> ppFiles, ResourceDescriptionCache descriptionCache, final ValidationMetrics metrics,
+			ExecutorService executor, SubMonitor ticker) {
+		Map<File, Resource> ppResources = Maps.newHashMapWithExpectedSize(ppFiles.size());
+		if(executor == null) {
+			for(File f : ppFiles) {
+				try {
+					long before = System.nanoTime();
+					URI uri = URI.createFileURI(f.getPath());
+					if(descriptionCache == null)
+						ppResources.put(f, ppRunner.loadResource(new FileInputStream(f), uri));
+					else {
+						byte[] content = Files.toByteArray(f);
+						String digest = ValidationCache.digest(new String(content, ppRunner.getEncoding(uri)));
+						Resource r = descriptionCache.restore(ppRunner, uri, digest);
+						if(r == null) {
+							r = ppRunner.loadResource(new ByteArrayInputStream(content), uri);
+							descriptionCache.put(ppRunner, r, digest);
+						}
+						ppResources.put(f, r);
+					}
+					metrics.addFileTime(f, Phase.PP_PARSE, System.nanoTime() - before);
+				}
+				catch(IOException e) {
+					addExceptionDiagnostic(
+						diagnostics, "I/O Error: Exception while processing file: " + f.toString(), e);
+				}
+				catch(Exception e) {
+					addExceptionDiagnostic(
+						diagnostics, "Internal Error: Exception while processing file: " + f.toString(), e);
+				}
+				// consume one pp tick
+				worked(ticker, 1);
+			}
+			return ppResources;
+		}
+
+		List<Future<Resource>> parsed = Lists.newArrayListWithCapacity(ppFiles.size());
+		for(final File f : ppFiles)
+			parsed.add(executor.submit(new Callable<Resource>() {
+				@Override
+				public Resource call() throws Exception {
+					long before = System.nanoTime();
+					InputStream input = new FileInputStream(f);
+					try {
+						return ppRunner.parseResource(input, URI.createFileURI(f.getPath()));
+					}
+					finally {
+						StreamUtil.close(input);
+						metrics.addFileTime(f, Phase.PP_PARSE, System.nanoTime() - before);
+					}
+				}
+			}));
+
+		// merge in file order
+		int idx = 0;
+		for(File f : ppFiles) {
+			try {
+				Resource r = waitFor(parsed.get(idx++));
+				ppRunner.addResource(r);
+				ppResources.put(f, r);
+			}
+			catch(OperationCanceledException e) {
+				throw e;
+			}
+			catch(IOException e) {
+				addExceptionDiagnostic(diagnostics, "I/O Error: Exception while processing file: " + f.toString(), e);
+			}
+			catch(Exception e) {
+				addExceptionDiagnostic(
+					diagnostics, "Internal Error: Exception while processing file: " + f.toString(), e);
+			}
+			// consume one pp tick
+			worked(ticker, 1);
+		}
+		return ppResources;
+	}
+
 	private void rememberRootInResource(File root, Resource r) {
 		if(root == null)
 			throw new IllegalArgumentException("root can not be null");
@@ -551,6 +752,17 @@ public class ValidationServiceImpl implements ValidationService {
 		adapter.put(PPDSLConstants.RESOURCE_PROPERTY__ROOT_URI, uri);
 	}
 
+	/**
+	 * @param monitor
+	 *            - client should call done unless using a SubMonitor
+	 */
+	public BuildResult validate(DiagnosticListener listener, File source, ValidationOptions options,
+			File[] examinedFiles, IProgressMonitor monitor) {
+		if(listener == null)
+			throw new IllegalArgumentException("listener can not be null");
+		return validate(new StreamingDiagnostic(listener), source, options, examinedFiles, monitor);
+	}
+
 	/**
 	 * @param monitor
 	 *            - client should call done unless using a SubMonitor
@@ -610,6 +822,8 @@ public class ValidationServiceImpl implements ValidationService {
 					if(potentialProblems == null)
 						potentialProblems = new DefaultPotentialProblemsAdvisor();
 					ppDr.setUp(complianceLevel, potentialProblems);
+					ppDr.configureCompactNodeModel(options.isCompactNodeModel());
+					ppDr.configureProposals(!options.isSkipProposals());
 					validatePPFile(ppDr, diagnostics, source, source.getParentFile(), monitor);
 				}
 				catch(Exception e) {
@@ -713,10 +927,15 @@ public class ValidationServiceImpl implements ValidationService {
 				checkPuppetRootLayout(diagnostics, root, root);
 		}
 
-		List<File> ppFiles = findPPFiles(root);
-		List<File> rbFiles = findRubyFiles(root);
-		Collection<File> mdRoots = forge.findModuleRoots(root, null);
-		List<File> rakeFiles = findRakefiles(root);
+		ValidationMetrics metrics = new ValidationMetrics();
+		final long startTime = System.nanoTime();
+		RepositoryLayout layout = RepositoryLayout.scan(root, moduleFileFilter, forge);
+		List<File> ppFiles = layout.getPPFiles();
+		List<File> rbFiles = layout.getRubyFiles();
+		Collection<File> mdRoots = layout.getModuleRoots();
+		List<File> rakeFiles = layout.getRakefiles();
+		long phaseStart = System.nanoTime();
+		metrics.addPhaseTime(Phase.FILE_DISCOVERY, phaseStart - startTime);
 
 		final int workload = ppFiles.size() + mdRoots.size() * 3 + rbFiles.size() * 2 //
 				+ rakeFiles.size() * 2 //
@@ -727,24 +946,31 @@ public class ValidationServiceImpl implements ValidationService {
 		final SubMonitor ticker = SubMonitor.convert(monitor, workload); // TODO: scaling
 
 		PPDiagnosticsRunner ppRunner = new PPDiagnosticsRunner();
-		RubyHelper rubyHelper = new RubyHelper();
-
+		RubyHelper rubyHelper = environment.createRubyHelper();
+
+		IValidationAdvisor.ComplianceLevel complianceLevel = options.getComplianceLevel();
+		if(complianceLevel == null)
+			complianceLevel = IValidationAdvisor.ComplianceLevel.PUPPET_2_7;
+		IPotentialProblemsAdvisor problemsAdvisor = options.getProblemsAdvisor();
+		if(problemsAdvisor == null)
+			problemsAdvisor = new DefaultPotentialProblemsAdvisor();
 		try {
-			IValidationAdvisor.ComplianceLevel complianceLevel = options.getComplianceLevel();
-			if(complianceLevel == null)
-				complianceLevel = IValidationAdvisor.ComplianceLevel.PUPPET_2_7;
-			IPotentialProblemsAdvisor problemsAdvisor = options.getProblemsAdvisor();
-			if(problemsAdvisor == null)
-				problemsAdvisor = new DefaultPotentialProblemsAdvisor();
-			ppRunner.setUp(complianceLevel, problemsAdvisor);
-			rubyHelper.setUp();
+			environment.setUp(ppRunner, rubyHelper, complianceLevel, problemsAdvisor);
 		}
 		catch(Exception e) {
 			addExceptionDiagnostic(diagnostics, "Internal Error: Exception while setting up diagnostics.", e);
 			return new BuildResult(rubyHelper.isRubyServicesAvailable()); // give up
 		}
 		ppRunner.configureEncoding(options.getEncodingProvider());
+		ppRunner.configureCompactNodeModel(options.isCompactNodeModel());
+		ppRunner.configureProposals(!options.isSkipProposals());
+		if(options.isProfileLinking()) {
+			PPLinkerProfiler profiler = new PPLinkerProfiler();
+			ppRunner.configureProfiler(profiler);
+			metrics.setLinkerProfiler(profiler);
+		}
 		ppRunner.configureSearchPath(root, options.getSearchPath(), options.getEnvironment());
+		phaseStart = addPhaseTime(metrics, Phase.SETUP, phaseStart);
 
 		// get the configured search path
 		final PPSearchPath searchPath = ppRunner.getDefaultSearchPath();
@@ -920,6 +1146,22 @@ public class ValidationServiceImpl implements ValidationService {
 				}
 			}
 		}
+		if(options.isTargeted() && examinedFiles != null && examinedFiles.length > 0) {
+			// Only load what the examined files may refer to. Without reference checks, nothing else is needed.
+			List<File> wanted = Lists.newArrayList();
+			for(File f : Iterables.concat(ppFiles, rbFiles))
+				if(isValidationWanted(examinedFiles, f))
+					wanted.add(f);
+			Predicate<File> isVisible = Predicates.in(options.isCheckReferences()
+					? VisibleFileSelector.select(layout, wanted, moduleData.values())
+					: Sets.newHashSet(wanted));
+			int skippedWork = ppFiles.size() + rbFiles.size() * 2;
+			ppFiles = Lists.newArrayList(Iterables.filter(ppFiles, isVisible));
+			rbFiles = Lists.newArrayList(Iterables.filter(rbFiles, isVisible));
+			skippedWork -= ppFiles.size() + rbFiles.size() * 2;
+			worked(ticker, skippedWork);
+		}
+
 		// TODO: Wasteful to calculate the URL's more than once.
 		// Could be done once per pp and rb (to separate the processing), or have all in one pile
 		// and let processing look at extension.
@@ -941,11 +1183,13 @@ public class ValidationServiceImpl implements ValidationService {
 					}
 				}), pptpURIs));
 		}
+		phaseStart = addPhaseTime(metrics, Phase.METADATA, phaseStart);
+
 		// Load pptp
 		if(options.isCheckReferences()) {
 			try {
 				URI platformURI = options.getPlatformURI();
-				ppRunner.loadResource(platformURI != null
+				environment.loadTarget(ppRunner, platformURI != null
 						? platformURI
 						: PuppetTarget.getDefault().getPlatformURI());
 			}
@@ -956,6 +1200,7 @@ public class ValidationServiceImpl implements ValidationService {
 			}
 		}
 		worked(ticker, 1);
+		phaseStart = addPhaseTime(metrics, Phase.PPTP_LOAD, phaseStart);
 
 		// Load all ruby
 		for(File f : rbFiles) {
@@ -1003,62 +1248,68 @@ public class ValidationServiceImpl implements ValidationService {
 			rakefileInfo.addRakefile(getRakefileInformation(rubyHelper, f, root, ticker.newChild(1)));
 
 		}
+		phaseStart = addPhaseTime(metrics, Phase.RUBY_LOAD, phaseStart);
+
 		// Load all pp
 		// crosslink and validate all
-		Map<File, Resource> ppResources = Maps.newHashMapWithExpectedSize(ppFiles.size());
-		for(File f : ppFiles) {
-			try {
-				ppResources.put(f, ppRunner.loadResource(new FileInputStream(f), URI.createFileURI(f.getPath())));
-			}
-			catch(IOException e) {
-				addExceptionDiagnostic(diagnostics, "I/O Error: Exception while processing file: " + f.toString(), e);
-			}
-			catch(Exception e) {
-				addExceptionDiagnostic(
-					diagnostics, "Internal Error: Exception while processing file: " + f.toString(), e);
-			}
-			// consume one pp tick
-			worked(ticker, 1);
-		}
+		ExecutorService executor = options.getThreadCount() > 1
+				? Executors.newFixedThreadPool(options.getThreadCount())
+				: null;
+		try {
+			// Unchanged manifests are only parsed when needed, which requires that nothing is linked concurrently
+			ResourceDescriptionCache descriptionCache = null;
+			if(options.getCacheDirectory() != null && executor == null)
+				descriptionCache = ResourceDescriptionCache.open(
+					options.getCacheDirectory(), options.getMaxCacheEntries());
 
-		// Must set the root in all resources to allow cross reference error reports to contain
-		// relative paths
-		for(Resource r : ppResources.values())
-			rememberRootInResource(root, r);
+			Map<File, Resource> ppResources = loadPPResources(
+				ppRunner, diagnostics, ppFiles, descriptionCache, metrics, executor, ticker);
+			addPhaseTime(metrics, Phase.PP_PARSE, phaseStart);
 
-		IResourceValidator validator = ppRunner.getPPResourceValidator();
-		long maxLinkTime = 0;
-		// Turn on for debugging particular files
-		// File slowCandidate = new File("/Users/henrik/gitrepos/forge-modules/jeffmccune-mockbuild/manifests/init.pp");
+			if(descriptionCache != null) {
+				try {
+					descriptionCache.save();
+				}
+				catch(IOException e) {
+					// The cache is only an optimization, the next run will simply parse more
+				}
+			}
 
-		for(Entry<File, Resource> r : ppResources.entrySet()) {
-			File f = r.getKey();
-			if(!isValidationWanted(examinedFiles, f))
-				continue;
-			long beforeTime = System.currentTimeMillis();
-			boolean profileThis = false; // /* for debugging slow file */
-											// f.equals(slowCandidate);
-			if(options.isCheckReferences())
-				ppRunner.resolveCrossReferences(r.getValue(), profileThis, ticker);
-			long afterTime = System.currentTimeMillis();
-			if(afterTime - beforeTime > maxLinkTime) {
-				maxLinkTime = afterTime - beforeTime;
+			// Must set the root in all resources to allow cross reference error reports to contain
+			// relative paths
+			for(Resource r : ppResources.values())
+				rememberRootInResource(root, r);
+
+			ValidationCache cache = null;
+			String cacheSettings = null;
+			if(options.getCacheDirectory() != null) {
+				cache = ValidationCache.open(options.getCacheDirectory(), options.getMaxCacheEntries());
+				String platformSignature = ValidationCache.getPlatformSignature(uri != null
+						? uri
+						: PuppetTarget.getDefault().getPlatformURI());
+				cacheSettings = ValidationCache.digest(
+					complianceLevel.name(), ValidationCache.getPreferencesSignature(problemsAdvisor), platformSignature,
+					options.getSearchPath(), options.getEnvironment(), String.valueOf(options.isCheckReferences()),
+					String.valueOf(options.isSkipProposals()));
 			}
-			final CancelIndicator cancelMonitor = new CancelIndicator() {
-				public boolean isCanceled() {
-					return ticker.isCanceled();
-				}
-			};
 
-			List<Issue> issues = validator.validate(r.getValue(), CheckMode.ALL, cancelMonitor);
-			for(Issue issue : issues) {
-				addIssueDiagnostic(diagnostics, issue, f, root);
+			linkAndValidate(
+				ppRunner, diagnostics, ppResources, root, examinedFiles, options.isCheckReferences(), cache,
+				cacheSettings, options.isLowMemory(), metrics, executor, ticker);
+
+			if(cache != null) {
+				try {
+					cache.save();
+				}
+				catch(IOException e) {
+					// The cache is only an optimization, the next run will simply do more work
+				}
 			}
 		}
-		// // Debug stuff
-		// if(slowestFile != null)
-		// System.err.printf("Slowest file =%s (%s)\n", slowestFile.getAbsolutePath(), maxLinkTime);
-
+		finally {
+			if(executor != null)
+				executor.shutdownNow();
+		}
 		// // Compute the returned map
 		// // Only the restricted modules are wanted (as everything else sees everything)
 		// Iterable<File> filteredMdFiles = Iterables.filter(mdFiles, new Predicate<File>() {
@@ -1086,15 +1337,18 @@ public class ValidationServiceImpl implements ValidationService {
 		// export.getParentName());
 		// }
 		// }
-		ppRunner.tearDown();
+		metrics.setResourceCount(ppRunner.getResources().size());
+		metrics.setExportedObjectCount(ppRunner.getExportedObjectCount());
 		boolean rubyServicesAvailable = rubyHelper.isRubyServicesAvailable();
-		rubyHelper.tearDown();
+		environment.tearDown(ppRunner, rubyHelper);
 		// make sure everything is consumed
 		ticker.setWorkRemaining(0);
 		BuildResult buildResult = new BuildResult(rubyServicesAvailable);
 		// buildResult.setExportsForNodes(result);
 		buildResult.setAllModuleReferences(all);
 		buildResult.setModuleData(moduleData);
+		metrics.setTotalTime(System.nanoTime() - startTime);
+		buildResult.setMetrics(metrics);
 		buildResult.setRakefileInfo(rakefileInfo);
 		return buildResult;
 	}
@@ -1262,6 +1516,32 @@ public class ValidationServiceImpl implements ValidationService {
 		worked(ticker, 1);
 	}
 
+	/**
+	 * Waits for the result of a task performed by a worker thread. An exception thrown by the task is rethrown as is.
+	 * 
+	 * @param future
+	 * @return the result of the task
+	 * @throws Exception
+	 *             - the exception thrown by the task
+	 */
+	private <T> T waitFor(Future<T> future) throws Exception {
+		try {
+			return future.get();
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		}
+		catch(ExecutionException e) {
+			Throwable cause = e.getCause();
+			if(cause instanceof Exception)
+				throw (Exception) cause;
+			if(cause instanceof Error)
+				throw (Error) cause;
+			throw e;
+		}
+	}
+
 	private void worked(SubMonitor monitor, int amount) throws OperationCanceledException {
 		if(monitor.isCanceled())
 			throw new OperationCanceledException();
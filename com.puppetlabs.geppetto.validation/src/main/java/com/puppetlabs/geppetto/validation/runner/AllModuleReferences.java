@@ -21,6 +21,7 @@ import java.util.Set;
 
 import com.puppetlabs.geppetto.pp.PPPackage;
 import com.puppetlabs.geppetto.pp.dsl.adapters.PPImportedNamesAdapter.Location;
+import com.puppetlabs.geppetto.pp.dsl.linking.PPNameInterner;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.xtext.naming.QualifiedName;
@@ -365,7 +366,7 @@ public class AllModuleReferences implements Serializable {
 		}
 
 		for(Entry<QualifiedName, List<Location>> e : unresolved.entrySet()) {
-			final String name = fQualifiedToString.apply(e.getKey());
+			final String name = PPNameInterner.intern(fQualifiedToString.apply(e.getKey()));
 			for(Location location : e.getValue())
 				unresolvedImports.put(importingModuleDir, //
 					new ImportedNameImpl(file, name, location.getLength(), location.getOffset(), location.getLength()));
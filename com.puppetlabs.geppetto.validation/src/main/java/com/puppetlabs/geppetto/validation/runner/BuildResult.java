@@ -27,6 +27,8 @@ public class BuildResult {
 
 	private Multimap<ModuleName, MetadataInfo> moduleData;
 
+	private ValidationMetrics metrics;
+
 	public BuildResult(boolean rubyAvailable) {
 		this.rubyServicesAvailable = rubyAvailable;
 	}
@@ -35,6 +37,16 @@ public class BuildResult {
 		return allModuleReferences;
 	}
 
+	/**
+	 * Get timing and size metrics for the validation, or null if no metrics were collected (metrics are only collected
+	 * when a directory is validated).
+	 * 
+	 * @return
+	 */
+	public ValidationMetrics getMetrics() {
+		return metrics;
+	}
+
 	public Multimap<ModuleName, MetadataInfo> getModuleData() {
 		return moduleData;
 	}
@@ -57,6 +69,10 @@ public class BuildResult {
 		this.allModuleReferences = allReferences;
 	}
 
+	public void setMetrics(ValidationMetrics metrics) {
+		this.metrics = metrics;
+	}
+
 	public void setModuleData(Multimap<ModuleName, MetadataInfo> moduleData) {
 		this.moduleData = moduleData;
 	}
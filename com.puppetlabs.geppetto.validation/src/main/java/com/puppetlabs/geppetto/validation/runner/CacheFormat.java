@@ -0,0 +1,265 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.validation.runner;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Set;
+
+import com.puppetlabs.geppetto.common.os.StreamUtil;
+import com.puppetlabs.geppetto.pp.dsl.PPStandaloneSetup;
+
+import com.google.common.collect.Sets;
+
+/**
+ * Reading and writing of the files of the persistent caches. The files are written with a {@link DataOutput} in an
+ * explicit format; they are never read with Java serialization since a cache directory may be writable by others.
+ * Every value read is checked, and a file that does not follow the format results in an {@link IOException}.
+ * <p>
+ * A cache file starts with a runtime signature, see {@link #getRuntimeSignature(int, Class...)}, and a file with a
+ * different signature is not read. This makes a cache written by a different build of the bundles that compute what
+ * is cached unusable without a manual bump of a format version.
+ * </p>
+ */
+final class CacheFormat {
+	/**
+	 * Upper bound on the number of bytes in a string, and on the number of items in a list. Protects against the
+	 * allocation of huge arrays when a length in a corrupt file is read.
+	 */
+	private static final int MAX_LENGTH = 1 << 24;
+
+	private static final String GRAMMAR_RESOURCE = "PP.xmi";
+
+	private static final String MANIFEST_RESOURCE = "/META-INF/MANIFEST.MF";
+
+	/**
+	 * Digests the jar or the class directory that the given class is loaded from. When that is not a local file, the
+	 * manifest (with the version of the bundle) and the class file of the given class are digested instead.
+	 * 
+	 * @param md
+	 * @param anchor
+	 * @param digested
+	 *            - the code sources digested so far, a code source is only digested once
+	 */
+	private static void digestCodeSource(MessageDigest md, Class<?> anchor, Set<File> digested) {
+		File location = getCodeSourceFile(anchor);
+		if(location == null) {
+			digestResource(md, anchor, MANIFEST_RESOURCE);
+			String name = anchor.getName();
+			digestResource(md, anchor, name.substring(name.lastIndexOf('.') + 1) + ".class");
+			return;
+		}
+		if(!digested.add(location))
+			return;
+		if(location.isDirectory())
+			digestDirectory(md, location, "");
+		else
+			digestFile(md, location, location.getName());
+	}
+
+	private static void digestDirectory(MessageDigest md, File dir, String path) {
+		File[] children = dir.listFiles();
+		if(children == null) {
+			ValidationCache.update(md, path + '@' + System.nanoTime());
+			return;
+		}
+		Arrays.sort(children);
+		for(File child : children) {
+			String childPath = path + '/' + child.getName();
+			if(child.isDirectory())
+				digestDirectory(md, child, childPath);
+			else
+				digestFile(md, child, childPath);
+		}
+	}
+
+	private static void digestFile(MessageDigest md, File file, String path) {
+		InputStream in = null;
+		try {
+			in = new FileInputStream(file);
+			digestStream(md, in);
+		}
+		catch(IOException e) {
+			// Nothing to tell if the code has changed, make sure that nothing is ever reused
+			ValidationCache.update(md, path + '@' + System.nanoTime());
+			return;
+		}
+		finally {
+			StreamUtil.close(in);
+		}
+		ValidationCache.update(md, path);
+	}
+
+	private static void digestResource(MessageDigest md, Class<?> anchor, String name) {
+		InputStream in = anchor.getResourceAsStream(name);
+		if(in == null) {
+			// Nothing to tell if the code has changed, make sure that nothing is ever reused
+			ValidationCache.update(md, name + '@' + System.nanoTime());
+			return;
+		}
+		try {
+			digestStream(md, in);
+		}
+		catch(IOException e) {
+			ValidationCache.update(md, name + '@' + System.nanoTime());
+		}
+		finally {
+			StreamUtil.close(in);
+		}
+		ValidationCache.update(md, name);
+	}
+
+	static void digestStream(MessageDigest md, InputStream in) throws IOException {
+		byte[] buf = new byte[8192];
+		int count;
+		while((count = in.read(buf)) > 0)
+			md.update(buf, 0, count);
+	}
+
+	private static File getCodeSourceFile(Class<?> anchor) {
+		try {
+			CodeSource source = anchor.getProtectionDomain().getCodeSource();
+			URL location = source == null
+					? null
+					: source.getLocation();
+			if(location == null || !"file".equals(location.getProtocol()))
+				return null;
+			File file = new File(location.toURI());
+			return file.exists()
+					? file
+					: null;
+		}
+		catch(SecurityException e) {
+			return null;
+		}
+		catch(URISyntaxException e) {
+			return null;
+		}
+		catch(IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Computes a signature of the grammar, of the bundles that the given classes belong to, and of the given format
+	 * version. The whole jar or class directory of each bundle is digested, so the signature changes with any change
+	 * to the code of the bundles, not just to the classes that are known to compute what is cached.
+	 *
+	 * @param formatVersion
+	 *            - the version of the stored format
+	 * @param anchors
+	 *            - a class of each bundle that takes part in computing what is cached
+	 * @return the signature, a hexadecimal string
+	 */
+	static String getRuntimeSignature(int formatVersion, Class<?>... anchors) {
+		MessageDigest md = ValidationCache.newDigest();
+		ValidationCache.update(md, Integer.toString(formatVersion));
+		digestResource(md, PPStandaloneSetup.class, GRAMMAR_RESOURCE);
+		Set<File> digested = Sets.newHashSet();
+		for(Class<?> anchor : anchors)
+			digestCodeSource(md, anchor, digested);
+		return ValidationCache.toHex(md.digest());
+	}
+
+	/**
+	 * Reads a non negative count written with {@link DataOutput#writeInt(int)}.
+	 *
+	 * @throws IOException
+	 *             if the count is out of bounds
+	 */
+	static int readCount(DataInput in) throws IOException {
+		int count = in.readInt();
+		if(count < 0 || count > MAX_LENGTH)
+			throw new IOException("Bad count " + count);
+		return count;
+	}
+
+	/**
+	 * Reads an Integer written with {@link #writeInteger(DataOutput, Integer)}.
+	 */
+	static Integer readInteger(DataInput in) throws IOException {
+		return in.readBoolean()
+				? Integer.valueOf(in.readInt())
+				: null;
+	}
+
+	/**
+	 * Reads a String written with {@link #writeString(DataOutput, String)}.
+	 */
+	static String readString(DataInput in) throws IOException {
+		int length = in.readInt();
+		if(length == -1)
+			return null;
+		if(length < 0 || length > MAX_LENGTH)
+			throw new IOException("Bad string length " + length);
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, "UTF-8");
+	}
+
+	/**
+	 * Reads an array written with {@link #writeStrings(DataOutput, String[])}.
+	 */
+	static String[] readStrings(DataInput in) throws IOException {
+		if(!in.readBoolean())
+			return null;
+		String[] values = new String[readCount(in)];
+		for(int idx = 0; idx < values.length; ++idx)
+			values[idx] = readString(in);
+		return values;
+	}
+
+	/**
+	 * Writes a nullable Integer.
+	 */
+	static void writeInteger(DataOutput out, Integer value) throws IOException {
+		out.writeBoolean(value != null);
+		if(value != null)
+			out.writeInt(value.intValue());
+	}
+
+	/**
+	 * Writes a nullable String of any length as UTF-8.
+	 */
+	static void writeString(DataOutput out, String value) throws IOException {
+		if(value == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes("UTF-8");
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Writes a nullable array of nullable Strings.
+	 */
+	static void writeStrings(DataOutput out, String[] values) throws IOException {
+		out.writeBoolean(values != null);
+		if(values == null)
+			return;
+		out.writeInt(values.length);
+		for(String value : values)
+			writeString(out, value);
+	}
+
+	private CacheFormat() {
+	}
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.validation.runner;
+
+import com.puppetlabs.geppetto.pp.dsl.services.PPGrammarAccess;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.xtext.nodemodel.ICompositeNode;
+import org.eclipse.xtext.nodemodel.ILeafNode;
+import org.eclipse.xtext.nodemodel.INode;
+import org.eclipse.xtext.nodemodel.SyntaxErrorMessage;
+import org.eclipse.xtext.nodemodel.impl.HiddenLeafNode;
+import org.eclipse.xtext.nodemodel.impl.NodeModelBuilder;
+
+import com.google.inject.Inject;
+
+/**
+ * A node model builder that leaves out the whitespace nodes that nothing in validation looks at. The parser creates
+ * the hidden nodes in front of a token in the composite node that the token is added to. A whitespace node that is not
+ * the first child of its parent is therefore followed by a sibling, and leaving it out changes neither the offsets,
+ * lengths and lines of any other node, nor the text of any composite node. The following whitespace nodes are kept:
+ * <ul>
+ * <li>the first child of a composite node, since it determines the total offset of the node and its ancestors</li>
+ * <li>the whitespace directly after a comment, since it tells the {@link
+ * com.puppetlabs.geppetto.pp.dsl.ppdoc.DocumentationAssociator DocumentationAssociator} if the comment is followed by
+ * a line break</li>
+ * <li>the children of the root node, i.e. the whitespace at the end of the manifest</li>
+ * </ul>
+ * Comments are always kept.
+ * <p>
+ * The token text of a composite node (see {@link org.eclipse.xtext.nodemodel.util.NodeModelUtils#getTokenText(INode)
+ * NodeModelUtils.getTokenText}) is computed from its leaf nodes, and runs together tokens that were separated by
+ * whitespace that is left out. Validation must therefore compare tokens rather than token text, as the
+ * {@link com.puppetlabs.geppetto.pp.dsl.eval.PPExpressionEquivalenceCalculator PPExpressionEquivalenceCalculator}
+ * does, and a compact node model must not be used for serialization, formatting, or partial parsing.
+ * </p>
+ */
+public class CompactNodeModelBuilder extends NodeModelBuilder {
+	@Inject
+	private PPGrammarAccess grammarAccess;
+
+	/**
+	 * Returned (but never added to the node model) for a whitespace token that is left out.
+	 */
+	private final ILeafNode omitted = new HiddenLeafNode();
+
+	private boolean isOmitted(EObject grammarElement, ICompositeNode parent) {
+		if(grammarElement != grammarAccess.getWSRule() || parent.getParent() == null)
+			return false;
+		INode previous = parent.getLastChild();
+		return previous != null && !(previous instanceof ILeafNode && ((ILeafNode) previous).isHidden());
+	}
+
+	@Override
+	public ILeafNode newLeafNode(int offset, int length, EObject grammarElement, boolean isHidden,
+			SyntaxErrorMessage errorMessage, ICompositeNode parent) {
+		if(isHidden && errorMessage == null && isOmitted(grammarElement, parent))
+			return omitted;
+		return super.newLeafNode(offset, length, grammarElement, isHidden, errorMessage, parent);
+	}
+}
@@ -0,0 +1,34 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.validation.runner;
+
+import com.puppetlabs.geppetto.pp.dsl.parser.antlr.PPParser;
+import org.antlr.runtime.CharStream;
+import org.eclipse.xtext.nodemodel.impl.NodeModelBuilder;
+import org.eclipse.xtext.parser.IParseResult;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+
+/**
+ * A PP parser that builds a compact node model using a {@link CompactNodeModelBuilder}. Used for the resources of a
+ * {@link PPDiagnosticsRunner} when {@link PPDiagnosticsRunner#configureCompactNodeModel(boolean)} is enabled.
+ */
+public class CompactPPParser extends PPParser {
+	@Inject
+	private Provider<CompactNodeModelBuilder> nodeModelBuilderProvider;
+
+	@Override
+	protected IParseResult doParse(String ruleName, CharStream in, NodeModelBuilder nodeModelBuilder,
+			int initialLookAhead) {
+		return super.doParse(ruleName, in, nodeModelBuilderProvider.get(), initialLookAhead);
+	}
+}
@@ -20,6 +20,9 @@ import org.eclipse.emf.ecore.impl.EValidatorRegistryImpl;
 import org.eclipse.xtext.linking.ILinker;
 import org.eclipse.xtext.linking.lazy.LazyLinker;
 import org.eclipse.xtext.resource.IContainer.Manager;
+import org.eclipse.xtext.resource.IResourceDescriptions;
+
+import com.google.inject.Binder;
 
 /**
  * Provides bindings for the PPDiagnostician.
@@ -62,6 +65,15 @@ public class PPDiagnosticsModule extends PPRuntimeModule {
 		return LazyLinker.class;
 	}
 
+	/**
+	 * Binds an index that makes it possible to unload resources after validation (see
+	 * {@link PPDiagnosticsRunner#unloadResource(org.eclipse.emf.ecore.resource.Resource)}).
+	 */
+	@Override
+	public void configureIResourceDescriptions(Binder binder) {
+		binder.bind(IResourceDescriptions.class).to(SnapshotResourceDescriptions.class);
+	}
+
 	/**
 	 * Bind a ValidationAdvisorProvider.
 	 * 
@@ -16,7 +16,10 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringReader;
+import java.security.MessageDigest;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -26,6 +29,7 @@ import com.puppetlabs.geppetto.pp.dsl.adapters.PPImportedNamesAdapter;
 import com.puppetlabs.geppetto.pp.dsl.adapters.PPImportedNamesAdapterFactory;
 import com.puppetlabs.geppetto.pp.dsl.linking.DiagnosticConsumerBasedMessageAcceptor;
 import com.puppetlabs.geppetto.pp.dsl.linking.IMessageAcceptor;
+import com.puppetlabs.geppetto.pp.dsl.linking.PPLinkerProfiler;
 import com.puppetlabs.geppetto.pp.dsl.linking.PPResourceLinker;
 import com.puppetlabs.geppetto.pp.dsl.linking.PPSearchPath;
 import com.puppetlabs.geppetto.pp.dsl.linking.PPSearchPath.IConfigurableProvider;
@@ -35,9 +39,12 @@ import com.puppetlabs.geppetto.pp.dsl.validation.IPotentialProblemsAdvisor;
 import com.puppetlabs.geppetto.pp.dsl.validation.IValidationAdvisor;
 import com.puppetlabs.geppetto.pp.dsl.validation.PPJavaValidator;
 import com.puppetlabs.geppetto.ruby.resource.PptpRubyResourceFactory;
+import com.puppetlabs.geppetto.validation.runner.ResourceDescriptionSnapshot.EObjectDescriptionSnapshot;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.Path;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EClass;
@@ -70,7 +77,9 @@ import org.eclipse.xtext.util.StringInputStream;
 import org.eclipse.xtext.validation.IResourceValidator;
 
 import com.google.common.base.Function;
+import com.google.common.base.Objects;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
@@ -94,6 +103,43 @@ public class PPDiagnosticsRunner {
 		public static final Key<Provider<XtextResourceSet>> RESOURCE_SET_KEY = Key.get(resourceSetLiteral);
 	}
 
+	/**
+	 * Identifies an exported object by the values that {@link #searchMissing(Map, IEObjectDescription)} compares, since
+	 * descriptions do not implement equals.
+	 */
+	private static final class ExportKey {
+		private final QualifiedName name;
+
+		private final URI eObjectURI;
+
+		private final EClass eClass;
+
+		private final int hashCode;
+
+		ExportKey(IEObjectDescription desc) {
+			name = desc.getName();
+			eObjectURI = desc.getEObjectURI();
+			eClass = desc.getEClass();
+			hashCode = Objects.hashCode(name, eObjectURI, eClass);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(o == this)
+				return true;
+			if(!(o instanceof ExportKey))
+				return false;
+			ExportKey k = (ExportKey) o;
+			return hashCode == k.hashCode && Objects.equal(name, k.name) && Objects.equal(eObjectURI, k.eObjectURI) &&
+					Objects.equal(eClass, k.eClass);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+
 	private class ModuleExport implements AllModuleReferences.Export {
 
 		private static final long serialVersionUID = 1L;
@@ -206,14 +252,33 @@ public class PPDiagnosticsRunner {
 
 	}
 
+	/**
+	 * Records resources that have been unloaded by {@link PPDiagnosticsRunner#unloadResource(Resource)} and then
+	 * loaded again on demand (when a proxy into the resource was resolved).
+	 */
+	private class ReloadTracker extends AdapterImpl {
+		@Override
+		public void notifyChanged(Notification msg) {
+			if(msg.getFeatureID(Resource.class) == Resource.RESOURCE__IS_LOADED && msg.getNewBooleanValue())
+				reloaded.add((Resource) msg.getNotifier());
+		}
+	}
+
 	private Injector injector;
 
 	private XtextResourceSet resourceSet;
 
 	/**
-	 * The linker that performs the "special" PP linking. Normally used/called from the PPLinker.
+	 * The linker that performs the "special" PP linking. Normally used/called from the PPLinker. The linker and its
+	 * finder hold state for the resource being linked, so each thread gets an instance of its own.
 	 */
-	private PPResourceLinker resourceLinker;
+	private ThreadLocal<PPResourceLinker> resourceLinker;
+
+	private volatile boolean compactNodeModel;
+
+	private volatile boolean proposalsEnabled = true;
+
+	private volatile PPLinkerProfiler profiler;
 
 	private PPDiagnosticsSetup instance;
 
@@ -229,6 +294,11 @@ public class PPDiagnosticsRunner {
 
 	Map<String, File> pathToFileMap;
 
+	/**
+	 * Signature of the exports per container handle (computed on demand).
+	 */
+	private Map<String, String> containerSignatures;
+
 	public static final String PPTPCONTAINER = "_pptp";
 
 	private String ROOTCONTAINER = null;
@@ -239,6 +309,12 @@ public class PPDiagnosticsRunner {
 
 	private ISearchPathProvider searchPathProvider;
 
+	private boolean snapshotTaken;
+
+	private final ReloadTracker reloadTracker = new ReloadTracker();
+
+	private final List<Resource> reloaded = Lists.newArrayList();
+
 	private final Function<QualifiedName, String> fQualifiedToString = new Function<QualifiedName, String>() {
 
 		@Override
@@ -249,6 +325,7 @@ public class PPDiagnosticsRunner {
 
 	public PPDiagnosticsRunner() {
 		pathToFileMap = Maps.newHashMap();
+		containerSignatures = Maps.newHashMap();
 	}
 
 	private void _configureTransitiveClosure(Set<MetadataInfo> processed, final IPath rootModule,
@@ -264,6 +341,53 @@ public class PPDiagnosticsRunner {
 		}
 	}
 
+	/**
+	 * Adds a resource obtained from {@link #parseResource(InputStream, URI)} to the resource set. This method must be
+	 * called from one thread at a time, and in a stable order if a stable order of diagnostics is wanted.
+	 * 
+	 * @param resource
+	 *            - the parsed resource
+	 */
+	public void addResource(Resource resource) {
+		resourceSet.getResources().add(resource);
+	}
+
+	/**
+	 * Adds a .pp resource to the resource set without loading it. The resource is represented in the index by the
+	 * given description until it is loaded, either by {@link #ensureLoaded(Resource)} or on demand when a proxy into
+	 * the resource is resolved. Since resolving a proxy may then load a resource, resources added this way must not be
+	 * linked concurrently.
+	 * 
+	 * @param uri
+	 *            - the URI of the resource
+	 * @param description
+	 *            - a description of the exports of the resource that does not refer to its content
+	 * @return the added resource, or null if the URI does not denote a .pp resource
+	 */
+	public Resource addUnloadedResource(URI uri, ResourceDescriptionSnapshot description) {
+		if(!ppResourceServiceProvider.canHandle(uri))
+			return null;
+		Resource r = createResource(uri);
+		if(r == null)
+			return null;
+		resourceSet.getResources().add(r);
+		SnapshotResourceDescriptions.addToSnapshot(
+			resourceSet, Collections.<IResourceDescription> singleton(description));
+		return r;
+	}
+
+	/**
+	 * Controls if .pp resources created after this call are parsed into a compact node model, see
+	 * {@link CompactNodeModelBuilder}. A compact node model has the same offsets, lengths and lines as a full one, and
+	 * so results in the same diagnostics, but most whitespace nodes are left out. Resources with a compact node model
+	 * must not be serialized or formatted.
+	 * 
+	 * @param enabled
+	 */
+	public void configureCompactNodeModel(boolean enabled) {
+		compactNodeModel = enabled;
+	}
+
 	/**
 	 * Configure containers if something else than "everything is visible to everything" is wanted. This method must be
 	 * called before resources are loaded.
@@ -338,6 +462,26 @@ public class PPDiagnosticsRunner {
 		this.encodingProvider = provider;
 	}
 
+	/**
+	 * Sets the profiler that receives the linker statistics of each resource linked by
+	 * {@link #resolveCrossReferences(Resource, boolean, IProgressMonitor)}.
+	 * 
+	 * @param profiler
+	 *            - the profiler, or null if linking should not be profiled
+	 */
+	public void configureProfiler(PPLinkerProfiler profiler) {
+		this.profiler = profiler;
+	}
+
+	/**
+	 * Controls if "did you mean" proposals are computed for unresolved references during linking.
+	 * 
+	 * @param enabled
+	 */
+	public void configureProposals(boolean enabled) {
+		proposalsEnabled = enabled;
+	}
+
 	public void configureSearchPath(File root, String searchPath, String environment) {
 		if(searchPathProvider instanceof IConfigurableProvider)
 			((IConfigurableProvider) searchPathProvider).configure(
@@ -356,6 +500,11 @@ public class PPDiagnosticsRunner {
 	private ModuleExport createExport(IEObjectDescription desc) {
 		// String name = converter.toString(desc.getName());
 		File f = uri2File(desc.getEObjectURI());
+		if(desc instanceof EObjectDescriptionSnapshot) {
+			// The resource may have been unloaded, use the position recorded in the snapshot
+			EObjectDescriptionSnapshot snapshot = (EObjectDescriptionSnapshot) desc;
+			return new ModuleExport(f, desc, snapshot.getOffset(), snapshot.getLine(), snapshot.getLength());
+		}
 		ICompositeNode node = NodeModelUtils.getNode(desc.getEObjectOrProxy());
 		int line = -1;
 		int offset = -1;
@@ -369,6 +518,40 @@ public class PPDiagnosticsRunner {
 		return me;
 	}
 
+	/**
+	 * Creates a resource using the resource factory configured for the extension. Returns null for a .rb resource that
+	 * is not expected to contribute anything to the pptp.
+	 */
+	private Resource createResource(URI uri) {
+		// Lookup the factory to use for the resource
+		Factory factory = Resource.Factory.Registry.INSTANCE.getFactory(uri);
+		// // UGLY AS HELL HACK
+		// if(factory instanceof XtextResourceFactory)
+		// factory = injector.getInstance(XtextResourceFactory.class);
+
+		// Avoid loading lots of empty resources for rb files that do not
+		// contribute
+		if(factory instanceof PptpRubyResourceFactory && !pptpRubyResourceServiceProvider.canHandle(uri))
+			return null;
+
+		Resource r = factory.createResource(uri);
+		if(compactNodeModel && r instanceof XtextResource && ppResourceServiceProvider.canHandle(uri))
+			((XtextResource) r).setParser(get(CompactPPParser.class));
+		return r;
+	}
+
+	/**
+	 * Loads a resource added by {@link #addUnloadedResource(URI, ResourceDescriptionSnapshot)} if it has not been
+	 * loaded yet.
+	 * 
+	 * @param resource
+	 * @throws IOException
+	 */
+	public void ensureLoaded(Resource resource) throws IOException {
+		if(!resource.isLoaded())
+			resource.load(getLoadOptions(resource.getURI()));
+	}
+
 	/**
 	 * Get instance of class via the PP RT injector.
 	 * 
@@ -402,6 +585,10 @@ public class PPDiagnosticsRunner {
 		// translate all exports and create a map from IEObjectDescription to
 		// Export
 		Map<IEObjectDescription, ModuleExport> exports = Maps.newHashMap();
+
+		// and an index of the same exports by value, used when a description has changed identity. A key that is
+		// shared by several exports maps to null.
+		Map<ExportKey, ModuleExport> exportsByKey = Maps.newHashMap();
 		for(IResourceDescription rdesc : descriptionIndex.getAllResourceDescriptions()) {
 			String handle = validationContainerManager.getContainerHandle(rdesc, descriptionIndex);
 
@@ -409,11 +596,15 @@ public class PPDiagnosticsRunner {
 				continue;
 			// TODO: This is a leap of faith, handles are all paths, except the
 			// special "_pptp" path
-			File moduleDir = new File(handle);
+			File moduleDir = path2File(handle);
 
 			for(IEObjectDescription desc : rdesc.getExportedObjects()) {
 				ModuleExport me = createExport(desc);
 				exports.put(desc, me);
+				ExportKey key = new ExportKey(desc);
+				exportsByKey.put(key, exportsByKey.containsKey(key)
+						? null
+						: me);
 				result.addExport(moduleDir, me);
 			}
 		}
@@ -432,7 +623,7 @@ public class PPDiagnosticsRunner {
 					continue;
 				ModuleExport me = exports.get(desc);
 				if(me == null)
-					me = searchMissing(importingModuleDir, moduleDir, exports, desc);
+					me = searchMissing(exportsByKey, desc);
 				result.addImport(importingModuleDir, moduleDir, me);
 			}
 			// get the ambiguities recording during linking
@@ -443,7 +634,7 @@ public class PPDiagnosticsRunner {
 					continue;
 				ModuleExport me = exports.get(desc);
 				if(me == null)
-					me = searchMissing(importingModuleDir, moduleDir, exports, desc);
+					me = searchMissing(exportsByKey, desc);
 				result.addAmbiguity(importingModuleDir, moduleDir, me);
 			}
 			// TODO: RECORD BOTH NAME FILE, AND LOCATIONS FOR THAT NAME
@@ -466,13 +657,48 @@ public class PPDiagnosticsRunner {
 
 	}
 
+	private String getContainerExportsSignature(String handle, IResourceDescriptions index,
+			ValidationStateBasedContainerManager manager) {
+		String signature = containerSignatures.get(handle);
+		if(signature != null)
+			return signature;
+
+		List<URI> uris = Lists.newArrayList(manager.getContainedURIs(handle, index));
+		Collections.sort(uris, new Comparator<URI>() {
+			@Override
+			public int compare(URI a, URI b) {
+				return a.toString().compareTo(b.toString());
+			}
+		});
+		MessageDigest md = ValidationCache.newDigest();
+		for(URI uri : uris) {
+			IResourceDescription rdesc = index.getResourceDescription(uri);
+			if(rdesc == null)
+				continue; // not loaded (e.g. a .rb that does not contribute)
+			ValidationCache.update(md, uri.toString());
+			for(IEObjectDescription desc : rdesc.getExportedObjects()) {
+				ValidationCache.update(md, desc.getName().toString());
+				ValidationCache.update(md, desc.getEClass().getName());
+				ValidationCache.update(md, desc.getEObjectURI().fragment());
+				List<String> keys = Lists.newArrayList(desc.getUserDataKeys());
+				Collections.sort(keys);
+				for(String key : keys) {
+					ValidationCache.update(md, key);
+					ValidationCache.update(md, desc.getUserData(key));
+				}
+			}
+		}
+		signature = ValidationCache.toHex(md.digest());
+		containerSignatures.put(handle, signature);
+		return signature;
+	}
+
 	private File getContainerHandle(URI uri, IResourceDescriptions index, ValidationStateBasedContainerManager manager) {
 		IResourceDescription resourceDescription = index.getResourceDescription(uri.trimFragment());
 		String containerHandle = manager.getContainerHandle(resourceDescription, index);
 		if(containerHandle == null)
 			return null;
-		File moduleDir = new File(containerHandle);
-		return moduleDir;
+		return path2File(containerHandle);
 
 	}
 
@@ -500,12 +726,35 @@ public class PPDiagnosticsRunner {
 	// return get(PPGrammarAccess.class);
 	// }
 
+	/**
+	 * @param uri
+	 * @return the encoding of the resource with the given URI
+	 */
+	public String getEncoding(URI uri) {
+		return getEncodingProvider().getEncoding(uri);
+	}
+
 	private IEncodingProvider getEncodingProvider() {
 		if(encodingProvider == null)
 			encodingProvider = new DefaultEncodingProvider();
 		return encodingProvider;
 	}
 
+	/**
+	 * Returns the number of objects exported by all resources in the resource set. The resource descriptions are
+	 * computed if that has not already been done.
+	 * 
+	 * @return the number of exported objects
+	 */
+	public int getExportedObjectCount() {
+		if(resourceSet == null || resourceSet.getResources().isEmpty())
+			return 0;
+		int count = 0;
+		for(IResourceDescription rdesc : getResourceDescriptions().getAllResourceDescriptions())
+			count += Iterables.size(rdesc.getExportedObjects());
+		return count;
+	}
+
 	IQualifiedNameConverter getIQualifiedNameConverter() {
 		return get(IQualifiedNameConverter.class);
 	}
@@ -517,6 +766,12 @@ public class PPDiagnosticsRunner {
 		return get(IResourceServiceProvider.class);
 	}
 
+	private Map<String, String> getLoadOptions(URI uri) {
+		Map<String, String> options = Maps.newHashMap();
+		options.put(XtextResource.OPTION_ENCODING, getEncodingProvider().getEncoding(uri));
+		return options;
+	}
+
 	private PPParser getParser() {
 		return get(PPParser.class);
 	}
@@ -530,7 +785,7 @@ public class PPDiagnosticsRunner {
 	 * set, it does not matter which resource that is picked (pick first). Note - caller must check if the resource set
 	 * is empty.
 	 */
-	private IResourceDescriptions getResourceDescriptions() {
+	IResourceDescriptions getResourceDescriptions() {
 		return indexProvider.getResourceDescriptions(resourceSet.getResources().get(0));
 	}
 
@@ -558,29 +813,41 @@ public class PPDiagnosticsRunner {
 		return get(ISerializer.class);
 	}
 
+	/**
+	 * Returns a digest of everything exported from the containers visible to the given resource. The digest changes
+	 * when anything the resource may link to changes. Must not be called before all resources have been loaded.
+	 * 
+	 * @param resource
+	 * @return the digest in hexadecimal form
+	 */
+	public String getVisibleExportsSignature(Resource resource) {
+		IResourceDescriptions index = getResourceDescriptions();
+		ValidationStateBasedContainerManager manager = getContainerManager();
+		IResourceDescription rdesc = index.getResourceDescription(resource.getURI());
+		String handle = rdesc == null
+				? null
+				: manager.getContainerHandle(rdesc, index);
+		if(handle == null)
+			return "";
+
+		MessageDigest md = ValidationCache.newDigest();
+		for(String visibleHandle : manager.getVisibleContainerHandles(handle, index))
+			ValidationCache.update(md, getContainerExportsSignature(visibleHandle, index, manager));
+		return ValidationCache.toHex(md.digest());
+	}
+
 	/**
 	 * Loads a .pp, .pptp or .rb resource using the resource factory configured for the extension. Returns null for a
 	 * .rb resource that is not expected to contribute anything to the pptp. All non null resources are added to the
 	 * resource set.
 	 */
 	public Resource loadResource(InputStream in, URI uri) throws Exception {
-		// Lookup the factory to use for the resource
-		Factory factory = Resource.Factory.Registry.INSTANCE.getFactory(uri);
-		// // UGLY AS HELL HACK
-		// if(factory instanceof XtextResourceFactory)
-		// factory = injector.getInstance(XtextResourceFactory.class);
-
-		// Avoid loading lots of empty resources for rb files that do not
-		// contribute
-		if(factory instanceof PptpRubyResourceFactory && !pptpRubyResourceServiceProvider.canHandle(uri))
+		Resource r = createResource(uri);
+		if(r == null)
 			return null;
 
-		Map<String, String> options = Maps.newHashMap();
-		options.put(XtextResource.OPTION_ENCODING, getEncodingProvider().getEncoding(uri));
-
-		Resource r = factory.createResource(uri);
 		resourceSet.getResources().add(r);
-		r.load(in, options);
+		r.load(in, getLoadOptions(uri));
 
 		return r;
 	}
@@ -600,10 +867,7 @@ public class PPDiagnosticsRunner {
 
 	public Resource loadResource(URI uri) throws IOException {
 		Resource resource = resourceSet.createResource(uri);
-		Map<String, String> options = Maps.newHashMap();
-		options.put(XtextResource.OPTION_ENCODING, getEncodingProvider().getEncoding(uri));
-
-		resource.load(options);
+		resource.load(getLoadOptions(uri));
 		resourceSet.getResources().add(resource);
 		return resource;
 
@@ -624,6 +888,26 @@ public class PPDiagnosticsRunner {
 
 	}
 
+	/**
+	 * Parses a .pp, .pptp or .rb resource using the resource factory configured for the extension without adding it to
+	 * the resource set. Returns null for a .rb resource that is not expected to contribute anything to the pptp. Since
+	 * the resource set is not touched, this method may be called from several threads at the same time. The result is
+	 * made visible to linking by a call to {@link #addResource(Resource)}.
+	 * 
+	 * @param in
+	 *            - the content to parse
+	 * @param uri
+	 *            - the uri of the resource (determines the factory and the encoding)
+	 * @return the parsed resource, or null
+	 * @throws Exception
+	 */
+	public Resource parseResource(InputStream in, URI uri) throws Exception {
+		Resource r = createResource(uri);
+		if(r != null)
+			r.load(in, getLoadOptions(uri));
+		return r;
+	}
+
 	public IParseResult parseString(ParserRule rule, String s) throws PPSyntaxErrorException {
 		PPParser parser = getParser();
 		IParseResult result = parser.parse(rule, new StringReader(s));
@@ -632,6 +916,24 @@ public class PPDiagnosticsRunner {
 		return result;
 	}
 
+	/**
+	 * Computes the descriptions and exports of all resources in the resource set. Descriptions are otherwise computed
+	 * (and cached in the resources) on first use. Once all resources are loaded and this method has been called, the
+	 * index is not modified by linking or validation, and {@link #resolveCrossReferences(Resource, boolean,
+	 * IProgressMonitor)} followed by validation may be performed for different resources by different threads at the
+	 * same time.
+	 */
+	public void prepareConcurrentLinking() {
+		if(resourceSet.getResources().isEmpty())
+			return;
+		IResourceDescriptions descriptionIndex = getResourceDescriptions();
+		for(Resource r : resourceSet.getResources()) {
+			IResourceDescription rdesc = descriptionIndex.getResourceDescription(r.getURI());
+			if(rdesc != null)
+				Iterables.size(rdesc.getExportedObjects());
+		}
+	}
+
 	public void resolveCrossReferences(Resource resource, boolean profileThis, final IProgressMonitor monitor) {
 		if(resource instanceof LazyLinkingResource) {
 			// The default linking
@@ -657,8 +959,24 @@ public class PPDiagnosticsRunner {
 				//
 				final ListBasedDiagnosticConsumer consumer = new ListBasedDiagnosticConsumer();
 				IMessageAcceptor acceptor = new DiagnosticConsumerBasedMessageAcceptor(consumer);
-				resourceLinker.link(
-					((LazyLinkingResource) resource).getParseResult().getRootASTElement(), acceptor, profileThis);
+				PPResourceLinker linker = resourceLinker.get();
+				linker.setProposalsEnabled(proposalsEnabled);
+				PPLinkerProfiler p = profiler;
+				PPLinkerProfiler.Profile profile = p != null || profileThis
+						? new PPLinkerProfiler.Profile(resource.getURI().path())
+						: null;
+				linker.setProfile(profile);
+				try {
+					linker.link(
+						((LazyLinkingResource) resource).getParseResult().getRootASTElement(), acceptor, profileThis);
+				}
+				finally {
+					linker.setProfile(null);
+				}
+				if(p != null)
+					p.add(profile);
+				if(profileThis)
+					System.err.print(profile);
 				resource.getErrors().addAll(consumer.getResult(Severity.ERROR));
 				resource.getWarnings().addAll(consumer.getResult(Severity.WARNING));
 			}
@@ -678,31 +996,17 @@ public class PPDiagnosticsRunner {
 	}
 
 	/**
-	 * Perform an equals scan of exports (instead of using identity). (Pity that IEObjectDescription does not have an
+	 * Perform an equals lookup of exports (instead of using identity). (Pity that IEObjectDescription does not have an
 	 * equals method). For some reason some descriptions change identify (but are otherwise compatible) - don't know
 	 * why. TODO: Figure out what is going on.
 	 * 
-	 * @param importingModuleDir
-	 * @param moduleDir
-	 * @param exports
+	 * @param exportsByKey
 	 * @param desc
+	 * @return the only export with the same name, URI and EClass as <code>desc</code>, or null if there is no such
+	 *         export or more than one
 	 */
-	private ModuleExport searchMissing(File importingModuleDir, File moduleDir,
-			Map<IEObjectDescription, ModuleExport> exports, IEObjectDescription desc) {
-
-		List<IEObjectDescription> matching = Lists.newArrayList();
-		for(IEObjectDescription d2 : exports.keySet()) {
-			if(!d2.getName().equals(desc.getName()))
-				continue;
-			if(!d2.getEObjectURI().equals(desc.getEObjectURI()))
-				continue;
-			if(!d2.getEClass().equals(desc.getEClass()))
-				continue;
-			matching.add(d2);
-		}
-		if(matching.size() == 1)
-			return exports.get(matching.get(0));
-		return null;
+	private ModuleExport searchMissing(Map<ExportKey, ModuleExport> exportsByKey, IEObjectDescription desc) {
+		return exportsByKey.get(new ExportKey(desc));
 	}
 
 	public String serialize(EObject obj) {
@@ -722,15 +1026,40 @@ public class PPDiagnosticsRunner {
 	public void setUp(IValidationAdvisor.ComplianceLevel complianceLevel, IPotentialProblemsAdvisor problemsAdvisor)
 			throws Exception {
 		// Setup with overrides
-		instance = new PPDiagnosticsSetup(complianceLevel, problemsAdvisor);
-		injector = instance.createInjectorAndDoEMFRegistration();
+		PPDiagnosticsSetup setup = new PPDiagnosticsSetup(complianceLevel, problemsAdvisor);
+		setUp(setup, setup.createInjectorAndDoEMFRegistration());
+	}
+
+	/**
+	 * Sets things up using an injector that was created by the given setup for an earlier run. This avoids the cost of
+	 * creating the injector and doing the EMF registration. The injector is registered again as the one handling .pp
+	 * resources since other setups may have been registered since it was created.
+	 * 
+	 * @param setup
+	 *            - the setup that created the injector
+	 * @param setupInjector
+	 *            - the injector created by {@link PPDiagnosticsSetup#createInjectorAndDoEMFRegistration()}
+	 * @throws Exception
+	 */
+	public void setUp(PPDiagnosticsSetup setup, Injector setupInjector) throws Exception {
+		instance = setup;
+		injector = setupInjector;
+		snapshotTaken = false;
+		reloaded.clear();
+		instance.register(injector);
 		resourceSet = get(XtextResourceSet.class);
 		resourceSet.setClasspathURIContext(getClass());
 
 		ppResourceServiceProvider = injector.getInstance(IResourceServiceProvider.class);
 		pptpRubyResourceServiceProvider = instance.getPptpRubyInjector().getInstance(IResourceServiceProvider.class);
 
-		resourceLinker = injector.getInstance(PPResourceLinker.class);
+		final Injector linkerInjector = injector;
+		resourceLinker = new ThreadLocal<PPResourceLinker>() {
+			@Override
+			protected PPResourceLinker initialValue() {
+				return linkerInjector.getInstance(PPResourceLinker.class);
+			}
+		};
 
 		resourceServiceProvider = getIResourceServiceProvider();
 
@@ -743,16 +1072,66 @@ public class PPDiagnosticsRunner {
 		injector.getInstance(PPJavaValidator.class);
 	}
 
+	/**
+	 * Replaces the descriptions of all .pp resources in the index with copies that do not refer to the content of the
+	 * resources. This must be done before any resource is unloaded with {@link #unloadResource(Resource)}, and after
+	 * all resources have been loaded. The index is not modified by linking or validation after this call, just like
+	 * after {@link #prepareConcurrentLinking()}.
+	 */
+	public void snapshotDescriptions() {
+		if(resourceSet.getResources().isEmpty())
+			return;
+		IResourceDescriptions descriptionIndex = getResourceDescriptions();
+		List<IResourceDescription> descriptions = Lists.newArrayList();
+		for(Resource r : resourceSet.getResources()) {
+			if(!ppResourceServiceProvider.canHandle(r.getURI()))
+				continue;
+			IResourceDescription rdesc = descriptionIndex.getResourceDescription(r.getURI());
+			if(rdesc != null)
+				descriptions.add(rdesc);
+		}
+		SnapshotResourceDescriptions.addToSnapshot(resourceSet, descriptions);
+		snapshotTaken = true;
+	}
+
 	public void tearDown() {
 		injector = null;
 		instance = null;
 	}
 
-	private File uri2File(URI uri) {
+	/**
+	 * Unloads a .pp resource that has been validated to release its model and node model. The resource stays in the
+	 * resource set, and it is represented in the index by the copy made by {@link #snapshotDescriptions()}. The imports
+	 * recorded by linking and the properties of the resource are kept. If a proxy into an unloaded resource is resolved
+	 * later on, the resource is loaded again (using the load options of the resource set), and then unloaded again by
+	 * the next call to this method. This method must not be called while resources are linked or validated by other
+	 * threads.
+	 * 
+	 * @param resource
+	 *            - the resource to unload
+	 * @throws IllegalStateException
+	 *             if {@link #snapshotDescriptions()} has not been called
+	 */
+	public void unloadResource(Resource resource) {
+		if(!snapshotTaken)
+			throw new IllegalStateException("snapshotDescriptions() must be called before resources are unloaded");
+		if(!reloaded.isEmpty()) {
+			List<Resource> again = Lists.newArrayList(reloaded);
+			reloaded.clear();
+			for(Resource r : again)
+				r.unload();
+		}
+		if(!resource.isLoaded() || !ppResourceServiceProvider.canHandle(resource.getURI()))
+			return;
+		if(!resource.eAdapters().contains(reloadTracker))
+			resource.eAdapters().add(reloadTracker);
+		resource.unload();
+	}
 
-		String path = uri.isFile()
-				? uri.toFileString()
-				: uri.path();
+	/**
+	 * Returns one File instance per path so that exports, imports and container handles share them.
+	 */
+	private File path2File(String path) {
 		File f = pathToFileMap.get(path);
 		if(f != null)
 			return f;
@@ -761,4 +1140,10 @@ public class PPDiagnosticsRunner {
 		return f;
 	}
 
+	private File uri2File(URI uri) {
+		return path2File(uri.isFile()
+				? uri.toFileString()
+				: uri.path());
+	}
+
 }
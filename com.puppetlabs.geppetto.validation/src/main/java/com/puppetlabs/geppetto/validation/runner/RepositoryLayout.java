@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.validation.runner;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.util.Collections;
+import java.util.List;
+
+import com.puppetlabs.geppetto.common.os.FileUtils;
+import com.puppetlabs.geppetto.forge.Forge;
+
+import com.google.common.collect.Lists;
+
+/**
+ * The files of interest in a directory tree, found by scanning the tree once. The scan classifies .pp files, .rb
+ * files, Rakefiles and module roots (directories that contain a metadata file such as <code>metadata.json</code> or
+ * <code>Modulefile</code>). Entries rejected by the file filter (typically one that honors
+ * {@link com.puppetlabs.geppetto.forge.util.ModuleUtils#DEFAULT_EXCLUDES_PATTERN}) are pruned together with everything
+ * below them.
+ * <p>
+ * Files are listed in the same order as a separate scan for each kind would have listed them. Symbolically linked
+ * files and directories are not included as files, but symbolically linked directories are searched for module roots.
+ * Nothing below a module root is reported as a module root.
+ * </p>
+ */
+public class RepositoryLayout {
+	private static final String SVN_DIR_NAME = ".svn";
+
+	private static boolean isRakefile(String name) {
+		String lcname = name.toLowerCase();
+		if(lcname.startsWith("rakefile")) {
+			int length = lcname.length();
+			return length == 8 || (length == 11 && lcname.endsWith(".rb")) ||
+					(length == 13 && lcname.endsWith(".rake"));
+		}
+		return lcname.endsWith(".rake");
+	}
+
+	/**
+	 * Scans the given directory.
+	 * 
+	 * @param root
+	 *            - the directory to scan
+	 * @param filter
+	 *            - the filter that determines what files and directories to include
+	 * @param forge
+	 *            - used to recognize metadata files
+	 * @return the layout of the directory
+	 */
+	public static RepositoryLayout scan(File root, FileFilter filter, Forge forge) {
+		RepositoryLayout layout = new RepositoryLayout(root);
+		if(layout.scan(root, filter, forge, true, true))
+			// The repository is a module in itself
+			layout.moduleRoots.add(root);
+		return layout;
+	}
+
+	private final File root;
+
+	private final List<File> ppFiles = Lists.newArrayList();
+
+	private final List<File> rbFiles = Lists.newArrayList();
+
+	private final List<File> rakefiles = Lists.newArrayList();
+
+	private final List<File> moduleRoots = Lists.newArrayList();
+
+	private RepositoryLayout(File root) {
+		this.root = root;
+	}
+
+	/**
+	 * @return the number of files and module roots in the layout
+	 */
+	public int getCount() {
+		return ppFiles.size() + rbFiles.size() + rakefiles.size() + moduleRoots.size();
+	}
+
+	/**
+	 * @return the directories that contain module metadata
+	 */
+	public List<File> getModuleRoots() {
+		return Collections.unmodifiableList(moduleRoots);
+	}
+
+	/**
+	 * @return the .pp files
+	 */
+	public List<File> getPPFiles() {
+		return Collections.unmodifiableList(ppFiles);
+	}
+
+	/**
+	 * @return the Rakefiles (<code>Rakefile</code>, <code>Rakefile.rb</code>, <code>Rakefile.rake</code> and
+	 *         <code>*.rake</code>, case independent)
+	 */
+	public List<File> getRakefiles() {
+		return Collections.unmodifiableList(rakefiles);
+	}
+
+	/**
+	 * @return the scanned directory
+	 */
+	public File getRoot() {
+		return root;
+	}
+
+	/**
+	 * @return the .rb files (including <code>Rakefile.rb</code>)
+	 */
+	public List<File> getRubyFiles() {
+		return Collections.unmodifiableList(rbFiles);
+	}
+
+	/**
+	 * Scans a directory.
+	 * 
+	 * @param dir
+	 * @param filter
+	 * @param forge
+	 * @param collectFiles
+	 *            - <code>false</code> when below a symbolic link
+	 * @param findModuleRoots
+	 *            - <code>false</code> when below a module root
+	 * @return <code>true</code> if <code>dir</code> is a module root
+	 */
+	private boolean scan(File dir, FileFilter filter, Forge forge, boolean collectFiles, boolean findModuleRoots) {
+		File[] files = dir.listFiles(filter);
+		if(files == null || files.length == 0)
+			return false;
+
+		boolean isModuleRoot = false;
+		if(findModuleRoots) {
+			for(File f : files)
+				if(forge.isMetadataFile(f.getName())) {
+					isModuleRoot = true;
+					break;
+				}
+		}
+
+		// Module roots are reported in the order used by Forge.findModuleRoots, i.e. last directory first
+		List<File>[] childRoots = null;
+		boolean findChildRoots = findModuleRoots && !isModuleRoot;
+		for(int idx = 0; idx < files.length; ++idx) {
+			File f = files[idx];
+			boolean collect = collectFiles && !FileUtils.isSymlink(f);
+			if(f.isFile()) {
+				if(collect) {
+					String name = f.getName();
+					if(name.endsWith(".pp"))
+						ppFiles.add(f);
+					else if(name.endsWith(".rb"))
+						rbFiles.add(f);
+					if(isRakefile(name))
+						rakefiles.add(f);
+				}
+				continue;
+			}
+			if(!((collect || findChildRoots) && f.isDirectory() && !SVN_DIR_NAME.equals(f.getName())))
+				continue;
+
+			int rootsBefore = moduleRoots.size();
+			if(scan(f, filter, forge, collect, findChildRoots))
+				moduleRoots.add(f);
+			if(moduleRoots.size() > rootsBefore) {
+				if(childRoots == null) {
+					@SuppressWarnings("unchecked")
+					List<File>[] tmp = new List[files.length];
+					childRoots = tmp;
+				}
+				List<File> added = moduleRoots.subList(rootsBefore, moduleRoots.size());
+				childRoots[idx] = Lists.newArrayList(added);
+				added.clear();
+			}
+		}
+		if(childRoots != null)
+			for(int idx = childRoots.length; --idx >= 0;)
+				if(childRoots[idx] != null)
+					moduleRoots.addAll(childRoots[idx]);
+		return isModuleRoot;
+	}
+}
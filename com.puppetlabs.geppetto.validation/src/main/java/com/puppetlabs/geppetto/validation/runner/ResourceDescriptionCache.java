@@ -0,0 +1,371 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.validation.runner;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.puppetlabs.geppetto.common.os.StreamUtil;
+import com.puppetlabs.geppetto.pp.PPPackage;
+import com.puppetlabs.geppetto.pp.dsl.PPStandaloneSetup;
+import com.puppetlabs.geppetto.pp.dsl.adapters.ResourcePropertiesAdapter;
+import com.puppetlabs.geppetto.pp.dsl.adapters.ResourcePropertiesAdapterFactory;
+import com.puppetlabs.geppetto.validation.runner.ResourceDescriptionSnapshot.EObjectDescriptionSnapshot;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EClassifier;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.resource.IEObjectDescription;
+import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.resource.XtextResource;
+
+import com.google.common.collect.Lists;
+
+/**
+ * A persistent cache of the exports of .pp resources. An entry is keyed by a digest of the content of a resource, and
+ * holds what is needed to create a {@link ResourceDescriptionSnapshot} of the resource. A resource with a cached
+ * entry can be added to the resource set without being parsed; it is then represented in the index by the restored
+ * snapshot, and it is parsed only if it has to be linked and validated, or when a proxy into it is resolved.
+ * <p>
+ * The cache is stored in a single file in the cache directory, in the format described by {@link CacheFormat}. A
+ * cache file that can not be read (missing, corrupt, written by another version of the grammar or of the code that
+ * computes the exports) results in an empty cache, and an entry that refers to an unknown EClass is ignored. The
+ * number of entries is bounded; the least recently used entries are evicted first.
+ * </p>
+ * <p>
+ * An instance is not thread safe.
+ * </p>
+ */
+public class ResourceDescriptionCache {
+	private static class CachedExport {
+		static CachedExport read(DataInput in) throws IOException {
+			String[] name = CacheFormat.readStrings(in);
+			String nsURI = CacheFormat.readString(in);
+			String eClassName = CacheFormat.readString(in);
+			String fragment = CacheFormat.readString(in);
+			String[] userDataKeys = CacheFormat.readStrings(in);
+			String[] userDataValues = CacheFormat.readStrings(in);
+			if(name == null || nsURI == null || eClassName == null || fragment == null || userDataKeys == null ||
+					userDataValues == null || userDataKeys.length != userDataValues.length)
+				throw new IOException("Incomplete export");
+			return new CachedExport(
+				name, nsURI, eClassName, fragment, userDataKeys, userDataValues, in.readInt(), in.readInt(),
+				in.readInt());
+		}
+
+		private final String[] name;
+
+		private final String nsURI;
+
+		private final String eClassName;
+
+		private final String fragment;
+
+		private final String[] userDataKeys;
+
+		private final String[] userDataValues;
+
+		private final int line;
+
+		private final int offset;
+
+		private final int length;
+
+		CachedExport(EObjectDescriptionSnapshot desc) {
+			QualifiedName qName = desc.getName();
+			name = qName.getSegments().toArray(new String[qName.getSegmentCount()]);
+			nsURI = desc.getEClass().getEPackage().getNsURI();
+			eClassName = desc.getEClass().getName();
+			fragment = desc.getEObjectURI().fragment();
+			userDataKeys = desc.getUserDataKeys();
+			userDataValues = new String[userDataKeys.length];
+			for(int idx = 0; idx < userDataKeys.length; ++idx)
+				userDataValues[idx] = desc.getUserData(userDataKeys[idx]);
+			line = desc.getLine();
+			offset = desc.getOffset();
+			length = desc.getLength();
+		}
+
+		private CachedExport(String[] name, String nsURI, String eClassName, String fragment, String[] userDataKeys,
+				String[] userDataValues, int line, int offset, int length) {
+			this.name = name;
+			this.nsURI = nsURI;
+			this.eClassName = eClassName;
+			this.fragment = fragment;
+			this.userDataKeys = userDataKeys;
+			this.userDataValues = userDataValues;
+			this.line = line;
+			this.offset = offset;
+			this.length = length;
+		}
+
+		/**
+		 * @return the restored description, or null if the EClass of the export is not known
+		 */
+		IEObjectDescription toDescription(URI resourceURI) {
+			EPackage ePackage = EPackage.Registry.INSTANCE.getEPackage(nsURI);
+			if(ePackage == null)
+				return null;
+			EClassifier eClass = ePackage.getEClassifier(eClassName);
+			if(!(eClass instanceof EClass))
+				return null;
+			return new EObjectDescriptionSnapshot(
+				QualifiedName.create(name), (EClass) eClass, resourceURI.appendFragment(fragment), userDataKeys,
+				userDataValues, line, offset, length);
+		}
+
+		void write(DataOutput out) throws IOException {
+			CacheFormat.writeStrings(out, name);
+			CacheFormat.writeString(out, nsURI);
+			CacheFormat.writeString(out, eClassName);
+			CacheFormat.writeString(out, fragment);
+			CacheFormat.writeStrings(out, userDataKeys);
+			CacheFormat.writeStrings(out, userDataValues);
+			out.writeInt(line);
+			out.writeInt(offset);
+			out.writeInt(length);
+		}
+	}
+
+	/**
+	 * Name of the file (in the cache directory) where the cache is stored
+	 */
+	public static final String CACHE_FILE_NAME = "pp-descriptions.cache";
+
+	/**
+	 * Resource property holding the digest of the content of a resource, set by
+	 * {@link #restore(PPDiagnosticsRunner, URI, String)} and {@link #put(PPDiagnosticsRunner, Resource, String)}.
+	 */
+	public static final String RESOURCE_PROPERTY__CONTENT_DIGEST = "com.puppetlabs.geppetto.validation.contentDigest";
+
+	/**
+	 * Must be bumped whenever the stored format changes. A change of what is stored is detected by the runtime
+	 * signature (see {@link #getRuntimeSignature()}).
+	 */
+	private static final int FORMAT_VERSION = 2;
+
+	private static String runtimeSignature;
+
+	/**
+	 * Returns the digest of the content of the given resource recorded by this cache, or computes it from the text of
+	 * the resource.
+	 * 
+	 * @param resource
+	 * @return the digest, or null if the resource is neither restored nor parsed
+	 */
+	public static String getContentDigest(Resource resource) {
+		ResourcePropertiesAdapter adapter = ResourcePropertiesAdapterFactory.eINSTANCE.adapt(resource);
+		String digest = (String) adapter.get(RESOURCE_PROPERTY__CONTENT_DIGEST);
+		if(digest != null || !(resource instanceof XtextResource))
+			return digest;
+		XtextResource xr = (XtextResource) resource;
+		if(xr.getParseResult() == null || xr.getParseResult().getRootNode() == null)
+			return null;
+		return ValidationCache.digest(xr.getParseResult().getRootNode().getText());
+	}
+
+	/**
+	 * Returns the signature of the grammar and of the bundles that parse and compute the exports, written first in the
+	 * cache file. A cache written with a different signature is not used.
+	 * 
+	 * @return the signature
+	 */
+	static synchronized String getRuntimeSignature() {
+		if(runtimeSignature == null)
+			runtimeSignature = CacheFormat.getRuntimeSignature(
+				FORMAT_VERSION, ResourceDescriptionCache.class, PPStandaloneSetup.class, PPPackage.class);
+		return runtimeSignature;
+	}
+
+	/**
+	 * Opens the cache stored in the given directory. A missing or unreadable cache results in an empty cache.
+	 * 
+	 * @param directory
+	 *            - the directory where the cache is stored (created on save if missing)
+	 * @param maxEntries
+	 *            - the maximum number of cached resources, a value less than 1 means
+	 *            {@link ValidationCache#DEFAULT_MAX_ENTRIES}
+	 * @return the opened cache
+	 */
+	public static ResourceDescriptionCache open(File directory, int maxEntries) {
+		ResourceDescriptionCache cache = new ResourceDescriptionCache(
+			new File(directory, CACHE_FILE_NAME), maxEntries < 1
+					? ValidationCache.DEFAULT_MAX_ENTRIES
+					: maxEntries);
+		cache.read();
+		return cache;
+	}
+
+	private final File cacheFile;
+
+	private final LinkedHashMap<String, List<CachedExport>> entries;
+
+	private boolean dirty;
+
+	private ResourceDescriptionCache(File cacheFile, final int maxEntries) {
+		this.cacheFile = cacheFile;
+		this.entries = new LinkedHashMap<String, List<CachedExport>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, List<CachedExport>> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * @return the number of cached resources
+	 */
+	public int getSize() {
+		return entries.size();
+	}
+
+	/**
+	 * Stores the exports of the given parsed resource under the given digest of its content.
+	 * 
+	 * @param runner
+	 *            - the runner where the resource is loaded
+	 * @param resource
+	 *            - the loaded resource
+	 * @param contentDigest
+	 *            - a digest of the content of the resource computed with {@link ValidationCache#digest(String...)}
+	 */
+	public void put(PPDiagnosticsRunner runner, Resource resource, String contentDigest) {
+		ResourcePropertiesAdapterFactory.eINSTANCE.adapt(resource).put(
+			RESOURCE_PROPERTY__CONTENT_DIGEST, contentDigest);
+		if(entries.containsKey(contentDigest))
+			return;
+		IResourceDescription rdesc = runner.getResourceDescriptions().getResourceDescription(resource.getURI());
+		if(rdesc == null)
+			return;
+		ResourceDescriptionSnapshot snapshot = rdesc instanceof ResourceDescriptionSnapshot
+				? (ResourceDescriptionSnapshot) rdesc
+				: new ResourceDescriptionSnapshot(rdesc);
+		List<CachedExport> exports = Lists.newArrayList();
+		for(IEObjectDescription desc : snapshot.getExportedObjects())
+			exports.add(new CachedExport((EObjectDescriptionSnapshot) desc));
+		entries.put(contentDigest, exports);
+		dirty = true;
+	}
+
+	private void read() {
+		if(!cacheFile.isFile())
+			return;
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)));
+			if(in.readInt() != FORMAT_VERSION || !getRuntimeSignature().equals(CacheFormat.readString(in))) {
+				// written by another version, replace on save
+				dirty = true;
+				return;
+			}
+			for(int count = CacheFormat.readCount(in); count > 0; --count) {
+				String contentDigest = CacheFormat.readString(in);
+				if(contentDigest == null)
+					throw new IOException("Content digest is missing");
+				int exportCount = CacheFormat.readCount(in);
+				List<CachedExport> exports = Lists.newArrayListWithCapacity(exportCount);
+				for(; exportCount > 0; --exportCount)
+					exports.add(CachedExport.read(in));
+				entries.put(contentDigest, exports);
+			}
+			if(in.read() != -1)
+				throw new IOException("Trailing garbage");
+		}
+		catch(Exception e) {
+			// corrupt or incompatible, start over
+			entries.clear();
+			dirty = true;
+		}
+		finally {
+			StreamUtil.close(in);
+		}
+	}
+
+	/**
+	 * Adds a resource with the given URI to the resource set of the given runner without parsing it, if the cache has
+	 * an entry for the given digest of its content.
+	 * 
+	 * @param runner
+	 *            - the runner to add the resource to
+	 * @param uri
+	 *            - the URI of the resource
+	 * @param contentDigest
+	 *            - a digest of the content of the resource computed with {@link ValidationCache#digest(String...)}
+	 * @return the added (not loaded) resource, or null if the resource must be loaded
+	 */
+	public Resource restore(PPDiagnosticsRunner runner, URI uri, String contentDigest) {
+		List<CachedExport> exports = entries.get(contentDigest);
+		if(exports == null)
+			return null;
+		List<IEObjectDescription> descriptions = Lists.newArrayListWithCapacity(exports.size());
+		for(CachedExport export : exports) {
+			IEObjectDescription desc = export.toDescription(uri);
+			if(desc == null)
+				return null;
+			descriptions.add(desc);
+		}
+		Resource resource = runner.addUnloadedResource(uri, new ResourceDescriptionSnapshot(uri, descriptions));
+		if(resource != null)
+			ResourcePropertiesAdapterFactory.eINSTANCE.adapt(resource).put(
+				RESOURCE_PROPERTY__CONTENT_DIGEST, contentDigest);
+		return resource;
+	}
+
+	/**
+	 * Writes the cache to disk if it has changed.
+	 * 
+	 * @throws IOException
+	 */
+	public void save() throws IOException {
+		if(!dirty)
+			return;
+		File dir = cacheFile.getParentFile();
+		if(dir != null && !dir.isDirectory() && !dir.mkdirs())
+			throw new IOException("Unable to create directory " + dir);
+
+		// Write to a temporary file first so that a failed write never leaves a truncated cache
+		File tmp = new File(cacheFile.getPath() + ".tmp");
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+		try {
+			out.writeInt(FORMAT_VERSION);
+			CacheFormat.writeString(out, getRuntimeSignature());
+			// Iterating over the entries of an access ordered map does not change their order
+			out.writeInt(entries.size());
+			for(Map.Entry<String, List<CachedExport>> entry : entries.entrySet()) {
+				CacheFormat.writeString(out, entry.getKey());
+				out.writeInt(entry.getValue().size());
+				for(CachedExport export : entry.getValue())
+					export.write(out);
+			}
+		}
+		finally {
+			StreamUtil.close(out);
+		}
+		if(!(tmp.renameTo(cacheFile) || cacheFile.delete() && tmp.renameTo(cacheFile)))
+			throw new IOException("Unable to replace " + cacheFile);
+		dirty = false;
+	}
+}
@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.validation.runner;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.nodemodel.ICompositeNode;
+import org.eclipse.xtext.nodemodel.util.NodeModelUtils;
+import org.eclipse.xtext.resource.AbstractEObjectDescription;
+import org.eclipse.xtext.resource.IEObjectDescription;
+import org.eclipse.xtext.resource.IReferenceDescription;
+import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.resource.impl.AbstractResourceDescription;
+
+import com.google.common.collect.Lists;
+
+/**
+ * A copy of the exports of a resource description that does not refer to the content of the resource, which means
+ * that the resource can be unloaded while the copy is used in its place. The exported objects are represented by
+ * proxies that are resolved (and the resource loaded again) on demand.
+ */
+public class ResourceDescriptionSnapshot extends AbstractResourceDescription {
+	/**
+	 * A copy of an exported object description. The position of the exported object in the source is kept since the
+	 * node model is not available once the resource has been unloaded.
+	 */
+	public static class EObjectDescriptionSnapshot extends AbstractEObjectDescription {
+		private static final String[] NO_KEYS = new String[0];
+
+		private final QualifiedName name;
+
+		private final EClass eClass;
+
+		private final URI eObjectURI;
+
+		private final String[] userDataKeys;
+
+		private final String[] userDataValues;
+
+		private final int line;
+
+		private final int offset;
+
+		private final int length;
+
+		EObjectDescriptionSnapshot(QualifiedName name, EClass eClass, URI eObjectURI, String[] userDataKeys,
+				String[] userDataValues, int line, int offset, int length) {
+			this.name = name;
+			this.eClass = eClass;
+			this.eObjectURI = eObjectURI;
+			this.userDataKeys = userDataKeys;
+			this.userDataValues = userDataValues;
+			this.line = line;
+			this.offset = offset;
+			this.length = length;
+		}
+
+		EObjectDescriptionSnapshot(IEObjectDescription desc) {
+			name = desc.getName();
+			eClass = desc.getEClass();
+			eObjectURI = desc.getEObjectURI();
+			String[] keys = desc.getUserDataKeys();
+			if(keys == null || keys.length == 0) {
+				userDataKeys = NO_KEYS;
+				userDataValues = NO_KEYS;
+			}
+			else {
+				userDataKeys = keys.clone();
+				userDataValues = new String[keys.length];
+				for(int idx = 0; idx < keys.length; ++idx)
+					userDataValues[idx] = desc.getUserData(keys[idx]);
+			}
+			ICompositeNode node = NodeModelUtils.getNode(desc.getEObjectOrProxy());
+			if(node == null) {
+				line = -1;
+				offset = -1;
+				length = 0;
+			}
+			else {
+				line = node.getStartLine();
+				offset = node.getOffset();
+				length = node.getLength();
+			}
+		}
+
+		@Override
+		public EClass getEClass() {
+			return eClass;
+		}
+
+		/**
+		 * @return a new proxy for the described object
+		 */
+		@Override
+		public EObject getEObjectOrProxy() {
+			InternalEObject proxy = (InternalEObject) EcoreUtil.create(eClass);
+			proxy.eSetProxyURI(eObjectURI);
+			return proxy;
+		}
+
+		@Override
+		public URI getEObjectURI() {
+			return eObjectURI;
+		}
+
+		/**
+		 * @return the length of the text of the described object, 0 if not known
+		 */
+		public int getLength() {
+			return length;
+		}
+
+		/**
+		 * @return the line where the described object starts, -1 if not known
+		 */
+		public int getLine() {
+			return line;
+		}
+
+		@Override
+		public QualifiedName getName() {
+			return name;
+		}
+
+		/**
+		 * @return the offset where the described object starts, -1 if not known
+		 */
+		public int getOffset() {
+			return offset;
+		}
+
+		@Override
+		public QualifiedName getQualifiedName() {
+			return name;
+		}
+
+		@Override
+		public String getUserData(String key) {
+			for(int idx = 0; idx < userDataKeys.length; ++idx)
+				if(userDataKeys[idx].equals(key))
+					return userDataValues[idx];
+			return null;
+		}
+
+		@Override
+		public String[] getUserDataKeys() {
+			return userDataKeys.clone();
+		}
+	}
+
+	private final URI uri;
+
+	private final List<IEObjectDescription> exportedObjects;
+
+	ResourceDescriptionSnapshot(URI uri, List<IEObjectDescription> exportedObjects) {
+		this.uri = uri;
+		this.exportedObjects = Collections.unmodifiableList(exportedObjects);
+	}
+
+	/**
+	 * Copies the exports of the given description. The resource of the description must be loaded.
+	 * 
+	 * @param desc
+	 */
+	public ResourceDescriptionSnapshot(IResourceDescription desc) {
+		uri = desc.getURI();
+		List<IEObjectDescription> exports = Lists.newArrayList();
+		for(IEObjectDescription export : desc.getExportedObjects())
+			exports.add(new EObjectDescriptionSnapshot(export));
+		exportedObjects = Collections.unmodifiableList(exports);
+	}
+
+	@Override
+	protected List<IEObjectDescription> computeExportedObjects() {
+		return exportedObjects;
+	}
+
+	/**
+	 * Imported names are only used by incremental builds, they are not kept.
+	 */
+	@Override
+	public Iterable<QualifiedName> getImportedNames() {
+		return Collections.emptyList();
+	}
+
+	/**
+	 * References are only used by incremental builds, they are not kept.
+	 */
+	@Override
+	public Iterable<IReferenceDescription> getReferenceDescriptions() {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public URI getURI() {
+		return uri;
+	}
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.validation.runner;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.xtext.EcoreUtil2;
+import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.resource.impl.ResourceSetBasedResourceDescriptions;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Maps;
+
+/**
+ * An index of the resources in a resource set that prefers the descriptions in a snapshot attached to the resource set
+ * over descriptions computed from the resources. Resources that have a description in the snapshot can be unloaded
+ * without being removed from the index. Without a snapshot, this index is the same as the
+ * {@link ResourceSetBasedResourceDescriptions} that it extends.
+ */
+public class SnapshotResourceDescriptions extends ResourceSetBasedResourceDescriptions {
+	private static class Snapshot extends AdapterImpl {
+		final Map<URI, IResourceDescription> descriptions = Maps.newHashMap();
+
+		@Override
+		public boolean isAdapterForType(Object type) {
+			return type == Snapshot.class;
+		}
+	}
+
+	/**
+	 * Adds copies of the descriptions of the given resources to the snapshot of their resource set. The resources must
+	 * be loaded unless their description already is a {@link ResourceDescriptionSnapshot}, which is added as is. This
+	 * method must not be called while the index is read by other threads.
+	 * 
+	 * @param resourceSet
+	 * @param descriptions
+	 *            - the current descriptions of the resources to add to the snapshot
+	 */
+	public static void addToSnapshot(ResourceSet resourceSet, Iterable<IResourceDescription> descriptions) {
+		Snapshot snapshot = (Snapshot) EcoreUtil.getExistingAdapter(resourceSet, Snapshot.class);
+		if(snapshot == null) {
+			snapshot = new Snapshot();
+			resourceSet.eAdapters().add(snapshot);
+		}
+		for(IResourceDescription desc : descriptions)
+			snapshot.descriptions.put(desc.getURI(), desc instanceof ResourceDescriptionSnapshot
+					? desc
+					: new ResourceDescriptionSnapshot(desc));
+	}
+
+	private ResourceSet context;
+
+	@Override
+	public Iterable<IResourceDescription> getAllResourceDescriptions() {
+		if(context == null)
+			return super.getAllResourceDescriptions();
+		return new Iterable<IResourceDescription>() {
+			@Override
+			public Iterator<IResourceDescription> iterator() {
+				return new AbstractIterator<IResourceDescription>() {
+					private final List<Resource> resources = context.getResources();
+
+					private int index = 0;
+
+					@Override
+					protected IResourceDescription computeNext() {
+						while(index < resources.size()) {
+							IResourceDescription desc = getResourceDescription(resources.get(index++).getURI());
+							if(desc != null)
+								return desc;
+						}
+						return endOfData();
+					}
+				};
+			}
+		};
+	}
+
+	@Override
+	public IResourceDescription getResourceDescription(URI uri) {
+		if(context != null) {
+			Snapshot snapshot = (Snapshot) EcoreUtil.getExistingAdapter(context, Snapshot.class);
+			if(snapshot != null) {
+				IResourceDescription desc = snapshot.descriptions.get(uri);
+				if(desc != null)
+					return desc;
+			}
+		}
+		return super.getResourceDescription(uri);
+	}
+
+	@Override
+	public void setContext(Notifier ctx) {
+		super.setContext(ctx);
+		context = EcoreUtil2.getResourceSet(ctx);
+	}
+}
@@ -0,0 +1,657 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.validation.runner;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Method;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.puppetlabs.geppetto.common.os.StreamUtil;
+import com.puppetlabs.geppetto.pp.PPPackage;
+import com.puppetlabs.geppetto.pp.dsl.PPStandaloneSetup;
+import com.puppetlabs.geppetto.pp.dsl.adapters.PPImportedNamesAdapter;
+import com.puppetlabs.geppetto.pp.dsl.adapters.PPImportedNamesAdapter.Location;
+import com.puppetlabs.geppetto.pp.dsl.adapters.PPImportedNamesAdapterFactory;
+import com.puppetlabs.geppetto.pp.dsl.validation.IPotentialProblemsAdvisor;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.eclipse.xtext.diagnostics.Severity;
+import org.eclipse.xtext.naming.QualifiedName;
+import org.eclipse.xtext.resource.IEObjectDescription;
+import org.eclipse.xtext.resource.IResourceDescription;
+import org.eclipse.xtext.resource.IResourceDescriptions;
+import org.eclipse.xtext.validation.CheckType;
+import org.eclipse.xtext.validation.Issue;
+
+import com.google.common.collect.Lists;
+
+/**
+ * A persistent cache of the outcome of linking and validating a .pp resource. An entry is keyed by a digest of the
+ * content of the resource, the settings that affect validation, and everything exported from the containers visible to
+ * the resource. When the key of a resource is unchanged, the issues and the names recorded by the linker are restored
+ * from the cache instead of being recomputed.
+ * <p>
+ * The cache is stored in a single file in the cache directory. A cache file that can not be read (missing, corrupt,
+ * written by an incompatible version) results in an empty cache, and an entry that does not match the current index
+ * is ignored, which means that the resource is linked and validated as if there was no cache. The number of entries is
+ * bounded; the least recently used entries are evicted first.
+ * </p>
+ * <p>
+ * An instance is not thread safe.
+ * </p>
+ */
+public class ValidationCache {
+	private static class CachedDescription {
+		static CachedDescription read(DataInput in) throws IOException {
+			String[] name = CacheFormat.readStrings(in);
+			String eObjectURI = CacheFormat.readString(in);
+			String eClassName = CacheFormat.readString(in);
+			if(name == null || eObjectURI == null || eClassName == null)
+				throw new IOException("Incomplete description");
+			return new CachedDescription(name, eObjectURI, eClassName);
+		}
+
+		private final String[] name;
+
+		private final String eObjectURI;
+
+		private final String eClassName;
+
+		CachedDescription(IEObjectDescription desc) {
+			this(segments(desc.getName()), desc.getEObjectURI().toString(), desc.getEClass().getName());
+		}
+
+		private CachedDescription(String[] name, String eObjectURI, String eClassName) {
+			this.name = name;
+			this.eObjectURI = eObjectURI;
+			this.eClassName = eClassName;
+		}
+
+		/**
+		 * Finds the equivalent description in the given index.
+		 * 
+		 * @return the found description, or null if there is no such description
+		 */
+		IEObjectDescription find(IResourceDescriptions index) {
+			URI uri = URI.createURI(eObjectURI);
+			IResourceDescription rdesc = index.getResourceDescription(uri.trimFragment());
+			if(rdesc == null)
+				return null;
+			QualifiedName qName = QualifiedName.create(name);
+			for(IEObjectDescription d : rdesc.getExportedObjects())
+				if(uri.equals(d.getEObjectURI()) && qName.equals(d.getName()) &&
+						eClassName.equals(d.getEClass().getName()))
+					return d;
+			return null;
+		}
+
+		void write(DataOutput out) throws IOException {
+			CacheFormat.writeStrings(out, name);
+			CacheFormat.writeString(out, eObjectURI);
+			CacheFormat.writeString(out, eClassName);
+		}
+	}
+
+	private static class CachedIssue {
+		static CachedIssue read(DataInput in) throws IOException {
+			CachedIssue ci = new CachedIssue();
+			ci.severity = CacheFormat.readString(in);
+			ci.type = CacheFormat.readString(in);
+			ci.code = CacheFormat.readString(in);
+			ci.message = CacheFormat.readString(in);
+			ci.uriToProblem = CacheFormat.readString(in);
+			ci.lineNumber = CacheFormat.readInteger(in);
+			ci.offset = CacheFormat.readInteger(in);
+			ci.length = CacheFormat.readInteger(in);
+			ci.syntaxError = in.readBoolean();
+			ci.data = CacheFormat.readStrings(in);
+			try {
+				if(ci.severity != null)
+					Severity.valueOf(ci.severity);
+				if(ci.type != null)
+					CheckType.valueOf(ci.type);
+			}
+			catch(IllegalArgumentException e) {
+				throw new IOException("Bad issue " + ci.severity + ' ' + ci.type);
+			}
+			return ci;
+		}
+
+		private String severity;
+
+		private String type;
+
+		private String code;
+
+		private String message;
+
+		private String uriToProblem;
+
+		private Integer lineNumber;
+
+		private Integer offset;
+
+		private Integer length;
+
+		private boolean syntaxError;
+
+		private String[] data;
+
+		private CachedIssue() {
+		}
+
+		CachedIssue(Issue issue) {
+			severity = issue.getSeverity() == null
+					? null
+					: issue.getSeverity().name();
+			type = issue.getType() == null
+					? null
+					: issue.getType().name();
+			code = issue.getCode();
+			message = issue.getMessage();
+			uriToProblem = issue.getUriToProblem() == null
+					? null
+					: issue.getUriToProblem().toString();
+			lineNumber = issue.getLineNumber();
+			offset = issue.getOffset();
+			length = issue.getLength();
+			syntaxError = issue.isSyntaxError();
+			data = issue.getData();
+		}
+
+		Issue toIssue() {
+			Issue.IssueImpl issue = new Issue.IssueImpl();
+			if(severity != null)
+				issue.setSeverity(Severity.valueOf(severity));
+			if(type != null)
+				issue.setType(CheckType.valueOf(type));
+			issue.setCode(code);
+			issue.setMessage(message);
+			if(uriToProblem != null)
+				issue.setUriToProblem(URI.createURI(uriToProblem));
+			issue.setLineNumber(lineNumber);
+			issue.setOffset(offset);
+			issue.setLength(length);
+			issue.setSyntaxError(syntaxError);
+			issue.setData(data);
+			return issue;
+		}
+
+		void write(DataOutput out) throws IOException {
+			CacheFormat.writeString(out, severity);
+			CacheFormat.writeString(out, type);
+			CacheFormat.writeString(out, code);
+			CacheFormat.writeString(out, message);
+			CacheFormat.writeString(out, uriToProblem);
+			CacheFormat.writeInteger(out, lineNumber);
+			CacheFormat.writeInteger(out, offset);
+			CacheFormat.writeInteger(out, length);
+			out.writeBoolean(syntaxError);
+			CacheFormat.writeStrings(out, data);
+		}
+	}
+
+	private static class CachedUnresolved {
+		static CachedUnresolved read(DataInput in) throws IOException {
+			String[] name = CacheFormat.readStrings(in);
+			if(name == null)
+				throw new IOException("Unresolved name is missing");
+			return new CachedUnresolved(name, in.readInt(), in.readInt(), in.readInt());
+		}
+
+		private final String[] name;
+
+		private final int line;
+
+		private final int offset;
+
+		private final int length;
+
+		CachedUnresolved(QualifiedName name, Location location) {
+			this(segments(name), location.getLine(), location.getOffset(), location.getLength());
+		}
+
+		private CachedUnresolved(String[] name, int line, int offset, int length) {
+			this.name = name;
+			this.line = line;
+			this.offset = offset;
+			this.length = length;
+		}
+
+		void write(DataOutput out) throws IOException {
+			CacheFormat.writeStrings(out, name);
+			out.writeInt(line);
+			out.writeInt(offset);
+			out.writeInt(length);
+		}
+	}
+
+	private static class Entry {
+		static Entry read(DataInput in) throws IOException {
+			String key = CacheFormat.readString(in);
+			if(key == null)
+				throw new IOException("Entry key is missing");
+			Entry entry = new Entry(key);
+			for(int count = CacheFormat.readCount(in); count > 0; --count)
+				entry.issues.add(CachedIssue.read(in));
+			for(int count = CacheFormat.readCount(in); count > 0; --count) {
+				String[] name = CacheFormat.readStrings(in);
+				if(name == null)
+					throw new IOException("Imported name is missing");
+				entry.names.add(name);
+			}
+			for(int count = CacheFormat.readCount(in); count > 0; --count)
+				entry.resolved.add(CachedDescription.read(in));
+			for(int count = CacheFormat.readCount(in); count > 0; --count)
+				entry.ambiguous.add(CachedDescription.read(in));
+			for(int count = CacheFormat.readCount(in); count > 0; --count)
+				entry.unresolved.add(CachedUnresolved.read(in));
+			return entry;
+		}
+
+		private final String key;
+
+		private final List<CachedIssue> issues = Lists.newArrayList();
+
+		private final List<String[]> names = Lists.newArrayList();
+
+		private final List<CachedDescription> resolved = Lists.newArrayList();
+
+		private final List<CachedDescription> ambiguous = Lists.newArrayList();
+
+		private final List<CachedUnresolved> unresolved = Lists.newArrayList();
+
+		Entry(String key) {
+			this.key = key;
+		}
+
+		void write(DataOutput out) throws IOException {
+			CacheFormat.writeString(out, key);
+			out.writeInt(issues.size());
+			for(CachedIssue issue : issues)
+				issue.write(out);
+			out.writeInt(names.size());
+			for(String[] name : names)
+				CacheFormat.writeStrings(out, name);
+			out.writeInt(resolved.size());
+			for(CachedDescription desc : resolved)
+				desc.write(out);
+			out.writeInt(ambiguous.size());
+			for(CachedDescription desc : ambiguous)
+				desc.write(out);
+			out.writeInt(unresolved.size());
+			for(CachedUnresolved cu : unresolved)
+				cu.write(out);
+		}
+	}
+
+	/**
+	 * Name of the file (in the cache directory) where the cache is stored
+	 */
+	public static final String CACHE_FILE_NAME = "pp-validation.cache";
+
+	/**
+	 * Default maximum number of cached resources
+	 */
+	public static final int DEFAULT_MAX_ENTRIES = 20000;
+
+	/**
+	 * Must be bumped whenever the stored format changes. A change of what is stored is detected by the runtime
+	 * signature (see {@link #getRuntimeSignature()}).
+	 */
+	private static final int FORMAT_VERSION = 3;
+
+	private static String runtimeSignature;
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	/**
+	 * Computes a digest of the given strings.
+	 * 
+	 * @param parts
+	 * @return a hexadecimal string
+	 */
+	public static String digest(String... parts) {
+		MessageDigest md = newDigest();
+		for(String part : parts)
+			update(md, part);
+		return toHex(md.digest());
+	}
+
+	/**
+	 * Computes a digest of the content of the given target platform. Included in the settings of a validation, it
+	 * makes sure that cached issues are not used after the platform has changed, even if its URI is the same.
+	 * 
+	 * @param platformURI
+	 * @return a hexadecimal string, or the URI itself if the platform can not be read
+	 */
+	public static String getPlatformSignature(URI platformURI) {
+		InputStream in = null;
+		try {
+			in = URIConverter.INSTANCE.createInputStream(platformURI);
+			MessageDigest md = newDigest();
+			CacheFormat.digestStream(md, in);
+			return toHex(md.digest());
+		}
+		catch(IOException e) {
+			// The platform can not be loaded either, and that is reported by the validation
+			return String.valueOf(platformURI);
+		}
+		finally {
+			StreamUtil.close(in);
+		}
+	}
+
+	/**
+	 * Returns the signature of the grammar and of the bundles that link and validate, written first in the cache file.
+	 * A cache written with a different signature is not used.
+	 * 
+	 * @return the signature
+	 */
+	static synchronized String getRuntimeSignature() {
+		if(runtimeSignature == null)
+			runtimeSignature = CacheFormat.getRuntimeSignature(
+				FORMAT_VERSION, ValidationCache.class, PPStandaloneSetup.class, PPPackage.class);
+		return runtimeSignature;
+	}
+
+	/**
+	 * Returns a string describing all preferences of the given advisor.
+	 * 
+	 * @param advisor
+	 * @return
+	 */
+	public static String getPreferencesSignature(IPotentialProblemsAdvisor advisor) {
+		if(advisor == null)
+			return "";
+		Method[] methods = IPotentialProblemsAdvisor.class.getMethods();
+		Arrays.sort(methods, new Comparator<Method>() {
+			@Override
+			public int compare(Method a, Method b) {
+				return a.getName().compareTo(b.getName());
+			}
+		});
+		StringBuilder builder = new StringBuilder();
+		for(Method m : methods) {
+			if(m.getParameterTypes().length != 0)
+				continue;
+			try {
+				builder.append(m.getName()).append('=').append(m.invoke(advisor)).append(';');
+			}
+			catch(Exception e) {
+				// an advisor that can not answer is never equal to anything
+				builder.append(m.getName()).append("=?").append(System.identityHashCode(advisor)).append(';');
+			}
+		}
+		return builder.toString();
+	}
+
+	static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA1");
+		}
+		catch(NoSuchAlgorithmException e) {
+			throw new RuntimeException("SHA1 algorithm is not available", e);
+		}
+	}
+
+	/**
+	 * Opens the cache stored in the given directory. A missing or unreadable cache results in an empty cache.
+	 * 
+	 * @param directory
+	 *            - the directory where the cache is stored (created on save if missing)
+	 * @param maxEntries
+	 *            - the maximum number of cached resources, a value less than 1 means {@link #DEFAULT_MAX_ENTRIES}
+	 * @return the opened cache
+	 */
+	public static ValidationCache open(File directory, int maxEntries) {
+		ValidationCache cache = new ValidationCache(new File(directory, CACHE_FILE_NAME), maxEntries < 1
+				? DEFAULT_MAX_ENTRIES
+				: maxEntries);
+		cache.read();
+		return cache;
+	}
+
+	private static String[] segments(QualifiedName name) {
+		return name.getSegments().toArray(new String[name.getSegmentCount()]);
+	}
+
+	static String toHex(byte[] bytes) {
+		char[] chars = new char[bytes.length * 2];
+		for(int i = 0; i < bytes.length; ++i) {
+			chars[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+			chars[i * 2 + 1] = HEX[bytes[i] & 0xf];
+		}
+		return new String(chars);
+	}
+
+	static void update(MessageDigest md, String value) {
+		try {
+			if(value != null)
+				md.update(value.getBytes("UTF-8"));
+			// separator that can not occur in UTF-8
+			md.update((byte) 0xff);
+		}
+		catch(UnsupportedEncodingException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private final File cacheFile;
+
+	private final int maxEntries;
+
+	private final LinkedHashMap<String, Entry> entries;
+
+	private boolean dirty;
+
+	private ValidationCache(File cacheFile, final int maxEntries) {
+		this.cacheFile = cacheFile;
+		this.maxEntries = maxEntries;
+		this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Returns the key of the given resource, or null if the resource can not be cached.
+	 * 
+	 * @param runner
+	 *            - the runner where the resource is loaded
+	 * @param resource
+	 *            - the resource
+	 * @param settings
+	 *            - a signature of all settings that affect linking and validation
+	 * @return the key, or null
+	 */
+	public String getKey(PPDiagnosticsRunner runner, Resource resource, String settings) {
+		// A resource restored by the ResourceDescriptionCache has a known content digest but no content
+		String content = ResourceDescriptionCache.getContentDigest(resource);
+		if(content == null)
+			return null;
+		return digest(settings, content, runner.getVisibleExportsSignature(resource));
+	}
+
+	/**
+	 * @return the number of cached resources
+	 */
+	public int getSize() {
+		return entries.size();
+	}
+
+	/**
+	 * Stores the given issues and the names recorded by the linker in the given resource.
+	 * 
+	 * @param resource
+	 * @param key
+	 *            - the key obtained from {@link #getKey(PPDiagnosticsRunner, Resource, String)}
+	 * @param issues
+	 *            - the issues of the resource
+	 */
+	public void put(Resource resource, String key, Collection<Issue> issues) {
+		Entry entry = new Entry(key);
+		for(Issue issue : issues)
+			entry.issues.add(new CachedIssue(issue));
+
+		PPImportedNamesAdapter importedNames = PPImportedNamesAdapterFactory.eINSTANCE.adapt(resource);
+		for(QualifiedName name : importedNames.getNames())
+			entry.names.add(segments(name));
+		for(IEObjectDescription desc : importedNames.getResolvedDescriptions())
+			entry.resolved.add(new CachedDescription(desc));
+		for(IEObjectDescription desc : importedNames.getAmbiguousDescriptions())
+			entry.ambiguous.add(new CachedDescription(desc));
+		for(Map.Entry<QualifiedName, List<Location>> unresolved : importedNames.getUnresolved().entrySet())
+			for(Location location : unresolved.getValue())
+				entry.unresolved.add(new CachedUnresolved(unresolved.getKey(), location));
+
+		entries.put(resource.getURI().toString(), entry);
+		dirty = true;
+	}
+
+	private void read() {
+		if(!cacheFile.isFile())
+			return;
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)));
+			if(in.readInt() != FORMAT_VERSION || !getRuntimeSignature().equals(CacheFormat.readString(in))) {
+				// written by another version, replace on save
+				dirty = true;
+				return;
+			}
+			for(int count = CacheFormat.readCount(in); count > 0; --count) {
+				String uri = CacheFormat.readString(in);
+				if(uri == null)
+					throw new IOException("Entry URI is missing");
+				entries.put(uri, Entry.read(in));
+			}
+			if(in.read() != -1)
+				throw new IOException("Trailing garbage");
+		}
+		catch(Exception e) {
+			// corrupt or incompatible, start over
+			entries.clear();
+			dirty = true;
+		}
+		finally {
+			StreamUtil.close(in);
+		}
+	}
+
+	/**
+	 * Restores the outcome of linking and validating the given resource if the cache has an entry with the given key.
+	 * The names recorded by the linker are restored in the resource.
+	 * 
+	 * @param runner
+	 *            - the runner where the resource is loaded
+	 * @param resource
+	 * @param key
+	 *            - the key obtained from {@link #getKey(PPDiagnosticsRunner, Resource, String)}
+	 * @return the issues of the resource, or null if the resource must be linked and validated
+	 */
+	public List<Issue> restore(PPDiagnosticsRunner runner, Resource resource, String key) {
+		if(key == null)
+			return null;
+		Entry entry = entries.get(resource.getURI().toString());
+		if(entry == null || !key.equals(entry.key))
+			return null;
+
+		// Find the current descriptions of everything that was referenced, give up if anything is missing
+		IResourceDescriptions index = runner.getResourceDescriptions();
+		List<IEObjectDescription> resolved = Lists.newArrayListWithCapacity(entry.resolved.size());
+		for(CachedDescription cd : entry.resolved) {
+			IEObjectDescription desc = cd.find(index);
+			if(desc == null)
+				return null;
+			resolved.add(desc);
+		}
+		List<IEObjectDescription> ambiguous = Lists.newArrayListWithCapacity(entry.ambiguous.size());
+		for(CachedDescription cd : entry.ambiguous) {
+			IEObjectDescription desc = cd.find(index);
+			if(desc == null)
+				return null;
+			ambiguous.add(desc);
+		}
+
+		PPImportedNamesAdapter importedNames = PPImportedNamesAdapterFactory.eINSTANCE.adapt(resource);
+		importedNames.clear();
+		for(String[] name : entry.names)
+			importedNames.add(QualifiedName.create(name));
+		if(!resolved.isEmpty())
+			importedNames.addResolved(resolved);
+		if(!ambiguous.isEmpty())
+			importedNames.addAmbiguous(ambiguous);
+		for(CachedUnresolved cu : entry.unresolved)
+			importedNames.addUnresolved(QualifiedName.create(cu.name), cu.line, cu.offset, cu.length);
+
+		List<Issue> issues = Lists.newArrayListWithCapacity(entry.issues.size());
+		for(CachedIssue ci : entry.issues)
+			issues.add(ci.toIssue());
+		return issues;
+	}
+
+	/**
+	 * Writes the cache to disk if it has changed.
+	 * 
+	 * @throws IOException
+	 */
+	public void save() throws IOException {
+		if(!dirty)
+			return;
+		File dir = cacheFile.getParentFile();
+		if(dir != null && !dir.isDirectory() && !dir.mkdirs())
+			throw new IOException("Unable to create directory " + dir);
+
+		// Write to a temporary file first so that a failed write never leaves a truncated cache
+		File tmp = new File(cacheFile.getPath() + ".tmp");
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+		try {
+			out.writeInt(FORMAT_VERSION);
+			CacheFormat.writeString(out, getRuntimeSignature());
+			// Iterating over the entries of an access ordered map does not change their order
+			out.writeInt(entries.size());
+			for(Map.Entry<String, Entry> entry : entries.entrySet()) {
+				CacheFormat.writeString(out, entry.getKey());
+				entry.getValue().write(out);
+			}
+		}
+		finally {
+			StreamUtil.close(out);
+		}
+		if(!(tmp.renameTo(cacheFile) || cacheFile.delete() && tmp.renameTo(cacheFile)))
+			throw new IOException("Unable to replace " + cacheFile);
+		dirty = false;
+	}
+}
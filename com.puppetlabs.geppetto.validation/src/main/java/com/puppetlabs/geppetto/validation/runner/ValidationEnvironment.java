@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.validation.runner;
+
+import java.io.IOException;
+
+import com.puppetlabs.geppetto.pp.dsl.validation.IPotentialProblemsAdvisor;
+import com.puppetlabs.geppetto.pp.dsl.validation.IValidationAdvisor;
+import com.puppetlabs.geppetto.ruby.RubyHelper;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+
+/**
+ * Sets up and tears down the runners used when validating a directory. This implementation does everything from
+ * scratch for each validation. It can be replaced with an implementation that keeps expensive state (such as the
+ * injector and the target platform) between validations.
+ */
+public class ValidationEnvironment {
+	/**
+	 * Creates the helper that is used for ruby files. The returned helper is set up in
+	 * {@link #setUp(PPDiagnosticsRunner, RubyHelper, IValidationAdvisor.ComplianceLevel, IPotentialProblemsAdvisor)}.
+	 * 
+	 * @return the ruby helper
+	 */
+	public RubyHelper createRubyHelper() {
+		return new RubyHelper();
+	}
+
+	/**
+	 * Loads the target platform (typically a .pptp resource) into the resource set of the given runner.
+	 * 
+	 * @param ppRunner
+	 *            - a runner that has been set up
+	 * @param platformURI
+	 *            - the URI of the target platform
+	 * @return the loaded resource
+	 * @throws IOException
+	 */
+	public Resource loadTarget(PPDiagnosticsRunner ppRunner, URI platformURI) throws IOException {
+		return ppRunner.loadResource(platformURI);
+	}
+
+	/**
+	 * Sets up the runners.
+	 * 
+	 * @param ppRunner
+	 *            - the runner to set up
+	 * @param rubyHelper
+	 *            - a helper obtained from {@link #createRubyHelper()}
+	 * @param complianceLevel
+	 *            - the compliance level to validate with
+	 * @param problemsAdvisor
+	 *            - the advisor for potential problems
+	 * @throws Exception
+	 */
+	public void setUp(PPDiagnosticsRunner ppRunner, RubyHelper rubyHelper,
+			IValidationAdvisor.ComplianceLevel complianceLevel, IPotentialProblemsAdvisor problemsAdvisor)
+			throws Exception {
+		ppRunner.setUp(complianceLevel, problemsAdvisor);
+		rubyHelper.setUp();
+	}
+
+	/**
+	 * Tears down the runners after a validation.
+	 * 
+	 * @param ppRunner
+	 * @param rubyHelper
+	 */
+	public void tearDown(PPDiagnosticsRunner ppRunner, RubyHelper rubyHelper) {
+		ppRunner.tearDown();
+		rubyHelper.tearDown();
+	}
+}
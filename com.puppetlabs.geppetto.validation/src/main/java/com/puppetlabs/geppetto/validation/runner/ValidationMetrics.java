@@ -0,0 +1,296 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.validation.runner;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import com.puppetlabs.geppetto.pp.dsl.linking.PPLinkerProfiler;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Timing and size metrics collected while validating a directory. All times are in nanoseconds. The phases that are
+ * performed by the calling thread are measured as wall time. The {@link Phase#LINK link} and {@link Phase#VALIDATE
+ * validate} phases are the sum of the per file times, which means that they may exceed the wall time when several
+ * threads are used.
+ * <p>
+ * Instances are safe to update from several threads.
+ * </p>
+ */
+public class ValidationMetrics {
+	/**
+	 * Times for one file.
+	 */
+	public static class FileTimes {
+		private final File file;
+
+		private long parseTime;
+
+		private long linkTime;
+
+		private long validateTime;
+
+		FileTimes(File file) {
+			this.file = file;
+		}
+
+		public File getFile() {
+			return file;
+		}
+
+		public synchronized long getLinkTime() {
+			return linkTime;
+		}
+
+		public synchronized long getParseTime() {
+			return parseTime;
+		}
+
+		/**
+		 * @return the sum of the parse, link and validate times
+		 */
+		public synchronized long getTotalTime() {
+			return parseTime + linkTime + validateTime;
+		}
+
+		public synchronized long getValidateTime() {
+			return validateTime;
+		}
+	}
+
+	public enum Phase {
+		/**
+		 * Creation of the injector and other set up
+		 */
+		SETUP,
+
+		/**
+		 * Scanning the directory for files
+		 */
+		FILE_DISCOVERY,
+
+		/**
+		 * Loading module metadata and resolving module dependencies
+		 */
+		METADATA,
+
+		/**
+		 * Loading the target platform
+		 */
+		PPTP_LOAD,
+
+		/**
+		 * Validating and loading .rb files and Rakefiles
+		 */
+		RUBY_LOAD,
+
+		/**
+		 * Parsing .pp files
+		 */
+		PP_PARSE,
+
+		/**
+		 * Linking .pp files (sum of per file times)
+		 */
+		LINK,
+
+		/**
+		 * Validating .pp files (sum of per file times)
+		 */
+		VALIDATE
+	}
+
+	private static final Comparator<FileTimes> slowestFirst = new Comparator<FileTimes>() {
+		@Override
+		public int compare(FileTimes a, FileTimes b) {
+			long ta = a.getTotalTime();
+			long tb = b.getTotalTime();
+			return ta > tb
+					? -1
+					: ta < tb
+							? 1
+							: a.getFile().compareTo(b.getFile());
+		}
+	};
+
+	private static String millis(long nanos) {
+		return String.format("%.1f ms", Double.valueOf(nanos / 1000000.0));
+	}
+
+	private final Map<Phase, Long> phaseTimes = new EnumMap<Phase, Long>(Phase.class);
+
+	private final Map<File, FileTimes> fileTimes = Maps.newHashMap();
+
+	private int resourceCount;
+
+	private int exportedObjectCount;
+
+	private long totalTime;
+
+	private PPLinkerProfiler linkerProfiler;
+
+	/**
+	 * Adds time to a file and to the phase that the time belongs to. Only the {@link Phase#PP_PARSE},
+	 * {@link Phase#LINK} and {@link Phase#VALIDATE} phases are recorded per file.
+	 * 
+	 * @param file
+	 * @param phase
+	 * @param nanos
+	 */
+	public void addFileTime(File file, Phase phase, long nanos) {
+		FileTimes times;
+		synchronized(this) {
+			times = fileTimes.get(file);
+			if(times == null) {
+				times = new FileTimes(file);
+				fileTimes.put(file, times);
+			}
+		}
+		synchronized(times) {
+			switch(phase) {
+				case PP_PARSE:
+					times.parseTime += nanos;
+					break;
+				case LINK:
+					times.linkTime += nanos;
+					break;
+				case VALIDATE:
+					times.validateTime += nanos;
+					break;
+				default:
+					throw new IllegalArgumentException("Phase is not recorded per file: " + phase);
+			}
+		}
+		if(phase != Phase.PP_PARSE)
+			addPhaseTime(phase, nanos);
+	}
+
+	/**
+	 * Adds time to a phase.
+	 * 
+	 * @param phase
+	 * @param nanos
+	 */
+	public synchronized void addPhaseTime(Phase phase, long nanos) {
+		Long current = phaseTimes.get(phase);
+		phaseTimes.put(phase, Long.valueOf(current == null
+				? nanos
+				: current.longValue() + nanos));
+	}
+
+	public synchronized int getExportedObjectCount() {
+		return exportedObjectCount;
+	}
+
+	/**
+	 * @return the times of all files with recorded times
+	 */
+	public synchronized List<FileTimes> getFileTimes() {
+		return Lists.newArrayList(fileTimes.values());
+	}
+
+	/**
+	 * @param phase
+	 * @return the time of the given phase, 0 if nothing was recorded
+	 */
+	public synchronized long getPhaseTime(Phase phase) {
+		Long time = phaseTimes.get(phase);
+		return time == null
+				? 0
+				: time.longValue();
+	}
+
+	/**
+	 * @return the statistics of the linker, or null if linking was not profiled
+	 */
+	public synchronized PPLinkerProfiler getLinkerProfiler() {
+		return linkerProfiler;
+	}
+
+	/**
+	 * Returns a human readable, multi line, report of the metrics. The aggregated linker statistics are included
+	 * when linking was profiled.
+	 * 
+	 * @param slowestCount
+	 *            - the number of slowest files to include
+	 * @return the report
+	 */
+	public String getReport(int slowestCount) {
+		StringBuilder bld = new StringBuilder();
+		bld.append("Total: ").append(millis(getTotalTime()));
+		bld.append(", resources: ").append(getResourceCount());
+		bld.append(", exported objects: ").append(getExportedObjectCount());
+		bld.append('\n');
+		for(Phase phase : Phase.values()) {
+			bld.append("  ").append(phase).append(": ").append(millis(getPhaseTime(phase))).append('\n');
+		}
+		List<FileTimes> slowest = getSlowestFiles(slowestCount);
+		if(!slowest.isEmpty()) {
+			bld.append("Slowest files:\n");
+			for(FileTimes times : slowest) {
+				bld.append("  ").append(times.getFile().getPath()).append(": ").append(millis(times.getTotalTime()));
+				bld.append(" (parse ").append(millis(times.getParseTime()));
+				bld.append(", link ").append(millis(times.getLinkTime()));
+				bld.append(", validate ").append(millis(times.getValidateTime())).append(")\n");
+			}
+		}
+		PPLinkerProfiler profiler = getLinkerProfiler();
+		if(profiler != null)
+			bld.append("Linker profile:\n").append(profiler.getReport(false));
+		return bld.toString();
+	}
+
+	public synchronized int getResourceCount() {
+		return resourceCount;
+	}
+
+	/**
+	 * @param count
+	 *            - the max number of files to return
+	 * @return the files with the highest total time, slowest first
+	 */
+	public List<FileTimes> getSlowestFiles(int count) {
+		List<FileTimes> all = getFileTimes();
+		Collections.sort(all, slowestFirst);
+		return count < all.size()
+				? all.subList(0, count)
+				: all;
+	}
+
+	/**
+	 * @return the wall time of the whole validation
+	 */
+	public synchronized long getTotalTime() {
+		return totalTime;
+	}
+
+	public synchronized void setExportedObjectCount(int exportedObjectCount) {
+		this.exportedObjectCount = exportedObjectCount;
+	}
+
+	public synchronized void setLinkerProfiler(PPLinkerProfiler linkerProfiler) {
+		this.linkerProfiler = linkerProfiler;
+	}
+
+	public synchronized void setResourceCount(int resourceCount) {
+		this.resourceCount = resourceCount;
+	}
+
+	public synchronized void setTotalTime(long totalTime) {
+		this.totalTime = totalTime;
+	}
+}
@@ -10,8 +10,10 @@
  */
 package com.puppetlabs.geppetto.validation.runner;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.eclipse.emf.common.util.URI;
 import org.eclipse.xtext.resource.IContainer;
 import org.eclipse.xtext.resource.IResourceDescription;
 import org.eclipse.xtext.resource.IResourceDescriptions;
@@ -55,6 +57,28 @@ public class ValidationStateBasedContainerManager extends StateBasedContainerMan
 		return stateProvider.get(resourceDescriptions);
 	}
 
+	/**
+	 * Returns the URIs of the resources contained in the container with the given handle.
+	 * 
+	 * @param containerHandle
+	 * @param resourceDescriptions
+	 * @return
+	 */
+	public Collection<URI> getContainedURIs(String containerHandle, IResourceDescriptions resourceDescriptions) {
+		return getPrivateState(resourceDescriptions).getContainedURIs(containerHandle);
+	}
+
+	/**
+	 * Returns the handles of the containers visible from the given containerHandle.
+	 * 
+	 * @param containerHandle
+	 * @param resourceDescriptions
+	 * @return
+	 */
+	public List<String> getVisibleContainerHandles(String containerHandle, IResourceDescriptions resourceDescriptions) {
+		return getPrivateState(resourceDescriptions).getVisibleContainerHandles(containerHandle);
+	}
+
 	/* Returns a list of IContainer visible from the given containerHandle. */
 	public List<IContainer> getVisibleContainers(String containerHandle, IResourceDescriptions resourceDescriptions) {
 		List<String> handles = getPrivateState(resourceDescriptions).getVisibleContainerHandles(containerHandle);
@@ -0,0 +1,207 @@
+/**
+ * Copyright (c) 2013 Puppet Labs, Inc. and other contributors, as listed below.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *   Puppet Labs
+ */
+package com.puppetlabs.geppetto.validation.runner;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.puppetlabs.geppetto.common.os.StreamUtil;
+import com.puppetlabs.geppetto.forge.model.ModuleName;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+
+/**
+ * Selects the files that the linking of a set of examined files may depend on, so that a validation of a few files
+ * does not have to load everything in the repository.
+ * <p>
+ * Files are grouped into modules. A module is the closest directory with module metadata, or else the directory that
+ * contains a <code>manifests</code> or <code>lib</code> directory. Files that are not in a module (such as
+ * <code>manifests/site.pp</code> directly below the root) are always selected since they may define anything, and so
+ * are all .rb files since the functions and types that they define are visible everywhere. The selection starts with
+ * the examined files and is then extended until nothing more is added:
+ * <ul>
+ * <li>The module of a selected file is selected with all its files.</li>
+ * <li>The modules that a selected module depends on according to its metadata are selected.</li>
+ * <li>A module is selected when its name occurs as a word in a selected .pp file. This follows the Puppet autoloader
+ * convention that everything named <code>a::b</code> (or <code>a</code>) is found in module <code>a</code>.</li>
+ * </ul>
+ * The word scan is deliberately generous (words in comments and strings count) since selecting too much only costs
+ * time while selecting too little changes the outcome of linking. Definitions that do not follow the naming convention
+ * are only found if their module is selected for some other reason.
+ * </p>
+ */
+public class VisibleFileSelector {
+	private static final String LIB = "lib";
+
+	private static final String MANIFESTS = "manifests";
+
+	private static boolean isWordChar(int c) {
+		return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_';
+	}
+
+	/**
+	 * Selects the files that the given files may depend on.
+	 * 
+	 * @param layout
+	 *            - the layout of the repository
+	 * @param examined
+	 *            - the files that will be validated
+	 * @param moduleInfo
+	 *            - the module metadata with resolved dependencies, may be empty
+	 * @return the selected files, including the examined files
+	 */
+	public static Set<File> select(RepositoryLayout layout, Collection<File> examined,
+			Collection<MetadataInfo> moduleInfo) {
+		return new VisibleFileSelector(layout, moduleInfo).select(examined);
+	}
+
+	private final File root;
+
+	private final Set<File> moduleRoots;
+
+	private final List<File> rubyFiles;
+
+	private final Multimap<File, File> filesPerModule = ArrayListMultimap.create();
+
+	private final Multimap<String, File> modulesPerName = HashMultimap.create();
+
+	private final Map<File, MetadataInfo> metadataPerModule = Maps.newHashMap();
+
+	private final Map<File, File> modulePerFile = Maps.newHashMap();
+
+	private final Set<File> selectedFiles = Sets.newLinkedHashSet();
+
+	private final Set<File> selectedModules = Sets.newHashSet();
+
+	private final LinkedList<File> moduleQueue = Lists.newLinkedList();
+
+	private VisibleFileSelector(RepositoryLayout layout, Collection<MetadataInfo> moduleInfo) {
+		root = layout.getRoot();
+		moduleRoots = Sets.newHashSet(layout.getModuleRoots());
+		for(MetadataInfo mi : moduleInfo) {
+			File moduleDir = mi.getFile().getParentFile();
+			metadataPerModule.put(moduleDir, mi);
+			ModuleName name = mi.getMetadata().getName();
+			if(name != null && name.getName() != null)
+				modulesPerName.put(name.getName().toLowerCase(), moduleDir);
+		}
+		for(File f : layout.getPPFiles())
+			addFile(f);
+		rubyFiles = layout.getRubyFiles();
+		for(File f : rubyFiles)
+			addFile(f);
+	}
+
+	private void addFile(File f) {
+		File moduleDir = getModuleDir(f);
+		modulePerFile.put(f, moduleDir);
+		if(moduleDir == null || filesPerModule.containsKey(moduleDir)) {
+			filesPerModule.put(moduleDir, f);
+			return;
+		}
+		filesPerModule.put(moduleDir, f);
+		String name = moduleDir.getName().toLowerCase();
+		modulesPerName.put(name, moduleDir);
+
+		// Forge style directory names (owner-name)
+		int dash = name.lastIndexOf('-');
+		if(dash >= 0)
+			modulesPerName.put(name.substring(dash + 1), moduleDir);
+	}
+
+	private File getModuleDir(File f) {
+		for(File dir = f.getParentFile(); dir != null && !dir.equals(root); dir = dir.getParentFile()) {
+			if(moduleRoots.contains(dir))
+				return dir;
+			String name = dir.getName();
+			if(MANIFESTS.equals(name) || LIB.equals(name)) {
+				File parent = dir.getParentFile();
+				return parent == null || parent.equals(root)
+						? null
+						: parent;
+			}
+		}
+		return null;
+	}
+
+	private void scanForModuleNames(File f) {
+		if(!f.getName().endsWith(".pp"))
+			return;
+		InputStream input = null;
+		try {
+			input = new BufferedInputStream(new FileInputStream(f));
+			StringBuilder word = new StringBuilder();
+			int c;
+			do {
+				c = input.read();
+				if(isWordChar(c)) {
+					word.append((char) c);
+					continue;
+				}
+				if(word.length() > 0) {
+					for(File moduleDir : modulesPerName.get(word.toString().toLowerCase()))
+						moduleQueue.add(moduleDir);
+					word.setLength(0);
+				}
+			} while(c >= 0);
+		}
+		catch(IOException e) {
+			// The problem is reported when the file is loaded
+		}
+		finally {
+			StreamUtil.close(input);
+		}
+	}
+
+	private Set<File> select(Collection<File> examined) {
+		for(File f : examined) {
+			selectFile(f);
+			File moduleDir = modulePerFile.get(f);
+			if(moduleDir != null)
+				moduleQueue.add(moduleDir);
+		}
+		for(File f : filesPerModule.get(null))
+			selectFile(f);
+		for(File f : rubyFiles)
+			selectFile(f);
+
+		while(!moduleQueue.isEmpty()) {
+			File moduleDir = moduleQueue.removeFirst();
+			if(!selectedModules.add(moduleDir))
+				continue;
+			for(File f : filesPerModule.get(moduleDir))
+				selectFile(f);
+			MetadataInfo mi = metadataPerModule.get(moduleDir);
+			if(mi != null)
+				for(MetadataInfo.Resolution r : mi.getResolvedDependencies())
+					moduleQueue.add(r.metadata.getFile().getParentFile());
+		}
+		return selectedFiles;
+	}
+
+	private void selectFile(File f) {
+		if(selectedFiles.add(f))
+			scanForModuleNames(f);
+	}
+}